@@ -0,0 +1,15 @@
+package com.stockexchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/* 엔티티 ID 생성 설정 (application.yml 의 id.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "id")
+public class IdGeneratorProperties {
+
+    //    Snowflake ID 의 노드 구분 값 (0 ~ 1023) - 같은 DB 를 쓰는 노드마다 달라야 ID 가 겹치지 않음
+    private int workerId = 0;
+}
@@ -0,0 +1,205 @@
+package com.stockexchange.config;
+
+import com.stockexchange.domain.trading.engine.JournalConfig;
+import com.stockexchange.domain.trading.engine.OrderStore;
+import com.stockexchange.domain.trading.engine.ReplicationMode;
+import com.stockexchange.domain.trading.engine.WaitStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/* 매칭 런타임 설정 (application.yml 의 matching.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "matching")
+public class MatchingProperties {
+
+    //    이 노드의 ID - 노드 간 종목 분산/리더 선출에 사용, 노드마다 달라야 함
+    private String nodeId = "node-1";
+
+    //    샤드(매칭 스레드) 수 - 기본값은 코어 수
+    private int shards = Runtime.getRuntime().availableProcessors();
+
+    //    샤드별 링 버퍼 크기 (2의 거듭제곱)
+    private int ringBufferSize = 65536;
+
+    //    명령이 없을 때 매칭 스레드 대기 방식
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+    //    호가창 대기 주문 저장 방식 - HEAP(primitive 배열) / OFF_HEAP(direct ByteBuffer)
+    private OrderStore.Type bookStorage = OrderStore.Type.HEAP;
+
+    //    주문 명령 저널 (matching.journal.*)
+    private Journal journal = new Journal();
+
+    //    대기 노드 복제 (matching.replication.*)
+    private Replication replication = new Replication();
+
+    //    노드 간 종목 분산 (matching.routing.*)
+    private Routing routing = new Routing();
+
+    //    스케줄러 리더 선출 (matching.leader.*)
+    private Leader leader = new Leader();
+
+    //    호가창 대사 스케줄러 (matching.reconciliation.*)
+    private Reconciliation reconciliation = new Reconciliation();
+
+    //    체결 저장 (matching.execution.*)
+    private Execution execution = new Execution();
+
+    @Getter
+    @Setter
+    public static class Journal {
+
+        //        사용 여부 - 사용하면 기동 시 DB 대신 저널을 재생해 호가창 복구
+        private boolean enabled = false;
+
+        //        세그먼트 파일 디렉토리
+        private String directory = "data/journal";
+
+        //        세그먼트 파일 크기(byte)
+        private int segmentSize = 64 * 1024 * 1024;
+
+        //        N 건 기록마다 fsync
+        private int fsyncEveryRecords = 256;
+
+        //        마지막 fsync 후 T 마이크로초가 지나면 fsync
+        private long fsyncIntervalMicros = 1000;
+
+        public JournalConfig toConfig() {
+            return enabled ? new JournalConfig(Path.of(directory), segmentSize, fsyncEveryRecords, fsyncIntervalMicros) : null;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Replication {
+
+        //        NONE / PRIMARY(저널 전송) / STANDBY(주 노드 저널을 받아 적용, 장애 시 승격) - 저널 사용 필수
+        private Role role = Role.NONE;
+
+        //        ASYNC / SYNC(대기 노드 확인 응답 후 적용)
+        private ReplicationMode mode = ReplicationMode.ASYNC;
+
+        //        STANDBY 가 연결할 주 노드 주소
+        private String host = "127.0.0.1";
+
+        //        PRIMARY 가 여는 / STANDBY 가 연결할 포트
+        private int port = 9700;
+
+        //        주 노드 heartbeat 주기(ms)
+        private long heartbeatMillis = 50;
+
+        //        heartbeat 가 이 시간(ms) 동안 없으면 대기 노드 승격
+        private long failoverTimeoutMillis = 200;
+
+        //        SYNC 확인 응답 대기, 전송 대기열 자리 대기 한도(ms) - 넘으면 대기 노드 연결을 끊고 복제 없이 계속
+        private long syncTimeoutMillis = 100;
+
+        public enum Role {
+            NONE, PRIMARY, STANDBY
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Routing {
+
+        //        사용 여부 - 끄면 모든 종목을 이 노드에서 매칭
+        private boolean enabled = false;
+
+        //        종목 파티션 수 - 모든 노드가 같아야 하고 운영 중 바꾸지 않음
+        private int partitions = 1024;
+
+        //        노드당 consistent hash 링 가상 노드 수
+        private int virtualNodes = 128;
+
+        //        Redis 라우팅 테이블 확인 주기(ms)
+        private long refreshMillis = 1000;
+
+        //        heartbeat 가 이 시간(ms) 동안 없으면 노드를 링에서 제외 (남은 노드가 파티션을 이어받음)
+        private long nodeTimeoutMillis = 10000;
+
+        //        파티션 이동 API 가 새 노드의 호가창 인수 완료를 기다리는 최대 시간(ms) - 넘겨도 이동은 이어서 진행됨
+        private long moveTimeoutMillis = 30000;
+
+        //        파티션을 넘기기 전 처리 중인 명령과 체결 저장이 끝나기를 기다리는 최대 시간(ms) - 넘기면 다음 확인 때 다시 시도
+        private long drainTimeoutMillis = 10000;
+
+        //        주문 명령 Stream 에서 한 번에 읽는 최대 메시지 수
+        private int streamBatchSize = 100;
+
+        //        주문 명령 Stream 에 새 메시지가 없을 때 기다리는 시간(ms)
+        private long streamBlockMillis = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Leader {
+
+        //        사용 여부 - 끄면 이 노드가 항상 리더 (단일 노드)
+        private boolean enabled = false;
+
+        //        리더 임대(lease) 시간(ms) - 갱신하지 못하면 이 시간 뒤 다른 노드가 리더가 됨
+        private long leaseMillis = 5000;
+
+        //        임대 갱신 / 획득 시도 주기(ms) - leaseMillis 보다 충분히 짧아야 함
+        private long renewMillis = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Reconciliation {
+
+        //        사용 여부 - 장애 복구 시에만 켬
+        private boolean enabled = false;
+
+        //        대사 주기(ms)
+        private long fixedRate = 10000;
+
+        //        한 트랜잭션에서 읽는 종목별 주문 수
+        private int chunkSize = 500;
+
+        //        동시에 대사하는 종목 수 - 기본값은 코어 수
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        //        워터마크를 현재 시각보다 이 시간(ms)만큼 늦춰 둠 - 수정 시각 이후 늦게 커밋된 주문도 다음 대사에서 읽음
+        private long watermarkLagMillis = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Execution {
+
+        //        체결 대기열 크기(미리 만들어 두는 슬롯 수) - 가득 차면 매칭 스레드가 빈자리가 날 때까지 기다림 (backpressure)
+        private int queueCapacity = 65536;
+
+        //        한 트랜잭션에서 저장하는 최대 체결 수
+        private int batchSize = 500;
+
+        //        첫 체결을 꺼낸 뒤 batchSize 를 채우려고 기다리는 최대 시간(ms)
+        private long maxDelayMillis = 5;
+
+        //        묶음 저장 실패 시 같은 묶음을 다시 시도하는 횟수 (그동안 뒤 체결은 대기열에서 기다림)
+        private int retryAttempts = 5;
+
+        //        첫 재시도 전 대기(ms) - 재시도마다 두 배, maxRetryBackoffMillis 까지
+        private long retryBackoffMillis = 100;
+
+        private long maxRetryBackoffMillis = 5000;
+
+        //        재시도 끝에도 저장하지 못한 체결을 보관하는 파일
+        private String deadLetterFile = "data/execution-dead-letter.log";
+
+        //        보관한 체결을 다시 저장해 보는 주기(ms)
+        private long deadLetterRetryMillis = 10000;
+
+        //        다른 체결은 저장되는데 보관한 체결 한 건이 이 횟수만큼 다시 저장되지 않으면 격리 파일로 옮김
+        private int deadLetterMaxAttempts = 5;
+
+        //        격리한 체결 파일 - 자동으로 다시 저장하지 않음 (운영자가 원인을 고친 뒤 처리)
+        private String quarantineFile = "data/execution-quarantine.log";
+    }
+}
@@ -0,0 +1,25 @@
+package com.stockexchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/* 종료 주문 이력 이동 설정 (application.yml 의 order.archive.*)
+ * 체결 완료/취소/만료된 주문을 order_table 에서 order_history 로 옮겨 order_table 에는 살아 있는 주문만 남깁니다. */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "order.archive")
+public class OrderArchiveProperties {
+
+    //    사용 여부
+    private boolean enabled = true;
+
+    //    이동 주기(ms) - 이전 이동이 끝난 뒤부터
+    private long fixedDelay = 60_000;
+
+    //    종료(updated_at) 후 이 시간이 지난 주문만 이동 - 종료 직전에 나온 체결 저장/조회가 order_table 에서 끝나도록
+    private long retentionMillis = 600_000;
+
+    //    한 트랜잭션에서 옮기는 주문 수
+    private int chunkSize = 1_000;
+}
@@ -0,0 +1,68 @@
+package com.stockexchange.config;
+
+import com.stockexchange.domain.trading.session.MarketPhase;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/* 장 운영 시간 설정 (application.yml 의 trading.session.*)
+ * 동시호가를 끄면 접속 매매 시간(openTime ~ closingAuctionTime)에만 주문을 받습니다. */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "trading.session")
+public class TradingSessionProperties {
+    public static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    //    동시호가(장 시작/마감 단일가 매매) 사용 여부
+    private boolean callAuction = true;
+
+    //    장 시작 동시호가 시작
+    private LocalTime preOpenTime = LocalTime.of(8, 30);
+
+    //    접속 매매 시작 (장 시작 단일가 체결)
+    private LocalTime openTime = LocalTime.of(9, 0);
+
+    //    장 마감 동시호가 시작
+    private LocalTime closingAuctionTime = LocalTime.of(15, 20);
+
+    //    장 마감 (마감 단일가 체결)
+    private LocalTime closeTime = LocalTime.of(15, 30);
+
+    //    해당 날짜의 장 마감 시각
+    public ZonedDateTime closeAt(LocalDate date) {
+        return date.atTime(closeTime).atZone(ZONE);
+    }
+
+    //    dateTime 이전(같은 시각 포함)의 가장 최근 장 마감 시각
+    public ZonedDateTime lastCloseAt(ZonedDateTime dateTime) {
+        ZonedDateTime local = dateTime.withZoneSameInstant(ZONE);
+        ZonedDateTime close = closeAt(local.toLocalDate());
+        return close.isAfter(local) ? close.minusDays(1) : close;
+    }
+
+    public MarketPhase currentPhase() {
+        return phaseAt(ZonedDateTime.now(ZONE));
+    }
+
+    public MarketPhase phaseAt(ZonedDateTime dateTime) {
+        LocalTime time = dateTime.withZoneSameInstant(ZONE).toLocalTime();
+        if (!time.isBefore(openTime) && time.isBefore(closingAuctionTime)) {
+            return MarketPhase.CONTINUOUS;
+        }
+        if (!callAuction) {
+            return MarketPhase.CLOSED;
+        }
+        if (!time.isBefore(preOpenTime) && time.isBefore(openTime)) {
+            return MarketPhase.PRE_OPEN;
+        }
+        if (!time.isBefore(closingAuctionTime) && time.isBefore(closeTime)) {
+            return MarketPhase.CLOSING_AUCTION;
+        }
+        return MarketPhase.CLOSED;
+    }
+}
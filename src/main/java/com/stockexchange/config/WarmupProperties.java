@@ -0,0 +1,28 @@
+package com.stockexchange.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/* 기동 시 JIT 예열 설정 (application.yml 의 warmup.*) */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    //    사용 여부 - 사용하면 예열이 끝날 때까지 readiness 가 REFUSING_TRAFFIC
+    private boolean enabled = false;
+
+    //    한 라운드에 보내는 가상 주문 수
+    private int roundSize = 10_000;
+
+    //    JIT 컴파일 시간이 라운드당 이 값(ms) 이하로 늘어난 라운드가 stableRounds 번 이어지면 종료
+    private long stableCompileMillis = 5;
+
+    private int stableRounds = 3;
+
+    //    최대 예열 시간 - 컴파일이 안정되지 않아도 이 시간이 지나면 종료
+    private Duration maxDuration = Duration.ofSeconds(30);
+}
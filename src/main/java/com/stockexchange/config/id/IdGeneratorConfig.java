@@ -0,0 +1,22 @@
+package com.stockexchange.config.id;
+
+import com.stockexchange.config.IdGeneratorProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+
+/* 엔티티 ID 생성기 workerId 지정 - 첫 INSERT 전에 적용됨 (기동 중에는 엔티티를 저장하지 않음) */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class IdGeneratorConfig {
+
+    private final IdGeneratorProperties properties;
+
+    @PostConstruct
+    public void configure() {
+        SnowflakeIdentifierGenerator.configure(properties.getWorkerId());
+        log.info("Snowflake ID 생성기 - workerId: {}", properties.getWorkerId());
+    }
+}
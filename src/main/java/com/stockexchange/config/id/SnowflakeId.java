@@ -0,0 +1,16 @@
+package com.stockexchange.config.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* 엔티티 ID 를 Snowflake ID 로 발급 (@Id 와 함께 사용, @GeneratedValue 대신)
+ * persist 시점에 ID 가 정해지므로 IDENTITY 와 달리 INSERT 를 JDBC batch 로 묶을 수 있습니다. */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,24 @@
+package com.stockexchange.config.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/* Hibernate ID 생성기 - @SnowflakeId 필드마다 만들어지지만 발급은 노드 공용 SnowflakeIdGenerator 하나로
+ * Hibernate 가 직접 생성하므로 Spring 빈을 주입받지 못해, workerId 는 IdGeneratorConfig 가 기동 시 configure 로 지정합니다. */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+    private static volatile SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+
+    public static void configure(int workerId) {
+        generator = new SnowflakeIdGenerator(workerId);
+    }
+
+    //    엔티티를 거치지 않는 INSERT (native upsert 등)에 쓸 ID
+    public static long nextId() {
+        return generator.nextId();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId();
+    }
+}
@@ -1,6 +1,6 @@
 package com.stockexchange.domain.execution.entity;
 
-import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.config.id.SnowflakeId;
 import com.stockexchange.domain.stock.entity.StockEntity;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -14,11 +14,16 @@ import java.time.ZonedDateTime;
 @Entity
 @Getter
 @NoArgsConstructor
-@ToString(exclude = {"buyOrder", "sellOrder", "stock"})
-@Table(name = "execution")
+@ToString(exclude = "stock")
+@Table(name = "execution", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_execution_fill_position", columnNames = {"shard_id", "journal_sequence", "fill_index"})
+}, indexes = {
+        @Index(name = "idx_execution_buy_order", columnList = "execution_buy_order_id"),
+        @Index(name = "idx_execution_sell_order", columnList = "execution_sell_order_id")
+})
 public class ExecutionEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 앱에서 발급 - INSERT 를 JDBC batch 로 묶을 수 있음
     @Column(name = "execution_id")
     private Long executionId;
 
@@ -32,15 +37,48 @@ public class ExecutionEntity {
     @CreationTimestamp
     private ZonedDateTime createdAt;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "execution_buy_order_id", nullable = true)
-    private OrderEntity buyOrder;
+    /* 종료된 주문은 order_history 로 옮겨지므로 주문은 연관관계 없이 ID 만 저장
+     * (OrderEntity 로 매핑하면 이력으로 옮긴 뒤 지연 로딩에서 EntityNotFoundException)
+     * 주문은 OrderRepository, 없으면 OrderHistoryRepository 에서 같은 주문 ID 로 조회합니다. */
+    @Column(name = "execution_buy_order_id")
+    private Long buyOrderId;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "execution_sell_order_id", nullable = true)
-    private OrderEntity sellOrder;
+    @Column(name = "execution_sell_order_id")
+    private Long sellOrderId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stock_id", nullable = false)
     private StockEntity stock;
+
+    /* 체결을 낸 매칭 엔진의 저널 위치 (샤드, 명령 시퀀스, 명령 안 순번) - 저널 미사용 시 null
+     * 저널 재생으로 같은 체결이 다시 와도 이 위치로 이미 저장된 체결을 건너뜁니다. */
+    @Column(name = "shard_id")
+    private Integer shardId;
+
+    @Column(name = "journal_sequence")
+    private Long journalSequence;
+
+    @Column(name = "fill_index")
+    private Integer fillIndex;
+
+    //    Rich Entity : 체결 내역 생성
+    public static ExecutionEntity createExecution(int executionCount, BigDecimal executionPrice, Long buyOrderId, Long sellOrderId, StockEntity stock) {
+        ExecutionEntity execution = new ExecutionEntity();
+        execution.executionCount = executionCount;
+        execution.executionPrice = executionPrice;
+        execution.buyOrderId = buyOrderId;
+        execution.sellOrderId = sellOrderId;
+        execution.stock = stock;
+        return execution;
+    }
+
+    //    저널 위치 기록 - 저널 미사용(시퀀스 0)이면 남기지 않음
+    public ExecutionEntity journalPosition(int shardId, long journalSequence, int fillIndex) {
+        if (journalSequence > 0) {
+            this.shardId = shardId;
+            this.journalSequence = journalSequence;
+            this.fillIndex = fillIndex;
+        }
+        return this;
+    }
 }
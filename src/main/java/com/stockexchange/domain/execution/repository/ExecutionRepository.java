@@ -0,0 +1,14 @@
+package com.stockexchange.domain.execution.repository;
+
+import com.stockexchange.domain.execution.entity.ExecutionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExecutionRepository extends JpaRepository<ExecutionEntity, Long> {
+
+    //    샤드의 저널 시퀀스 구간에서 이미 저장된 체결 - 저널 재생으로 다시 온 체결을 거르는 용도 (uk_execution_fill_position 앞부분 사용)
+    List<ExecutionEntity> findAllByShardIdAndJournalSequenceBetween(Integer shardId, Long fromSequence, Long toSequence);
+}
@@ -0,0 +1,127 @@
+package com.stockexchange.domain.execution.service;
+
+import com.stockexchange.domain.trading.engine.Fill;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* 저장하지 못한 체결 보관 파일 (dead-letter)
+ * 재시도 끝에도 DB 에 저장하지 못한 체결/수량 감소 결과를 한 줄씩 추가하고 fsync 한 뒤에야 처리한 것으로 봅니다.
+ * 저장 스레드가 주기적으로 다시 저장을 시도하고, 저장한 앞부분은 파일에서 지웁니다.
+ * - 체결 : F shardId journalSequence fillIndex buyOrderId sellOrderId takerOrderId executionPrice executionCount executedAt
+ * - 수량 감소 : R shardId journalSequence orderId orderCount
+ * 저장 스레드 하나에서만 사용합니다. */
+class ExecutionDeadLetter {
+    private final Path path;
+
+    ExecutionDeadLetter(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    boolean isEmpty() {
+        try {
+            return !Files.exists(path) || Files.size(path) == 0;
+        } catch (IOException e) {
+            throw new IllegalStateException("체결 보관 파일을 읽을 수 없습니다.: " + path, e);
+        }
+    }
+
+    //    한 건 추가 후 디스크 반영
+    void append(ExecutionEvent event) {
+        ByteBuffer line = ByteBuffer.wrap((encode(event) + "\n").getBytes(StandardCharsets.UTF_8));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("체결 보관 파일에 기록할 수 없습니다.: " + path, e);
+        }
+    }
+
+    //    보관한 순서대로 전부 읽음
+    List<ExecutionEvent> readAll() {
+        List<ExecutionEvent> events = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return events;
+        }
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    events.add(decode(line));
+                }
+            }
+            return events;
+        } catch (IOException e) {
+            throw new IllegalStateException("체결 보관 파일을 읽을 수 없습니다.: " + path, e);
+        }
+    }
+
+    //    다시 저장한 앞부분을 빼고 남은 것만으로 파일 교체 (임시 파일 기록 후 이동), 남은 것이 없으면 삭제
+    void replace(List<ExecutionEvent> remaining) {
+        try {
+            if (remaining.isEmpty()) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            StringBuilder lines = new StringBuilder();
+            for (ExecutionEvent event : remaining) {
+                lines.append(encode(event)).append('\n');
+            }
+            ByteBuffer data = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IllegalStateException("체결 보관 파일을 정리할 수 없습니다.: " + path, e);
+        }
+    }
+
+    static String encode(ExecutionEvent event) {
+        if (event.isReduction()) {
+            return "R " + event.getShardId() + " " + event.getJournalSequence() + " " + event.getOrderId() + " " + event.getOrderCount();
+        }
+        Fill fill = event.getFill();
+        return "F " + fill.getShardId() + " " + fill.getJournalSequence() + " " + fill.getFillIndex()
+                + " " + fill.getBuyOrderId() + " " + fill.getSellOrderId() + " " + fill.getTakerOrderId()
+                + " " + fill.getExecutionPrice() + " " + fill.getExecutionCount() + " " + fill.getExecutedAt();
+    }
+
+    static ExecutionEvent decode(String line) {
+        String[] fields = line.trim().split(" ");
+        if (fields[0].equals("R") && fields.length == 5) {
+            return ExecutionEvent.reduction(Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                    Long.parseLong(fields[3]), Integer.parseInt(fields[4]));
+        }
+        if (fields[0].equals("F") && fields.length == 10) {
+            return ExecutionEvent.fill(new Fill(Long.parseLong(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6]),
+                    Long.parseLong(fields[7]), Integer.parseInt(fields[8]), Long.parseLong(fields[9]),
+                    Integer.parseInt(fields[1]), Long.parseLong(fields[2]), Integer.parseInt(fields[3])));
+        }
+        throw new IllegalArgumentException("체결 보관 파일 형식이 아닙니다.: " + line);
+    }
+}
@@ -0,0 +1,99 @@
+package com.stockexchange.domain.execution.service;
+
+import com.stockexchange.domain.trading.engine.Fill;
+
+/* 체결 저장 대기열 항목 - 매칭 엔진이 낸 체결(Fill) 또는 수량 감소(REDUCE) 확정 결과
+ * 저장 스레드는 엔진이 낸 순서 그대로 꺼내 한 트랜잭션에서 반영합니다.
+ * 대기열 항목은 저장 스레드가 미리 만들어 둔 슬롯(slot)을 재사용하며, 저장을 마친 뒤 돌려받아 다음 체결에 씁니다.
+ * 슬롯은 돌려준 뒤 값이 바뀌므로 저장 이후에도 보관하려면 값을 따로 복사해야 합니다. */
+public class ExecutionEvent {
+    private final Fill fill;
+    private final boolean pooled;
+    private boolean reduction;
+    private int shardId;
+    private long journalSequence;
+    private long orderId;
+    private int orderCount;
+
+    private ExecutionEvent(Fill fill, boolean pooled) {
+        this.fill = fill;
+        this.pooled = pooled;
+    }
+
+    public static ExecutionEvent fill(Fill fill) {
+        ExecutionEvent event = new ExecutionEvent(fill, false);
+        event.shardId = fill.getShardId();
+        event.journalSequence = fill.getJournalSequence();
+        return event;
+    }
+
+    //    엔진이 확정한 주문 수량 (체결 수량 + 남은 수량)
+    public static ExecutionEvent reduction(int shardId, long journalSequence, long orderId, int orderCount) {
+        return new ExecutionEvent(null, false).reduce(shardId, journalSequence, orderId, orderCount);
+    }
+
+    //    재사용 슬롯 - 체결을 옮겨 담을 Fill 을 미리 만들어 둠
+    static ExecutionEvent slot() {
+        return new ExecutionEvent(new Fill(), true);
+    }
+
+    //    슬롯에 체결 복사 (할당 없음)
+    ExecutionEvent copyFill(Fill source) {
+        source.copyTo(fill);
+        this.reduction = false;
+        this.shardId = source.getShardId();
+        this.journalSequence = source.getJournalSequence();
+        this.orderId = 0L;
+        this.orderCount = 0;
+        return this;
+    }
+
+    ExecutionEvent reduce(int shardId, long journalSequence, long orderId, int orderCount) {
+        this.reduction = true;
+        this.shardId = shardId;
+        this.journalSequence = journalSequence;
+        this.orderId = orderId;
+        this.orderCount = orderCount;
+        return this;
+    }
+
+    //    저장 후 돌려줘야 하는 슬롯인지
+    boolean isPooled() {
+        return pooled;
+    }
+
+    public boolean isReduction() {
+        return reduction;
+    }
+
+    //    체결, 수량 감소 결과면 null
+    public Fill getFill() {
+        return reduction ? null : fill;
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    //    결과를 낸 명령의 저널 시퀀스, 저널 미사용 시 0
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    //    수량 감소 대상 주문
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    @Override
+    public String toString() {
+        return isReduction()
+                ? "reduction(orderId=" + orderId + ", orderCount=" + orderCount + ")"
+                : "fill(buyOrderId=" + fill.getBuyOrderId() + ", sellOrderId=" + fill.getSellOrderId()
+                + ", count=" + fill.getExecutionCount() + ")";
+    }
+}
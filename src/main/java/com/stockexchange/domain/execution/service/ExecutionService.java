@@ -1,12 +1,175 @@
 package com.stockexchange.domain.execution.service;
 
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.config.id.SnowflakeIdentifierGenerator;
+import com.stockexchange.domain.execution.entity.ExecutionEntity;
+import com.stockexchange.domain.execution.repository.ExecutionRepository;
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.engine.Fill;
+import com.stockexchange.domain.trading.engine.PriceTicks;
+import com.stockexchange.domain.user.repository.HoldingRepository;
+import com.stockexchange.domain.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-/* 체결 처리, 저장, 상태 업데이트 */
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/* 체결 처리, 저장, 상태 업데이트, 보유/현금 정산 - 매칭 스레드에서는 ExecutionWriter 를 거쳐 비동기로 묶어서 호출됨 */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class ExecutionService {
-    public boolean orderExecution(OrderEntity order) {
-        //  TODO
-        return true;
+
+    private final OrderRepository orderRepository;
+    private final ExecutionRepository executionRepository;
+    private final HoldingRepository holdingRepository;
+    private final UserRepository userRepository;
+
+    /* 매칭 결과 한 묶음 저장 (ExecutionWriter 저장 스레드에서 호출, 항상 새 트랜잭션)
+     * 묶음에 나오는 주문은 IN 조회 한 번으로 읽고, 체결은 saveAll 로 넣어 flush 때 JDBC batch 로 나갑니다.
+     * 주문 수량/상태 변경도 더티체킹으로 같은 flush 에서 batch UPDATE 됩니다.
+     * 수량 감소 확정 결과는 엔진이 낸 순서대로 체결 사이에 끼어 반영됩니다.
+     * 저널 재생으로 다시 온 체결은 저널 위치로 이미 저장된 것을 건너뛰고, 수량 감소는 다시 반영해도 결과가 같습니다.
+     * 보관 파일에 오래 남았던 체결의 주문은 이미 order_history 로 옮겨졌을 수 있으므로 order_table 로 되돌린 뒤 반영합니다. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void saveExecutions(List<ExecutionEvent> events) {
+        Set<Long> orderIds = new HashSet<>();
+        for (ExecutionEvent event : events) {
+            if (event.isReduction()) {
+                orderIds.add(event.getOrderId());
+                continue;
+            }
+            orderIds.add(event.getFill().getBuyOrderId());
+            orderIds.add(event.getFill().getSellOrderId());
+        }
+        Map<Long, OrderEntity> orders = new HashMap<>();
+        for (OrderEntity order : orderRepository.findAllById(orderIds)) {
+            orders.put(order.getOrderId(), order);
+        }
+        if (orders.size() < orderIds.size()) {
+            restoreArchived(orderIds, orders);
+        }
+
+        Set<List<Long>> saved = savedPositions(events);
+
+        List<ExecutionEntity> executions = new ArrayList<>(events.size());
+        SettlementNetting netting = new SettlementNetting();
+        for (ExecutionEvent event : events) {
+            if (event.isReduction()) {
+                reduce(orders, event);
+                continue;
+            }
+            Fill fill = event.getFill();
+            if (saved.contains(position(fill))) {
+                log.debug("이미 저장된 체결을 건너뜁니다. shard: {}, sequence: {}, index: {}",
+                        fill.getShardId(), fill.getJournalSequence(), fill.getFillIndex());
+                continue;
+            }
+            OrderEntity buyOrder = orders.get(fill.getBuyOrderId());
+            OrderEntity sellOrder = orders.get(fill.getSellOrderId());
+
+//            이력에서도 찾지 못하면 정합성 오류 - 건너뛰지 않고 묶음 전체를 실패시켜 재시도
+            if (buyOrder == null || sellOrder == null) {
+                throw new IllegalStateException("체결 상대 주문을 찾을 수 없습니다. buyOrderId: "
+                        + fill.getBuyOrderId() + ", sellOrderId: " + fill.getSellOrderId());
+            }
+
+            buyOrder.execute(fill.getExecutionCount());
+            sellOrder.execute(fill.getExecutionCount());
+            netting.add(buyOrder.getUserId(), sellOrder.getUserId(), buyOrder.getStock().getStockId(),
+                    fill.getExecutionPrice(), fill.getExecutionCount());
+
+            executions.add(ExecutionEntity.createExecution(
+                    fill.getExecutionCount(),
+                    PriceTicks.toPrice(fill.getExecutionPrice()),
+                    buyOrder.getOrderId(),
+                    sellOrder.getOrderId(),
+                    buyOrder.getStock()
+            ).journalPosition(fill.getShardId(), fill.getJournalSequence(), fill.getFillIndex()));
+        }
+        executionRepository.saveAll(executions);
+        settle(netting);
+    }
+
+    /* order_table 에 없는 주문을 order_history 에서 되돌려 orders 에 추가
+     * 이력 이동(OrderArchiveService)이 같은 주문을 옮기는 중이면 두 트랜잭션 중 하나가 실패하고, 체결 저장은 묶음을 다시 시도합니다. */
+    private void restoreArchived(Set<Long> orderIds, Map<Long, OrderEntity> orders) {
+        List<Long> missing = orderIds.stream().filter(orderId -> !orders.containsKey(orderId)).toList();
+        int restored = orderRepository.restoreFromHistory(missing, ZonedDateTime.now(TradingSessionProperties.ZONE));
+        if (restored == 0) {
+            return;
+        }
+        int deleted = orderRepository.deleteFromHistory(missing);
+        if (restored != deleted) {
+            throw new IllegalStateException("이력에서 되돌린 건수와 삭제 건수가 다릅니다.: " + restored + " / " + deleted);
+        }
+        for (OrderEntity order : orderRepository.findAllById(missing)) {
+            orders.put(order.getOrderId(), order);
+        }
+        log.info("이력으로 옮긴 주문 {}건을 되돌려 늦게 온 체결을 반영합니다. - {}", restored, missing);
+    }
+
+    /* 묶음의 체결 중 이미 저장된 것의 저널 위치 (샤드, 시퀀스, 순번)
+     * 샤드마다 묶음의 시퀀스 구간을 한 번씩 조회합니다 - 재생 직후가 아니면 빈 결과 */
+    private Set<List<Long>> savedPositions(List<ExecutionEvent> events) {
+        Map<Integer, long[]> ranges = new HashMap<>();
+        for (ExecutionEvent event : events) {
+            if (event.isReduction() || event.getJournalSequence() == 0) {
+                continue;
+            }
+            long[] range = ranges.computeIfAbsent(event.getShardId(), shardId -> new long[]{Long.MAX_VALUE, 0L});
+            range[0] = Math.min(range[0], event.getJournalSequence());
+            range[1] = Math.max(range[1], event.getJournalSequence());
+        }
+
+        Set<List<Long>> saved = new HashSet<>();
+        ranges.forEach((shardId, range) -> {
+            for (ExecutionEntity execution : executionRepository.findAllByShardIdAndJournalSequenceBetween(shardId, range[0], range[1])) {
+                saved.add(List.of((long) execution.getShardId(), execution.getJournalSequence(), (long) execution.getFillIndex()));
+            }
+        });
+        return saved;
+    }
+
+    private static List<Long> position(Fill fill) {
+        return List.of((long) fill.getShardId(), fill.getJournalSequence(), (long) fill.getFillIndex());
+    }
+
+    //    엔진이 확정한 주문 수량 반영 - 주문 행이 없으면 체결과 같이 묶음 전체를 실패시켜 재시도
+    private void reduce(Map<Long, OrderEntity> orders, ExecutionEvent event) {
+        OrderEntity order = orders.get(event.getOrderId());
+        if (order == null) {
+            throw new IllegalStateException("수량을 줄일 주문을 찾을 수 없습니다. orderId: " + event.getOrderId());
+        }
+        order.applyReduction(event.getOrderCount());
+    }
+
+    /* 정산 - 묶음 안에서 상계한 보유/현금 변화를 (회원, 종목)/회원마다 한 문장으로 반영 (매도 뒤 매수가 있으면 체결 순으로 나눠 반영)
+     * 체결 저장과 같은 트랜잭션이므로 체결과 정산이 함께 커밋되거나 함께 취소됩니다.
+     * 저장 스레드 하나가 키 순서대로 반영하므로 holding/users 행 잠금이 서로 엇갈리지 않습니다. */
+    private void settle(SettlementNetting netting) {
+        if (netting.isEmpty()) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(TradingSessionProperties.ZONE);
+        for (SettlementNetting.Position position : netting.positions()) {
+            holdingRepository.upsertHolding(SnowflakeIdentifierGenerator.nextId(), position.getUserId(), position.getStockId(),
+                    position.getBuyCount(), PriceTicks.toPrice(position.getBuyAmountTicks()), position.getSellCount(), now);
+        }
+        netting.cashTicks().forEach((userId, ticks) -> {
+            if (ticks != 0) {
+                userRepository.addKrw(userId, PriceTicks.toPrice(ticks));
+            }
+        });
     }
 }
@@ -0,0 +1,391 @@
+package com.stockexchange.domain.execution.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.domain.trading.engine.Fill;
+import com.stockexchange.domain.trading.engine.FillListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* 체결 비동기 일괄 저장
+ * 매칭 스레드는 체결을 대기열에 넣기만 하고 바로 다음 명령을 처리합니다 (DB 왕복 없음).
+ * 수량 감소(REDUCE) 확정 결과도 같은 대기열에 넣어 앞서 난 체결 다음에 반영합니다.
+ * 샤드마다 저장을 마친 저널 시퀀스를 기록해 두고, 매칭 엔진은 그 위치까지 따라온 뒤에만 스냅샷을 남깁니다 (isDurable).
+ * 저장 스레드(execution-writer)가 대기열을 batchSize 건 또는 첫 체결 후 maxDelayMillis 중 먼저 오는 기준으로 묶어
+ * 한 트랜잭션에서 체결 INSERT 와 주문 수량/상태 UPDATE 를 JDBC batch 로 저장합니다.
+ * - 대기열 항목은 queueCapacity 개를 미리 만들어 두고 돌려 씀 - 매칭 스레드는 체결을 슬롯에 복사만 하고 할당하지 않음
+ * - 빈 슬롯이 없으면(대기열이 가득 차면) 매칭 스레드가 저장이 끝나 슬롯이 돌아올 때까지 기다림 (backpressure) - 체결을 버리지 않음
+ * - 묶음 저장이 실패하면 같은 묶음을 backoff 를 두고 다시 시도 (그동안 뒤 체결은 대기열에서 기다리므로 순서 유지)
+ * - 그래도 실패하면 한 건씩 저장하고, 저장하지 못한 건은 보관 파일(dead-letter)에 fsync 해 두었다가 주기적으로 다시 저장 - 체결을 버리지 않음
+ * - 다른 건은 저장되는데 계속 실패하는 건은 deadLetterMaxAttempts 번 뒤 격리 파일(quarantine)로 옮겨 뒤 건의 재저장을 막지 않음 (운영자가 처리)
+ * - 종료 시 대기열에 남은 체결과 보관한 체결을 저장해 본 뒤 끝냄 (매칭 엔진이 먼저 멈춤)
+ * - 넣은 건수와 저장(또는 보관)을 마친 건수를 세어 두어, 종목을 넘기기 전에 그때까지의 체결이 처리됐는지 확인할 수 있음 (awaitPersisted) */
+@Slf4j
+@Component
+public class ExecutionWriter implements FillListener {
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ExecutionService executionService;
+    private final BlockingQueue<ExecutionEvent> queue;
+    private final BlockingQueue<ExecutionEvent> freeSlots; // 대기열과 같은 크기, 슬롯이 대기열보다 많을 수 없어 queue 는 가득 차지 않음
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final int retryAttempts;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final ExecutionDeadLetter deadLetter;
+    private final ExecutionDeadLetter quarantine;
+    private final long deadLetterRetryNanos;
+    private final int deadLetterMaxAttempts;
+    private final Map<String, Integer> deadLetterFailures = new HashMap<>(); // 보관한 건별 재저장 실패 횟수 (저장 스레드 전용)
+    private final Timer writeTimer;
+    private final Counter backpressureCounter;
+    private final Counter retryCounter;
+    private final Counter deadLetterCounter;
+    private final Counter quarantineCounter;
+    private final Map<Integer, Long> durableSequences = new ConcurrentHashMap<>();
+    private final AtomicLong enqueuedCount = new AtomicLong(); // 대기열에 넣은 건수 (매칭 스레드 여럿)
+    private volatile long persistedCount; // 저장 또는 보관을 마친 건수 (저장 스레드만 씀)
+    private final Thread writer;
+    private volatile boolean running = true;
+    private long nextDeadLetterRetry = System.nanoTime(); // 저장 스레드 전용, 기동 직후 한 번 확인
+    private boolean savedSinceDeadLetterRetry; // 지난 재저장 이후 대기열 체결을 저장한 적이 있는지 (DB 가 살아 있음), 저장 스레드 전용
+
+    public ExecutionWriter(ExecutionService executionService, MatchingProperties matchingProperties, MeterRegistry meterRegistry) {
+        MatchingProperties.Execution execution = matchingProperties.getExecution();
+        this.executionService = executionService;
+        this.queue = new ArrayBlockingQueue<>(execution.getQueueCapacity());
+        this.freeSlots = new ArrayBlockingQueue<>(execution.getQueueCapacity());
+        for (int i = 0; i < execution.getQueueCapacity(); i++) {
+            freeSlots.add(ExecutionEvent.slot());
+        }
+        this.batchSize = execution.getBatchSize();
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(execution.getMaxDelayMillis());
+        this.retryAttempts = execution.getRetryAttempts();
+        this.retryBackoffMillis = execution.getRetryBackoffMillis();
+        this.maxRetryBackoffMillis = execution.getMaxRetryBackoffMillis();
+        this.deadLetter = new ExecutionDeadLetter(Path.of(execution.getDeadLetterFile()));
+        this.quarantine = new ExecutionDeadLetter(Path.of(execution.getQuarantineFile()));
+        this.deadLetterRetryNanos = TimeUnit.MILLISECONDS.toNanos(execution.getDeadLetterRetryMillis());
+        this.deadLetterMaxAttempts = execution.getDeadLetterMaxAttempts();
+        this.writeTimer = Timer.builder("matching.execution.write.duration")
+                .description("체결 한 묶음 저장에 걸린 시간")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("matching.execution.backpressure")
+                .description("체결 대기열이 가득 차 매칭 스레드가 기다린 횟수")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("matching.execution.retry")
+                .description("체결 묶음 저장을 다시 시도한 횟수")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("matching.execution.dead_letter")
+                .description("재시도 끝에도 저장하지 못해 보관 파일에 기록한 체결 수")
+                .register(meterRegistry);
+        this.quarantineCounter = Counter.builder("matching.execution.quarantine")
+                .description("보관 후에도 계속 저장하지 못해 격리 파일로 옮긴 체결 수")
+                .register(meterRegistry);
+        meterRegistry.gauge("matching.execution.queue.depth", queue, BlockingQueue::size);
+        this.writer = new Thread(this::run, "execution-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    //    매칭 스레드 - Fill 은 다음 매칭 때 재사용되므로 빈 슬롯에 복사해서 넣음
+    @Override
+    public void onFills(List<Fill> fills) {
+        for (Fill fill : fills) {
+            ExecutionEvent slot = acquire();
+            if (slot == null) {
+                return;
+            }
+            queue.add(slot.copyFill(fill));
+            enqueuedCount.incrementAndGet();
+        }
+    }
+
+    //    매칭 스레드 - 엔진이 확정한 수량 감소 결과
+    @Override
+    public void onReduced(int shardId, long journalSequence, long orderId, int orderCount) {
+        ExecutionEvent slot = acquire();
+        if (slot != null) {
+            queue.add(slot.reduce(shardId, journalSequence, orderId, orderCount));
+            enqueuedCount.incrementAndGet();
+        }
+    }
+
+    //    스냅샷 스레드 - 샤드가 journalSequence 까지 낸 결과를 모두 저장(또는 보관 파일에 기록)했는지
+    @Override
+    public boolean isDurable(int shardId, long journalSequence) {
+        return journalSequence <= durableSequences.getOrDefault(shardId, 0L);
+    }
+
+    //    빈 슬롯이 없으면 저장 스레드가 돌려줄 때까지 기다림, 인터럽트되면 null
+    private ExecutionEvent acquire() {
+        ExecutionEvent slot = freeSlots.poll();
+        if (slot != null) {
+            return slot;
+        }
+        backpressureCounter.increment();
+        try {
+            return freeSlots.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("체결 대기열 대기 중 인터럽트 - 대기열 체결 수: {}", queue.size());
+            return null;
+        }
+    }
+
+    //    저장(또는 보관)을 마친 슬롯 반환, 보관 파일에서 읽은 항목은 슬롯이 아니므로 버림
+    private void release(ExecutionEvent event) {
+        if (event.isPooled()) {
+            freeSlots.add(event);
+        }
+    }
+
+    //    대기열에 남은 체결 수
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    /* 호출 시점까지 대기열에 들어온 체결이 모두 DB 에 저장되거나 보관 파일에 기록될 때까지 대기
+     * 보관한 체결도 fsync 했으므로 처리를 마친 것으로 봅니다 (isDurable 과 같은 기준).
+     * 보관 파일이 비기를 기다리면 저장되지 않는 체결 하나 때문에 종목 넘김/리더 교체가 계속 막히므로 기다리지 않고,
+     * 남아 있으면 경고만 남깁니다 - 그 주문의 DB 수량은 보관한 체결이 다시 저장될 때까지 늦습니다.
+     * 시간 안에 끝나지 않으면 false */
+    public boolean awaitPersisted(long timeoutMillis) throws InterruptedException {
+        long target = enqueuedCount.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (persistedCount < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        if (!deadLetter.isEmpty()) {
+            log.warn("보관 파일에 아직 저장하지 못한 체결이 남아 있습니다. - {}", deadLetter.getPath());
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+        log.info("체결 저장 종료");
+    }
+
+    private void run() {
+        List<ExecutionEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (System.nanoTime() - nextDeadLetterRetry >= 0) {
+                    retryDeadLetters();
+                }
+                ExecutionEvent first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+//                비정상 종료 - 저장 여부를 모르는 묶음과 남은 대기열을 보관 파일에 남김 (저널 위치가 있는 체결은 다시 저장해도 한 번만 반영)
+                queue.drainTo(batch);
+                log.error("체결 저장 스레드 인터럽트 - 남은 체결 {}건을 보관 파일에 기록합니다.", batch.size());
+                batch.forEach(this::parkQuietly);
+                return;
+            } finally {
+                persistedCount += batch.size();
+                batch.forEach(this::release);
+                batch.clear();
+            }
+        }
+//        정상 종료 - 보관한 체결을 마지막으로 한 번 더 저장해 봄
+        retryDeadLetters();
+    }
+
+    //    batchSize 가 차거나 첫 체결 후 maxDelay 가 지날 때까지 모음
+    private void fill(List<ExecutionEvent> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            ExecutionEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /* 묶음 저장
+     * 1. 실패하면 같은 묶음을 backoff(두 배씩, 최대 maxRetryBackoffMillis)를 두고 retryAttempts 번 다시 시도
+     * 2. 그래도 실패하면 한 건씩 저장하고, 저장하지 못한 건은 보관 파일에 기록 (보관한 체결도 저장을 마친 것으로 봄) */
+    private void write(List<ExecutionEvent> batch) throws InterruptedException {
+        if (saveWithRetry(batch)) {
+            savedSinceDeadLetterRetry = true;
+            batch.forEach(this::durable);
+            return;
+        }
+        log.warn("체결 {}건 묶음 저장을 {}번 다시 시도했지만 실패, 한 건씩 저장하고 실패한 건은 보관합니다.", batch.size(), retryAttempts);
+        for (ExecutionEvent event : batch) {
+            try {
+                executionService.saveExecutions(List.of(event));
+                savedSinceDeadLetterRetry = true;
+            } catch (Exception e) {
+                log.error("체결 저장 실패, 보관 파일에 기록합니다. - {}, {}", event, e.getMessage());
+                park(event);
+            }
+            durable(event);
+        }
+    }
+
+    private boolean saveWithRetry(List<ExecutionEvent> batch) throws InterruptedException {
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeTimer.record(() -> executionService.saveExecutions(batch));
+                return true;
+            } catch (Exception e) {
+                if (attempt > retryAttempts) {
+                    return false;
+                }
+                retryCounter.increment();
+                log.warn("체결 {}건 묶음 저장 실패, {}ms 후 다시 시도합니다. ({}/{}) - {}",
+                        batch.size(), backoff, attempt, retryAttempts, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, maxRetryBackoffMillis);
+            }
+        }
+    }
+
+    //    보관 파일 기록 - 기록마저 실패하면 버리지 않고 될 때까지 다시 시도 (그동안 매칭 스레드는 backpressure 로 기다림)
+    private void park(ExecutionEvent event) throws InterruptedException {
+        while (true) {
+            try {
+                deadLetter.append(event);
+                deadLetterCounter.increment();
+                return;
+            } catch (Exception e) {
+                log.error("체결 보관 파일 기록 실패, {}ms 후 다시 시도합니다. - {}, {}", maxRetryBackoffMillis, event, e.getMessage());
+                Thread.sleep(maxRetryBackoffMillis);
+            }
+        }
+    }
+
+    private void parkQuietly(ExecutionEvent event) {
+        try {
+            deadLetter.append(event);
+            deadLetterCounter.increment();
+        } catch (Exception e) {
+            log.error("체결 보관 파일 기록 실패 - {}, {}", event, e.getMessage());
+        }
+    }
+
+    /* 보관한 체결 다시 저장 - 보관한 순서대로 batchSize 씩, 묶음이 실패하면 그 묶음만 한 건씩 저장
+     * 저장한 건은 파일에서 지우고, 실패한 건만 순서대로 남겨 다음 주기에 다시 시도합니다.
+     * - 이번 주기에 한 건도 저장하지 못했고 그 사이 대기열 체결도 저장하지 못했으면 DB 장애로 보고 실패 횟수를 세지 않음
+     *   (한 묶음이 통째로 실패하면 거기서 멈춤)
+     * - 다른 건은 저장되는데 deadLetterMaxAttempts 번 실패한 건은 격리 파일로 옮겨 더는 다시 시도하지 않음
+     * 저널 위치가 있는 체결은 파일 정리 전에 멈춰 다시 저장해도 한 번만 반영됩니다. */
+    private void retryDeadLetters() {
+        nextDeadLetterRetry = System.nanoTime() + deadLetterRetryNanos;
+        try {
+            boolean reachable = savedSinceDeadLetterRetry;
+            savedSinceDeadLetterRetry = false;
+            if (deadLetter.isEmpty()) {
+                return;
+            }
+            List<ExecutionEvent> events = deadLetter.readAll();
+            List<ExecutionEvent> failed = new ArrayList<>();
+            int saved = 0;
+            int next = 0;
+            while (next < events.size()) {
+                List<ExecutionEvent> chunk = events.subList(next, Math.min(next + batchSize, events.size()));
+                next += chunk.size();
+                if (trySave(chunk)) {
+                    saved += chunk.size();
+                    continue;
+                }
+                for (ExecutionEvent event : chunk) {
+                    if (trySave(List.of(event))) {
+                        saved++;
+                    } else {
+                        failed.add(event);
+                    }
+                }
+                if (saved == 0 && !reachable) {
+                    break;
+                }
+            }
+            if (saved == 0 && !reachable) {
+                log.warn("보관한 체결 {}건을 다시 저장하지 못했습니다. {}ms 후 다시 시도합니다.",
+                        events.size(), TimeUnit.NANOSECONDS.toMillis(deadLetterRetryNanos));
+                return;
+            }
+
+            List<ExecutionEvent> remaining = new ArrayList<>();
+            Map<String, Integer> failures = new HashMap<>();
+            for (ExecutionEvent event : failed) {
+                String key = ExecutionDeadLetter.encode(event);
+                int attempts = deadLetterFailures.getOrDefault(key, 0) + 1;
+                if (attempts < deadLetterMaxAttempts) {
+                    failures.put(key, attempts);
+                    remaining.add(event);
+                    continue;
+                }
+                quarantine.append(event);
+                quarantineCounter.increment();
+                log.error("보관한 체결을 {}번 다시 저장하지 못해 격리 파일로 옮깁니다. - {}, {}",
+                        attempts, event, quarantine.getPath());
+            }
+            remaining.addAll(events.subList(next, events.size()));
+            deadLetterFailures.clear();
+            deadLetterFailures.putAll(failures);
+            if (remaining.size() < events.size()) {
+                deadLetter.replace(remaining);
+                log.info("보관한 체결 {}건 다시 저장 - 남은 건수: {}", saved, remaining.size());
+            }
+        } catch (Exception e) {
+            log.error("체결 보관 파일 처리 중 오류 발생 - {}, {}", deadLetter.getPath(), e.getMessage());
+        }
+    }
+
+    private boolean trySave(List<ExecutionEvent> events) {
+        try {
+            executionService.saveExecutions(events);
+            return true;
+        } catch (Exception e) {
+            log.debug("보관한 체결 {}건 다시 저장 실패 - {}", events.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    //    저장을 마친 저널 위치 기록 (저장 스레드)
+    private void durable(ExecutionEvent event) {
+        if (event.getJournalSequence() > 0) {
+            durableSequences.merge(event.getShardId(), event.getJournalSequence(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.stockexchange.domain.execution.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/* 체결 묶음의 정산 상계 (netting)
+ * 같은 (회원, 종목) 보유 수량/매입 금액과 같은 회원의 현금 변화를 묶음 안에서 합쳐 두고,
+ * 키마다 한 번만 반영하도록 합니다 (체결마다 같은 행을 읽고 고쳐 쓰지 않음).
+ * 금액은 틱(0.01원) 단위 long 으로 합산합니다. 반영 순서가 항상 같도록(행 잠금 순서 고정) 키 순으로 정렬해 둡니다.
+ * 보유 변화 하나는 "매수 후 매도" 로 반영되므로(평균 매입 단가에 매수분 포함), 같은 키에서 매도 뒤에 매수가 오면
+ * 변화를 새로 시작해 체결 순서대로 따로 반영합니다 - 매도가 그 뒤 매수 단가로 빠지지 않도록. */
+public class SettlementNetting {
+    private final Map<Long, Map<Long, List<Position>>> positions = new TreeMap<>(); // 회원 ID -> 종목 ID -> 보유 변화 (체결 순)
+    private final Map<Long, Long> cashTicks = new TreeMap<>();
+
+    //    체결 한 건 - 매수 회원은 보유 증가/현금 감소, 매도 회원은 보유 감소/현금 증가
+    public void add(long buyUserId, long sellUserId, long stockId, long priceTicks, int count) {
+        long amountTicks = Math.multiplyExact(priceTicks, count);
+        Position buy = position(buyUserId, stockId, true);
+        buy.buyCount += count;
+        buy.buyAmountTicks += amountTicks;
+        position(sellUserId, stockId, false).sellCount += count;
+        cashTicks.merge(buyUserId, -amountTicks, Long::sum);
+        cashTicks.merge(sellUserId, amountTicks, Long::sum);
+    }
+
+    public boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    //    (회원, 종목)별 보유 변화 - 회원 ID, 종목 ID 순, 같은 키는 체결 순
+    public List<Position> positions() {
+        List<Position> result = new ArrayList<>();
+        positions.values().forEach(byStock -> byStock.values().forEach(result::addAll));
+        return result;
+    }
+
+    //    회원별 현금 변화(틱) - 회원 ID 순, 변화가 0 인 회원 포함 (자기 체결)
+    public Map<Long, Long> cashTicks() {
+        return cashTicks;
+    }
+
+    //    매도가 있는 변화 뒤의 매수는 새 변화로 시작
+    private Position position(long userId, long stockId, boolean buy) {
+        List<Position> changes = positions.computeIfAbsent(userId, key -> new TreeMap<>())
+                .computeIfAbsent(stockId, key -> new ArrayList<>());
+        Position last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+        if (last == null || (buy && last.sellCount > 0)) {
+            last = new Position(userId, stockId);
+            changes.add(last);
+        }
+        return last;
+    }
+
+    public static class Position {
+        private final long userId;
+        private final long stockId;
+        private int buyCount;
+        private long buyAmountTicks;
+        private int sellCount;
+
+        private Position(long userId, long stockId) {
+            this.userId = userId;
+            this.stockId = stockId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public long getStockId() {
+            return stockId;
+        }
+
+        public int getBuyCount() {
+            return buyCount;
+        }
+
+        //        매수 금액(틱)
+        public long getBuyAmountTicks() {
+            return buyAmountTicks;
+        }
+
+        public int getSellCount() {
+            return sellCount;
+        }
+    }
+}
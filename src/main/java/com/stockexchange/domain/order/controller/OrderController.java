@@ -1,9 +1,11 @@
 package com.stockexchange.domain.order.controller;
 
 import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.dto.MassQuoteReqV1;
 import com.stockexchange.domain.order.dto.OrderDetailResV1;
 import com.stockexchange.domain.order.dto.OrderListResV1;
 import com.stockexchange.domain.order.dto.OrderReqV1;
+import com.stockexchange.domain.order.entity.OrderStatus;
 import com.stockexchange.domain.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,9 +29,11 @@ public class OrderController {
     private final OrderService orderService;
 
     @GetMapping("/{userId}/orders")
-    @Operation(summary = "주문 전체 조회", description = "주문 목록 전체를 조회합니다")
-    public ResponseEntity<List<OrderListResV1>> getAllOrders(@PathVariable Long userId) {
-        List<Order> orders = orderService.getAllOrders(userId);
+    @Operation(summary = "주문 전체 조회", description = "주문 목록 전체를 조회합니다, 상태를 지정하면 해당 상태의 주문만 조회합니다.")
+    public ResponseEntity<List<OrderListResV1>> getAllOrders(
+            @PathVariable Long userId,
+            @Parameter(description = "주문 상태 (PENDING 이면 이력은 조회하지 않음)") @RequestParam(required = false) OrderStatus status) {
+        List<Order> orders = orderService.getAllOrders(userId, status);
 
 //        Domain -> DTO 변환
         List<OrderListResV1> response = orders.stream()
@@ -73,6 +77,20 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/{userId}/quotes")
+    @Operation(summary = "일괄 호가", description = "한 종목의 매수/매도 호가 전체를 한 번에 교체합니다.")
+    public ResponseEntity<List<OrderDetailResV1>> replaceQuotes(
+            @Parameter(description = "사용자 아이디") @PathVariable Long userId,
+            @Parameter(description = "교체할 호가 목록") @RequestBody @Valid MassQuoteReqV1 massQuoteReqV1) {
+        List<Order> quotes = orderService.replaceQuotes(userId, massQuoteReqV1);
+
+        List<OrderDetailResV1> response = quotes.stream()
+                .map(OrderDetailResV1::from)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{userId}/orders/{orderId}")
     @Operation(summary = "주문 취소", description = "체결되지 않은 주문을 취소합니다.")
     public ResponseEntity<Integer> deleteOrderById(@PathVariable Long userId, @PathVariable("orderId") Long orderId) {
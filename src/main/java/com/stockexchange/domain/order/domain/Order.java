@@ -1,16 +1,22 @@
 package com.stockexchange.domain.order.domain;
 
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderHistoryEntity;
 import com.stockexchange.domain.order.entity.OrderStatus;
 import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
 import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.trading.engine.EpochNanos;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.engine.PriceTicks;
 import lombok.Builder;
 import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 public class Order {
     private Long orderId;
@@ -18,7 +24,10 @@ public class Order {
     private Long stockId;
     private OrderType orderType;
     private OrderStatus orderStatus;
+    private TimeInForce timeInForce;
+    private ZonedDateTime expireAt;
     private BigDecimal orderPrice;
+    private BigDecimal stopPrice;
     private int orderCount;
     private int orderRemainCount;
     private int orderExecutedCount;
@@ -43,7 +52,10 @@ public class Order {
                 .stockId(orderEntity.getStock().getStockId())
                 .orderType(orderEntity.getOrderType())
                 .orderStatus(orderEntity.getOrderStatus())
+                .timeInForce(orderEntity.getTimeInForce())
+                .expireAt(orderEntity.getExpireAt())
                 .orderPrice(orderEntity.getOrderPrice())
+                .stopPrice(orderEntity.getStopPrice())
                 .orderCount(orderEntity.getOrderCount())
                 .orderRemainCount(orderEntity.getOrderRemainCount())
                 .orderExecutedCount(orderEntity.getOrderExecutedCount())
@@ -52,14 +64,37 @@ public class Order {
                 .build();
     }
 
+    //    이력 Entity -> Domain 변환
+    public static Order from(OrderHistoryEntity historyEntity) {
+        return Order.builder()
+                .orderId(historyEntity.getOrderId())
+                .userId(historyEntity.getUserId())
+                .stockId(historyEntity.getStock().getStockId())
+                .orderType(historyEntity.getOrderType())
+                .orderStatus(historyEntity.getOrderStatus())
+                .timeInForce(historyEntity.getTimeInForce())
+                .expireAt(historyEntity.getExpireAt())
+                .orderPrice(historyEntity.getOrderPrice())
+                .stopPrice(historyEntity.getStopPrice())
+                .orderCount(historyEntity.getOrderCount())
+                .orderRemainCount(historyEntity.getOrderRemainCount())
+                .orderExecutedCount(historyEntity.getOrderExecutedCount())
+                .createdAt(historyEntity.getCreatedAt())
+                .updatedAt(historyEntity.getUpdatedAt())
+                .build();
+    }
+
     //    Domain -> Entity 변환 (생성/수정 시)
     public OrderEntity toEntity(StockEntity stockEntity) {
         OrderEntity.OrderEntityBuilder builder = OrderEntity.builder()
                 .userId(this.userId)
                 .orderCount(this.orderCount)
                 .orderPrice(this.orderPrice)
+                .stopPrice(this.stopPrice)
                 .orderType(this.orderType)
                 .orderStatus(this.orderStatus != null ? this.orderStatus : OrderStatus.PENDING)
+                .timeInForce(this.timeInForce != null ? this.timeInForce : TimeInForce.DAY)
+                .expireAt(this.expireAt)
                 .orderRemainCount(this.orderRemainCount)
                 .orderExecutedCount(this.orderExecutedCount)
                 .stock(stockEntity);
@@ -71,4 +106,45 @@ public class Order {
         return builder.build();
 
     }
+
+    /* Domain -> 매칭 엔진 명령 변환 (BigDecimal/ZonedDateTime -> long)
+     * 체결 수량도 함께 보내므로 DB 에서 다시 읽어 넣은 주문도 엔진이 주문 수량 기준으로 남은 수량을 계산할 수 있습니다. */
+    public OrderCommand toCommand(OrderCommandType commandType) {
+        return new OrderCommand(
+                commandType,
+                this.orderId,
+                this.userId,
+                this.stockId,
+                this.orderType,
+                PriceTicks.toTicks(this.orderPrice),
+                stopTicks(),
+                this.timeInForce,
+                this.orderRemainCount,
+                this.orderExecutedCount,
+                this.updatedAt != null ? EpochNanos.from(this.updatedAt) : EpochNanos.now()
+        );
+    }
+
+    /* 수량 감소 명령 - 줄인 뒤의 주문 수량을 전달
+     * DB 의 남은 수량은 엔진 체결보다 늦으므로 보내지 않고, 엔진이 자신의 체결 수량으로 남은 수량을 계산합니다.
+     * DB 에서 다시 읽어 넣은 주문은 그때의 체결 수량부터 엔진이 이어서 세므로 (toCommand) 같은 계산이 맞습니다. */
+    public OrderCommand toReduceCommand() {
+        return new OrderCommand(
+                OrderCommandType.REDUCE,
+                this.orderId,
+                this.userId,
+                this.stockId,
+                this.orderType,
+                PriceTicks.toTicks(this.orderPrice),
+                stopTicks(),
+                this.timeInForce,
+                this.orderCount,
+                EpochNanos.from(this.updatedAt)
+        );
+    }
+
+    //    스탑 가격(틱), 일반 지정가 주문은 0
+    private long stopTicks() {
+        return this.stopPrice != null ? PriceTicks.toTicks(this.stopPrice) : 0L;
+    }
 }
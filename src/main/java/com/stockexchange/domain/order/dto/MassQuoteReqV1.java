@@ -0,0 +1,24 @@
+package com.stockexchange.domain.order.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* 일괄 호가 (mass quote) - 한 종목의 매수/매도 호가 전체를 한 번에 교체
+ * 보내지 않은 쪽은 비어 있는 것으로 보고 기존 호가를 모두 내립니다. */
+@Getter
+public class MassQuoteReqV1 {
+
+    @NotNull(message = "종목 ID는 필수 입니다.")
+    private Long stockId;
+    @Valid
+    @Size(max = 50, message = "매수 호가는 50개까지 입력할 수 있습니다.")
+    private List<QuoteLevelReqV1> bids = new ArrayList<>();
+    @Valid
+    @Size(max = 50, message = "매도 호가는 50개까지 입력할 수 있습니다.")
+    private List<QuoteLevelReqV1> asks = new ArrayList<>();
+}
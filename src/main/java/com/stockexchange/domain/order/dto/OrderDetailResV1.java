@@ -3,6 +3,7 @@ package com.stockexchange.domain.order.dto;
 import com.stockexchange.domain.order.domain.Order;
 import com.stockexchange.domain.order.entity.OrderStatus;
 import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -16,8 +17,11 @@ public class OrderDetailResV1 {
     private Long orderId;
     private int orderCount;
     private BigDecimal orderPrice;
+    private BigDecimal stopPrice;
     private OrderType orderType;
     private OrderStatus orderStatus;
+    private TimeInForce timeInForce;
+    private ZonedDateTime expireAt;
     private int orderRemainCount;
     private int orderExecutedCount;
     private ZonedDateTime createdAt;
@@ -30,8 +34,11 @@ public class OrderDetailResV1 {
                 .orderId(order.getOrderId())
                 .orderCount(order.getOrderCount())
                 .orderPrice(order.getOrderPrice())
+                .stopPrice(order.getStopPrice())
                 .orderType(order.getOrderType())
                 .orderStatus(order.getOrderStatus())
+                .timeInForce(order.getTimeInForce())
+                .expireAt(order.getExpireAt())
                 .orderRemainCount(order.getOrderRemainCount())
                 .orderExecutedCount(order.getOrderExecutedCount())
                 .createdAt(order.getCreatedAt())
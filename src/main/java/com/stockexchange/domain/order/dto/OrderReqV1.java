@@ -1,12 +1,15 @@
 package com.stockexchange.domain.order.dto;
 
 import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Getter
 public class OrderReqV1 {
@@ -16,9 +19,18 @@ public class OrderReqV1 {
     private int orderCount;
     @NotNull(message = "주문 가격은 필수 입니다.")
     @DecimalMin(value = "0.01", message = "주문 가격은 0보다 커야 합니다.")
+    @Digits(integer = 10, fraction = 2, message = "주문 가격은 소수점 2자리까지 입력할 수 있습니다.")
     private BigDecimal orderPrice;
+    //    입력하면 스탑 지정가 주문 - 체결가가 발동 가격에 닿으면 orderPrice 지정가 주문으로 접수
+    @DecimalMin(value = "0.01", message = "스탑 가격은 0보다 커야 합니다.")
+    @Digits(integer = 10, fraction = 2, message = "스탑 가격은 소수점 2자리까지 입력할 수 있습니다.")
+    private BigDecimal stopPrice;
     @NotNull(message = "주문 타입은 필수 입니다.")
     private OrderType orderType;
+    //    미입력 시 당일(DAY) 주문
+    private TimeInForce timeInForce;
+    //    GTD 주문의 만료일 - 그 날의 장 마감 시 미체결 잔량 만료
+    private LocalDate expireDate;
     @NotNull(message = "종목 ID는 필수 입니다.")
     private Long stockId;
     @NotNull(message = "사용자 ID는 필수 입니다.")
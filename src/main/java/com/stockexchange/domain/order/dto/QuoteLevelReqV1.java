@@ -0,0 +1,21 @@
+package com.stockexchange.domain.order.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//    일괄 호가의 가격대 하나 (가격, 수량)
+@Getter
+public class QuoteLevelReqV1 {
+
+    @NotNull(message = "호가 가격은 필수 입니다.")
+    @DecimalMin(value = "0.01", message = "호가 가격은 0보다 커야 합니다.")
+    @Digits(integer = 10, fraction = 2, message = "호가 가격은 소수점 2자리까지 입력할 수 있습니다.")
+    private BigDecimal price;
+    @Min(value = 1, message = "호가 수량은 1 이상 필수 입니다.")
+    private int count;
+}
@@ -1,6 +1,8 @@
 package com.stockexchange.domain.order.entity;
 
+import com.stockexchange.config.id.SnowflakeId;
 import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.trading.session.MarketPhase;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
@@ -8,23 +10,29 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+/* 변경된 컬럼만 UPDATE (@DynamicUpdate)
+ * 체결 저장이 수량만 바꿀 때 장 마감 일괄 만료(EXPIRED)로 바뀐 상태를 PENDING 으로 덮어쓰지 않도록 합니다. */
 @Entity
+@DynamicUpdate
 @Getter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "order_table")
+@Table(name = "order_table", indexes = {
+        @Index(name = "idx_order_status_stock_created", columnList = "order_status, stock_id, created_at"),
+        @Index(name = "idx_order_status_updated", columnList = "order_status, updated_at, order_id")
+})
 public class OrderEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 앱에서 발급 - INSERT 를 JDBC batch 로 묶을 수 있음
     @Column(name = "order_id")
     private Long orderId;
 
@@ -35,6 +43,10 @@ public class OrderEntity {
     @Column(name = "order_price", nullable = false)
     private BigDecimal orderPrice;
 
+    //    스탑 지정가 주문의 발동 가격, 일반 지정가 주문은 null
+    @Column(name = "stop_price")
+    private BigDecimal stopPrice;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "order_type", nullable = false)
     private OrderType orderType;
@@ -43,6 +55,18 @@ public class OrderEntity {
     @Column(name = "order_status", nullable = false)
     private OrderStatus orderStatus;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_in_force", nullable = false)
+    private TimeInForce timeInForce;
+
+    //    GTD 주문의 만료 시각 (지정일 장 마감), DAY 주문은 null
+    @Column(name = "expire_at")
+    private ZonedDateTime expireAt;
+
+    //    일괄 호가로 들어온 주문 - 다음 일괄 호가가 오면 함께 교체
+    @Column(name = "quote", nullable = false)
+    private boolean quote;
+
     @Column(name = "order_remain_count", nullable = false)
     private int orderRemainCount;
 
@@ -65,45 +89,109 @@ public class OrderEntity {
     private Long userId;
 
     //    Rich Entity : 자신을 생성하는 비즈니스 규칙 포함
-    public static OrderEntity createOrder(int orderCount, BigDecimal orderPrice, OrderType orderType, StockEntity stockId, Long userId) {
+    public static OrderEntity createOrder(int orderCount, BigDecimal orderPrice, BigDecimal stopPrice, OrderType orderType,
+                                          TimeInForce timeInForce, ZonedDateTime expireAt, StockEntity stockId, Long userId, MarketPhase marketPhase) {
+
+//        현재 시각은 한 번만 조회해 검증과 생성/수정 시간에 함께 사용
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Seoul"));
 
 //        비즈니스 규칙 검증 - Entity에서
         validateStock(stockId); // 종목 거래 가능한지 확인
-        validateTradingHours(); // 거래 가능한 시간인지 확인
+        validateTradingHours(marketPhase); // 주문 접수 가능한 장 운영 단계인지 확인
         validateUserId(userId); // 회원인지 확인
+        validateExpiry(timeInForce, expireAt, now); // GTD 주문은 미래의 만료 시각 필수
 
         OrderEntity order = new OrderEntity();
         order.orderCount = orderCount;
         order.orderPrice = orderPrice;
+        order.stopPrice = stopPrice;
         order.orderType = orderType;
+        order.timeInForce = timeInForce != null ? timeInForce : TimeInForce.DAY;
+        order.expireAt = expireAt;
         order.orderStatus = OrderStatus.PENDING;
         order.orderRemainCount = orderCount;
         order.orderExecutedCount = 0;
-        order.createdAt = ZonedDateTime.now();
-        order.updatedAt = ZonedDateTime.now();
+        order.createdAt = now;
+        order.updatedAt = now;
         order.stock = stockId;
         order.userId = userId;
         return order;
     }
 
-    //    Rich Entity : 자신의 상태 변경 규칙 포함
-    public void updateOrder(int orderCount, BigDecimal orderPrice) {
+    //    일괄 호가 주문 생성 - 당일 주문
+    public static OrderEntity createQuote(int orderCount, BigDecimal orderPrice, OrderType orderType,
+                                          StockEntity stockId, Long userId, MarketPhase marketPhase) {
+        OrderEntity order = createOrder(orderCount, orderPrice, null, orderType, TimeInForce.DAY, null, stockId, userId, marketPhase);
+        order.quote = true;
+        return order;
+    }
+
+    /* Rich Entity : 자신의 상태 변경 규칙 포함
+     * - 가격은 그대로이고 수량만 줄이는 수정 : 남은 수량만 줄이고 시간 우선순위 유지 (true 반환)
+     * - 가격 변경 또는 수량 증가 : 새 주문처럼 남은 수량을 재설정 (false 반환) */
+    public boolean updateOrder(int orderCount, BigDecimal orderPrice) {
+        boolean reduceOnly = isReduceOnly(orderCount, orderPrice);
+
 //        수정 가능 여부 검증
-        validateCanModify(); // PENDING 상태이고, 체결되지 않았는지
+        validateCanModify(orderCount, reduceOnly); // PENDING 상태이고, 수정 가능한 수량인지
 
+        if (reduceOnly) {
+            this.orderRemainCount = Math.max(0, orderCount - this.orderExecutedCount); // 잠정값 - 엔진이 확정한 수량으로 applyReduction 에서 다시 계산
+        } else {
+            this.orderPrice = orderPrice;
+            this.orderRemainCount = orderCount; // 수정 시 남은 수량도 새로운 수량으로 재설정
+        }
         this.orderCount = orderCount;
-        this.orderPrice = orderPrice;
-        this.orderRemainCount = orderCount; // 수정 시 남은 수량도 새로운 수량으로 재설정
         this.updatedAt = ZonedDateTime.now(); // 수정 시간 업데이트
+        return reduceOnly;
+    }
+
+    //    가격은 같고 수량만 줄이는 수정인지
+    public boolean isReduceOnly(int orderCount, BigDecimal orderPrice) {
+        return this.orderPrice.compareTo(orderPrice) == 0 && orderCount < this.orderCount;
+    }
+
+    /* Rich Entity : 체결 반영 - 전량 체결 시 COMPLETED
+     * 체결은 매칭 엔진이 기준이므로 거절하지 않습니다.
+     * 취소(CANCELLED)/만료(EXPIRED)가 커밋된 뒤 엔진이 그 명령을 적용하기 전에 낸 체결도 그대로 반영하고,
+     * 남은 수량을 다 채우면 COMPLETED, 아니면 취소/만료 상태를 유지합니다. */
+    public void execute(int executionCount) {
+        this.orderRemainCount = Math.max(0, this.orderRemainCount - executionCount);
+        this.orderExecutedCount += executionCount;
+//        엔진이 수량 감소를 받기 전에 이미 체결한 경우 - 체결된 수량이 주문 수량
+        if (this.orderExecutedCount > this.orderCount) {
+            this.orderCount = this.orderExecutedCount;
+        }
+        if (this.orderRemainCount == 0) {
+            this.orderStatus = OrderStatus.COMPLETED;
+        }
+    }
+
+    /* Rich Entity : 엔진이 확정한 수량 감소 반영
+     * 주문 수량은 엔진 기준(체결 수량 + 남은 수량)으로 바꾸고, 남은 수량은 지금까지 반영된 체결 수량으로 다시 계산합니다.
+     * 아직 반영되지 않은 체결은 이후 execute 에서 차감되므로 여러 번 반영해도 같은 결과가 됩니다. */
+    public void applyReduction(int orderCount) {
+        this.orderCount = Math.max(orderCount, this.orderExecutedCount);
+        this.orderRemainCount = this.orderCount - this.orderExecutedCount;
+        if (this.orderRemainCount == 0) {
+            this.orderStatus = OrderStatus.COMPLETED;
+        }
     }
 
     //    비즈니스 규칙 검증 메서드==================================================
 
-    //    수정 가능 여부 검증 로직
-    private void validateCanModify() {
+    /* 수정 가능 여부 검증 로직
+     * 수량 감소는 일부 체결된 주문도 가능 (체결된 수량보다는 커야 함) */
+    private void validateCanModify(int orderCount, boolean reduceOnly) {
         if (this.orderStatus != OrderStatus.PENDING) {
             throw new IllegalArgumentException("PENDING 상태의 주문만 수정할 수 있습니다. 현재 상태: " + this.orderStatus);
         }
+        if (reduceOnly) {
+            if (orderCount <= this.orderExecutedCount) {
+                throw new IllegalArgumentException("주문 수량은 체결된 수량(" + this.orderExecutedCount + "개)보다 커야 합니다.");
+            }
+            return;
+        }
         if (this.orderExecutedCount > 0) {
             throw new IllegalArgumentException("이미 " + this.orderExecutedCount + "개가 체결되어 주문은 수정할 수 없습니다.");
         }
@@ -117,15 +205,20 @@ public class OrderEntity {
     }
 
     //    거래 가능 시간 확인 로직
-    private static void validateTradingHours() {
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Seoul"));
-        LocalTime currentTime = now.toLocalTime();
-
-        LocalTime tradingStart = LocalTime.of(9, 0);
-        LocalTime tradingEnd = LocalTime.of(15, 20);
+    private static void validateTradingHours(MarketPhase marketPhase) {
+        if (!marketPhase.isOrderAccepted()) {
+            throw new IllegalArgumentException("현재 거래 가능 시간이 아닙니다.: " + marketPhase);
+        }
+    }
 
-        if (currentTime.isBefore(tradingStart) || currentTime.isAfter(tradingEnd)) {
-            throw new IllegalArgumentException("현재 거래 가능 시간이 아닙니다. 거래 시간: 09:00 ~ 15:20");
+    //    유효 기간 확인 로직
+    private static void validateExpiry(TimeInForce timeInForce, ZonedDateTime expireAt, ZonedDateTime now) {
+        if (timeInForce == TimeInForce.GTD) {
+            if (expireAt == null || !expireAt.isAfter(now)) {
+                throw new IllegalArgumentException("GTD 주문의 만료일은 오늘 이후여야 합니다.: " + expireAt);
+            }
+        } else if (expireAt != null) {
+            throw new IllegalArgumentException("만료일은 GTD 주문에만 지정할 수 있습니다.: " + timeInForce);
         }
     }
 
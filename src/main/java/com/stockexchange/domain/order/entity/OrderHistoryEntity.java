@@ -0,0 +1,77 @@
+package com.stockexchange.domain.order.entity;
+
+import com.stockexchange.domain.stock.entity.StockEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/* 종료된 주문 이력 (order_history)
+ * order_table 에서 체결 완료/취소/만료 후 일정 시간이 지난 주문을 그대로 옮겨 둡니다 (OrderArchiveService).
+ * 옮긴 뒤에는 바뀌지 않으므로 조회 전용(@Immutable)이고, order_id 는 order_table 에서 받은 값을 그대로 씁니다. */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "order_history", indexes = {
+        @Index(name = "idx_order_history_user", columnList = "user_id, order_id")
+})
+public class OrderHistoryEntity {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_count", nullable = false)
+    private int orderCount;
+
+    @Column(name = "order_price", nullable = false)
+    private BigDecimal orderPrice;
+
+    @Column(name = "stop_price")
+    private BigDecimal stopPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false)
+    private OrderType orderType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", nullable = false)
+    private OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_in_force", nullable = false)
+    private TimeInForce timeInForce;
+
+    @Column(name = "expire_at")
+    private ZonedDateTime expireAt;
+
+    @Column(name = "quote", nullable = false)
+    private boolean quote;
+
+    @Column(name = "order_remain_count", nullable = false)
+    private int orderRemainCount;
+
+    @Column(name = "order_executed_count", nullable = false)
+    private int orderExecutedCount;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+
+    //    이력으로 옮긴 시각
+    @Column(name = "archived_at", nullable = false)
+    private ZonedDateTime archivedAt;
+
+    @JoinColumn(name = "stock_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    private StockEntity stock;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+}
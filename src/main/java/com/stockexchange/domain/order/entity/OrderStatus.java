@@ -1,5 +1,5 @@
 package com.stockexchange.domain.order.entity;
 
 public enum OrderStatus {
-    PENDING, COMPLETED, CANCELLED;
+    PENDING, COMPLETED, CANCELLED, EXPIRED;
 }
@@ -0,0 +1,33 @@
+package com.stockexchange.domain.order.entity;
+
+import com.stockexchange.config.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+/* 일괄 호가 교체 잠금 행 - (회원, 종목)마다 한 행
+ * 호가 교체 트랜잭션은 처음에 이 행을 잠가, 같은 회원의 같은 종목 호가 교체가 한 번에 하나씩만 진행되게 합니다.
+ * 기존 호가가 하나도 없을 때도 잠글 대상이 있어야 하므로 호가 주문 행이 아니라 따로 둡니다. */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "quote_lock", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_quote_lock_user_stock", columnNames = {"user_id", "stock_id"})
+})
+public class QuoteLockEntity {
+    @Id
+    @SnowflakeId
+    @Column(name = "quote_lock_id", nullable = false)
+    private Long quoteLockId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "stock_id", nullable = false)
+    private Long stockId;
+
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.stockexchange.domain.order.entity;
+
+/* 주문 유효 기간
+ * - DAY : 당일 장 마감 시 미체결 잔량 만료
+ * - GTD : 지정한 날짜의 장 마감 시 만료 (good-till-date) */
+public enum TimeInForce {
+    DAY, GTD
+}
@@ -0,0 +1,23 @@
+package com.stockexchange.domain.order.repository;
+
+import com.stockexchange.domain.order.entity.OrderHistoryEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/* 종료된 주문 이력 조회 - 저장은 OrderRepository.copyToHistory (INSERT ... SELECT) 로만 */
+@Repository
+public interface OrderHistoryRepository extends JpaRepository<OrderHistoryEntity, Long> {
+
+    //    회원의 주문 이력 전체
+    List<OrderHistoryEntity> findAllByUserId(@Param("userId") Long userId);
+
+    //    회원의 상태별 주문 이력
+    List<OrderHistoryEntity> findAllByUserIdAndOrderStatus(@Param("userId") Long userId, @Param("orderStatus") OrderStatus orderStatus);
+
+    //    특정 주문 이력 상세 조회
+    OrderHistoryEntity findByOrderIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+}
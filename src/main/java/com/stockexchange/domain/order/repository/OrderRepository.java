@@ -1,18 +1,131 @@
 package com.stockexchange.domain.order.repository;
 
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
 
-    // 주문 목록 전체 조회
+    // 주문 목록 전체 조회 - 살아 있는 주문과 이력으로 옮기기 전의 종료 주문 (이력은 OrderHistoryRepository)
     List<OrderEntity> findAllByUserId(@Param("userId") Long userId);
 
+    //    상태별 주문 목록 조회
+    List<OrderEntity> findAllByUserIdAndOrderStatus(@Param("userId") Long userId, @Param("orderStatus") OrderStatus orderStatus);
+
     //    특정 주문 상세 조회
     OrderEntity findByOrderIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    //    주문이 해당 상태인지 - 다시 전달된 주문 명령이 이미 끝난 주문인지 확인
+    boolean existsByOrderIdAndOrderStatus(@Param("orderId") Long orderId, @Param("orderStatus") OrderStatus orderStatus);
+
+    //    체결 대기(PENDING) 주문 조회 - 주문 시간순
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING ORDER BY o.createdAt ASC, o.orderId ASC")
+    List<OrderEntity> findPendingOrdersByCreatedAt();
+
+    //    체결 대기(PENDING) 주문이 있는 종목
+    @Query("SELECT DISTINCT o.stock.stockId FROM OrderEntity o WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING")
+    List<Long> findPendingStockIds();
+
+    /* 종목의 체결 대기(PENDING) 주문 중 (createdAt, orderId) 이후 한 묶음 - 주문 시간순
+     * 묶음 사이에 주문이 체결/취소되어도 건너뛰는 주문이 없도록 페이지 번호(offset) 대신 마지막으로 읽은 위치부터 읽음 */
+    @Query("SELECT o FROM OrderEntity o WHERE o.stock.stockId = :stockId " +
+            "AND o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING " +
+            "AND (o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.orderId > :orderId)) " +
+            "ORDER BY o.createdAt ASC, o.orderId ASC")
+    List<OrderEntity> findPendingOrdersByStock(@Param("stockId") Long stockId, @Param("createdAt") ZonedDateTime createdAt,
+                                               @Param("orderId") Long orderId, Pageable pageable);
+
+    //    워터마크(updatedAt, orderId) 이후 접수/수정된 체결 대기(PENDING) 주문 한 묶음 - 수정 시각순
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING " +
+            "AND (o.updatedAt > :updatedAt OR (o.updatedAt = :updatedAt AND o.orderId > :orderId)) " +
+            "ORDER BY o.updatedAt ASC, o.orderId ASC")
+    List<OrderEntity> findPendingOrdersChangedSince(@Param("updatedAt") ZonedDateTime updatedAt, @Param("orderId") Long orderId,
+                                                    Pageable pageable);
+
+    //    회원의 종목별 대기 중인 일괄 호가 주문 - 잠금 읽기 (트랜잭션 처음 스냅숏이 아니라 최신 커밋을 읽고, 교체가 끝날 때까지 잠금)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OrderEntity o WHERE o.userId = :userId AND o.stock.stockId = :stockId AND o.quote = true " +
+            "AND o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING")
+    List<OrderEntity> findPendingQuotes(@Param("userId") Long userId, @Param("stockId") Long stockId);
+
+    //    주문 일괄 취소 - 그 사이 체결 완료된 주문은 제외
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderEntity o SET o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.CANCELLED, o.updatedAt = :now " +
+            "WHERE o.orderId IN :orderIds AND o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING")
+    int cancelOrders(@Param("orderIds") Collection<Long> orderIds, @Param("now") ZonedDateTime now);
+
+    /* 만료 대상 PENDING 주문 - 기동 시 한 번 조회해 타이밍 휠에 등록
+     * GTD 주문 전체와, 지난 장 마감(lastCloseAt) 전에 접수되었는데 마감 처리를 놓친 DAY 주문 */
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING " +
+            "AND (o.timeInForce = com.stockexchange.domain.order.entity.TimeInForce.GTD " +
+            "OR (o.timeInForce = com.stockexchange.domain.order.entity.TimeInForce.DAY AND o.createdAt < :lastCloseAt))")
+    List<OrderEntity> findExpiringOrders(@Param("lastCloseAt") ZonedDateTime lastCloseAt);
+
+    //    (createdAt, orderId) 이후 접수된 체결 대기(PENDING) GTD 주문 한 묶음 - 리더가 다른 노드에서 접수된 주문도 만료 휠에 등록
+    @Query("SELECT o FROM OrderEntity o WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING " +
+            "AND o.timeInForce = com.stockexchange.domain.order.entity.TimeInForce.GTD " +
+            "AND (o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.orderId > :orderId)) " +
+            "ORDER BY o.createdAt ASC, o.orderId ASC")
+    List<OrderEntity> findGtdOrdersCreatedSince(@Param("createdAt") ZonedDateTime createdAt, @Param("orderId") Long orderId,
+                                                Pageable pageable);
+
+    //    장 마감 - 남은 DAY 주문을 UPDATE 한 번으로 만료 (엔티티를 읽지 않음)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderEntity o SET o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.EXPIRED, o.updatedAt = :now " +
+            "WHERE o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING " +
+            "AND o.timeInForce = com.stockexchange.domain.order.entity.TimeInForce.DAY")
+    int expireDayOrders(@Param("now") ZonedDateTime now);
+
+    //    만료 시각이 된 주문 일괄 만료 - 그 사이 체결 완료/취소된 주문은 제외
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderEntity o SET o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.EXPIRED, o.updatedAt = :now " +
+            "WHERE o.orderId IN :orderIds AND o.orderStatus = com.stockexchange.domain.order.entity.OrderStatus.PENDING")
+    int expireOrders(@Param("orderIds") Collection<Long> orderIds, @Param("now") ZonedDateTime now);
+
+    //    종료(updated_at)가 before 이전인 주문 ID 한 묶음 - 종료 순 (idx_order_status_updated)
+    @Query("SELECT o.orderId FROM OrderEntity o WHERE o.orderStatus IN :statuses AND o.updatedAt < :before " +
+            "ORDER BY o.updatedAt ASC, o.orderId ASC")
+    List<Long> findClosedOrderIds(@Param("statuses") Collection<OrderStatus> statuses, @Param("before") ZonedDateTime before,
+                                  Pageable pageable);
+
+    //    주문을 이력 테이블로 복사 - 엔티티를 읽지 않고 INSERT ... SELECT 한 번으로
+    @Modifying
+    @Query(value = "INSERT INTO order_history (order_id, order_count, order_price, stop_price, order_type, order_status, " +
+            "time_in_force, expire_at, quote, order_remain_count, order_executed_count, created_at, updated_at, stock_id, user_id, archived_at) " +
+            "SELECT order_id, order_count, order_price, stop_price, order_type, order_status, " +
+            "time_in_force, expire_at, quote, order_remain_count, order_executed_count, created_at, updated_at, stock_id, user_id, :now " +
+            "FROM order_table WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int copyToHistory(@Param("orderIds") Collection<Long> orderIds, @Param("now") ZonedDateTime now);
+
+    /* 이력으로 옮긴 주문을 order_table 로 되돌림 - 늦게 저장되는 체결/수량 감소를 반영하기 위해 (ExecutionService)
+     * updated_at 을 now 로 바꾸므로 반영 후 retention 이 다시 지나야 이력으로 옮겨짐 */
+    @Modifying
+    @Query(value = "INSERT INTO order_table (order_id, order_count, order_price, stop_price, order_type, order_status, " +
+            "time_in_force, expire_at, quote, order_remain_count, order_executed_count, created_at, updated_at, stock_id, user_id) " +
+            "SELECT order_id, order_count, order_price, stop_price, order_type, order_status, " +
+            "time_in_force, expire_at, quote, order_remain_count, order_executed_count, created_at, :now, stock_id, user_id " +
+            "FROM order_history WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int restoreFromHistory(@Param("orderIds") Collection<Long> orderIds, @Param("now") ZonedDateTime now);
+
+    //    order_table 로 되돌린 주문을 이력에서 삭제
+    @Modifying
+    @Query(value = "DELETE FROM order_history WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteFromHistory(@Param("orderIds") Collection<Long> orderIds);
+
+    //    이력으로 복사한 주문 삭제
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM OrderEntity o WHERE o.orderId IN :orderIds")
+    int deleteOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,23 @@
+package com.stockexchange.domain.order.repository;
+
+import com.stockexchange.domain.order.entity.QuoteLockEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface QuoteLockRepository extends JpaRepository<QuoteLockEntity, Long> {
+
+    /* (회원, 종목) 잠금 행을 잠금 - 없으면 INSERT, 있으면 UPDATE (uk_quote_lock_user_stock)
+     * 어느 쪽이든 행 잠금을 트랜잭션 끝까지 잡으므로 같은 행을 잠그려는 다른 트랜잭션은 커밋/롤백까지 기다립니다. */
+    @Modifying
+    @Query(value = "INSERT INTO quote_lock (quote_lock_id, user_id, stock_id, updated_at) " +
+            "VALUES (:quoteLockId, :userId, :stockId, :now) " +
+            "ON DUPLICATE KEY UPDATE updated_at = :now", nativeQuery = true)
+    int lock(@Param("quoteLockId") Long quoteLockId, @Param("userId") Long userId, @Param("stockId") Long stockId,
+             @Param("now") ZonedDateTime now);
+}
@@ -0,0 +1,90 @@
+package com.stockexchange.domain.order.service;
+
+import com.stockexchange.config.OrderArchiveProperties;
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.service.LeaderElectionService;
+import com.stockexchange.domain.trading.service.LeaderFenceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/* 종료 주문 이력 이동 (hot/cold 분리)
+ * order_table 에는 PENDING 주문과 막 종료된 주문만 남기고, 종료 후 retention 이 지난 주문은 order_history 로 옮깁니다.
+ * 매칭/대사/만료 쿼리는 order_table 만 읽으므로 쌓인 이력 크기와 무관하게 살아 있는 주문 수에만 비례합니다.
+ * - chunkSize 건씩 한 트랜잭션에서 INSERT ... SELECT 후 DELETE (둘 다 커밋되거나 둘 다 취소)
+ * - 리더 노드만 실행, 도중에 리더가 바뀌면 남은 묶음은 다음 리더가 옮김
+ * - 묶음마다 트랜잭션 처음에 fencing token 을 DB 에 올려 확인 - 새 리더가 생긴 뒤 늦게 도착한 이전 리더의 DELETE 는 롤백 */
+@Slf4j
+@Service
+public class OrderArchiveService {
+    private static final Set<OrderStatus> CLOSED = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED, OrderStatus.EXPIRED);
+
+    private final OrderRepository orderRepository;
+    private final LeaderElectionService leaderElection;
+    private final LeaderFenceService leaderFence;
+    private final OrderArchiveProperties archive;
+    private final TransactionTemplate transaction;
+    private final Counter movedCounter;
+
+    public OrderArchiveService(OrderRepository orderRepository, LeaderElectionService leaderElection,
+                               LeaderFenceService leaderFence, OrderArchiveProperties archive, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.leaderElection = leaderElection;
+        this.leaderFence = leaderFence;
+        this.archive = archive;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.movedCounter = Counter.builder("order.archive.moved")
+                .description("이력 테이블로 옮긴 주문 수")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.archive.fixed-delay:60000}")
+    public void archiveClosedOrders() {
+        if (!archive.isEnabled() || !leaderElection.isLeader()) {
+            return;
+        }
+        long fencingToken = leaderElection.fencingToken();
+        ZonedDateTime before = ZonedDateTime.now(TradingSessionProperties.ZONE).minusNanos(archive.getRetentionMillis() * 1_000_000L);
+
+        int total = 0;
+        while (leaderElection.holds(fencingToken)) {
+            Integer moved = transaction.execute(status -> moveChunk(before, fencingToken));
+            total += moved;
+            if (moved < archive.getChunkSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("종료 주문 이력 이동 - {}건", total);
+        }
+    }
+
+    //    종료 순으로 한 묶음 이동, 옮긴 주문 수
+    private int moveChunk(ZonedDateTime before, long fencingToken) {
+        leaderFence.check(fencingToken);
+        List<Long> orderIds = orderRepository.findClosedOrderIds(CLOSED, before, PageRequest.of(0, archive.getChunkSize()));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        int copied = orderRepository.copyToHistory(orderIds, ZonedDateTime.now(TradingSessionProperties.ZONE));
+        int deleted = orderRepository.deleteOrders(orderIds);
+        if (copied != deleted) {
+            throw new IllegalStateException("이력 복사 건수와 삭제 건수가 다릅니다.: " + copied + " / " + deleted);
+        }
+        movedCounter.increment(deleted);
+        return deleted;
+    }
+}
@@ -1,16 +1,35 @@
 package com.stockexchange.domain.order.service;
 
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.config.id.SnowflakeIdentifierGenerator;
 import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.dto.MassQuoteReqV1;
 import com.stockexchange.domain.order.dto.OrderReqV1;
+import com.stockexchange.domain.order.dto.QuoteLevelReqV1;
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderHistoryEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.repository.OrderHistoryRepository;
 import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.order.repository.QuoteLockRepository;
 import com.stockexchange.domain.stock.entity.StockEntity;
 import com.stockexchange.domain.stock.repository.StockRepository;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandBatch;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import com.stockexchange.domain.trading.session.MarketPhase;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,51 +39,89 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final QuoteLockRepository quoteLockRepository;
     private final StockRepository stockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TradingSessionProperties tradingSession;
+    private final ShardRoutingService shardRoutingService;
 
     //    주문 목록 전체 조회
     @Transactional(readOnly = true)
     public List<Order> getAllOrders(Long userId) {
-        List<OrderEntity> orderEntityList = orderRepository.findAllByUserId(userId);
+        return getAllOrders(userId, null);
+    }
 
-        return orderEntityList.stream()
+    /* 상태별 주문 목록 조회 (status 가 null 이면 전체)
+     * - PENDING : order_table 만 (이력 테이블은 읽지 않음)
+     * - 종료 상태 : 아직 옮기지 않은 order_table 주문과 order_history 를 합쳐 주문 ID 순 */
+    @Transactional(readOnly = true)
+    public List<Order> getAllOrders(Long userId, OrderStatus status) {
+        List<OrderEntity> orderEntityList = status == null
+                ? orderRepository.findAllByUserId(userId)
+                : orderRepository.findAllByUserIdAndOrderStatus(userId, status);
+        List<Order> orders = orderEntityList.stream()
                 .map(Order::from)
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (status == OrderStatus.PENDING) {
+            return orders;
+        }
+
+        List<OrderHistoryEntity> historyEntityList = status == null
+                ? orderHistoryRepository.findAllByUserId(userId)
+                : orderHistoryRepository.findAllByUserIdAndOrderStatus(userId, status);
+        historyEntityList.forEach(history -> orders.add(Order.from(history)));
+        orders.sort(Comparator.comparing(Order::getOrderId));
+        return orders;
     }
 
-    //    특정 주문 상세 조회
+    //    특정 주문 상세 조회 - order_table 에 없으면 이력에서
     @Transactional(readOnly = true)
     public Order getOrderDetail(Long userId, Long orderId) {
         OrderEntity orderEntity = orderRepository.findByOrderIdAndUserId(orderId, userId);
-        if (orderEntity == null) {
-            throw new IllegalArgumentException("주문을 찾을 수 없습니다.: " + orderId);
+        if (orderEntity != null) {
+            return Order.from(orderEntity);
         }
 
-
-        return Order.from(orderEntity);
+        OrderHistoryEntity historyEntity = orderHistoryRepository.findByOrderIdAndUserId(orderId, userId);
+        if (historyEntity == null) {
+            throw new IllegalArgumentException("주문을 찾을 수 없습니다.: " + orderId);
+        }
+        return Order.from(historyEntity);
     }
 
     //    주문 등록
     @Transactional
     public Order createOrder(Long userId, OrderReqV1 orderReqV1) {
-//        1. StockEntity  조회
+//        1. StockEntity  조회, 담당 매칭 노드 이동 중인 종목은 접수하지 않음
         StockEntity stockEntity = stockRepository.findById(orderReqV1.getStockId())
                 .orElseThrow(() -> new IllegalArgumentException("주문하시는 종목이 존재하지 않습니다.: " + orderReqV1.getStockId()));
+        shardRoutingService.checkAcceptingOrders(orderReqV1.getStockId());
 
-//        2. createOrder
+//        2. createOrder - GTD 만료일은 그 날의 장 마감 시각으로 변환
+        ZonedDateTime expireAt = orderReqV1.getExpireDate() != null
+                ? tradingSession.closeAt(orderReqV1.getExpireDate()) : null;
         OrderEntity orderEntity = OrderEntity.createOrder(
                 orderReqV1.getOrderCount(),
                 orderReqV1.getOrderPrice(),
+                orderReqV1.getStopPrice(),
                 orderReqV1.getOrderType(),
+                orderReqV1.getTimeInForce(),
+                expireAt,
                 stockEntity,
-                userId
+                userId,
+                tradingSession.currentPhase()
         );
 
 //        3. 저장
         orderRepository.save(orderEntity);
 
-//        4. Entity -> Domain 변환 후 반환
-        return Order.from(orderEntity);
+//        4. 커밋 직후 매칭 엔진으로 신규 주문 전달
+        Order order = Order.from(orderEntity);
+        eventPublisher.publishEvent(order.toCommand(OrderCommandType.NEW));
+
+//        5. Domain 반환
+        return order;
     }
 
     //    주문 수정
@@ -76,22 +133,91 @@ public class OrderService {
 
 //        소유자 검증
         orderEntity.validateOwnership(userId);
+        shardRoutingService.checkAcceptingOrders(orderEntity.getStock().getStockId());
 
 //        Entity의 updateOrder 메서드 사용(더티체킹)
-        orderEntity.updateOrder(orderReqV1.getOrderCount(), orderReqV1.getOrderPrice());
+//        수량만 줄인 경우 호가창에서도 제자리 수정 (시간 우선순위 유지)
+//        엔진에는 줄인 뒤의 주문 수량만 보내고, 엔진이 확정한 수량은 체결 저장 경로로 돌아와 반영됨 (ExecutionWriter)
+        boolean reduceOnly = orderEntity.updateOrder(orderReqV1.getOrderCount(), orderReqV1.getOrderPrice());
 
         //        주문 수정- 더티체킹으로 자동 UPDATE
         /* 더티체킹 : JPA 가 Entity의 변경사항을 자동으로 감지하는 기능
          * @Transactional 안에서 Enttiy를 조회하고 수정하면 자동으로 UPDATE 쿼리 실행
          * orderRepository.save()를 호출하지 않아도 됩니다. */
 
-        return Order.from(orderEntity);
+//        커밋 직후 매칭 엔진으로 수정 주문 전달
+        Order order = Order.from(orderEntity);
+        eventPublisher.publishEvent(reduceOnly ? order.toReduceCommand() : order.toCommand(OrderCommandType.AMEND));
+
+        return order;
+    }
+
+    /* 일괄 호가 - 회원의 종목 호가 전체를 한 트랜잭션에서 교체
+     * 1. 기존 호가는 UPDATE 한 번으로 취소, 새 호가는 한 번에 저장 (가격대마다 요청/트랜잭션을 나누지 않음)
+     * 2. 커밋 직후 기존 호가 취소와 새 호가 등록을 한 묶음으로 매칭 엔진에 전달 - 그 사이에 다른 주문이 끼어들지 않음
+     * 3. 같은 회원의 같은 종목 교체는 (회원, 종목) 잠금 행으로 하나씩 진행 - 동시에 교체하면 서로의 새 호가를 못 보고 둘 다 남김 */
+    @Transactional
+    public List<Order> replaceQuotes(Long userId, MassQuoteReqV1 massQuoteReqV1) {
+//        0. 다른 읽기보다 먼저 잠금 - 앞선 교체가 커밋할 때까지 기다림
+        quoteLockRepository.lock(SnowflakeIdentifierGenerator.nextId(), userId, massQuoteReqV1.getStockId(),
+                ZonedDateTime.now(TradingSessionProperties.ZONE));
+        StockEntity stockEntity = stockRepository.findById(massQuoteReqV1.getStockId())
+                .orElseThrow(() -> new IllegalArgumentException("주문하시는 종목이 존재하지 않습니다.: " + massQuoteReqV1.getStockId()));
+        shardRoutingService.checkAcceptingOrders(massQuoteReqV1.getStockId());
+        validateNotCrossed(massQuoteReqV1.getBids(), massQuoteReqV1.getAsks());
+
+//        1. 기존 호가 취소
+        List<OrderCommand> commands = new ArrayList<>();
+        List<Long> cancelIds = new ArrayList<>();
+        for (OrderEntity quote : orderRepository.findPendingQuotes(userId, massQuoteReqV1.getStockId())) {
+            cancelIds.add(quote.getOrderId());
+            commands.add(Order.from(quote).toCommand(OrderCommandType.CANCEL));
+        }
+        if (!cancelIds.isEmpty()) {
+            orderRepository.cancelOrders(cancelIds, ZonedDateTime.now(TradingSessionProperties.ZONE));
+        }
+
+//        2. 새 호가 저장
+        MarketPhase phase = tradingSession.currentPhase();
+        List<OrderEntity> quoteEntities = new ArrayList<>();
+        addQuotes(quoteEntities, massQuoteReqV1.getBids(), OrderType.BUY, stockEntity, userId, phase);
+        addQuotes(quoteEntities, massQuoteReqV1.getAsks(), OrderType.SELL, stockEntity, userId, phase);
+        orderRepository.saveAll(quoteEntities);
+
+//        3. 커밋 직후 매칭 엔진으로 묶음 전달
+        List<Order> quotes = quoteEntities.stream()
+                .map(Order::from)
+                .collect(Collectors.toList());
+        quotes.forEach(quote -> commands.add(quote.toCommand(OrderCommandType.NEW)));
+        eventPublisher.publishEvent(new OrderCommandBatch(massQuoteReqV1.getStockId(), commands));
+
+        return quotes;
+    }
+
+    private void addQuotes(List<OrderEntity> quoteEntities, List<QuoteLevelReqV1> levels, OrderType orderType,
+                           StockEntity stockEntity, Long userId, MarketPhase phase) {
+        for (QuoteLevelReqV1 level : levels) {
+            quoteEntities.add(OrderEntity.createQuote(level.getCount(), level.getPrice(), orderType, stockEntity, userId, phase));
+        }
+    }
+
+    //    자기 호가끼리 체결되지 않도록 최고 매수 호가는 최저 매도 호가보다 낮아야 함
+    private void validateNotCrossed(List<QuoteLevelReqV1> bids, List<QuoteLevelReqV1> asks) {
+        BigDecimal bestBid = bids.stream().map(QuoteLevelReqV1::getPrice).max(BigDecimal::compareTo).orElse(null);
+        BigDecimal bestAsk = asks.stream().map(QuoteLevelReqV1::getPrice).min(BigDecimal::compareTo).orElse(null);
+        if (bestBid != null && bestAsk != null && bestBid.compareTo(bestAsk) >= 0) {
+            throw new IllegalArgumentException("매수 호가가 매도 호가와 겹칩니다.: " + bestBid + " >= " + bestAsk);
+        }
     }
 
     //    주문 삭제
     @Transactional
     public void deleteOrder(Long userId, Long orderId) {
         OrderEntity orderEntity = orderRepository.findByOrderIdAndUserId(orderId, userId);
+        if (orderEntity == null) {
+            throw new IllegalArgumentException("취소할 주문을 찾을 수 없습니다.: " + orderId);
+        }
+        shardRoutingService.checkAcceptingOrders(orderEntity.getStock().getStockId());
 
         Order order = Order.from(orderEntity);
 
@@ -99,6 +225,13 @@ public class OrderService {
         if (!order.canCancel()) {
             throw new IllegalStateException("체결된 주문은 취소할 수 없습니다.");
         }
-        orderRepository.deleteById(orderId);
+//        행은 지우지 않고 CANCELLED 로만 변경 - 엔진이 취소를 적용하기 전에 낸 체결이 이 행에 반영되어야 함
+//        그 사이 체결 완료된 주문은 UPDATE 대상에서 빠짐
+        if (orderRepository.cancelOrders(List.of(orderId), ZonedDateTime.now(TradingSessionProperties.ZONE)) == 0) {
+            throw new IllegalStateException("체결된 주문은 취소할 수 없습니다.");
+        }
+
+//        커밋 직후 매칭 엔진으로 취소 전달
+        eventPublisher.publishEvent(order.toCommand(OrderCommandType.CANCEL));
     }
 }
\ No newline at end of file
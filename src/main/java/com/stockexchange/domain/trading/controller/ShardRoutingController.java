@@ -0,0 +1,34 @@
+package com.stockexchange.domain.trading.controller;
+
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/matching/routing")
+public class ShardRoutingController {
+
+    private final ShardRoutingService shardRoutingService;
+
+    @GetMapping
+    @Operation(summary = "종목 분산 현황", description = "매칭 노드별 담당 파티션을 조회합니다.")
+    public ResponseEntity<Map<String, List<Integer>>> getAssignments() {
+        return ResponseEntity.ok(shardRoutingService.assignments());
+    }
+
+    @PutMapping("/partitions/{partition}")
+    @Operation(summary = "파티션 이동", description = "파티션을 다른 매칭 노드로 옮깁니다. 이동하는 동안 그 파티션 종목의 주문만 잠시 받지 않습니다.")
+    public ResponseEntity<Map<String, List<Integer>>> moveShard(
+            @Parameter(description = "파티션 번호 (stockId % 파티션 수)") @PathVariable int partition,
+            @Parameter(description = "옮길 매칭 노드 아이디") @RequestParam String nodeId) {
+        shardRoutingService.moveShard(partition, nodeId);
+        return ResponseEntity.ok(shardRoutingService.assignments());
+    }
+}
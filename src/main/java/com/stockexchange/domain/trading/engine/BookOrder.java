@@ -0,0 +1,115 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+
+/* 매칭 요청 주문 한 건
+ * 매칭 엔진 내부에서만 사용하며, 매칭 중 남은 수량만 변경됩니다.
+ * 가격은 틱(long), 시각은 epoch 나노초(long) 입니다.
+ * 체결되고 남은 수량은 이 객체가 아니라 OrderStore 슬롯으로 복사되어 호가창에 등록됩니다 (그때까지 체결된 수량도 함께).
+ * 매칭 스레드는 객체 하나를 reset 으로 재사용합니다.
+ * stopPrice 가 0 보다 크면 스탑 지정가 주문 - 마지막 체결가가 발동 가격에 닿을 때까지 호가창 밖에서 대기합니다. */
+public class BookOrder {
+    private long orderId;
+    private long userId;
+    private OrderType orderType;
+    private long price;
+    private long timestamp;
+    private int remainCount;
+    private int executedCount;
+    private long stopPrice;
+    private boolean dayOrder;
+
+    public BookOrder(long orderId, long userId, OrderType orderType, long price, long timestamp, int remainCount) {
+        this(orderId, userId, orderType, price, 0L, timestamp, remainCount);
+    }
+
+    public BookOrder(long orderId, long userId, OrderType orderType, long price, long stopPrice, long timestamp, int remainCount) {
+        reset(orderId, userId, orderType, price, stopPrice, timestamp, remainCount);
+    }
+
+    BookOrder() {
+    }
+
+    BookOrder reset(long orderId, long userId, OrderType orderType, long price, long stopPrice, long timestamp, int remainCount) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.orderType = orderType;
+        this.price = price;
+        this.stopPrice = stopPrice;
+        this.dayOrder = false;
+        this.timestamp = timestamp;
+        this.remainCount = remainCount;
+        this.executedCount = 0;
+        return this;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    //    스탑 발동 가격(틱), 일반 지정가 주문은 0
+    public long getStopPrice() {
+        return stopPrice;
+    }
+
+    public boolean isStop() {
+        return stopPrice > 0;
+    }
+
+    //    당일 주문 여부 - 장 마감(EXPIRE_DAY) 시 잔량 만료
+    public boolean isDayOrder() {
+        return dayOrder;
+    }
+
+    BookOrder dayOrder(boolean dayOrder) {
+        this.dayOrder = dayOrder;
+        return this;
+    }
+
+    //    이미 체결된 수량에서 시작 (DB 에서 다시 읽은 주문, 발동된 스탑 주문)
+    BookOrder executedCount(int executedCount) {
+        this.executedCount = executedCount;
+        return this;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getRemainCount() {
+        return remainCount;
+    }
+
+    //    접수 이후 체결된 수량 (정정 전 체결분 포함)
+    public int getExecutedCount() {
+        return executedCount;
+    }
+
+    public boolean isBuy() {
+        return orderType == OrderType.BUY;
+    }
+
+    //    체결 수량만큼 남은 수량 차감
+    void fill(int count) {
+        this.remainCount -= count;
+        this.executedCount += count;
+    }
+
+    //    정정 시 이미 체결된 수량 차감 - 체결 수량은 정정 후 주문으로 이어짐
+    void reduce(int count) {
+        this.remainCount -= count;
+        this.executedCount += count;
+    }
+}
@@ -0,0 +1,50 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 최근에 전량 체결되었거나 수량 감소로 끝난 주문 ID - 크기가 정해진 FIFO 집합
+ * DB 는 체결이 저장되기 전까지 이 주문들을 PENDING 으로 보여 주므로, 그 사이 대사나 복구가 같은 주문을 NEW 로 다시 넣을 수 있습니다.
+ * 매칭 샤드는 여기 남아 있는 주문의 NEW 를 무시해 같은 주문이 두 번 체결되지 않게 합니다.
+ * 가득 차면 가장 오래된 ID 부터 잊습니다. 배열을 미리 잡아 두므로 기록 중에 객체를 만들지 않습니다.
+ * 같은 샤드의 호가창끼리 공유하며, 매칭 스레드에서만 사용해야 합니다. */
+public class ClosedOrderIds {
+    public static final int DEFAULT_CAPACITY = 65_536;
+
+    private final long[] ring;
+    private final LongIntHashMap positions; // 주문 ID -> ring 위치
+    private int next;
+    private int size;
+
+    public ClosedOrderIds() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ClosedOrderIds(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("용량은 1 이상이어야 합니다.: " + capacity);
+        }
+        this.ring = new long[capacity];
+        this.positions = new LongIntHashMap(capacity);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public boolean contains(long orderId) {
+        return positions.containsKey(orderId);
+    }
+
+    //    기록 - 가득 차 있으면 가장 오래된 ID 를 밀어냄 (같은 ID 가 다시 기록되면 새 위치로 옮김)
+    public void add(long orderId) {
+        if (size == ring.length) {
+            long evicted = ring[next];
+            if (positions.get(evicted) == next) {
+                positions.remove(evicted);
+            }
+        } else {
+            size++;
+        }
+        ring[next] = orderId;
+        positions.put(orderId, next);
+        next = next + 1 == ring.length ? 0 : next + 1;
+    }
+}
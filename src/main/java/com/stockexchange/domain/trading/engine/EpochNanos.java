@@ -0,0 +1,36 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/* 시각 <-> epoch 나노초(long) 변환
+ * 매칭 엔진 내부 시각은 객체 생성 없이 long 으로만 다룹니다. */
+public final class EpochNanos {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    //    기동 시 한 번만 wall clock 을 읽고, 이후에는 System.nanoTime() 차이로 계산
+    private static final long OFFSET = currentEpochNanos() - System.nanoTime();
+
+    private EpochNanos() {
+    }
+
+    public static long now() {
+        return OFFSET + System.nanoTime();
+    }
+
+    public static long from(ZonedDateTime dateTime) {
+        return dateTime.toEpochSecond() * NANOS_PER_SECOND + dateTime.getNano();
+    }
+
+    public static ZonedDateTime toZonedDateTime(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND))
+                .atZone(ZONE);
+    }
+
+    private static long currentEpochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+    }
+}
@@ -0,0 +1,99 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 매칭 결과 한 건
+ * 체결 가격은 항상 먼저 호가창에 있던(maker) 주문의 가격입니다.
+ * 호가창이 미리 만들어 둔 객체(FillBuffer)를 재사용하므로, 콜백 이후에도 보관하려면 copy() 로 복사하거나
+ * 받는 쪽이 미리 만들어 둔 객체에 copyTo() 로 옮겨야 합니다 (매칭 스레드에서 체결마다 할당하지 않으려면 copyTo).
+ * 저널 위치(샤드, 시퀀스, 명령 안 순번)는 샤드가 콜백 직전에 붙이며, 저널 재생으로 같은 체결을 다시 내도 같은 위치가 됩니다. */
+public class Fill {
+    private long buyOrderId;
+    private long sellOrderId;
+    private long takerOrderId;
+    private long executionPrice;
+    private int executionCount;
+    private long executedAt;
+    private int shardId;
+    private long journalSequence;
+    private int fillIndex;
+
+    public Fill(long buyOrderId, long sellOrderId, long takerOrderId, long executionPrice, int executionCount, long executedAt) {
+        set(buyOrderId, sellOrderId, takerOrderId, executionPrice, executionCount, executedAt);
+    }
+
+    //    저널 위치까지 지정 - 엔진 밖에 보관해 둔 체결을 다시 만들 때 사용
+    public Fill(long buyOrderId, long sellOrderId, long takerOrderId, long executionPrice, int executionCount, long executedAt,
+                int shardId, long journalSequence, int fillIndex) {
+        set(buyOrderId, sellOrderId, takerOrderId, executionPrice, executionCount, executedAt);
+        position(shardId, journalSequence, fillIndex);
+    }
+
+    //    빈 체결 - copyTo 로 채울 객체를 미리 만들어 둘 때 사용
+    public Fill() {
+    }
+
+    void set(long buyOrderId, long sellOrderId, long takerOrderId, long executionPrice, int executionCount, long executedAt) {
+        this.buyOrderId = buyOrderId;
+        this.sellOrderId = sellOrderId;
+        this.takerOrderId = takerOrderId;
+        this.executionPrice = executionPrice;
+        this.executionCount = executionCount;
+        this.executedAt = executedAt;
+    }
+
+    public long getBuyOrderId() {
+        return buyOrderId;
+    }
+
+    public long getSellOrderId() {
+        return sellOrderId;
+    }
+
+    public long getTakerOrderId() {
+        return takerOrderId;
+    }
+
+    //    체결 가격(틱)
+    public long getExecutionPrice() {
+        return executionPrice;
+    }
+
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    //    체결 시각(epoch 나노초)
+    public long getExecutedAt() {
+        return executedAt;
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    //    체결을 낸 명령의 저널 시퀀스, 저널 미사용 시 0
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    //    같은 명령에서 난 체결 중 순번 (0 부터)
+    public int getFillIndex() {
+        return fillIndex;
+    }
+
+    void position(int shardId, long journalSequence, int fillIndex) {
+        this.shardId = shardId;
+        this.journalSequence = journalSequence;
+        this.fillIndex = fillIndex;
+    }
+
+    //    target 에 값과 저널 위치를 옮김 (할당 없음)
+    public void copyTo(Fill target) {
+        target.set(buyOrderId, sellOrderId, takerOrderId, executionPrice, executionCount, executedAt);
+        target.position(shardId, journalSequence, fillIndex);
+    }
+
+    public Fill copy() {
+        return new Fill(buyOrderId, sellOrderId, takerOrderId, executionPrice, executionCount, executedAt,
+                shardId, journalSequence, fillIndex);
+    }
+}
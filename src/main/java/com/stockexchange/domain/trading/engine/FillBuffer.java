@@ -0,0 +1,49 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/* 재사용 체결 목록
+ * Fill 객체를 미리 만들어 두고 매칭마다 값만 덮어씁니다.
+ * 한 번의 매칭에서 나온 체결 수가 지금까지의 최대치를 넘을 때만 객체가 늘어납니다. */
+public class FillBuffer extends AbstractList<Fill> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Fill[] fills = new Fill[INITIAL_CAPACITY];
+    private int size;
+
+    FillBuffer() {
+        for (int i = 0; i < fills.length; i++) {
+            fills[i] = new Fill();
+        }
+    }
+
+    @Override
+    public Fill get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return fills[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    void add(long buyOrderId, long sellOrderId, long takerOrderId, long executionPrice, int executionCount, long executedAt) {
+        if (size == fills.length) {
+            int capacity = fills.length * 2;
+            fills = Arrays.copyOf(fills, capacity);
+            for (int i = size; i < capacity; i++) {
+                fills[i] = new Fill();
+            }
+        }
+        fills[size++].set(buyOrderId, sellOrderId, takerOrderId, executionPrice, executionCount, executedAt);
+    }
+}
@@ -0,0 +1,22 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.List;
+
+/* 매칭 스레드에서 체결이 발생했을 때 호출되는 콜백
+ * 전달되는 목록과 Fill 객체는 다음 매칭 때 재사용되므로, 콜백 안에서 소비하거나 copy() 로 복사해야 합니다. */
+@FunctionalInterface
+public interface FillListener {
+    void onFills(List<Fill> fills);
+
+    /* 수량 감소(REDUCE) 결과 - 엔진이 자신의 체결 수량으로 확정한 주문 수량 (체결 수량 + 남은 수량)
+     * 체결과 같은 매칭 스레드에서 처리 순서대로 호출됩니다. journalSequence 는 REDUCE 명령의 저널 시퀀스 (저널 미사용 시 0) */
+    default void onReduced(int shardId, long journalSequence, long orderId, int orderCount) {
+    }
+
+    /* 샤드가 journalSequence 까지 낸 체결/수량 감소 결과를 모두 영구 저장했는지
+     * 스냅샷은 저장이 이 위치까지 따라온 뒤에만 남깁니다 - 스냅샷 이전 저널은 지워져 재생으로 다시 낼 수 없기 때문
+     * 따로 저장하지 않는 리스너는 항상 true */
+    default boolean isDurable(int shardId, long journalSequence) {
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.Arrays;
+
+/* 힙 주문 저장소 - 필드별 primitive 배열
+ * 주문 수와 무관하게 배열 몇 개만 GC 대상이 됩니다. */
+public class HeapOrderStore implements OrderStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] orderIds = new long[INITIAL_CAPACITY];
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] remainCounts = new int[INITIAL_CAPACITY];
+    private int[] executedCounts = new int[INITIAL_CAPACITY];
+    private long[] stopPrices = new long[INITIAL_CAPACITY];
+    private int[] prevs = new int[INITIAL_CAPACITY];
+    private int[] nexts = new int[INITIAL_CAPACITY];
+    private boolean[] buys = new boolean[INITIAL_CAPACITY];
+    private boolean[] dayOrders = new boolean[INITIAL_CAPACITY];
+
+    private int highWater; // 한 번이라도 사용된 슬롯 수
+    private int freeHead = NONE;
+    private int size;
+
+    @Override
+    public int allocate(long orderId, long userId, boolean buy, long price, long timestamp, int remainCount) {
+        int slot;
+        if (freeHead != NONE) {
+            slot = freeHead;
+            freeHead = nexts[slot];
+        } else {
+            if (highWater == orderIds.length) {
+                grow();
+            }
+            slot = highWater++;
+        }
+        orderIds[slot] = orderId;
+        userIds[slot] = userId;
+        buys[slot] = buy;
+        dayOrders[slot] = false;
+        prices[slot] = price;
+        timestamps[slot] = timestamp;
+        remainCounts[slot] = remainCount;
+        executedCounts[slot] = 0;
+        stopPrices[slot] = 0;
+        prevs[slot] = NONE;
+        nexts[slot] = NONE;
+        size++;
+        return slot;
+    }
+
+    @Override
+    public void free(int slot) {
+        nexts[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long orderId(int slot) {
+        return orderIds[slot];
+    }
+
+    @Override
+    public long userId(int slot) {
+        return userIds[slot];
+    }
+
+    @Override
+    public boolean isBuy(int slot) {
+        return buys[slot];
+    }
+
+    @Override
+    public long price(int slot) {
+        return prices[slot];
+    }
+
+    @Override
+    public long timestamp(int slot) {
+        return timestamps[slot];
+    }
+
+    @Override
+    public int remainCount(int slot) {
+        return remainCounts[slot];
+    }
+
+    @Override
+    public void remainCount(int slot, int remainCount) {
+        remainCounts[slot] = remainCount;
+    }
+
+    @Override
+    public int executedCount(int slot) {
+        return executedCounts[slot];
+    }
+
+    @Override
+    public void executedCount(int slot, int executedCount) {
+        executedCounts[slot] = executedCount;
+    }
+
+    @Override
+    public boolean isDayOrder(int slot) {
+        return dayOrders[slot];
+    }
+
+    @Override
+    public void dayOrder(int slot, boolean dayOrder) {
+        dayOrders[slot] = dayOrder;
+    }
+
+    @Override
+    public long stopPrice(int slot) {
+        return stopPrices[slot];
+    }
+
+    @Override
+    public void stopPrice(int slot, long stopPrice) {
+        stopPrices[slot] = stopPrice;
+    }
+
+    @Override
+    public int prev(int slot) {
+        return prevs[slot];
+    }
+
+    @Override
+    public void prev(int slot, int prev) {
+        prevs[slot] = prev;
+    }
+
+    @Override
+    public int next(int slot) {
+        return nexts[slot];
+    }
+
+    @Override
+    public void next(int slot, int next) {
+        nexts[slot] = next;
+    }
+
+    private void grow() {
+        int capacity = orderIds.length * 2;
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        remainCounts = Arrays.copyOf(remainCounts, capacity);
+        executedCounts = Arrays.copyOf(executedCounts, capacity);
+        stopPrices = Arrays.copyOf(stopPrices, capacity);
+        prevs = Arrays.copyOf(prevs, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        buys = Arrays.copyOf(buys, capacity);
+        dayOrders = Arrays.copyOf(dayOrders, capacity);
+    }
+}
@@ -0,0 +1,41 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.nio.file.Path;
+
+/* 주문 저널 설정
+ * - directory : 세그먼트 파일 디렉토리 (샤드별 파일 이름 구분)
+ * - segmentSize : 세그먼트 파일 크기(byte)
+ * - fsyncEveryRecords : N 건 기록마다 fsync
+ * - fsyncIntervalMicros : 마지막 fsync 후 T 마이크로초가 지나면 fsync */
+public class JournalConfig {
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncEveryRecords;
+    private final long fsyncIntervalMicros;
+
+    public JournalConfig(Path directory, int segmentSize, int fsyncEveryRecords, long fsyncIntervalMicros) {
+        if (fsyncEveryRecords < 1 || fsyncIntervalMicros < 0) {
+            throw new IllegalArgumentException("fsync 주기가 올바르지 않습니다.: " + fsyncEveryRecords + "건 / " + fsyncIntervalMicros + "us");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncEveryRecords = fsyncEveryRecords;
+        this.fsyncIntervalMicros = fsyncIntervalMicros;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getFsyncEveryRecords() {
+        return fsyncEveryRecords;
+    }
+
+    public long getFsyncIntervalMicros() {
+        return fsyncIntervalMicros;
+    }
+}
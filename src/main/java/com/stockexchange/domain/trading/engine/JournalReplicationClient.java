@@ -0,0 +1,227 @@
+package com.stockexchange.domain.trading.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/* 대기 노드 복제 클라이언트 - 주 노드의 저널 레코드를 받아 같은 샤드에 그대로 적용
+ * 대기 노드 엔진은 저널을 재생한 상태(주 노드 저널/스냅샷 복사본)에서 시작하고, 시퀀스가 이어지는 레코드만 적용합니다.
+ * - 이미 가진 시퀀스 : 건너뜀 (HELLO 로 알린 시퀀스까지는 확인된 것으로 봄)
+ * - 시퀀스가 비면 : 동기화 실패로 보고 연결을 끊음 (승격하지 않음)
+ * 적용한 명령이 대기 노드 저널에 기록되면 샤드별 마지막 시퀀스만 남겨 두고(onJournaled), 확인 응답 스레드가
+ * 묶음마다(onBatchJournaled) 깨어나 샤드별 최신 시퀀스를 확인 응답(ACK)으로 모아 한 번에 보냅니다.
+ * 주 노드 연결이 끊기거나 heartbeat 가 failoverTimeout 동안 오지 않으면 엔진을 승격하고 onPromote 를 호출합니다. */
+public class JournalReplicationClient implements ReplicationListener, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JournalReplicationClient.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 3_000;
+    private static final long ACK_PARK_NANOS = 1_000_000L; // 깨우기 누락 대비 최대 대기 1ms
+
+    private final String host;
+    private final int port;
+    private final long failoverTimeoutNanos;
+    private final Runnable onPromote;
+
+    private MatchingEngine engine;
+    private long[] lastSequences;
+    private AtomicLongArray journaled; // 샤드별 대기 노드 저널에 기록한 마지막 시퀀스 (샤드 매칭 스레드만 씀)
+    private volatile Thread ackThread;
+    private Socket socket;
+    private DataOutputStream out;
+    private volatile long lastFrameNanos;
+    private volatile boolean inSync = true;
+    private volatile boolean promoted;
+    private volatile boolean closed;
+
+    public JournalReplicationClient(String host, int port, long failoverTimeoutMillis, Runnable onPromote) {
+        this.host = host;
+        this.port = port;
+        this.failoverTimeoutNanos = failoverTimeoutMillis * 1_000_000L;
+        this.onPromote = onPromote;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public boolean isInSync() {
+        return inSync;
+    }
+
+    /* 주 노드 연결 후 복제 시작 - engine 은 대기 모드로 시작(저널 재생)된 상태여야 함
+     * 이 클라이언트를 engine 의 ReplicationListener 로 지정해야 확인 응답이 나갑니다. */
+    public void start(MatchingEngine engine) {
+        this.engine = engine;
+        int shardCount = engine.shardCount();
+        this.lastSequences = new long[shardCount];
+        this.journaled = new AtomicLongArray(shardCount);
+        try {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(JournalReplicationServer.HELLO);
+            out.writeInt(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                lastSequences[i] = engine.journalSequence(i);
+                journaled.set(i, lastSequences[i]);
+                out.writeLong(lastSequences[i]);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("주 노드에 연결할 수 없습니다.: " + host + ":" + port, e);
+        }
+        lastFrameNanos = System.nanoTime();
+        long[] acked = lastSequences.clone();
+        ackThread = daemon(() -> ackLoop(acked), "replication-standby-ack");
+        ackThread.start();
+        daemon(this::readLoop, "replication-standby").start();
+        daemon(this::monitorLoop, "replication-monitor").start();
+        log.info("대기 노드 복제 시작 - primary: {}:{}", host, port);
+    }
+
+    //    대기 노드 매칭 스레드 - 복제된 명령이 저널에 기록되면 시퀀스만 남김
+    @Override
+    public void onJournaled(int shardId, long sequence, OrderCommand command) {
+        if (!promoted) {
+            journaled.lazySet(shardId, sequence);
+        }
+    }
+
+    //    대기 노드 매칭 스레드 - 묶음 기록을 마치면 확인 응답 스레드를 깨움
+    @Override
+    public void onBatchJournaled(int shardId, long lastSequence) {
+        if (!promoted) {
+            LockSupport.unpark(ackThread);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeSocket();
+    }
+
+    private void readLoop() {
+        OrderCommand command = new OrderCommand();
+        ByteBuffer record = ByteBuffer.allocate(OrderJournal.RECORD_SIZE);
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (!closed && !promoted) {
+                byte type = in.readByte();
+                if (type == JournalReplicationServer.HEARTBEAT) {
+                    in.readLong();
+                } else if (type == JournalReplicationServer.RECORD) {
+                    int shardId = in.readInt();
+                    in.readFully(record.array());
+                    apply(shardId, record, command);
+                } else {
+                    throw new IOException("알 수 없는 프레임: " + type);
+                }
+                lastFrameNanos = System.nanoTime();
+            }
+        } catch (IOException e) {
+            if (!closed && inSync) {
+                promote("주 노드 연결 끊김 - " + e.getMessage());
+            }
+        } catch (IllegalStateException e) {
+            outOfSync(e.getMessage());
+        }
+    }
+
+    private void apply(int shardId, ByteBuffer record, OrderCommand command) {
+        long sequence = OrderJournal.decode(record, 0, command);
+        if (sequence < 0) {
+            throw new IllegalStateException("손상된 복제 레코드 - shard: " + shardId);
+        }
+        if (sequence <= lastSequences[shardId]) {
+            return;
+        }
+        if (sequence != lastSequences[shardId] + 1) {
+            throw new IllegalStateException("복제 시퀀스가 이어지지 않습니다. - shard: " + shardId
+                    + ", 기대: " + (lastSequences[shardId] + 1) + ", 수신: " + sequence);
+        }
+        lastSequences[shardId] = sequence;
+        engine.publish(shardId, command);
+    }
+
+    private void monitorLoop() {
+        long checkNanos = Math.max(failoverTimeoutNanos / 4, 1_000_000L);
+        while (!closed && !promoted && inSync) {
+            if (System.nanoTime() - lastFrameNanos > failoverTimeoutNanos) {
+                promote("heartbeat 중단");
+                return;
+            }
+            LockSupport.parkNanos(checkNanos);
+        }
+    }
+
+    private synchronized void promote(String reason) {
+        if (promoted || closed || !inSync) {
+            return;
+        }
+        promoted = true;
+        closeSocket();
+        engine.setStandby(false);
+        log.warn("대기 노드 승격 - {}", reason);
+        onPromote.run();
+    }
+
+    //    시퀀스가 어긋난 대기 노드는 승격하면 안 됨 - 주 노드 저널/스냅샷을 다시 복사한 뒤 재기동해야 함
+    private void outOfSync(String reason) {
+        inSync = false;
+        closeSocket();
+        log.error("대기 노드 동기화 실패, 승격하지 않습니다. - {}", reason);
+    }
+
+    //    확인 응답 스레드 - 깨어날 때마다 새로 기록된 샤드의 최신 시퀀스만 보내고 한 번에 flush (HELLO 이후 유일한 쓰기 스레드)
+    private void ackLoop(long[] sent) {
+        ByteBuffer ack = ByteBuffer.allocate(1 + Integer.BYTES + Long.BYTES).put(0, JournalReplicationServer.ACK);
+        try {
+            while (!closed && !promoted && inSync) {
+                boolean written = false;
+                for (int shardId = 0; shardId < sent.length; shardId++) {
+                    long sequence = journaled.get(shardId);
+                    if (sequence > sent[shardId]) {
+                        ack.putInt(1, shardId).putLong(5, sequence);
+                        out.write(ack.array());
+                        sent[shardId] = sequence;
+                        written = true;
+                    }
+                }
+                if (written) {
+                    out.flush();
+                } else {
+                    LockSupport.parkNanos(ACK_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+//            연결 끊김은 readLoop 에서 처리
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException ignored) {
+//            이미 끊긴 연결
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,292 @@
+package com.stockexchange.domain.trading.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/* 주 노드 복제 서버 - 저널에 기록한 명령을 대기 노드로 그대로 전송 (TCP)
+ * 대기 노드는 한 번에 하나만 연결합니다. 새 대기 노드가 연결되면 이전 연결은 끊습니다.
+ * 매칭 스레드는 연결별 전송 대기열에 프레임을 복사해 넣기만 하고, 소켓 쓰기는 연결별 전송 스레드가 모아서 합니다.
+ * 대기열이 syncTimeout 동안 비지 않으면(대기 노드가 따라오지 못하거나 쓰기가 멈춤) 연결을 끊으므로 매칭 스레드가 소켓에 묶이지 않습니다.
+ * - ASYNC : 대기열에 넣은 뒤 바로 적용
+ * - SYNC : 명령 묶음의 마지막 시퀀스 확인 응답(ACK)을 받은 뒤 적용, syncTimeout 안에 응답이 없으면 연결을 끊고 복제 없이 계속 (주 노드는 멈추지 않음)
+ * 보낼 레코드가 heartbeatMillis 동안 없으면 전송 스레드가 heartbeat 를 보내므로 대기 노드는 주 노드 장애를 heartbeat 중단으로 감지합니다.
+ *
+ * 프레임 (big-endian)
+ * - 대기 -> 주 HELLO | 'H' 1 | shardCount 4 | 샤드별 마지막 저널 시퀀스 8 ... |
+ * - 주 -> 대기 RECORD | 'R' 1 | shardId 4 | 저널 레코드 80 |
+ * - 주 -> 대기 HEARTBEAT | 'B' 1 | epochMillis 8 |
+ * - 대기 -> 주 ACK | 'A' 1 | shardId 4 | sequence 8 | */
+public class JournalReplicationServer implements ReplicationListener, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JournalReplicationServer.class);
+    static final byte HELLO = 'H';
+    static final byte RECORD = 'R';
+    static final byte HEARTBEAT = 'B';
+    static final byte ACK = 'A';
+    static final int RECORD_FRAME_SIZE = 1 + Integer.BYTES + OrderJournal.RECORD_SIZE;
+    private static final int SPIN_TRIES = 1_000;
+    private static final int SEND_QUEUE_SIZE = 8192; // 연결별 전송 대기 프레임 수
+    private static final long QUEUE_WAIT_NANOS = 1_000_000L; // 대기열 자리를 기다리며 연결 상태를 다시 보는 주기 1ms
+
+    private final int shardCount;
+    private final ReplicationMode mode;
+    private final long heartbeatMillis;
+    private final long syncTimeoutNanos;
+    private final ServerSocket serverSocket;
+    private final AtomicLongArray acked;
+    private final ByteBuffer[] frames; // 샤드(매칭 스레드)별 인코딩 버퍼
+    private final Object connectionLock = new Object();
+
+    private volatile Connection standby;
+    private volatile boolean running = true;
+
+    public JournalReplicationServer(int port, int shardCount, ReplicationMode mode, long heartbeatMillis, long syncTimeoutMillis) {
+        this.shardCount = shardCount;
+        this.mode = mode;
+        this.heartbeatMillis = heartbeatMillis;
+        this.syncTimeoutNanos = syncTimeoutMillis * 1_000_000L;
+        this.acked = new AtomicLongArray(shardCount);
+        this.frames = new ByteBuffer[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            frames[i] = ByteBuffer.allocate(RECORD_FRAME_SIZE);
+        }
+        try {
+            this.serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new IllegalStateException("복제 포트를 열 수 없습니다.: " + port, e);
+        }
+    }
+
+    //    실제 수신 포트 (0 으로 열면 임의 포트)
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean isStandbyConnected() {
+        return standby != null;
+    }
+
+    //    대기 노드가 기록을 확인한 마지막 시퀀스
+    public long ackedSequence(int shardId) {
+        return acked.get(shardId);
+    }
+
+    public void start() {
+        daemon(this::acceptLoop, "replication-accept").start();
+        log.info("복제 서버 시작 - port: {}, mode: {}", port(), mode);
+    }
+
+    //    매칭 스레드 - 저널 기록 직후 전송 대기열에 복사 (소켓 쓰기는 전송 스레드)
+    @Override
+    public void onJournaled(int shardId, long sequence, OrderCommand command) {
+        Connection connection = standby;
+        if (connection == null) {
+            return;
+        }
+        byte[] slot = takeSlot(connection);
+        if (slot == null) {
+            return;
+        }
+        ByteBuffer frame = frames[shardId];
+        frame.put(0, RECORD).putInt(1, shardId);
+        OrderJournal.encode(frame, 1 + Integer.BYTES, sequence, command);
+        System.arraycopy(frame.array(), 0, slot, 0, RECORD_FRAME_SIZE);
+        connection.pending.offer(slot); // free 에서 꺼낸 만큼만 넣으므로 자리는 항상 있음
+    }
+
+    //    매칭 스레드 - 묶음 기록 후, SYNC 면 마지막 시퀀스 확인 응답까지 대기
+    @Override
+    public void onBatchJournaled(int shardId, long lastSequence) {
+        Connection connection = standby;
+        if (connection == null || mode == ReplicationMode.ASYNC) {
+            return;
+        }
+        awaitAck(connection, shardId, lastSequence);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("복제 서버 종료 중 오류 발생 - {}", e.getMessage());
+        }
+        Connection connection = standby;
+        if (connection != null) {
+            drop(connection, "복제 서버 종료");
+        }
+    }
+
+    private void awaitAck(Connection connection, int shardId, long sequence) {
+        long deadline = System.nanoTime() + syncTimeoutNanos;
+        int tries = 0;
+        while (acked.get(shardId) < sequence) {
+            if (standby != connection) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                drop(connection, "확인 응답 시간 초과 - shard: " + shardId + ", sequence: " + sequence);
+                return;
+            }
+            if (tries++ < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000L);
+            }
+        }
+    }
+
+    //    빈 프레임 자리 - 전송 스레드가 syncTimeout 안에 자리를 돌려주지 않으면 연결을 끊고 null
+    private byte[] takeSlot(Connection connection) {
+        byte[] slot = connection.free.poll();
+        if (slot != null) {
+            return slot;
+        }
+        long deadline = System.nanoTime() + syncTimeoutNanos;
+        try {
+            while (standby == connection) {
+                slot = connection.free.poll(QUEUE_WAIT_NANOS, TimeUnit.NANOSECONDS);
+                if (slot != null) {
+                    return slot;
+                }
+                if (System.nanoTime() > deadline) {
+                    drop(connection, "전송 대기열 가득 참 - 대기 노드가 따라오지 못함");
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                if (connection.in.readByte() != HELLO || connection.in.readInt() != shardCount) {
+                    log.warn("샤드 수가 다른 대기 노드 연결 거부 - {}", socket.getRemoteSocketAddress());
+                    socket.close();
+                    continue;
+                }
+                for (int i = 0; i < shardCount; i++) {
+                    acked.set(i, connection.in.readLong());
+                }
+                Connection previous;
+                synchronized (connectionLock) {
+                    previous = standby;
+                    standby = connection;
+                }
+                if (previous != null) {
+                    drop(previous, "새 대기 노드 연결");
+                }
+                daemon(() -> sendLoop(connection), "replication-send").start();
+                daemon(() -> ackLoop(connection), "replication-ack").start();
+                log.info("대기 노드 연결 - {}", socket.getRemoteSocketAddress());
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("대기 노드 연결 수락 중 오류 발생 - {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void ackLoop(Connection connection) {
+        try {
+            while (standby == connection) {
+                if (connection.in.readByte() != ACK) {
+                    throw new IOException("알 수 없는 프레임");
+                }
+                int shardId = connection.in.readInt();
+                long sequence = connection.in.readLong();
+                acked.accumulateAndGet(shardId, sequence, Math::max);
+            }
+        } catch (IOException e) {
+            drop(connection, "확인 응답 수신 실패 - " + e.getMessage());
+        }
+    }
+
+    /* 전송 스레드 - 쌓인 프레임을 한꺼번에 꺼내 쓰고 한 번만 flush, 보낼 것이 heartbeatMillis 동안 없으면 heartbeat
+     * 쓰기가 막혀도 매칭 스레드는 대기열 자리 대기(takeSlot)나 확인 응답 대기(awaitAck) 한도에서 연결을 끊고 빠져나갑니다. */
+    private void sendLoop(Connection connection) {
+        List<byte[]> batch = new ArrayList<>(SEND_QUEUE_SIZE);
+        ByteBuffer heartbeat = ByteBuffer.allocate(1 + Long.BYTES).put(0, HEARTBEAT);
+        try {
+            while (standby == connection) {
+                byte[] frame = connection.pending.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    heartbeat.putLong(1, System.currentTimeMillis());
+                    connection.out.write(heartbeat.array());
+                } else {
+                    batch.add(frame);
+                    connection.pending.drainTo(batch);
+                    for (byte[] record : batch) {
+                        connection.out.write(record, 0, RECORD_FRAME_SIZE);
+                        connection.free.offer(record);
+                    }
+                    batch.clear();
+                }
+                connection.out.flush();
+            }
+        } catch (IOException e) {
+            drop(connection, "전송 실패 - " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drop(Connection connection, String reason) {
+        synchronized (connectionLock) {
+            if (standby == connection) {
+                standby = null;
+            }
+        }
+        try {
+            connection.socket.close();
+        } catch (IOException ignored) {
+//            이미 끊긴 연결
+        }
+        log.warn("대기 노드 연결 해제 - {}", reason);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out; // 전송 스레드만 씀
+        private final ArrayBlockingQueue<byte[]> pending = new ArrayBlockingQueue<>(SEND_QUEUE_SIZE); // 전송 대기 프레임
+        private final ArrayBlockingQueue<byte[]> free = new ArrayBlockingQueue<>(SEND_QUEUE_SIZE); // 재사용 프레임 자리
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            for (int i = 0; i < SEND_QUEUE_SIZE; i++) {
+                free.offer(new byte[RECORD_FRAME_SIZE]);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/* 샤드 단위 매칭 런타임
+ * 종목(stockId)을 샤드 수로 나누어 각 샤드의 단일 writer 스레드에 배정합니다.
+ * 같은 종목의 명령은 항상 같은 샤드로 가므로 종목 내 순서가 보장됩니다. */
+public class MatchingEngine {
+    private final MatchingShard[] shards;
+    private final Thread[] threads;
+    private final boolean journalEnabled;
+    private final ExecutorService snapshotExecutor; // 스냅샷 파일 저장 전용, 저널 미사용 시 null
+    private volatile boolean running;
+    private long replayedCommands;
+
+    public MatchingEngine(int shardCount, int ringBufferSize, WaitStrategy waitStrategy, FillListener fillListener) {
+        this(shardCount, ringBufferSize, waitStrategy, OrderStore.Type.HEAP, null, fillListener);
+    }
+
+    //    journalConfig 가 null 이면 저널 미사용
+    public MatchingEngine(int shardCount, int ringBufferSize, WaitStrategy waitStrategy, OrderStore.Type storeType,
+                          JournalConfig journalConfig, FillListener fillListener) {
+        this(shardCount, ringBufferSize, waitStrategy, storeType, journalConfig, null, fillListener);
+    }
+
+    //    replicationListener 는 저널 기록 직후 호출 (대기 노드 복제), 저널을 사용할 때만 의미 있음
+    public MatchingEngine(int shardCount, int ringBufferSize, WaitStrategy waitStrategy, OrderStore.Type storeType,
+                          JournalConfig journalConfig, ReplicationListener replicationListener, FillListener fillListener) {
+        if (replicationListener != null && journalConfig == null) {
+            throw new IllegalArgumentException("대기 노드 복제는 저널을 사용할 때만 가능합니다.");
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("샤드 수는 1 이상이어야 합니다.: " + shardCount);
+        }
+        this.shards = new MatchingShard[shardCount];
+        this.threads = new Thread[shardCount];
+        this.journalEnabled = journalConfig != null;
+        this.snapshotExecutor = journalEnabled ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "matching-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchingShard(i, ringBufferSize, waitStrategy, storeType, journalConfig, snapshotExecutor,
+                    replicationListener, fillListener);
+        }
+    }
+
+    //    저널을 사용하면 각 샤드의 저널을 재생한 뒤 매칭 스레드 시작
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        for (MatchingShard shard : shards) {
+            replayedCommands += shard.replayJournal();
+        }
+        running = true;
+        for (int i = 0; i < shards.length; i++) {
+            threads[i] = new Thread(shards[i], "matching-shard-" + i);
+            threads[i].start();
+        }
+    }
+
+    //    각 샤드가 남은 명령을 처리할 때까지 대기 후 종료
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (MatchingShard shard : shards) {
+            shard.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdown();
+            snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    //    전체 샤드 스냅샷 요청 - 샤드마다 자기 스레드에서 앞선 명령을 모두 적용한 뒤 수행 (저널 미사용 시 무시)
+    public void requestSnapshot() {
+        for (MatchingShard shard : shards) {
+            while (!shard.requestSnapshot()) {
+                if (!running) {
+                    throw new IllegalStateException("매칭 엔진이 실행 중이 아닙니다.");
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    /* 명령 전달
+     * 링 버퍼가 가득 차면 비워질 때까지 호출 스레드가 대기 (backpressure) */
+    public void publish(OrderCommand command) {
+        MatchingShard shard = shardOf(command.getStockId());
+        while (!shard.publish(command)) {
+            if (!running) {
+                throw new IllegalStateException("매칭 엔진이 실행 중이 아닙니다.");
+            }
+            Thread.yield();
+        }
+    }
+
+    /* 명령 묶음 전달 - 한 종목의 명령을 샤드 링 버퍼의 연속된 자리에 넣어 다른 명령 없이 차례로 적용
+     * 링 버퍼가 가득 차면 묶음 전체가 들어갈 자리가 날 때까지 대기 */
+    public void publish(OrderCommandBatch batch) {
+        MatchingShard shard = shardOf(batch.getStockId());
+        while (!shard.publish(batch)) {
+            if (!running) {
+                throw new IllegalStateException("매칭 엔진이 실행 중이 아닙니다.");
+            }
+            Thread.yield();
+        }
+    }
+
+    //    특정 샤드로 직접 전달 - 복제된 명령은 종목이 아닌 주 노드의 샤드 번호를 따름 (전체 샤드 명령 포함)
+    public void publish(int shardId, OrderCommand command) {
+        MatchingShard shard = shards[shardId];
+        while (!shard.publish(command)) {
+            if (!running) {
+                throw new IllegalStateException("매칭 엔진이 실행 중이 아닙니다.");
+            }
+            Thread.yield();
+        }
+    }
+
+    /* 대기 모드 전환 - 체결 콜백 없이 명령만 적용 (start 전에 호출)
+     * false 로 바꾸면 승격 - 이미 링 버퍼에 들어온 명령부터 체결을 전달합니다. */
+    public void setStandby(boolean standby) {
+        for (MatchingShard shard : shards) {
+            shard.setStandby(standby);
+        }
+    }
+
+    //    샤드별 마지막 저널 시퀀스 - 저널 재생 후 매칭 스레드에 명령이 들어오기 전에만 정확
+    public long journalSequence(int shardId) {
+        return shards[shardId].journalSequence();
+    }
+
+    //    동시호가 시작 - 모든 샤드에 전달 (앞서 들어온 명령 처리 후 적용)
+    public void startAuction(long timestamp) {
+        broadcast(OrderCommandType.AUCTION, timestamp);
+    }
+
+    //    동시호가 종료 - 모든 샤드가 종목별 단일가 체결 후 접속 매매로 전환
+    public void uncross(long timestamp) {
+        broadcast(OrderCommandType.UNCROSS, timestamp);
+    }
+
+    //    장 마감 - 모든 샤드에서 당일(DAY) 주문 잔량 제거, 앞서 들어온 명령(마감 단일가 등) 이후에 적용
+    public void expireDayOrders(long timestamp) {
+        broadcast(OrderCommandType.EXPIRE_DAY, timestamp);
+    }
+
+    private void broadcast(OrderCommandType commandType, long timestamp) {
+        OrderCommand command = new OrderCommand(commandType, 0L, 0L, 0L, null, 0L, 0, timestamp);
+        for (MatchingShard shard : shards) {
+            while (!shard.publish(command)) {
+                if (!running) {
+                    throw new IllegalStateException("매칭 엔진이 실행 중이 아닙니다.");
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    //    기동 시 저널에서 재생한 명령 수
+    public long replayedCommands() {
+        return replayedCommands;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public int shardIndex(long stockId) {
+        return (int) Math.floorMod(stockId, (long) shards.length);
+    }
+
+    public MatchingShard shardOf(long stockId) {
+        return shards[shardIndex(stockId)];
+    }
+
+    /* 지금까지 넣은 명령을 모든 샤드가 적용할 때까지 대기 (체결 콜백까지 끝남), 시간 안에 끝나지 않으면 false
+     * 종목 담당을 다른 노드로 넘기기 전 - 이후 FillListener 가 저장을 마치면 DB 가 이 노드 호가창을 따라잡습니다. */
+    public boolean awaitProcessed(long timeoutMillis) throws InterruptedException {
+        long[] targets = new long[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            targets[i] = shards[i].claimed();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (int i = 0; i < shards.length; i++) {
+            while (shards[i].processed() < targets[i]) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                Thread.sleep(1);
+            }
+        }
+        return true;
+    }
+
+    //    전체 샤드 대기 명령 수
+    public int backlog() {
+        int backlog = 0;
+        for (MatchingShard shard : shards) {
+            backlog += shard.backlog();
+        }
+        return backlog;
+    }
+}
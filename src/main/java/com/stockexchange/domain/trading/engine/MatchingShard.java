@@ -0,0 +1,397 @@
+package com.stockexchange.domain.trading.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/* 매칭 샤드 - 단일 writer 스레드가 담당 종목의 호가창을 독점
+ * 호가창은 이 스레드에서만 읽고 쓰므로 락이 필요 없습니다.
+ * 명령은 링 버퍼로만 전달받습니다.
+ * 담당 종목의 호가창들은 샤드의 주문 저장소(OrderStore)와 최근 종료 주문 ID(ClosedOrderIds)를 하나씩 공유합니다.
+ * 명령/주문/체결 객체는 모두 재사용하므로 평상시 명령 처리 중에는 객체를 만들지 않습니다.
+ * 저널을 사용하면 명령을 적용하기 전에 저널에 먼저 기록하고, 기동 시 저널을 재생해 호가창을 복구합니다.
+ * 체결에는 저널 위치를 붙여 전달하고, 재생 중에도 다시 전달해 장애 전에 저장되지 못한 체결을 복구합니다 (저장 측이 위치로 중복을 거름).
+ * 스냅샷은 링 버퍼로 들어온 SNAPSHOT 명령(barrier) 시점에 이 샤드만 잠시 멈춰 메모리로 복사하고,
+ * 파일 저장과 저널 정리는 별도 스레드가 합니다.
+ * 대기(standby) 샤드는 주 노드에서 복제된 명령을 저널 재생처럼 체결 콜백 없이 적용하다가, 승격되면 체결을 전달합니다. */
+public class MatchingShard implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(MatchingShard.class);
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1_000_000L; // 깨우기 누락 대비 최대 대기 1ms
+    private static final long DURABLE_WAIT_NANOS = 10_000_000_000L; // 스냅샷 전 체결 저장을 기다리는 최대 시간 10초
+    private static final int BATCH_SIZE = 64; // 한 번에 꺼내 저널 기록/복제하는 최대 명령 수
+
+    private final int shardId;
+    private final OrderCommandRingBuffer ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private final FillListener fillListener;
+    private final OrderStore orderStore;
+    private final ClosedOrderIds closedOrders = new ClosedOrderIds();
+    private final OrderJournal journal; // null 이면 저널 미사용
+    private final OrderBookSnapshots snapshots;
+    private final Executor snapshotExecutor;
+    private final ReplicationListener replicationListener; // null 이면 복제 미사용
+
+//    종목 ID -> 호가창 배열 위치 (박싱 없는 조회)
+    private final LongIntHashMap bookIndex = new LongIntHashMap();
+    private OrderBook[] orderBooks = new OrderBook[16];
+    private int bookCount;
+
+//    동시호가 여부 - 새로 만드는 호가창에도 적용
+    private boolean auction;
+
+//    매칭 스레드 전용 재사용 객체
+    private final OrderCommand[] batch = new OrderCommand[BATCH_SIZE];
+    private final long[] batchSequences = new long[BATCH_SIZE];
+    private final AtomicLong processed = new AtomicLong(); // 매칭 스레드가 적용을 마친 명령 수 (링 버퍼에서 꺼낸 순서)
+    private final BookOrder taker = new BookOrder();
+
+//    적용 중인 명령의 저널 시퀀스와 체결 순번, 마지막으로 체결/수량 감소 결과를 전달한 시퀀스 (매칭 스레드 전용)
+    private long sequence;
+    private int fillIndex;
+    private long notifiedSequence;
+
+    private volatile boolean standby;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile Thread thread;
+
+    public MatchingShard(int shardId, int ringBufferSize, WaitStrategy waitStrategy, OrderStore.Type storeType,
+                         JournalConfig journalConfig, Executor snapshotExecutor, ReplicationListener replicationListener,
+                         FillListener fillListener) {
+        this.shardId = shardId;
+        this.ringBuffer = new OrderCommandRingBuffer(ringBufferSize);
+        this.waitStrategy = waitStrategy;
+        this.orderStore = storeType.create();
+        this.journal = journalConfig == null ? null : new OrderJournal(shardId, journalConfig);
+        this.snapshots = journalConfig == null ? null : new OrderBookSnapshots(journalConfig.getDirectory(), shardId);
+        this.snapshotExecutor = snapshotExecutor;
+        this.replicationListener = replicationListener;
+        this.fillListener = fillListener;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = new OrderCommand();
+        }
+    }
+
+    public int getShardId() {
+        return shardId;
+    }
+
+    public int backlog() {
+        return ringBuffer.size();
+    }
+
+    //    지금까지 링 버퍼에 넣은(예약한) 명령 수 - processed() 가 이 값에 이르면 그때까지 넣은 명령의 체결 콜백까지 끝난 것
+    public long claimed() {
+        return ringBuffer.claimed();
+    }
+
+    public long processed() {
+        return processed.get();
+    }
+
+    //    마지막으로 저널에 기록한 시퀀스 (저널 미사용 시 0), 매칭 스레드 시작 전 또는 매칭 스레드에서만 정확
+    public long journalSequence() {
+        return journal == null ? 0 : journal.nextSequence() - 1;
+    }
+
+    //    대기 모드 - 체결 콜백 없이 적용, false 로 바꾸면(승격) 이후 명령부터 체결 전달
+    public void setStandby(boolean standby) {
+        this.standby = standby;
+    }
+
+    /* 저널 재생 - 매칭 스레드 시작 전에 호출
+     * 최신 스냅샷을 불러온 뒤 그 이후 저널 기록만 재생합니다.
+     * 스냅샷 이후 체결은 저장되었는지 알 수 없으므로 같은 저널 위치로 다시 전달하고, 이미 저장된 체결은 저장 측이 건너뜁니다.
+     * 스냅샷은 그때까지의 체결이 저장된 뒤에만 남기므로 스냅샷 이전 체결은 다시 낼 필요가 없습니다. 반환값은 재생한 명령 수 */
+    public long replayJournal() {
+        if (journal == null) {
+            return 0;
+        }
+        long afterSequence = 0;
+        OrderBookSnapshots.Snapshot snapshot = snapshots.loadLatest();
+        if (snapshot != null) {
+            restore(snapshot.getBody());
+            afterSequence = snapshot.getSequence();
+        }
+//        handler 호출 중 nextSequence 는 재생 중인 명령의 시퀀스 (호출 뒤에 증가)
+        return journal.open(afterSequence, command -> apply(journal.nextSequence(), command, !standby));
+    }
+
+    //    API 스레드 -> 매칭 스레드 명령 전달, 버퍼가 가득 차면 false
+    public boolean publish(OrderCommand command) {
+        if (!ringBuffer.offer(command)) {
+            return false;
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    //    명령 묶음을 끊김 없이 전달, 자리가 모자라면 false
+    public boolean publish(OrderCommandBatch batch) {
+        if (!ringBuffer.offerAll(batch.getCommands())) {
+            return false;
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    //    스냅샷 요청 - 이미 들어온 명령을 모두 적용한 뒤 수행되도록 링 버퍼로 전달, 버퍼가 가득 차면 false
+    public boolean requestSnapshot() {
+        if (journal == null) {
+            return true;
+        }
+        return publish(new OrderCommand(OrderCommandType.SNAPSHOT, 0L, 0L, 0L, null, 0L, 0, 0L));
+    }
+
+    //    남은 명령을 모두 처리한 뒤 종료
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        int idleCount = 0;
+        while (running || !ringBuffer.isEmpty()) {
+//            들어와 있는 만큼만 꺼냄 (묶음을 채우려고 기다리지 않음), 스냅샷 요청은 앞의 명령을 적용한 뒤 수행
+            int count = 0;
+            boolean snapshot = false;
+            while (count < BATCH_SIZE && ringBuffer.poll(batch[count])) {
+                if (batch[count].getCommandType() == OrderCommandType.SNAPSHOT) {
+                    snapshot = true;
+                    break;
+                }
+                count++;
+            }
+            if (count == 0 && !snapshot) {
+                if (journal != null) {
+                    journal.syncIfDue();
+                }
+                waitForCommand(idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            applyBatch(count);
+            if (snapshot) {
+                takeSnapshot();
+                processed.lazySet(processed.get() + 1); // 매칭 스레드만 씀
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /* 꺼낸 명령 묶음 적용 - 묶음 전체를 저널에 기록하고 복제 측에 넘긴 뒤 순서대로 적용
+     * 동기 복제는 묶음의 마지막 시퀀스 확인 응답만 기다리므로 대기 노드 왕복은 명령마다가 아니라 묶음마다 한 번입니다. */
+    private void applyBatch(int count) {
+        if (count == 0) {
+            return;
+        }
+        if (journal != null) {
+            for (int i = 0; i < count; i++) {
+                batchSequences[i] = journal.append(batch[i]);
+                if (replicationListener != null) {
+                    replicationListener.onJournaled(shardId, batchSequences[i], batch[i]);
+                }
+            }
+            if (replicationListener != null) {
+                replicationListener.onBatchJournaled(shardId, batchSequences[count - 1]);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            apply(batchSequences[i], batch[i], !standby);
+            processed.lazySet(processed.get() + 1); // 매칭 스레드만 씀
+        }
+    }
+
+    /* 스냅샷 - 매칭 스레드에서는 호가창을 버퍼로 복사만 하고 바로 매칭을 이어갑니다.
+     * 스냅샷 시퀀스까지 저널이 디스크에 있어야 하므로 먼저 fsync 합니다.
+     * | auction 1 | bookCount 4 | 호가창 ... | */
+    private void takeSnapshot() {
+        try {
+            journal.sync();
+            long sequence = journal.nextSequence() - 1;
+            long notified = notifiedSequence;
+            int size = 1 + Integer.BYTES;
+            for (int i = 0; i < bookCount; i++) {
+                size += orderBooks[i].snapshotSize();
+            }
+            ByteBuffer body = ByteBuffer.allocate(size);
+            body.put(auction ? (byte) 1 : (byte) 0).putInt(bookCount);
+            for (int i = 0; i < bookCount; i++) {
+                orderBooks[i].writeSnapshot(body);
+            }
+            body.flip();
+            snapshotExecutor.execute(() -> saveSnapshot(sequence, notified, body));
+        } catch (Exception e) {
+            log.error("호가창 스냅샷 생성 중 오류 발생 - shard: {}, {}", shardId, e.getMessage());
+        }
+    }
+
+    /* 스냅샷 파일 저장 후 스냅샷에 포함된 저널 세그먼트 삭제 (스냅샷 스레드)
+     * 스냅샷 시점까지 전달한 체결(notified)이 저장될 때까지 기다리고, 시간 안에 따라오지 못하면 이번 스냅샷은 남기지 않습니다.
+     * 저장되지 않은 체결이 있는 채로 스냅샷을 남기면 재생이 그 뒤부터 시작해 체결을 다시 낼 수 없기 때문입니다. */
+    private void saveSnapshot(long sequence, long notified, ByteBuffer body) {
+        try {
+            long deadline = System.nanoTime() + DURABLE_WAIT_NANOS;
+            while (!fillListener.isDurable(shardId, notified)) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.warn("체결 저장이 따라오지 않아 스냅샷을 건너뜁니다. - shard: {}, sequence: {}, 체결 시퀀스: {}",
+                            shardId, sequence, notified);
+                    return;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            snapshots.write(sequence, body);
+            int deleted = journal.deleteSegmentsThrough(sequence);
+            log.info("호가창 스냅샷 저장 - shard: {}, sequence: {}, size: {}, 삭제한 저널 세그먼트: {}",
+                    shardId, sequence, body.remaining(), deleted);
+        } catch (Exception e) {
+            log.error("호가창 스냅샷 저장 중 오류 발생 - shard: {}, {}", shardId, e.getMessage());
+        }
+    }
+
+    private void restore(ByteBuffer body) {
+        auction = body.get() == 1;
+        int books = body.getInt();
+        for (int i = 0; i < books; i++) {
+            orderBook(body.getLong()).readSnapshot(body);
+        }
+    }
+
+    //    명령 적용 - 대기(standby) 중에는 체결 콜백을 호출하지 않음 (notify = false)
+    private void apply(long sequence, OrderCommand command, boolean notify) {
+        this.sequence = sequence;
+        this.fillIndex = 0;
+        try {
+            switch (command.getCommandType()) {
+                case AUCTION:
+                    startAuction();
+                    break;
+                case UNCROSS:
+                    uncross(command.getTimestamp(), notify);
+                    break;
+                case EXPIRE_DAY:
+                    expireDayOrders();
+                    break;
+                default:
+                    List<Fill> fills = handle(command, notify);
+                    if (notify && !fills.isEmpty()) {
+                        notifyFills(fills);
+                    }
+            }
+        } catch (Exception e) {
+            log.error("주문 명령 처리 중 오류 발생 - shard: {}, orderId: {}, {}", shardId, command.getOrderId(), e.getMessage());
+        }
+    }
+
+    //    체결에 저널 위치를 붙여 전달 - 한 명령(단일가 매매는 여러 종목)에서 난 체결은 순번이 이어짐
+    private void notifyFills(List<Fill> fills) {
+        for (int i = 0; i < fills.size(); i++) {
+            fills.get(i).position(shardId, sequence, fillIndex++);
+        }
+        notifiedSequence = sequence;
+        fillListener.onFills(fills);
+    }
+
+    //    동시호가 시작 - 담당 종목 전체가 체결 없이 주문만 접수
+    private void startAuction() {
+        auction = true;
+        for (int i = 0; i < bookCount; i++) {
+            orderBooks[i].setAuction(true);
+        }
+    }
+
+    //    동시호가 종료 - 종목별 단일가 체결 후 접속 매매로 전환
+    private void uncross(long executedAt, boolean notify) {
+        auction = false;
+        for (int i = 0; i < bookCount; i++) {
+            List<Fill> fills = orderBooks[i].uncross(executedAt);
+            if (notify && !fills.isEmpty()) {
+                notifyFills(fills);
+            }
+        }
+    }
+
+    //    장 마감 - 담당 종목의 당일 주문 잔량 제거
+    private void expireDayOrders() {
+        int expired = 0;
+        for (int i = 0; i < bookCount; i++) {
+            expired += orderBooks[i].expireDayOrders();
+        }
+        log.info("당일 주문 만료 - shard: {}, 주문 수: {}", shardId, expired);
+    }
+
+    /* 주문 명령 처리
+     * - NEW : 매칭 후 남은 수량은 호가창에 등록 (이미 등록된 주문과 최근에 전량 체결된 주문은 무시)
+     * - AMEND : 호가창에서 내린 뒤 수정된 가격/수량으로 다시 매칭
+     * - REDUCE : 제자리에서 수량만 감소 (시간 우선순위 유지), 확정된 주문 수량을 콜백으로 전달
+     * - CANCEL : 호가창에서 제거 */
+    private List<Fill> handle(OrderCommand command, boolean notify) {
+        OrderBook orderBook = orderBook(command.getStockId());
+        switch (command.getCommandType()) {
+            case NEW:
+                if (orderBook.contains(command.getOrderId()) || orderBook.isClosed(command.getOrderId())) {
+                    return List.of();
+                }
+                return orderBook.match(command.toBookOrder(taker));
+            case AMEND:
+                return orderBook.replace(command.toBookOrder(taker));
+            case REDUCE:
+                int orderCount = orderBook.reduceTo(command.getOrderId(), command.getOrderRemainCount());
+                if (notify && orderCount >= 0) {
+                    notifiedSequence = sequence;
+                    fillListener.onReduced(shardId, sequence, command.getOrderId(), orderCount);
+                }
+                return List.of();
+            case CANCEL:
+                orderBook.cancel(command.getOrderId());
+                return List.of();
+            default:
+                throw new IllegalArgumentException("지원하지 않는 주문 명령입니다.: " + command.getCommandType());
+        }
+    }
+
+    private OrderBook orderBook(long stockId) {
+        int index = bookIndex.get(stockId);
+        if (index != LongIntHashMap.MISSING) {
+            return orderBooks[index];
+        }
+        if (bookCount == orderBooks.length) {
+            orderBooks = Arrays.copyOf(orderBooks, bookCount * 2);
+        }
+        OrderBook orderBook = new OrderBook(stockId, orderStore, closedOrders);
+        orderBook.setAuction(auction);
+        orderBooks[bookCount] = orderBook;
+        bookIndex.put(stockId, bookCount++);
+        return orderBook;
+    }
+
+    private void waitForCommand(int idleCount) {
+        if (waitStrategy == WaitStrategy.BUSY_SPIN || idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == WaitStrategy.YIELDING) {
+            Thread.yield();
+        } else {
+//            park 직전에 다시 확인해 생산자의 깨우기 신호를 놓치지 않음
+            parked = true;
+            if (ringBuffer.isEmpty() && running) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            parked = false;
+        }
+    }
+}
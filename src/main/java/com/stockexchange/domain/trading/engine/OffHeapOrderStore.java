@@ -0,0 +1,186 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/* 오프힙 주문 저장소 - direct ByteBuffer 청크에 고정 레이아웃 슬롯으로 저장
+ * 호가창 주문이 수백만 건이어도 힙에는 청크 참조 배열만 남으므로 GC 가 스캔할 대상이 거의 없습니다.
+ * 청크는 필요할 때만 추가하고, 해제된 슬롯은 free list 로 재사용합니다.
+ *
+ * 슬롯 레이아웃 (64 byte, 캐시 라인 하나)
+ * | orderId 8 | userId 8 | price 8 | timestamp 8 | remainCount 4 | executedCount 4 | prev 4 | next 4 | flags 1 | padding 7 | stopPrice 8 |
+ * flags : bit 0 매수, bit 1 당일 주문 */
+public class OffHeapOrderStore implements OrderStore {
+    static final int SLOT_SIZE = 64;
+    private static final int ORDER_ID = 0;
+    private static final int USER_ID = 8;
+    private static final int PRICE = 16;
+    private static final int TIMESTAMP = 24;
+    private static final int REMAIN_COUNT = 32;
+    private static final int EXECUTED_COUNT = 36;
+    private static final int PREV = 40;
+    private static final int NEXT = 44;
+    private static final int FLAGS = 48;
+    private static final byte BUY_FLAG = 1;
+    private static final byte DAY_FLAG = 2;
+    private static final int STOP_PRICE = 56;
+
+    private static final int CHUNK_SHIFT = 16; // 청크당 65,536 슬롯 (4MB)
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    private ByteBuffer[] chunks = new ByteBuffer[8];
+    private int chunkCount;
+    private int highWater;
+    private int freeHead = NONE;
+    private int size;
+
+    @Override
+    public int allocate(long orderId, long userId, boolean buy, long price, long timestamp, int remainCount) {
+        int slot;
+        if (freeHead != NONE) {
+            slot = freeHead;
+            freeHead = next(slot);
+        } else {
+            if (highWater == chunkCount * CHUNK_SLOTS) {
+                addChunk();
+            }
+            slot = highWater++;
+        }
+        ByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        chunk.putLong(offset + ORDER_ID, orderId);
+        chunk.putLong(offset + USER_ID, userId);
+        chunk.putLong(offset + PRICE, price);
+        chunk.putLong(offset + TIMESTAMP, timestamp);
+        chunk.putInt(offset + REMAIN_COUNT, remainCount);
+        chunk.putInt(offset + EXECUTED_COUNT, 0);
+        chunk.putInt(offset + PREV, NONE);
+        chunk.putInt(offset + NEXT, NONE);
+        chunk.put(offset + FLAGS, buy ? BUY_FLAG : (byte) 0);
+        chunk.putLong(offset + STOP_PRICE, 0L);
+        size++;
+        return slot;
+    }
+
+    @Override
+    public void free(int slot) {
+        next(slot, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    //    확보된 오프힙 메모리(byte)
+    public long reservedBytes() {
+        return (long) chunkCount * CHUNK_SLOTS * SLOT_SIZE;
+    }
+
+    @Override
+    public long orderId(int slot) {
+        return chunk(slot).getLong(offset(slot) + ORDER_ID);
+    }
+
+    @Override
+    public long userId(int slot) {
+        return chunk(slot).getLong(offset(slot) + USER_ID);
+    }
+
+    @Override
+    public boolean isBuy(int slot) {
+        return (chunk(slot).get(offset(slot) + FLAGS) & BUY_FLAG) != 0;
+    }
+
+    @Override
+    public boolean isDayOrder(int slot) {
+        return (chunk(slot).get(offset(slot) + FLAGS) & DAY_FLAG) != 0;
+    }
+
+    @Override
+    public void dayOrder(int slot, boolean dayOrder) {
+        ByteBuffer chunk = chunk(slot);
+        int offset = offset(slot) + FLAGS;
+        byte flags = chunk.get(offset);
+        chunk.put(offset, (byte) (dayOrder ? flags | DAY_FLAG : flags & ~DAY_FLAG));
+    }
+
+    @Override
+    public long price(int slot) {
+        return chunk(slot).getLong(offset(slot) + PRICE);
+    }
+
+    @Override
+    public long timestamp(int slot) {
+        return chunk(slot).getLong(offset(slot) + TIMESTAMP);
+    }
+
+    @Override
+    public int remainCount(int slot) {
+        return chunk(slot).getInt(offset(slot) + REMAIN_COUNT);
+    }
+
+    @Override
+    public void remainCount(int slot, int remainCount) {
+        chunk(slot).putInt(offset(slot) + REMAIN_COUNT, remainCount);
+    }
+
+    @Override
+    public int executedCount(int slot) {
+        return chunk(slot).getInt(offset(slot) + EXECUTED_COUNT);
+    }
+
+    @Override
+    public void executedCount(int slot, int executedCount) {
+        chunk(slot).putInt(offset(slot) + EXECUTED_COUNT, executedCount);
+    }
+
+    @Override
+    public long stopPrice(int slot) {
+        return chunk(slot).getLong(offset(slot) + STOP_PRICE);
+    }
+
+    @Override
+    public void stopPrice(int slot, long stopPrice) {
+        chunk(slot).putLong(offset(slot) + STOP_PRICE, stopPrice);
+    }
+
+    @Override
+    public int prev(int slot) {
+        return chunk(slot).getInt(offset(slot) + PREV);
+    }
+
+    @Override
+    public void prev(int slot, int prev) {
+        chunk(slot).putInt(offset(slot) + PREV, prev);
+    }
+
+    @Override
+    public int next(int slot) {
+        return chunk(slot).getInt(offset(slot) + NEXT);
+    }
+
+    @Override
+    public void next(int slot, int next) {
+        chunk(slot).putInt(offset(slot) + NEXT, next);
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & CHUNK_MASK) * SLOT_SIZE;
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SLOTS * SLOT_SIZE).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,494 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/* 종목별 호가창 (가격 우선 -> 시간 우선)
+ * - 매수 호가는 높은 가격 순, 매도 호가는 낮은 가격 순으로 정렬
+ * - 최우선 매수/매도 호가는 O(1) 조회
+ * - 가격은 틱(long)으로 비교하므로 매칭 중 BigDecimal 객체를 만들지 않습니다.
+ * - 대기 주문은 OrderStore 슬롯에 저장하므로 주문 수만큼 객체가 쌓이지 않습니다.
+ * - 체결 결과는 재사용 목록(FillBuffer)에 담기므로 매칭 중 새 객체를 만들지 않습니다.
+ * - 동시호가(call auction) 중에는 체결 없이 주문만 모으고, uncross 에서 단일가로 한 번에 체결합니다.
+ * - 스탑 지정가 주문은 발동 전까지 StopOrderIndex 에서 대기하다가, 체결가가 발동 가격에 닿으면 지정가 주문으로 매칭됩니다.
+ * - 전량 체결되었거나 수량 감소로 끝난 주문 ID 는 ClosedOrderIds 에 남겨 같은 주문의 재등록을 막습니다 (isClosed).
+ *   취소는 남기지 않습니다 - 종목을 다른 노드로 넘길 때도 CANCEL 로 내리므로, 되돌려 받으면 다시 등록되어야 합니다.
+ * - 스레드 안전하지 않으므로 하나의 매칭 스레드에서만 사용해야 합니다. */
+public class OrderBook {
+    private static final int SNAPSHOT_ORDER_SIZE = 41;
+    private static final byte BUY_FLAG = 1;
+    private static final byte DAY_FLAG = 2;
+
+    private final long stockId;
+    private final OrderStore store;
+    private final PriceLadder bids;
+    private final PriceLadder asks;
+
+//    주문 ID -> 슬롯 핸들, 취소/수정 시 가격대 큐 탐색 없이 바로 접근
+    private final LongIntHashMap orders = new LongIntHashMap();
+    private final StopOrderIndex stops;
+    private final ClosedOrderIds closed;
+    private final FillBuffer fills = new FillBuffer();
+
+//    마지막 체결가(틱), 체결이 없었으면 0
+    private long lastTradePrice;
+
+//    이번 매칭 호출 중 최저/최고 체결가 - 스탑 발동 판정용
+    private long tradeLow;
+    private long tradeHigh;
+
+//    발동된 스탑 주문을 매칭할 때 재사용하는 객체
+    private final BookOrder triggered = new BookOrder();
+
+//    동시호가 여부 - true 면 신규/정정 주문을 체결하지 않고 호가창에 쌓기만 함
+    private boolean auction;
+
+//    마지막 단일가 계산 결과
+    private long auctionPrice;
+    private long auctionVolume;
+
+    public OrderBook(long stockId) {
+        this(stockId, new HeapOrderStore(), new ClosedOrderIds());
+    }
+
+    public OrderBook(long stockId, OrderStore store) {
+        this(stockId, store, new ClosedOrderIds());
+    }
+
+    //    같은 샤드의 호가창끼리 저장소와 종료 주문 ID 를 공유할 수 있음
+    public OrderBook(long stockId, OrderStore store, ClosedOrderIds closed) {
+        this.stockId = stockId;
+        this.store = store;
+        this.closed = closed;
+        this.bids = new PriceLadder(true, store);
+        this.asks = new PriceLadder(false, store);
+        this.stops = new StopOrderIndex(store);
+    }
+
+    public long getStockId() {
+        return stockId;
+    }
+
+    public PriceLevel getBestBid() {
+        return bids.best();
+    }
+
+    public PriceLevel getBestAsk() {
+        return asks.best();
+    }
+
+    //    호가창 또는 스탑 대기열에 있는 주문인지
+    public boolean contains(long orderId) {
+        return orders.containsKey(orderId) || stops.contains(orderId);
+    }
+
+    //    최근에 전량 체결되었거나 수량 감소로 끝난 주문인지 (ClosedOrderIds 크기 안에서)
+    public boolean isClosed(long orderId) {
+        return closed.contains(orderId);
+    }
+
+    //    호가창에 등록된 주문 수 (발동 전 스탑 주문 제외)
+    public int orderCount() {
+        return orders.size();
+    }
+
+    //    발동을 기다리는 스탑 주문 수
+    public int stopOrderCount() {
+        return stops.size();
+    }
+
+    //    마지막 체결가(틱), 체결이 없었으면 0
+    public long getLastTradePrice() {
+        return lastTradePrice;
+    }
+
+    public boolean isAuction() {
+        return auction;
+    }
+
+    void setAuction(boolean auction) {
+        this.auction = auction;
+    }
+
+    //    마지막 단일가 체결 가격(틱)
+    public long getAuctionPrice() {
+        return auctionPrice;
+    }
+
+    //    마지막 단일가 체결 수량
+    public long getAuctionVolume() {
+        return auctionVolume;
+    }
+
+    /* 신규 주문 매칭
+     * 1. 반대편 최우선 호가부터 가격이 맞는 동안 체결
+     * 2. 체결되고 남은 수량은 호가창에 등록
+     * 3. 체결가가 발동 가격에 닿은 스탑 주문을 차례로 매칭 (발동된 주문의 체결로 다시 발동되는 스탑까지)
+     * 동시호가 중에는 1 을 건너뛰고 전량 등록
+     * 스탑 주문은 마지막 체결가가 이미 발동 조건을 만족하면 바로 매칭하고, 아니면 스탑 대기열에 등록
+     * 반환된 체결 목록은 다음 매칭 때 재사용되므로 호출 직후 소비해야 합니다. */
+    public List<Fill> match(BookOrder incoming) {
+        if (contains(incoming.getOrderId())) {
+            throw new IllegalArgumentException("이미 호가창에 등록된 주문입니다.: " + incoming.getOrderId());
+        }
+
+        fills.clear();
+        tradeLow = Long.MAX_VALUE;
+        tradeHigh = Long.MIN_VALUE;
+        if (incoming.isStop() && !StopOrderIndex.isTriggered(incoming, lastTradePrice)) {
+            stops.add(incoming);
+            return fills;
+        }
+        execute(incoming);
+        triggerStops();
+        return fills;
+    }
+
+    //    반대편 호가와 매칭 후 남은 수량 등록
+    private void execute(BookOrder incoming) {
+        boolean buy = incoming.isBuy();
+        PriceLadder opposite = buy ? asks : bids;
+
+        while (!auction && incoming.getRemainCount() > 0) {
+            PriceLevel best = opposite.best();
+            if (best == null || !crosses(buy, incoming.getPrice(), best.getPrice())) {
+                break;
+            }
+
+            int maker = best.peek();
+            long makerOrderId = store.orderId(maker);
+            int count = Math.min(incoming.getRemainCount(), store.remainCount(maker));
+            fills.add(
+                    buy ? incoming.getOrderId() : makerOrderId,
+                    buy ? makerOrderId : incoming.getOrderId(),
+                    incoming.getOrderId(),
+                    best.getPrice(),
+                    count,
+                    incoming.getTimestamp()
+            );
+            traded(best.getPrice());
+
+            incoming.fill(count);
+            if (best.fillHead(count)) {
+                orders.remove(makerOrderId);
+                store.free(maker);
+                closed.add(makerOrderId);
+            }
+            if (best.isEmpty()) {
+                opposite.remove(best);
+            }
+        }
+
+        if (incoming.getRemainCount() > 0) {
+            rest(incoming);
+        } else {
+            closed.add(incoming.getOrderId());
+        }
+    }
+
+    //    발동된 스탑 주문을 발동 순서대로 매칭 - 동시호가 중에는 체결이 없으므로 발동하지 않음
+    private void triggerStops() {
+        while (!auction && stops.pollTriggered(tradeLow, tradeHigh, triggered)) {
+            execute(triggered);
+        }
+    }
+
+    private void traded(long price) {
+        lastTradePrice = price;
+        tradeLow = Math.min(tradeLow, price);
+        tradeHigh = Math.max(tradeHigh, price);
+    }
+
+    /* 단일가 매매 (uncross) - 동시호가 종료 시 한 번 호출
+     * 1. 겹치는 가격대만 한 번 훑어 체결 수량이 최대인 단일가를 계산 (O(가격대 수))
+     * 2. 매수는 높은 가격, 매도는 낮은 가격부터 시간순으로 그 가격에 체결
+     * 남은 주문은 호가창에 그대로 남고 동시호가가 해제됩니다. takerOrderId 는 0
+     * 단일가에 발동 조건을 만족한 스탑 주문은 접속 매매로 이어서 매칭합니다. */
+    public List<Fill> uncross(long executedAt) {
+        fills.clear();
+        tradeLow = Long.MAX_VALUE;
+        tradeHigh = Long.MIN_VALUE;
+        auction = false;
+        if (!computeEquilibrium()) {
+            auctionPrice = 0;
+            auctionVolume = 0;
+            return fills;
+        }
+
+        long remaining = auctionVolume;
+        while (remaining > 0) {
+            PriceLevel bidLevel = bids.best();
+            PriceLevel askLevel = asks.best();
+            int buy = bidLevel.peek();
+            int sell = askLevel.peek();
+            long buyOrderId = store.orderId(buy);
+            long sellOrderId = store.orderId(sell);
+            int count = (int) Math.min(remaining, Math.min(store.remainCount(buy), store.remainCount(sell)));
+            fills.add(buyOrderId, sellOrderId, 0L, auctionPrice, count, executedAt);
+            remaining -= count;
+
+            if (bidLevel.fillHead(count)) {
+                orders.remove(buyOrderId);
+                store.free(buy);
+                closed.add(buyOrderId);
+            }
+            if (bidLevel.isEmpty()) {
+                bids.remove(bidLevel);
+            }
+            if (askLevel.fillHead(count)) {
+                orders.remove(sellOrderId);
+                store.free(sell);
+                closed.add(sellOrderId);
+            }
+            if (askLevel.isEmpty()) {
+                asks.remove(askLevel);
+            }
+        }
+        traded(auctionPrice);
+        triggerStops();
+        return fills;
+    }
+
+    /* 단일가 계산 - 겹치는 가격대의 가격을 높은 순으로 훑으며
+     * 그 가격 이상 매수 누적(demand)과 이하 매도 누적(supply)으로 체결 수량 min(demand, supply) 를 구합니다.
+     * 동률이면 1) 잔량(|demand - supply|)이 적은 가격 2) 매수 잔량이면 높은 가격, 매도 잔량이면 낮은 가격
+     * 겹치는 호가가 없으면 false */
+    private boolean computeEquilibrium() {
+        PriceLevel bestBid = bids.best();
+        PriceLevel bestAsk = asks.best();
+        if (bestBid == null || bestAsk == null || bestBid.getPrice() < bestAsk.getPrice()) {
+            return false;
+        }
+        long highest = bestBid.getPrice();
+        long lowest = bestAsk.getPrice();
+
+//        최고 매수가 이하 매도 수량 합계, 가장 높은 겹치는 매도 가격대 위치
+        long supply = 0;
+        int askDepth = -1;
+        for (int depth = 0; depth < asks.size() && asks.levelAt(depth).getPrice() <= highest; depth++) {
+            supply += asks.levelAt(depth).getTotalCount();
+            askDepth = depth;
+        }
+
+        long demand = 0;
+        int bidDepth = 0;
+        long bestVolume = 0;
+        long bestSurplus = Long.MAX_VALUE;
+        long bestPrice = 0;
+        while (true) {
+            boolean bidLeft = bidDepth < bids.size() && bids.levelAt(bidDepth).getPrice() >= lowest;
+            if (!bidLeft && askDepth < 0) {
+                break;
+            }
+            long price = Math.max(bidLeft ? bids.levelAt(bidDepth).getPrice() : Long.MIN_VALUE,
+                    askDepth >= 0 ? asks.levelAt(askDepth).getPrice() : Long.MIN_VALUE);
+            while (bidDepth < bids.size() && bids.levelAt(bidDepth).getPrice() >= price) {
+                demand += bids.levelAt(bidDepth).getTotalCount();
+                bidDepth++;
+            }
+
+            long volume = Math.min(demand, supply);
+            long surplus = Math.abs(demand - supply);
+            if (volume > bestVolume
+                    || (volume == bestVolume && volume > 0 && surplus < bestSurplus)
+                    || (volume == bestVolume && volume > 0 && surplus == bestSurplus && supply > demand)) {
+                bestVolume = volume;
+                bestSurplus = surplus;
+                bestPrice = price;
+            }
+
+//            다음(더 낮은) 가격에서는 이 가격의 매도 수량이 빠짐
+            while (askDepth >= 0 && asks.levelAt(askDepth).getPrice() >= price) {
+                supply -= asks.levelAt(askDepth).getTotalCount();
+                askDepth--;
+            }
+        }
+
+        auctionPrice = bestPrice;
+        auctionVolume = bestVolume;
+        return bestVolume > 0;
+    }
+
+    /* 장 마감 - 당일(DAY) 주문을 호가창과 스탑 대기열에서 모두 제거, 제거한 주문 수 반환
+     * 하루 한 번 실행되므로 대상 주문 ID 를 먼저 모은 뒤 하나씩 취소합니다. */
+    public int expireDayOrders() {
+        long[] expired = new long[orders.size() + stops.size()];
+        int count = bids.collectDayOrders(expired, 0);
+        count = asks.collectDayOrders(expired, count);
+        count = stops.collectDayOrders(expired, count);
+        for (int i = 0; i < count; i++) {
+            cancel(expired[i]);
+        }
+        return count;
+    }
+
+    /* 주문 취소 - 호가창에서 제거
+     * 핸들 인덱스로 슬롯을 찾고, 가격대 큐에서 O(1) 로 떼어냅니다. */
+    public boolean cancel(long orderId) {
+        int slot = orders.remove(orderId);
+        if (slot == LongIntHashMap.MISSING) {
+            return stops.cancel(orderId);
+        }
+
+        PriceLadder side = store.isBuy(slot) ? bids : asks;
+        PriceLevel level = side.get(store.price(slot));
+        level.remove(slot);
+        if (level.isEmpty()) {
+            side.remove(level);
+        }
+        store.free(slot);
+        return true;
+    }
+
+    /* 주문 수량 감소 - 주문 수량을 orderCount 로 줄이고 큐 위치(시간 우선순위) 유지
+     * 남은 수량은 엔진이 아는 체결 수량 기준으로 다시 계산합니다: orderCount - 체결 수량
+     * 체결 수량은 DB 에서 다시 읽은 주문이면 그때의 체결 수량부터 이어서 셉니다 (OrderCommand.orderExecutedCount).
+     * 이미 orderCount 이상 체결되었으면 남은 수량을 취소하고, 지금 남은 수량보다 늘어나는 경우는 그대로 둡니다.
+     * 확정된 주문 수량(체결 수량 + 남은 수량) 반환, 호가창/스탑 대기열에 없으면 -1 */
+    public int reduceTo(long orderId, int orderCount) {
+        int slot = orders.get(orderId);
+        int remainCount;
+        int executedCount;
+        if (slot == LongIntHashMap.MISSING) {
+            remainCount = stops.remainCount(orderId);
+            executedCount = stops.executedCount(orderId);
+            if (remainCount == 0) {
+                return -1;
+            }
+        } else {
+            remainCount = store.remainCount(slot);
+            executedCount = store.executedCount(slot);
+        }
+
+        int reduceCount = remainCount - (orderCount - executedCount);
+        if (reduceCount <= 0) {
+            return executedCount + remainCount;
+        }
+        if (slot == LongIntHashMap.MISSING) {
+            stops.reduce(orderId, reduceCount);
+        } else if (reduceCount >= remainCount) {
+            cancel(orderId);
+        } else {
+//            같은 가격에서 남은 수량만 줄이고 큐 위치(시간 우선순위) 유지
+            PriceLadder side = store.isBuy(slot) ? bids : asks;
+            side.get(store.price(slot)).reduce(slot, reduceCount);
+        }
+        if (reduceCount >= remainCount) {
+            closed.add(orderId);
+        }
+        return Math.max(orderCount, executedCount);
+    }
+
+    /* 정정 - 기존 주문을 내리고 새 가격/수량으로 다시 매칭 (시간 우선순위 상실)
+     * 호가창 등록 이후 이미 체결된 수량은 새 수량(replacement)에서 차감
+     * 호가창에도 스탑 대기열에도 없으면 이미 전량 체결/취소된 주문이므로 아무것도 하지 않음 -
+     * DB 는 체결 저장보다 앞서 정정을 받아들일 수 있어 여기서 다시 매칭하면 같은 주문이 두 번 체결됩니다. */
+    public List<Fill> replace(BookOrder replacement) {
+        long orderId = replacement.getOrderId();
+        int existing = orders.get(orderId);
+        int executedCount;
+        if (existing != LongIntHashMap.MISSING) {
+            executedCount = store.executedCount(existing);
+        } else if (stops.contains(orderId)) {
+            executedCount = stops.executedCount(orderId);
+        } else {
+            return List.of();
+        }
+        cancel(orderId);
+
+        if (replacement.getRemainCount() <= executedCount) {
+            return List.of();
+        }
+        replacement.executedCount(0).reduce(executedCount);
+        return match(replacement);
+    }
+
+    //    호가창 또는 스탑 대기열에 있는 주문의 남은 수량, 없으면 0
+    public int remainCount(long orderId) {
+        int slot = orders.get(orderId);
+        return slot == LongIntHashMap.MISSING ? stops.remainCount(orderId) : store.remainCount(slot);
+    }
+
+    /* 스냅샷 기록 - 매수/매도 각각 최우선 가격대부터, 가격대 안에서는 큐 순서대로, 이어서 스탑 주문
+     * | stockId 8 | lastTradePrice 8 | orderCount 4 | stopCount 4 |
+     *   주문 (orderId 8 | userId 8 | flags 1 | price 8 | timestamp 8 | remainCount 4 | executedCount 4) ... | 스탑 주문 ... | */
+    void writeSnapshot(ByteBuffer out) {
+        out.putLong(stockId).putLong(lastTradePrice).putInt(orders.size()).putInt(stops.size());
+        writeSnapshot(bids, out);
+        writeSnapshot(asks, out);
+        stops.writeSnapshot(out);
+    }
+
+    //    스냅샷 크기(byte)
+    int snapshotSize() {
+        return Long.BYTES * 2 + Integer.BYTES * 2 + orders.size() * SNAPSHOT_ORDER_SIZE
+                + stops.size() * StopOrderIndex.SNAPSHOT_ORDER_SIZE;
+    }
+
+    //    스냅샷 복구 (stockId 다음부터) - 기록된 순서대로 큐 뒤에 붙이므로 시간 우선순위와 체결 수량이 그대로 유지
+    void readSnapshot(ByteBuffer in) {
+        lastTradePrice = in.getLong();
+        int orderCount = in.getInt();
+        int stopCount = in.getInt();
+        for (int i = 0; i < orderCount; i++) {
+            long orderId = in.getLong();
+            long userId = in.getLong();
+            byte flags = in.get();
+            boolean buy = isBuy(flags);
+            long price = in.getLong();
+            long timestamp = in.getLong();
+            int remainCount = in.getInt();
+            int executedCount = in.getInt();
+
+            int slot = store.allocate(orderId, userId, buy, price, timestamp, remainCount);
+            store.executedCount(slot, executedCount);
+            store.dayOrder(slot, isDayOrder(flags));
+            (buy ? bids : asks).getOrCreate(price).add(slot);
+            orders.put(orderId, slot);
+        }
+        stops.readSnapshot(in, stopCount);
+    }
+
+    private void writeSnapshot(PriceLadder side, ByteBuffer out) {
+        for (int depth = 0; depth < side.size(); depth++) {
+            for (int slot = side.levelAt(depth).peek(); slot != OrderStore.NONE; slot = store.next(slot)) {
+                out.putLong(store.orderId(slot))
+                        .putLong(store.userId(slot))
+                        .put(flags(store, slot))
+                        .putLong(store.price(slot))
+                        .putLong(store.timestamp(slot))
+                        .putInt(store.remainCount(slot))
+                        .putInt(store.executedCount(slot));
+            }
+        }
+    }
+
+    //    스냅샷 주문 flags - bit 0 매수, bit 1 당일 주문
+    static byte flags(OrderStore store, int slot) {
+        return (byte) ((store.isBuy(slot) ? BUY_FLAG : 0) | (store.isDayOrder(slot) ? DAY_FLAG : 0));
+    }
+
+    static boolean isBuy(byte flags) {
+        return (flags & BUY_FLAG) != 0;
+    }
+
+    static boolean isDayOrder(byte flags) {
+        return (flags & DAY_FLAG) != 0;
+    }
+
+    //    매수는 매도호가 이상, 매도는 매수호가 이하일 때 체결 가능
+    private static boolean crosses(boolean buy, long price, long opposite) {
+        return buy ? price >= opposite : price <= opposite;
+    }
+
+    //    남은 수량과 체결 수량을 슬롯에 복사해 호가창에 등록
+    private void rest(BookOrder order) {
+        int slot = store.allocate(order.getOrderId(), order.getUserId(), order.isBuy(),
+                order.getPrice(), order.getTimestamp(), order.getRemainCount());
+        store.executedCount(slot, order.getExecutedCount());
+        PriceLadder side = order.isBuy() ? bids : asks;
+        store.dayOrder(slot, order.isDayOrder());
+        side.getOrCreate(order.getPrice()).add(slot);
+        orders.put(order.getOrderId(), slot);
+    }
+}
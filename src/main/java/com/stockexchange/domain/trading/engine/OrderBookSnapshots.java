@@ -0,0 +1,150 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/* 샤드별 호가창 스냅샷 파일
+ * 스냅샷 시점까지 적용한 저널 시퀀스와 함께 호가창 전체를 바이너리로 저장합니다.
+ * 임시 파일에 쓰고 fsync 한 뒤 이름을 바꾸므로, 쓰다 만 스냅샷이 최신으로 읽히지 않습니다.
+ * 최근 RETAIN 개만 남기고 오래된 스냅샷은 삭제합니다.
+ *
+ * 파일 레이아웃
+ * | magic 4 | version 4 | shardId 4 | sequence 8 | bodyLength 4 | crc32 8 | body ... | */
+public class OrderBookSnapshots {
+    private static final int MAGIC = 0x4F425353; // "OBSS"
+    private static final int VERSION = 3; // 3 - 스탑 주문 체결 수량 추가
+    private static final int HEADER_SIZE = 32;
+    private static final int RETAIN = 2;
+    private static final String SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final int shardId;
+    private final String prefix;
+
+    public OrderBookSnapshots(Path directory, int shardId) {
+        this.directory = directory;
+        this.shardId = shardId;
+        this.prefix = "shard-" + shardId + "-";
+    }
+
+    //    스냅샷 저장 - sequence 는 스냅샷에 반영된 마지막 저널 시퀀스
+    public void write(long sequence, ByteBuffer body) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(shardId).putLong(sequence)
+                .putInt(body.remaining()).putLong(crc(body)).flip();
+
+        Path target = path(sequence);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                ByteBuffer data = body.duplicate();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOlder();
+        } catch (IOException e) {
+            throw new IllegalStateException("호가창 스냅샷을 저장할 수 없습니다.: " + target, e);
+        }
+    }
+
+    //    가장 최근의 유효한 스냅샷, 없으면 null (손상된 파일은 건너뛰고 이전 스냅샷 사용)
+    public Snapshot loadLatest() {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Snapshot snapshot = read(snapshots.get(i));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    private Snapshot read(Path path) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getInt() != shardId) {
+                return null;
+            }
+            long sequence = buffer.getLong();
+            int bodyLength = buffer.getInt();
+            long crc = buffer.getLong();
+            if (buffer.remaining() != bodyLength) {
+                return null;
+            }
+            ByteBuffer body = buffer.slice();
+            return crc(body) == crc ? new Snapshot(sequence, body) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void deleteOlder() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - RETAIN; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private List<Path> snapshots() {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(SUFFIX);
+            }).sorted().forEach(snapshots::add);
+        } catch (IOException e) {
+            throw new IllegalStateException("호가창 스냅샷 목록을 읽을 수 없습니다.: " + directory, e);
+        }
+        return snapshots;
+    }
+
+    //    파일 이름은 시퀀스를 0 으로 채운 20 자리 - 이름순 정렬이 시퀀스 순
+    private Path path(long sequence) {
+        return directory.resolve(prefix + String.format("%020d", sequence) + SUFFIX);
+    }
+
+    private static long crc(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return crc.getValue();
+    }
+
+    public static class Snapshot {
+        private final long sequence;
+        private final ByteBuffer body;
+
+        Snapshot(long sequence, ByteBuffer body) {
+            this.sequence = sequence;
+            this.body = body;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public ByteBuffer getBody() {
+            return body;
+        }
+    }
+}
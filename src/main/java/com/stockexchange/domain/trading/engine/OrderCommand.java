@@ -0,0 +1,137 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+
+/* 매칭 엔진으로 보내는 주문 명령 (신규/수정/취소)
+ * 주문 트랜잭션이 커밋된 직후 매칭 엔진에 전달됩니다.
+ * 가격은 틱(long), 시각은 epoch 나노초(long) 입니다. 스탑 가격이 0 이면 일반 지정가 주문입니다.
+ * 유효 기간(timeInForce)이 DAY 인 주문만 장 마감 시 엔진에서 일괄 만료되고, 그 외(GTD, 미지정)는 개별 취소 명령으로 내립니다.
+ * DB 에서 다시 읽어 넣는 신규 주문(재기동 복구, 호가창 인계, 대사)은 그때까지 체결된 수량(orderExecutedCount)을 함께 보내
+ * 엔진이 주문 수량 기준 계산(수량 감소)을 처음 접수된 주문과 같게 하도록 합니다.
+ * 링 버퍼는 미리 만들어 둔 명령 객체에 값을 복사해 재사용하므로, 엔진 밖에서는 값 객체로만 취급합니다. */
+public class OrderCommand {
+    private OrderCommandType commandType;
+    private long orderId;
+    private long userId;
+    private long stockId;
+    private OrderType orderType;
+    private long orderPrice;
+    private int orderRemainCount;
+    private int orderExecutedCount;
+    private long stopPrice;
+    private TimeInForce timeInForce;
+    private long timestamp;
+
+    //    링 버퍼 슬롯/매칭 스레드 재사용 객체
+    OrderCommand() {
+    }
+
+    public OrderCommand(OrderCommandType commandType, long orderId, long userId, long stockId,
+                        OrderType orderType, long orderPrice, int orderRemainCount, long timestamp) {
+        this(commandType, orderId, userId, stockId, orderType, orderPrice, 0L, orderRemainCount, timestamp);
+    }
+
+    public OrderCommand(OrderCommandType commandType, long orderId, long userId, long stockId,
+                        OrderType orderType, long orderPrice, long stopPrice, int orderRemainCount, long timestamp) {
+        this(commandType, orderId, userId, stockId, orderType, orderPrice, stopPrice, null, orderRemainCount, timestamp);
+    }
+
+    public OrderCommand(OrderCommandType commandType, long orderId, long userId, long stockId, OrderType orderType,
+                        long orderPrice, long stopPrice, TimeInForce timeInForce, int orderRemainCount, long timestamp) {
+        this(commandType, orderId, userId, stockId, orderType, orderPrice, stopPrice, timeInForce, orderRemainCount, 0, timestamp);
+    }
+
+    public OrderCommand(OrderCommandType commandType, long orderId, long userId, long stockId, OrderType orderType,
+                        long orderPrice, long stopPrice, TimeInForce timeInForce, int orderRemainCount,
+                        int orderExecutedCount, long timestamp) {
+        set(commandType, orderId, userId, stockId, orderType, orderPrice, stopPrice, timeInForce,
+                orderRemainCount, orderExecutedCount, timestamp);
+    }
+
+    public OrderCommandType getCommandType() {
+        return commandType;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getStockId() {
+        return stockId;
+    }
+
+    public OrderType getOrderType() {
+        return orderType;
+    }
+
+    //    주문 가격(틱)
+    public long getOrderPrice() {
+        return orderPrice;
+    }
+
+    //    스탑 발동 가격(틱), 일반 주문은 0
+    public long getStopPrice() {
+        return stopPrice;
+    }
+
+    //    주문 유효 기간, 주문이 아닌 명령이나 미지정이면 null
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public int getOrderRemainCount() {
+        return orderRemainCount;
+    }
+
+    //    명령 이전에 이미 체결된 수량 (DB 에서 다시 읽은 신규 주문), 그 외 0
+    public int getOrderExecutedCount() {
+        return orderExecutedCount;
+    }
+
+    //    명령 접수 시각(epoch 나노초)
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    //    호가창 등록용 주문으로 변환
+    public BookOrder toBookOrder() {
+        return new BookOrder(orderId, userId, orderType, orderPrice, stopPrice, timestamp, orderRemainCount)
+                .dayOrder(timeInForce == TimeInForce.DAY)
+                .executedCount(orderExecutedCount);
+    }
+
+    //    재사용 중인 주문 객체에 값을 채워 변환 (매칭 스레드 전용, 객체 생성 없음)
+    BookOrder toBookOrder(BookOrder target) {
+        return target.reset(orderId, userId, orderType, orderPrice, stopPrice, timestamp, orderRemainCount)
+                .dayOrder(timeInForce == TimeInForce.DAY)
+                .executedCount(orderExecutedCount);
+    }
+
+    void set(OrderCommandType commandType, long orderId, long userId, long stockId,
+             OrderType orderType, long orderPrice, long stopPrice, TimeInForce timeInForce, int orderRemainCount,
+             int orderExecutedCount, long timestamp) {
+        this.commandType = commandType;
+        this.orderId = orderId;
+        this.userId = userId;
+        this.stockId = stockId;
+        this.orderType = orderType;
+        this.orderPrice = orderPrice;
+        this.stopPrice = stopPrice;
+        this.timeInForce = timeInForce;
+        this.orderRemainCount = orderRemainCount;
+        this.orderExecutedCount = orderExecutedCount;
+        this.timestamp = timestamp;
+    }
+
+    //    다른 명령의 값을 그대로 복사
+    void copyFrom(OrderCommand source) {
+        set(source.commandType, source.orderId, source.userId, source.stockId,
+                source.orderType, source.orderPrice, source.stopPrice, source.timeInForce, source.orderRemainCount,
+                source.orderExecutedCount, source.timestamp);
+    }
+}
@@ -0,0 +1,33 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.List;
+
+/* 한 종목에 대한 명령 묶음 (매수/매도 호가 일괄 교체 등)
+ * 같은 샤드 링 버퍼의 연속된 자리에 한 번에 넣으므로, 묶음 사이에 다른 명령이 끼어들지 않고 순서대로 적용됩니다.
+ * 저널에는 명령마다 기존 형식 그대로 기록합니다. */
+public class OrderCommandBatch {
+    private final long stockId;
+    private final List<OrderCommand> commands;
+
+    public OrderCommandBatch(long stockId, List<OrderCommand> commands) {
+        for (OrderCommand command : commands) {
+            if (command.getStockId() != stockId) {
+                throw new IllegalArgumentException("한 묶음의 명령은 같은 종목이어야 합니다.: " + command.getStockId());
+            }
+        }
+        this.stockId = stockId;
+        this.commands = List.copyOf(commands);
+    }
+
+    public long getStockId() {
+        return stockId;
+    }
+
+    public List<OrderCommand> getCommands() {
+        return commands;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+}
@@ -0,0 +1,118 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* 고정 크기 lock-free 링 버퍼 (다중 생산자 / 단일 소비자)
+ * - 생산자(API 스레드)는 CAS 로 자리를 예약한 뒤 명령을 기록
+ * - 소비자(매칭 스레드)는 하나뿐이므로 락 없이 순서대로 꺼냄
+ * - 슬롯마다 sequence 를 두어 기록 완료 여부를 판단합니다.
+ * - 슬롯마다 명령 객체를 미리 만들어 두고 값만 복사하므로, 버퍼가 명령 객체를 붙잡지 않고 새로 만들지도 않습니다. */
+public class OrderCommandRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final OrderCommand[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public OrderCommandRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("링 버퍼 크기는 2의 거듭제곱이어야 합니다.: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = new OrderCommand[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            buffer[i] = new OrderCommand();
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    //    대략적인 적재 건수 (모니터링 용도)
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    //    지금까지 생산자가 예약한 자리 수 (꺼낸 명령 수가 이 값에 이르면 그때까지 넣은 명령을 모두 꺼낸 것)
+    public long claimed() {
+        return tail.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    //    명령 값 복사 - 버퍼가 가득 차면 false
+    public boolean offer(OrderCommand command) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index].copyFrom(command);
+                    sequences.lazySet(index, position + 1); // 기록 완료 공개
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /* 여러 명령을 연속된 자리에 한 번에 복사 - 자리가 모자라면 아무것도 넣지 않고 false
+     * 마지막 자리가 비어 있으면 그 앞 자리들도 이미 소비된 것이므로 마지막 자리만 확인해 한 번의 CAS 로 예약합니다.
+     * 예약한 자리 사이에는 다른 생산자의 명령이 들어올 수 없습니다. */
+    public boolean offerAll(List<OrderCommand> commands) {
+        int count = commands.size();
+        if (count == 0) {
+            return true;
+        }
+        if (count > capacity) {
+            throw new IllegalArgumentException("링 버퍼 크기보다 많은 명령은 한 번에 넣을 수 없습니다.: " + count);
+        }
+        long position = tail.get();
+        while (true) {
+            long last = position + count - 1;
+            long diff = sequences.get((int) (last & mask)) - last;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + count)) {
+                    for (int i = 0; i < count; i++) {
+                        int index = (int) ((position + i) & mask);
+                        buffer[index].copyFrom(commands.get(i));
+                        sequences.lazySet(index, position + i + 1);
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    //    명령 꺼내기 - 매칭 스레드 하나에서만 호출, target 에 값을 복사하고 비어 있으면 false
+    public boolean poll(OrderCommand target) {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return false;
+        }
+        target.copyFrom(buffer[index]);
+        sequences.lazySet(index, position + capacity); // 다음 바퀴 생산자에게 슬롯 반환
+        head.lazySet(position + 1);
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 주문 명령 종류
+ * - NEW : 신규 주문
+ * - AMEND : 가격 변경/수량 증가 - 기존 주문을 내리고 재등록 (시간 우선순위 상실)
+ * - REDUCE : 수량 감소 - 제자리 수정 (시간 우선순위 유지), orderRemainCount 는 줄인 뒤의 주문 수량 (남은 수량은 엔진이 계산)
+ * - CANCEL : 주문 취소
+ * - AUCTION : 동시호가 시작 (샤드 전체, 이후 주문은 체결 없이 접수만)
+ * - UNCROSS : 동시호가 종료 - 종목별 단일가 체결 후 접속 매매 전환 (샤드 전체)
+ * - EXPIRE_DAY : 장 마감 - 당일(DAY) 주문 잔량을 호가창/스탑 대기열에서 일괄 제거 (샤드 전체)
+ * - SNAPSHOT : 호가창 스냅샷 (엔진 내부 barrier, 앞서 들어온 명령을 모두 적용한 시점에 수행, 저널에 기록하지 않음) */
+public enum OrderCommandType {
+    NEW, AMEND, REDUCE, CANCEL, AUCTION, UNCROSS, EXPIRE_DAY, SNAPSHOT
+}
@@ -0,0 +1,330 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/* 샤드별 주문 명령 저널 (write-ahead log)
+ * 매칭 스레드가 명령을 적용하기 전에 메모리 맵 파일에 순서대로 기록하고,
+ * 재기동 시 스냅샷 이후 기록만 다시 적용해 호가창을 복구합니다.
+ * - 기록은 고정 크기(80 byte) 레코드를 순차 append
+ * - fsync 는 N 건 또는 T 마이크로초마다 모아서 수행 (group fsync)
+ * - 세그먼트가 가득 차면 다음 시퀀스로 시작하는 새 파일로 교체
+ * 매칭 스레드 하나에서만 사용해야 합니다. 대기 노드 복제도 같은 레코드 형식을 그대로 전송합니다 (encode/decode).
+ *
+ * 레코드 레이아웃
+ * | sequence 8 | commandType 1 | orderType 1 | timeInForce 1 | padding 1 | remainCount 4 | orderId 8 | userId 8 | stockId 8 | price 8 | timestamp 8 | stopPrice 8 |
+ * | executedCount 4 | padding 4 | checksum 8 | */
+public class OrderJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 80;
+    private static final int SEQUENCE = 0;
+    private static final int COMMAND_TYPE = 8;
+    private static final int ORDER_TYPE = 9;
+    private static final int TIME_IN_FORCE = 10;
+    private static final int REMAIN_COUNT = 12;
+    private static final int ORDER_ID = 16;
+    private static final int USER_ID = 24;
+    private static final int STOCK_ID = 32;
+    private static final int PRICE = 40;
+    private static final int TIMESTAMP = 48;
+    private static final int STOP_PRICE = 56;
+    private static final int EXECUTED_COUNT = 64;
+    private static final int CHECKSUM = 72;
+
+    private static final OrderCommandType[] COMMAND_TYPES = OrderCommandType.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final TimeInForce[] TIME_IN_FORCES = TimeInForce.values();
+    private static final String SUFFIX = ".journal";
+    private static final int NO_ORDER_TYPE = -1; // 동시호가 시작/종료처럼 주문이 아닌 명령
+    private static final int NO_TIME_IN_FORCE = -1;
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final int fsyncEveryRecords;
+    private final long fsyncIntervalNanos;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int position;
+    private int syncedPosition;
+    private long nextSequence = 1;
+    private long lastSyncNanos;
+
+    public OrderJournal(int shardId, JournalConfig config) {
+        this.directory = config.getDirectory();
+        this.prefix = "shard-" + shardId + "-";
+        this.segmentSize = config.getSegmentSize() / RECORD_SIZE * RECORD_SIZE;
+        this.fsyncEveryRecords = config.getFsyncEveryRecords();
+        this.fsyncIntervalNanos = config.getFsyncIntervalMicros() * 1_000L;
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("저널 세그먼트 크기가 너무 작습니다.: " + config.getSegmentSize());
+        }
+    }
+
+    //    다음에 기록될 시퀀스
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    /* 저널 열기 + 기존 기록 재생
+     * 세그먼트를 시퀀스 순으로 읽어 afterSequence 이후 명령만 handler 에 전달하고,
+     * 끝(또는 깨진 레코드) 다음부터 이어서 기록합니다. 스냅샷이 없으면 afterSequence 는 0
+     * 반환값은 재생한 명령 수 */
+    public long open(long afterSequence, Consumer<OrderCommand> handler) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            nextSequence = segments.isEmpty() ? afterSequence + 1 : firstSequence(segments.get(0));
+            if (nextSequence > afterSequence + 1) {
+                throw new IllegalStateException("저널이 스냅샷 시퀀스 " + afterSequence + " 이후부터 이어지지 않습니다.: " + segments.get(0));
+            }
+
+            long replayed = 0;
+            OrderCommand command = new OrderCommand();
+            for (Path path : segments) {
+                mapSegment(path);
+                while (position + RECORD_SIZE <= segmentSize && read(position, command)) {
+                    if (nextSequence > afterSequence) {
+                        handler.accept(command);
+                        replayed++;
+                    }
+                    position += RECORD_SIZE;
+                    nextSequence++;
+                }
+//                세그먼트 중간에서 끊겼으면 여기가 끝 - 이어서 기록
+                boolean last = path.equals(segments.get(segments.size() - 1));
+                if (last || position + RECORD_SIZE <= segmentSize) {
+                    break;
+                }
+                closeSegment();
+            }
+
+//            저널 끝이 스냅샷보다 앞이면 (fsync 전 장애) 스냅샷 다음 시퀀스로 새 세그먼트 시작
+            if (segment != null && nextSequence <= afterSequence) {
+                closeSegment();
+                nextSequence = afterSequence + 1;
+            }
+            if (segment == null) {
+                mapSegment(segmentPath(nextSequence));
+            }
+            clearTail();
+            syncedPosition = position;
+            lastSyncNanos = System.nanoTime();
+            return replayed;
+        } catch (IOException e) {
+            throw new IllegalStateException("주문 저널을 열 수 없습니다.: " + directory, e);
+        }
+    }
+
+    /* 스냅샷에 모두 포함된 세그먼트 삭제
+     * 다음 세그먼트의 첫 시퀀스가 sequence + 1 이하인 세그먼트만 지우므로 기록 중인 마지막 세그먼트는 남습니다.
+     * 파일만 다루므로 매칭 스레드가 아닌 스레드에서 호출해도 됩니다. */
+    public int deleteSegmentsThrough(long sequence) {
+        try {
+            List<Path> segments = segments();
+            int deleted = 0;
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstSequence(segments.get(i + 1)) > sequence + 1) {
+                    break;
+                }
+                Files.deleteIfExists(segments.get(i));
+                deleted++;
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw new IllegalStateException("주문 저널 세그먼트를 삭제할 수 없습니다.: " + directory, e);
+        }
+    }
+
+    //    명령 기록 - fsync 조건(N 건 / T 마이크로초)을 만족하면 디스크 반영, 기록한 시퀀스 반환
+    public long append(OrderCommand command) {
+        if (position + RECORD_SIZE > segmentSize) {
+            roll();
+        }
+        long sequence = nextSequence++;
+        encode(segment, position, sequence, command);
+        position += RECORD_SIZE;
+
+        if ((position - syncedPosition) / RECORD_SIZE >= fsyncEveryRecords
+                || System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos) {
+            sync();
+        }
+        return sequence;
+    }
+
+    //    레코드 하나를 buffer 의 offset 위치에 기록
+    static void encode(ByteBuffer buffer, int offset, long sequence, OrderCommand command) {
+        int orderType = command.getOrderType() == null ? NO_ORDER_TYPE : command.getOrderType().ordinal();
+        int timeInForce = command.getTimeInForce() == null ? NO_TIME_IN_FORCE : command.getTimeInForce().ordinal();
+        long checksum = checksum(sequence, command.getCommandType().ordinal(), orderType, timeInForce,
+                command.getOrderRemainCount(), command.getOrderId(), command.getUserId(), command.getStockId(),
+                command.getOrderPrice(), command.getTimestamp(), command.getStopPrice(), command.getOrderExecutedCount());
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.put(offset + COMMAND_TYPE, (byte) command.getCommandType().ordinal());
+        buffer.put(offset + ORDER_TYPE, (byte) orderType);
+        buffer.put(offset + TIME_IN_FORCE, (byte) timeInForce);
+        buffer.putInt(offset + REMAIN_COUNT, command.getOrderRemainCount());
+        buffer.putLong(offset + ORDER_ID, command.getOrderId());
+        buffer.putLong(offset + USER_ID, command.getUserId());
+        buffer.putLong(offset + STOCK_ID, command.getStockId());
+        buffer.putLong(offset + PRICE, command.getOrderPrice());
+        buffer.putLong(offset + TIMESTAMP, command.getTimestamp());
+        buffer.putLong(offset + STOP_PRICE, command.getStopPrice());
+        buffer.putInt(offset + EXECUTED_COUNT, command.getOrderExecutedCount());
+        buffer.putLong(offset + CHECKSUM, checksum);
+    }
+
+    /* buffer 의 offset 위치 레코드를 읽어 target 에 채우고 시퀀스 반환
+     * 체크섬이 맞지 않거나 값이 범위를 벗어나면 target 을 건드리지 않고 -1 */
+    static long decode(ByteBuffer buffer, int offset, OrderCommand target) {
+        long sequence = buffer.getLong(offset + SEQUENCE);
+        int commandType = buffer.get(offset + COMMAND_TYPE);
+        int orderType = buffer.get(offset + ORDER_TYPE);
+        int timeInForce = buffer.get(offset + TIME_IN_FORCE);
+        int remainCount = buffer.getInt(offset + REMAIN_COUNT);
+        long orderId = buffer.getLong(offset + ORDER_ID);
+        long userId = buffer.getLong(offset + USER_ID);
+        long stockId = buffer.getLong(offset + STOCK_ID);
+        long price = buffer.getLong(offset + PRICE);
+        long timestamp = buffer.getLong(offset + TIMESTAMP);
+        long stopPrice = buffer.getLong(offset + STOP_PRICE);
+        int executedCount = buffer.getInt(offset + EXECUTED_COUNT);
+        long checksum = checksum(sequence, commandType, orderType, timeInForce, remainCount, orderId, userId, stockId,
+                price, timestamp, stopPrice, executedCount);
+        if (buffer.getLong(offset + CHECKSUM) != checksum
+                || commandType < 0 || commandType >= COMMAND_TYPES.length
+                || orderType < NO_ORDER_TYPE || orderType >= ORDER_TYPES.length
+                || timeInForce < NO_TIME_IN_FORCE || timeInForce >= TIME_IN_FORCES.length) {
+            return -1;
+        }
+        target.set(COMMAND_TYPES[commandType], orderId, userId, stockId,
+                orderType == NO_ORDER_TYPE ? null : ORDER_TYPES[orderType], price, stopPrice,
+                timeInForce == NO_TIME_IN_FORCE ? null : TIME_IN_FORCES[timeInForce], remainCount, executedCount, timestamp);
+        return sequence;
+    }
+
+    //    마지막 fsync 이후 T 마이크로초가 지났으면 디스크 반영 (매칭 스레드 유휴 시 호출)
+    public void syncIfDue() {
+        if (position != syncedPosition && System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos) {
+            sync();
+        }
+    }
+
+    //    기록된 범위만 디스크 반영
+    public void sync() {
+        if (position != syncedPosition) {
+            segment.force(syncedPosition, position - syncedPosition);
+            syncedPosition = position;
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            sync();
+            closeSegment();
+        }
+    }
+
+    //    세그먼트 교체 - 현재 파일을 반영하고 다음 시퀀스로 시작하는 새 파일을 매핑
+    private void roll() {
+        sync();
+        closeSegment();
+        try {
+            mapSegment(segmentPath(nextSequence));
+        } catch (IOException e) {
+            throw new IllegalStateException("주문 저널 세그먼트를 만들 수 없습니다.: " + directory, e);
+        }
+        syncedPosition = 0;
+    }
+
+    private void mapSegment(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        position = 0;
+    }
+
+    private void closeSegment() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("주문 저널 세그먼트를 닫을 수 없습니다.: " + directory, e);
+        }
+        channel = null;
+        segment = null;
+    }
+
+    //    깨진 레코드 뒤에 남은 이전 기록 제거 - 덮어쓴 뒤 재생 시 옛 레코드가 이어 붙지 않도록
+    private void clearTail() {
+        int end = position;
+        while (end + RECORD_SIZE <= segmentSize && segment.getLong(end + SEQUENCE) != 0) {
+            for (int offset = 0; offset < RECORD_SIZE; offset += Long.BYTES) {
+                segment.putLong(end + offset, 0L);
+            }
+            end += RECORD_SIZE;
+        }
+        if (end != position) {
+            segment.force(position, end - position);
+        }
+    }
+
+    //    시퀀스가 이어지고 체크섬이 맞는 레코드만 유효 (중간에 끊긴 기록은 버림)
+    private boolean read(int offset, OrderCommand target) {
+        return segment.getLong(offset + SEQUENCE) == nextSequence && decode(segment, offset, target) == nextSequence;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(SUFFIX);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+    }
+
+    //    파일 이름은 첫 시퀀스를 0 으로 채운 20 자리 - 이름순 정렬이 시퀀스 순
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(prefix + String.format("%020d", firstSequence) + SUFFIX);
+    }
+
+    private static long checksum(long sequence, int commandType, int orderType, int timeInForce, int remainCount,
+                                 long orderId, long userId, long stockId, long price, long timestamp, long stopPrice,
+                                 int executedCount) {
+        long hash = sequence;
+        hash = mix(hash, ((long) (timeInForce & 0xFF) << 48) | ((long) commandType << 40)
+                | ((long) (orderType & 0xFF) << 32) | (remainCount & 0xFFFFFFFFL));
+        hash = mix(hash, orderId);
+        hash = mix(hash, userId);
+        hash = mix(hash, stockId);
+        hash = mix(hash, price);
+        hash = mix(hash, timestamp);
+        hash = mix(hash, stopPrice);
+        hash = mix(hash, executedCount & 0xFFFFFFFFL);
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,64 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 호가창 주문 저장소
+ * 주문 한 건을 고정 레이아웃 슬롯 하나에 저장하고 int 슬롯 번호(핸들)로 접근합니다.
+ * 가격대 큐 연결(prev/next)도 슬롯 번호로 저장하므로 주문마다 객체를 만들지 않습니다.
+ * 해제된 슬롯은 free list 로 재사용합니다.
+ * - HEAP : primitive 배열 (테스트/소규모)
+ * - OFF_HEAP : direct ByteBuffer (GC 대상 아님) */
+public interface OrderStore {
+    int NONE = -1;
+
+    //    슬롯 할당 후 주문 정보 기록 (스탑 가격은 0, 당일 주문 여부는 false 로 초기화)
+    int allocate(long orderId, long userId, boolean buy, long price, long timestamp, int remainCount);
+
+    //    슬롯 반환 (free list 로 재사용)
+    void free(int slot);
+
+    //    사용 중인 슬롯 수
+    int size();
+
+    long orderId(int slot);
+
+    long userId(int slot);
+
+    boolean isBuy(int slot);
+
+    long price(int slot);
+
+    long timestamp(int slot);
+
+    int remainCount(int slot);
+
+    void remainCount(int slot, int remainCount);
+
+    int executedCount(int slot);
+
+    //    당일(DAY) 주문 여부 - 장 마감 시 일괄 만료 대상
+    boolean isDayOrder(int slot);
+
+    void dayOrder(int slot, boolean dayOrder);
+
+    //    스탑 주문의 발동 가격(틱), 일반 주문은 0
+    long stopPrice(int slot);
+
+    void stopPrice(int slot, long stopPrice);
+
+    void executedCount(int slot, int executedCount);
+
+    int prev(int slot);
+
+    void prev(int slot, int prev);
+
+    int next(int slot);
+
+    void next(int slot, int next);
+
+    enum Type {
+        HEAP, OFF_HEAP;
+
+        public OrderStore create() {
+            return this == HEAP ? new HeapOrderStore() : new OffHeapOrderStore();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.util.Arrays;
+
+/* 한쪽(매수 또는 매도) 호가의 가격대 목록
+ * 가격대를 정렬된 배열로 들고 있고, 최우선 호가를 배열 끝에 둡니다.
+ * - 최우선 호가 조회/제거 : O(1)
+ * - 가격대 조회 : 이진 탐색 O(log n), long 비교만 사용 (박싱 없음)
+ * - 가격대 추가 : 대부분 최우선 호가 근처에 들어오므로 이동량이 적음
+ * 비워진 가격대 객체는 풀에 모아 두었다가 새 가격대에 재사용합니다. */
+class PriceLadder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean buySide;
+    private final OrderStore store;
+    private PriceLevel[] levels = new PriceLevel[INITIAL_CAPACITY];
+    private int size;
+    private PriceLevel[] pool = new PriceLevel[INITIAL_CAPACITY];
+    private int pooled;
+
+    PriceLadder(boolean buySide, OrderStore store) {
+        this.buySide = buySide;
+        this.store = store;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    PriceLevel best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    //    최우선 호가부터 depth 번째 가격대
+    PriceLevel levelAt(int depth) {
+        return levels[size - 1 - depth];
+    }
+
+    //    가격대 조회, 없으면 null
+    PriceLevel get(long price) {
+        int index = indexOf(price);
+        return index < 0 ? null : levels[index];
+    }
+
+    PriceLevel getOrCreate(long price) {
+        int index = indexOf(price);
+        if (index >= 0) {
+            return levels[index];
+        }
+
+        int insertAt = -(index + 1);
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        PriceLevel level = pooled == 0 ? new PriceLevel(price, store) : pool[--pooled].reset(price);
+        levels[insertAt] = level;
+        size++;
+        return level;
+    }
+
+    void remove(PriceLevel level) {
+        int index = indexOf(level.getPrice());
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+        if (pooled == pool.length) {
+            pool = Arrays.copyOf(pool, pooled * 2);
+        }
+        pool[pooled++] = level;
+    }
+
+    //    당일 주문의 주문 ID 를 out[count] 부터 채우고 늘어난 count 반환 (장 마감 시 한 번)
+    int collectDayOrders(long[] out, int count) {
+        for (int index = 0; index < size; index++) {
+            for (int slot = levels[index].peek(); slot != OrderStore.NONE; slot = store.next(slot)) {
+                if (store.isDayOrder(slot)) {
+                    out[count++] = store.orderId(slot);
+                }
+            }
+        }
+        return count;
+    }
+
+    /* 이진 탐색 - 없으면 -(삽입 위치 + 1)
+     * 매수는 오름차순(최고가가 끝), 매도는 내림차순(최저가가 끝) 정렬 */
+    private int indexOf(long price) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midPrice = levels[mid].getPrice();
+            if (midPrice == price) {
+                return mid;
+            }
+            boolean before = buySide ? midPrice < price : midPrice > price;
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 같은 가격의 주문 묶음
+ * 먼저 들어온 주문이 먼저 체결되도록 FIFO 큐로 관리합니다.
+ * 큐는 OrderStore 슬롯의 prev/next 로 연결한 이중 연결 리스트라서
+ * 추가/맨 앞 체결/중간 취소 모두 O(1) 이고 주문마다 노드 객체를 만들지 않습니다. */
+public class PriceLevel {
+    private long price;
+    private final OrderStore store;
+    private int head = OrderStore.NONE;
+    private int tail = OrderStore.NONE;
+    private int size;
+    private long totalCount;
+
+    PriceLevel(long price, OrderStore store) {
+        this.price = price;
+        this.store = store;
+    }
+
+    //    빈 가격대 재사용 (PriceLadder 풀에서 꺼낼 때)
+    PriceLevel reset(long price) {
+        this.price = price;
+        this.head = OrderStore.NONE;
+        this.tail = OrderStore.NONE;
+        this.size = 0;
+        this.totalCount = 0;
+        return this;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //    가장 먼저 들어온 주문 슬롯
+    int peek() {
+        return head;
+    }
+
+    void add(int slot) {
+        store.prev(slot, tail);
+        store.next(slot, OrderStore.NONE);
+        if (tail == OrderStore.NONE) {
+            head = slot;
+        } else {
+            store.next(tail, slot);
+        }
+        tail = slot;
+        size++;
+        totalCount += store.remainCount(slot);
+    }
+
+    //    맨 앞 주문 체결 - 전량 체결되면 큐에서 떼어내고 true (슬롯 반환은 호출 측)
+    boolean fillHead(int count) {
+        int slot = head;
+        int remainCount = store.remainCount(slot) - count;
+        store.remainCount(slot, remainCount);
+        store.executedCount(slot, store.executedCount(slot) + count);
+        totalCount -= count;
+        if (remainCount == 0) {
+            unlink(slot);
+            return true;
+        }
+        return false;
+    }
+
+    //    제자리 수량 감소 - 큐 위치(시간 우선순위) 유지, 체결 수량은 그대로
+    void reduce(int slot, int count) {
+        store.remainCount(slot, store.remainCount(slot) - count);
+        totalCount -= count;
+    }
+
+    //    큐 중간의 주문 제거 - 탐색 없이 앞뒤 연결만 변경
+    void remove(int slot) {
+        totalCount -= store.remainCount(slot);
+        unlink(slot);
+    }
+
+    private void unlink(int slot) {
+        int prev = store.prev(slot);
+        int next = store.next(slot);
+        if (prev == OrderStore.NONE) {
+            head = next;
+        } else {
+            store.next(prev, next);
+        }
+        if (next == OrderStore.NONE) {
+            tail = prev;
+        } else {
+            store.prev(next, prev);
+        }
+        size--;
+    }
+}
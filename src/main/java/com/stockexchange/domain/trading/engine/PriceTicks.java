@@ -0,0 +1,27 @@
+package com.stockexchange.domain.trading.engine;
+
+import java.math.BigDecimal;
+
+/* 가격 <-> 틱(long) 변환
+ * 매칭 엔진 내부에서는 가격을 소수점 2자리 고정소수점 long(1틱 = 0.01원)으로 다룹니다.
+ * BigDecimal 변환은 REST/JPA 경계에서만 수행합니다. */
+public final class PriceTicks {
+    public static final int SCALE = 2; // order_price decimal(12, 2)
+
+    private PriceTicks() {
+    }
+
+    //    BigDecimal -> 틱, 소수점 2자리를 넘으면 예외
+    public static long toTicks(BigDecimal price) {
+        try {
+            return price.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("가격은 소수점 " + SCALE + "자리까지만 입력할 수 있습니다.: " + price);
+        }
+    }
+
+    //    틱 -> BigDecimal
+    public static BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, SCALE);
+    }
+}
@@ -0,0 +1,11 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 저널 기록 직후 콜백 - 매칭 스레드에서 명령을 적용하기 전에 호출
+ * 매칭 스레드는 링 버퍼에서 꺼낸 명령 묶음을 모두 저널에 기록(onJournaled)한 뒤 onBatchJournaled 를 한 번 호출하고 적용합니다.
+ * - 주 노드 : 대기 노드 전송 대기열에 레코드를 넣고, 동기 복제면 묶음의 마지막 시퀀스 확인 응답까지 대기
+ * - 대기 노드 : 기록 완료 시퀀스를 모아 두었다가 묶음마다 확인 응답 */
+public interface ReplicationListener {
+    void onJournaled(int shardId, long sequence, OrderCommand command);
+
+    void onBatchJournaled(int shardId, long lastSequence);
+}
@@ -0,0 +1,8 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 대기 노드 복제 방식
+ * - ASYNC : 전송만 하고 바로 적용 (주 노드 지연 없음, 장애 시 전송 중이던 명령 유실 가능)
+ * - SYNC : 대기 노드가 저널에 기록했다는 확인 응답을 받은 뒤 적용 (명령당 왕복 지연 추가) */
+public enum ReplicationMode {
+    ASYNC, SYNC
+}
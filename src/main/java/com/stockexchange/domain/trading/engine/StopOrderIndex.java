@@ -0,0 +1,165 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+
+import java.nio.ByteBuffer;
+
+/* 종목별 스탑 주문 대기열 (발동 가격 순 트리거 인덱스)
+ * - 매수 스탑 : 체결가가 발동 가격 이상이 되면 발동, 낮은 발동 가격부터
+ * - 매도 스탑 : 체결가가 발동 가격 이하가 되면 발동, 높은 발동 가격부터
+ * 발동 가격별 가격대를 PriceLadder 로 정렬해 두므로 체결 한 번에 확인하는 것은 양쪽 맨 앞 가격대뿐이고,
+ * 실제로 발동된 주문만 꺼냅니다. 발동되지 않은 스탑 주문 수와 무관하게 체결 비용이 일정합니다.
+ * 슬롯의 price 는 발동 후 사용할 지정가, stopPrice 는 발동 가격입니다. 같은 발동 가격 안에서는 접수 순서대로 발동합니다. */
+class StopOrderIndex {
+    static final int SNAPSHOT_ORDER_SIZE = 49;
+
+    private final OrderStore store;
+    private final PriceLadder buyStops;
+    private final PriceLadder sellStops;
+
+//    주문 ID -> 슬롯 핸들
+    private final LongIntHashMap orders = new LongIntHashMap();
+
+    StopOrderIndex(OrderStore store) {
+        this.store = store;
+//        PriceLadder 는 매도 쪽이 낮은 가격, 매수 쪽이 높은 가격을 최우선으로 둠
+        this.buyStops = new PriceLadder(false, store);
+        this.sellStops = new PriceLadder(true, store);
+    }
+
+    int size() {
+        return orders.size();
+    }
+
+    boolean contains(long orderId) {
+        return orders.containsKey(orderId);
+    }
+
+    //    대기 중인 스탑 주문의 남은 수량, 없으면 0
+    int remainCount(long orderId) {
+        int slot = orders.get(orderId);
+        return slot == LongIntHashMap.MISSING ? 0 : store.remainCount(slot);
+    }
+
+    //    대기 중인 스탑 주문이 이미 체결한 수량 (DB 에서 다시 읽은 주문), 없으면 0
+    int executedCount(long orderId) {
+        int slot = orders.get(orderId);
+        return slot == LongIntHashMap.MISSING ? 0 : store.executedCount(slot);
+    }
+
+    //    마지막 체결가 기준으로 이미 발동 조건을 만족하는지 (체결이 없었으면 false)
+    static boolean isTriggered(BookOrder order, long lastTradePrice) {
+        if (lastTradePrice <= 0) {
+            return false;
+        }
+        return order.isBuy() ? lastTradePrice >= order.getStopPrice() : lastTradePrice <= order.getStopPrice();
+    }
+
+    void add(BookOrder order) {
+        int slot = store.allocate(order.getOrderId(), order.getUserId(), order.isBuy(),
+                order.getPrice(), order.getTimestamp(), order.getRemainCount());
+        store.stopPrice(slot, order.getStopPrice());
+        store.executedCount(slot, order.getExecutedCount());
+        store.dayOrder(slot, order.isDayOrder());
+        (order.isBuy() ? buyStops : sellStops).getOrCreate(order.getStopPrice()).add(slot);
+        orders.put(order.getOrderId(), slot);
+    }
+
+    boolean cancel(long orderId) {
+        int slot = orders.remove(orderId);
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        PriceLadder side = store.isBuy(slot) ? buyStops : sellStops;
+        PriceLevel level = side.get(store.stopPrice(slot));
+        level.remove(slot);
+        if (level.isEmpty()) {
+            side.remove(level);
+        }
+        store.free(slot);
+        return true;
+    }
+
+    //    수량 감소 - 발동 순서 유지, 남은 수량 이상이면 취소
+    boolean reduce(long orderId, int reduceCount) {
+        int slot = orders.get(orderId);
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        if (reduceCount >= store.remainCount(slot)) {
+            return cancel(orderId);
+        }
+        PriceLadder side = store.isBuy(slot) ? buyStops : sellStops;
+        side.get(store.stopPrice(slot)).reduce(slot, reduceCount);
+        return true;
+    }
+
+    /* 발동된 스탑 주문 하나를 꺼내 target 에 채움, 없으면 false
+     * low/high 는 이번 매칭에서 나온 최저/최고 체결가 - 여러 가격대를 쓸고 지나간 경우에도 지나친 발동 가격을 놓치지 않음 */
+    boolean pollTriggered(long low, long high, BookOrder target) {
+        PriceLadder side = buyStops;
+        PriceLevel level = buyStops.best();
+        if (level == null || level.getPrice() > high) {
+            side = sellStops;
+            level = sellStops.best();
+            if (level == null || level.getPrice() < low) {
+                return false;
+            }
+        }
+
+        int slot = level.peek();
+//        발동된 주문은 스탑 가격 없는 지정가 주문으로 매칭
+        target.reset(store.orderId(slot), store.userId(slot), store.isBuy(slot) ? OrderType.BUY : OrderType.SELL,
+                store.price(slot), 0L, store.timestamp(slot), store.remainCount(slot)).dayOrder(store.isDayOrder(slot))
+                .executedCount(store.executedCount(slot));
+        level.remove(slot);
+        if (level.isEmpty()) {
+            side.remove(level);
+        }
+        orders.remove(target.getOrderId());
+        store.free(slot);
+        return true;
+    }
+
+    //    당일 주문 ID 수집 (장 마감 만료용)
+    int collectDayOrders(long[] out, int count) {
+        return sellStops.collectDayOrders(out, buyStops.collectDayOrders(out, count));
+    }
+
+    /* 스냅샷 기록 - 발동 순서대로
+     * 주문 (orderId 8 | userId 8 | flags 1 | price 8 | stopPrice 8 | timestamp 8 | remainCount 4 | executedCount 4) ... */
+    void writeSnapshot(ByteBuffer out) {
+        writeSnapshot(buyStops, out);
+        writeSnapshot(sellStops, out);
+    }
+
+    void readSnapshot(ByteBuffer in, int orderCount) {
+        for (int i = 0; i < orderCount; i++) {
+            long orderId = in.getLong();
+            long userId = in.getLong();
+            byte flags = in.get();
+            long price = in.getLong();
+            long stopPrice = in.getLong();
+            long timestamp = in.getLong();
+            int remainCount = in.getInt();
+            int executedCount = in.getInt();
+            add(new BookOrder(orderId, userId, OrderBook.isBuy(flags) ? OrderType.BUY : OrderType.SELL,
+                    price, stopPrice, timestamp, remainCount).dayOrder(OrderBook.isDayOrder(flags)).executedCount(executedCount));
+        }
+    }
+
+    private void writeSnapshot(PriceLadder side, ByteBuffer out) {
+        for (int depth = 0; depth < side.size(); depth++) {
+            for (int slot = side.levelAt(depth).peek(); slot != OrderStore.NONE; slot = store.next(slot)) {
+                out.putLong(store.orderId(slot))
+                        .putLong(store.userId(slot))
+                        .put(OrderBook.flags(store, slot))
+                        .putLong(store.price(slot))
+                        .putLong(store.stopPrice(slot))
+                        .putLong(store.timestamp(slot))
+                        .putInt(store.remainCount(slot))
+                        .putInt(store.executedCount(slot));
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.stockexchange.domain.trading.engine;
+
+/* 매칭 스레드가 처리할 명령이 없을 때 대기하는 방식
+ * - BLOCKING : 잠시 스핀 후 park, 새 명령이 들어오면 깨움 (CPU 사용 최소)
+ * - YIELDING : 잠시 스핀 후 Thread.yield() 반복 (지연/CPU 절충)
+ * - BUSY_SPIN : 계속 스핀 (지연 최소, 코어 하나를 점유) */
+public enum WaitStrategy {
+    BLOCKING, YIELDING, BUSY_SPIN
+}
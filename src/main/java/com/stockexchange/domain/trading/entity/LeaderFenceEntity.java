@@ -0,0 +1,27 @@
+package com.stockexchange.domain.trading.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/* 리더 fencing token 기록 (matching_leader_fence, 한 행)
+ * 리더만 해야 하는 DB 쓰기는 트랜잭션 처음에 이 행을 자신의 fencing token 으로 올립니다 (LeaderFenceService).
+ * 더 큰 token 으로 올라간 뒤에는 이전 리더의 쓰기가 거부됩니다. */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "matching_leader_fence")
+public class LeaderFenceEntity {
+
+    @Id
+    @Column(name = "fence_id")
+    private Long fenceId;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    public LeaderFenceEntity(Long fenceId) {
+        this.fenceId = fenceId;
+        this.fencingToken = 0L;
+    }
+}
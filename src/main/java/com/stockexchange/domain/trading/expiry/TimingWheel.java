@@ -0,0 +1,123 @@
+package com.stockexchange.domain.trading.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/* 계층형 타이밍 휠 (hierarchical timing wheel)
+ * 만료 시각이 있는 항목을 시각별 버킷에 넣어 두고, 시계를 진행시킬 때 시각이 된 버킷만 꺼냅니다.
+ * 전체 항목을 주기적으로 훑지 않으므로 비용은 만료되는 항목 수와 지나간 틱 수에만 비례합니다.
+ * - 1 단계 휠 : tick 단위 버킷 wheelSize 개 (tick * wheelSize 까지)
+ * - 범위를 넘는 항목은 tick * wheelSize 단위의 상위 휠에 넣고, 상위 휠 버킷 시각이 되면 하위 휠로 다시 내려보냄
+ * - 상위 휠은 필요할 때만 만듦
+ * 만료 시각은 tick 단위로 올림하므로 만료 시각 이전에 꺼내지는 항목은 없습니다.
+ * 스레드 안전하지 않으므로 호출 측에서 동기화해야 합니다. */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long interval;
+    private final List<Entry<T>>[] buckets;
+    private final long[] bucketTimes; // 버킷 시각, 비어 있으면 -1
+    private long currentTime; // tick 배수로 내림한 현재 시각
+    private TimingWheel<T> overflow;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("타이밍 휠 설정이 올바르지 않습니다.: tick " + tickMillis + ", size " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.interval = tickMillis * wheelSize;
+        this.buckets = new List[wheelSize];
+        this.bucketTimes = new long[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+            bucketTimes[i] = -1;
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    //    대기 중인 항목 수 (상위 휠 포함)
+    public int size() {
+        return size + (overflow == null ? 0 : overflow.size());
+    }
+
+    /* 항목 등록 - 이미 만료 시각이 지났으면 등록하지 않고 false
+     * 만료된 항목은 호출 측이 바로 처리합니다. */
+    public boolean add(T value, long expireAtMillis) {
+        return add(new Entry<>(value, ceilToTick(expireAtMillis)));
+    }
+
+    /* 시계를 nowMillis 까지 진행하며 만료된 항목을 expired 로 전달
+     * 멈춰 있던 시간이 길어도 지나간 틱마다 단계별로 해당 버킷 하나씩만 확인합니다. */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        while (currentTime + tickMillis <= nowMillis) {
+            long time = currentTime + tickMillis;
+//            모든 단계의 시계를 먼저 맞춘 뒤 상위 휠부터 버킷을 비워야 내려보낸 항목이 지나간 버킷에 다시 들어가지 않음
+            for (TimingWheel<T> wheel = this; wheel != null; wheel = wheel.overflow) {
+                wheel.currentTime = time - Math.floorMod(time, wheel.tickMillis);
+            }
+            flushDown(time, this, expired);
+        }
+    }
+
+    private boolean add(Entry<T> entry) {
+        if (entry.expireAt <= currentTime) {
+            return false;
+        }
+        if (entry.expireAt < currentTime + interval) {
+            int index = (int) Math.floorMod(entry.expireAt / tickMillis, (long) wheelSize);
+            buckets[index].add(entry);
+            bucketTimes[index] = entry.expireAt - Math.floorMod(entry.expireAt, tickMillis);
+            size++;
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(interval, wheelSize, currentTime);
+        }
+        return overflow.add(entry);
+    }
+
+    //    상위 휠부터 이번 시각의 버킷을 비움 - 상위 휠 항목은 최하위 휠(root)로 다시 등록되어 알맞은 단계로 내려감
+    private void flushDown(long time, TimingWheel<T> root, Consumer<T> expired) {
+        if (overflow != null) {
+            overflow.flushDown(time, root, expired);
+        }
+        if (currentTime == time) {
+            flush(time, root, expired);
+        }
+    }
+
+    private void flush(long time, TimingWheel<T> root, Consumer<T> expired) {
+        int index = (int) Math.floorMod(time / tickMillis, (long) wheelSize);
+        if (bucketTimes[index] != time) {
+            return;
+        }
+        List<Entry<T>> bucket = buckets[index];
+        buckets[index] = new ArrayList<>();
+        bucketTimes[index] = -1;
+        size -= bucket.size();
+        for (Entry<T> entry : bucket) {
+            if (!root.add(entry)) {
+                expired.accept(entry.value);
+            }
+        }
+    }
+
+    private long ceilToTick(long millis) {
+        long remainder = Math.floorMod(millis, tickMillis);
+        return remainder == 0 ? millis : millis - remainder + tickMillis;
+    }
+
+    private static class Entry<T> {
+        private final T value;
+        private final long expireAt;
+
+        private Entry(T value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.stockexchange.domain.trading.repository;
+
+import com.stockexchange.domain.trading.entity.LeaderFenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderFenceRepository extends JpaRepository<LeaderFenceEntity, Long> {
+
+    /* fencing token 을 올림 - 이미 더 큰 token 이 기록되어 있으면 0 건
+     * 행 잠금을 트랜잭션 끝까지 잡으므로 같은 행을 올리는 다른 리더의 쓰기는 커밋/롤백까지 기다립니다. */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE LeaderFenceEntity f SET f.fencingToken = :fencingToken " +
+            "WHERE f.fenceId = :fenceId AND f.fencingToken <= :fencingToken")
+    int advance(@Param("fenceId") Long fenceId, @Param("fencingToken") long fencingToken);
+}
@@ -0,0 +1,54 @@
+package com.stockexchange.domain.trading.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/* 매칭 노드 consistent hash 링
+ * 노드마다 virtualNodes 개의 점을 링에 올리고, 파티션은 해시 위치에서 시계 방향으로 처음 만나는 노드가 담당합니다.
+ * 노드가 추가/제거되면 그 노드와 인접한 구간의 파티션만 옮겨지고 나머지 파티션의 담당 노드는 그대로입니다. */
+public class ConsistentHashRing {
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("가상 노드 수는 1 이상이어야 합니다.: " + virtualNodes);
+        }
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    //    파티션 담당 노드, 노드가 없으면 null
+    public String nodeFor(int partition) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(partition));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    //    FNV-1a 64 후 비트 섞기 - 노드 이름이 비슷해도 링 위에 고르게 퍼지도록
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,86 @@
+package com.stockexchange.domain.trading.routing;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandBatch;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/* 다른 노드가 담당하는 종목의 주문 명령 - Redis Stream(matching:commands:{nodeId})으로 담당 노드에 전달
+ * batch 면 받은 노드에서 OrderCommandBatch 로 끊김 없이 넣습니다.
+ * hops 는 라우팅 테이블이 바뀌는 중에 노드 사이를 다시 전달한 횟수입니다 (모니터링용, 횟수 때문에 버리지 않음). */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class RoutedCommandMessage {
+    private long stockId;
+    private boolean batch;
+    private int hops;
+    private List<Command> commands;
+
+    public static RoutedCommandMessage of(OrderCommand command) {
+        return new RoutedCommandMessage(command.getStockId(), false, 0, List.of(Command.from(command)));
+    }
+
+    public static RoutedCommandMessage of(OrderCommandBatch batch) {
+        return new RoutedCommandMessage(batch.getStockId(), true, 0,
+                batch.getCommands().stream().map(Command::from).toList());
+    }
+
+    //    다른 노드로 다시 전달할 메시지
+    public RoutedCommandMessage forwarded() {
+        return new RoutedCommandMessage(stockId, batch, hops + 1, commands);
+    }
+
+    //    조건에 맞는 명령만 남긴 메시지, 남는 명령이 없으면 null
+    public RoutedCommandMessage filtered(Predicate<Command> keep) {
+        List<Command> kept = commands.stream().filter(keep).toList();
+        if (kept.isEmpty()) {
+            return null;
+        }
+        return kept.size() == commands.size() ? this : new RoutedCommandMessage(stockId, batch, hops, kept);
+    }
+
+    public OrderCommand toCommand() {
+        return commands.get(0).toCommand();
+    }
+
+    public OrderCommandBatch toBatch() {
+        return new OrderCommandBatch(stockId, commands.stream().map(Command::toCommand).toList());
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Command {
+        private OrderCommandType commandType;
+        private long orderId;
+        private long userId;
+        private long stockId;
+        private OrderType orderType;
+        private long orderPrice;
+        private long stopPrice;
+        private TimeInForce timeInForce;
+        private int orderRemainCount;
+        private int orderExecutedCount;
+        private long timestamp;
+
+        static Command from(OrderCommand command) {
+            return new Command(command.getCommandType(), command.getOrderId(), command.getUserId(), command.getStockId(),
+                    command.getOrderType(), command.getOrderPrice(), command.getStopPrice(), command.getTimeInForce(),
+                    command.getOrderRemainCount(), command.getOrderExecutedCount(), command.getTimestamp());
+        }
+
+        OrderCommand toCommand() {
+            return new OrderCommand(commandType, orderId, userId, stockId, orderType,
+                    orderPrice, stopPrice, timeInForce, orderRemainCount, orderExecutedCount, timestamp);
+        }
+    }
+}
@@ -0,0 +1,741 @@
+package com.stockexchange.domain.trading.routing;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandBatch;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.service.LeaderElectionService;
+import com.stockexchange.domain.trading.service.LeadershipChangedEvent;
+import com.stockexchange.domain.trading.service.OrderMatchingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/* 노드 간 종목 분산 (matching.routing.enabled)
+ * 종목을 파티션으로 나누고 파티션마다 한 노드의 매칭 엔진만 호가창을 가집니다. 라우팅 테이블은 Redis 에 둡니다.
+ * - matching:routing:nodes : 노드 ID -> 마지막 heartbeat(epoch ms), nodeTimeout 동안 갱신이 없으면 링에서 빠짐
+ * - matching:routing:owners : 파티션 -> 노드 ID (옮긴 파티션만, 나머지는 consistent hash 링)
+ * - matching:routing:holders : 파티션 -> 지금 호가창을 가진 노드 ID (넘겨줄 준비가 끝나면 지움)
+ * - matching:routing:moving : 이동 중인 파티션
+ * - matching:routing:version : 테이블이 바뀔 때마다 증가
+ *
+ * 주문 API 는 어느 노드로 들어와도 DB 에 저장한 뒤, 커밋 직후 명령을 담당 노드로 보냅니다.
+ * 담당 노드가 자신이고 호가창을 가지고 있으면 바로 매칭 엔진에 넣고,
+ * 아니면 담당 노드의 Redis Stream(matching:commands:{nodeId})에 추가합니다.
+ * 받은 노드는 소비자 그룹으로 읽어 처리(또는 다시 전달)한 뒤에만 ack 하므로, 처리 전에 내려가도 다시 기동할 때 이어서 처리합니다.
+ * 같은 메시지를 두 번 처리할 수 있으며 (at-least-once), 엔진은 이미 호가창에 있는 주문 등록과 없는 주문 취소를 무시합니다.
+ *
+ * 담당 파티션이 바뀌면 호가창은 다음 순서로 넘깁니다 (대기 시간이 아니라 완료 확인으로 진행).
+ * 1. 이전 노드 : 파티션 명령을 더 받지 않고(새 명령은 새 담당 노드로 전달), 그때까지 넣은 명령의 처리와 체결 저장이 끝날 때까지 대기
+ * 2. 이전 노드 : 호가창에서 내리고 holders 에서 자신을 지움
+ * 3. 새 노드 : holders 가 비면 DB 의 PENDING 주문으로 호가창을 올리고 holders 에 자신을 기록, 그동안 받은 명령은 그 다음 순서로 처리
+ * 이전 노드가 응답 없이 빠진 경우에는 기다리지 않고 DB 로 올립니다. 그 노드가 저장하지 못한 체결은 다시 기동해 저널을 재생할 때 반영됩니다.
+ * 파티션 하나를 옮기는 동안 그 파티션 종목의 주문만 잠시 받지 않고, 다른 종목은 그대로 매칭합니다.
+ *
+ * 종목 분산 없이 리더 선출(matching.leader.enabled)만 사용하면 모든 종목의 담당 노드는 현재 리더입니다.
+ * 호가창을 가진 노드는 matching:leader:holder 에 두고 (nodeTimeout 동안 갱신이 없으면 만료), 파티션과 같은 순서로 넘깁니다.
+ * 리더 자격을 잃은 노드는 바로 명령을 받지 않고, 처리 중인 명령과 체결 저장이 끝나면 호가창을 내리고 holder 를 지웁니다.
+ * 새 리더는 holder 가 빈 뒤에 DB 의 PENDING 주문으로 호가창을 올립니다. */
+@Slf4j
+@Service
+public class ShardRoutingService {
+    private static final String NODES_KEY = "matching:routing:nodes";
+    private static final String OWNERS_KEY = "matching:routing:owners";
+    private static final String HOLDERS_KEY = "matching:routing:holders";
+    private static final String MOVING_KEY = "matching:routing:moving";
+    private static final String VERSION_KEY = "matching:routing:version";
+    private static final String LEADER_HOLDER_KEY = "matching:leader:holder";
+    private static final String STREAM_PREFIX = "matching:commands:";
+    private static final String CONSUMER_GROUP = "matcher";
+    private static final String MESSAGE_FIELD = "message";
+    private static final int WARN_HOPS = 5;
+    private static final long MOVE_POLL_MILLIS = 100;
+
+    //    holder 가 자신이면 만료 연장, 비어 있으면 자신으로 기록 - 호가창을 가질 수 있으면 1
+    private static final RedisScript<Long> HOLD = new DefaultRedisScript<>(
+            "local holder = redis.call('GET', KEYS[1]) "
+                    + "if holder == ARGV[1] then redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 1 end "
+                    + "if not holder then redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end return 0", Long.class);
+    private static final RedisScript<Long> UNHOLD = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final String nodeId;
+    private final String stream;
+    private final MatchingProperties.Routing routing;
+    private final LeaderElectionService leaderElection;
+    private final OrderMatchingService orderMatchingService;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider;
+    private final Set<Integer> held = ConcurrentHashMap.newKeySet(); // 호가창을 가지고 명령을 받는 파티션
+    private final ReentrantReadWriteLock routingLock = new ReentrantReadWriteLock(); // 읽기 : 엔진에 명령 넣기, 쓰기 : 테이블/held 변경
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private Thread receiver;
+    private volatile boolean receiving;
+    private volatile ShardRoutingTable table; // 분산을 사용하지 않거나 첫 로드 전이면 null
+    private boolean initialized; // 첫 테이블로 담당하지 않는 파티션을 내렸는지 (refresh 전용)
+    private volatile boolean leaderHeld; // 리더 선출만 사용할 때 호가창을 가지고 명령을 받는지
+    private volatile boolean leaderReleasing; // 리더 자격을 잃어 호가창을 넘기는 중
+
+    public ShardRoutingService(MatchingProperties matchingProperties, OrderMatchingService orderMatchingService,
+                               LeaderElectionService leaderElection,
+                               OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                               ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider) {
+        this.nodeId = matchingProperties.getNodeId();
+        this.stream = STREAM_PREFIX + nodeId;
+        this.routing = matchingProperties.getRouting();
+        this.leaderElection = leaderElection;
+        this.orderMatchingService = orderMatchingService;
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplateProvider = redisTemplateProvider;
+    }
+
+    //    명령 Stream 소비자 그룹 생성, 수신 스레드 시작 및 노드 등록
+    @PostConstruct
+    public void start() {
+        if (!routing.isEnabled() && !leaderElection.isEnabled()) {
+            return;
+        }
+        redisTemplate = redisTemplateProvider.getObject();
+        createConsumerGroup();
+        receiving = true;
+        receiver = new Thread(this::receive, "routing-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+//        리더 선출만 사용하면 저널로 복구한 호가창은 먼저 내리고, 리더가 되면 holder 를 확인한 뒤 다시 올림
+        leaderReleasing = !routing.isEnabled();
+        if (routing.isEnabled()) {
+            heartbeat();
+            redisTemplate.opsForValue().increment(VERSION_KEY);
+            log.info("종목 분산 노드 등록 - nodeId: {}, 파티션 수: {}", nodeId, routing.getPartitions());
+        }
+    }
+
+    /* 첫 라우팅 테이블 로드 - 담당 파티션 호가창 복구 (OrderMatchingService.recover 대신)
+     * 저널로 복구한 경우 담당하지 않는 파티션 주문은 내리고, 이미 호가창에 있는 주문은 엔진이 무시합니다. */
+    @EventListener(ApplicationStartedEvent.class)
+    public void initialize() {
+        if (routing.isEnabled()) {
+            refresh();
+        }
+    }
+
+    /* 노드 제거 - 남은 노드들이 다음 확인 때 이 노드의 파티션을 이어받음
+     * 처리 중인 명령과 체결 저장이 끝난 뒤 holders 에서 빠지고, 아직 처리하지 못한 Stream 메시지는 새 담당 노드로 넘깁니다. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (redisTemplate == null) {
+            return;
+        }
+        receiving = false;
+        receiver.join(routing.getStreamBlockMillis() * 2 + 1000);
+        if (!routing.isEnabled()) {
+            if (leaderHeld || leaderReleasing) {
+                stopTakingLeaderCommands();
+                if (!orderMatchingService.awaitDrained(routing.getDrainTimeoutMillis())) {
+                    log.warn("종료 전 처리 중인 명령/체결 저장이 {}ms 안에 끝나지 않았습니다. 남은 체결은 다시 기동할 때 저널 재생으로 반영됩니다.",
+                            routing.getDrainTimeoutMillis());
+                }
+                redisTemplate.execute(UNHOLD, List.of(LEADER_HOLDER_KEY), nodeId);
+            }
+            return;
+        }
+        routingLock.writeLock().lock();
+        try {
+            held.clear();
+        } finally {
+            routingLock.writeLock().unlock();
+        }
+        if (!orderMatchingService.awaitDrained(routing.getDrainTimeoutMillis())) {
+            log.warn("종료 전 처리 중인 명령/체결 저장이 {}ms 안에 끝나지 않았습니다. 남은 체결은 다시 기동할 때 저널 재생으로 반영됩니다.",
+                    routing.getDrainTimeoutMillis());
+        }
+        redisTemplate.opsForHash().delete(NODES_KEY, nodeId);
+        holders().forEach((partition, holder) -> {
+            if (nodeId.equals(holder)) {
+                redisTemplate.opsForHash().delete(HOLDERS_KEY, String.valueOf(partition));
+            }
+        });
+        redisTemplate.opsForValue().increment(VERSION_KEY);
+        forwardRemaining(load(version(), liveNodes()));
+    }
+
+    /* 주기적으로 heartbeat 갱신, 라우팅 테이블 확인 및 담당 파티션 맞추기
+     * 버전이 바뀌었거나 살아 있는 노드 목록이 바뀌면 테이블을 다시 만듭니다.
+     * 넘기거나 이어받지 못한 파티션(이전 노드의 처리가 끝나지 않음 등)은 다음 확인 때 다시 시도합니다.
+     * 리더 선출만 사용하면 리더 여부에 맞춰 호가창을 넘기거나 이어받습니다. */
+    @Scheduled(fixedRateString = "${matching.routing.refresh-millis:1000}")
+    public synchronized void refresh() {
+        if (!orderMatchingService.isActive()) {
+            return;
+        }
+        if (!routing.isEnabled()) {
+            if (leaderElection.isEnabled()) {
+                refreshLeader();
+            }
+            return;
+        }
+        try {
+            heartbeat();
+            ShardRoutingTable current = table;
+            long version = version();
+            Set<String> nodes = liveNodes();
+            if (current == null || current.getVersion() != version || !current.getNodes().equals(nodes)) {
+                current = load(version, nodes);
+                routingLock.writeLock().lock();
+                try {
+                    table = current;
+                } finally {
+                    routingLock.writeLock().unlock();
+                }
+            }
+            rebalance(current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("라우팅 테이블 갱신 중 오류 발생 - {}", e.getMessage());
+        }
+    }
+
+    /* 리더 자격을 잃으면 바로 명령을 받지 않음 - 종목 분산을 사용하지 않을 때만
+     * 호가창을 내리는 것과 새 리더가 올리는 것은 처리 중인 명령과 체결 저장이 끝난 뒤 refresh 에서 합니다.
+     * (종목 분산을 함께 사용하면 담당 파티션은 라우팅 테이블이 정하고, 리더는 스케줄 작업만 맡음) */
+    @EventListener
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        if (routing.isEnabled() || event.isLeader()) {
+            return;
+        }
+        stopTakingLeaderCommands();
+    }
+
+    //    이 노드가 호가창을 가지고 명령을 받는 종목인지 (분산/리더 선출을 사용하지 않으면 항상 true)
+    public boolean isLocal(long stockId) {
+        if (!orderMatchingService.isActive()) {
+            return false;
+        }
+        ShardRoutingTable current = table;
+        if (current == null) {
+            if (routing.isEnabled()) {
+                return false;
+            }
+            return !leaderElection.isEnabled() || (leaderHeld && leaderElection.isLeader());
+        }
+        int partition = current.partitionOf(stockId);
+        return current.isLocal(partition) && held.contains(partition);
+    }
+
+    //    주문 접수 전 확인 - 이동 중인 파티션 종목은 받지 않음
+    public void checkAcceptingOrders(long stockId) {
+        ShardRoutingTable current = table;
+        if (current != null && current.isMoving(current.partitionOf(stockId))) {
+            throw new IllegalStateException("종목 담당 매칭 노드를 옮기는 중입니다. 잠시 후 다시 시도해 주세요.: " + stockId);
+        }
+    }
+
+    //    주문 명령을 담당 노드로 전달
+    public void route(OrderCommand command) {
+        if (!submitIfLocal(command)) {
+            send(RoutedCommandMessage.of(command));
+        }
+    }
+
+    /* 이 노드가 호가창을 가진 종목이면 엔진에 넣고 true - 확인과 넣기 사이에 호가창을 넘기지 않음
+     * 대사 재등록처럼 담당 노드로 전달할 필요가 없는 명령에 씁니다. */
+    public boolean submitIfLocal(OrderCommand command) {
+        routingLock.readLock().lock();
+        try {
+            if (!isLocal(command.getStockId())) {
+                return false;
+            }
+            orderMatchingService.submit(command);
+            return true;
+        } finally {
+            routingLock.readLock().unlock();
+        }
+    }
+
+    public void route(OrderCommandBatch batch) {
+        routingLock.readLock().lock();
+        try {
+            if (isLocal(batch.getStockId())) {
+                orderMatchingService.submit(batch);
+                return;
+            }
+        } finally {
+            routingLock.readLock().unlock();
+        }
+        send(RoutedCommandMessage.of(batch));
+    }
+
+    /* 파티션을 다른 노드로 이동
+     * 1. 이동 중 표시, 담당 노드 변경 - 모든 노드가 그 파티션 종목의 주문 접수를 멈춤
+     * 2. 이전 노드가 처리 중인 명령과 체결 저장을 마치고 호가창을 내리면, 새 노드가 DB 로 호가창을 올리고 holders 에 기록 (refresh)
+     * 3. holders 가 새 노드로 바뀐 것을 확인하면 이동 중 표시 해제
+     * moveTimeout 안에 끝나지 않으면 예외를 던지지만 담당 노드는 이미 바뀌었으므로 넘기기는 이어서 진행됩니다.
+     * 다른 파티션은 어느 단계에서도 멈추지 않습니다. */
+    public void moveShard(int partition, String targetNodeId) {
+        ShardRoutingTable current = requireTable();
+        if (partition < 0 || partition >= current.getPartitions()) {
+            throw new IllegalArgumentException("파티션 번호가 올바르지 않습니다.: " + partition);
+        }
+        if (!current.getNodes().contains(targetNodeId)) {
+            throw new IllegalArgumentException("등록되지 않은 매칭 노드입니다.: " + targetNodeId);
+        }
+        if (targetNodeId.equals(current.ownerOf(partition)) && targetNodeId.equals(holderOf(partition))) {
+            return;
+        }
+        log.info("파티션 이동 시작 - partition: {}, {} -> {}", partition, current.ownerOf(partition), targetNodeId);
+        try {
+            redisTemplate.opsForSet().add(MOVING_KEY, partition);
+            redisTemplate.opsForHash().put(OWNERS_KEY, String.valueOf(partition), targetNodeId);
+            redisTemplate.opsForValue().increment(VERSION_KEY);
+
+            long deadline = System.currentTimeMillis() + routing.getMoveTimeoutMillis();
+            while (!targetNodeId.equals(holderOf(partition))) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("파티션 이동이 " + routing.getMoveTimeoutMillis()
+                            + "ms 안에 끝나지 않았습니다. 이전 노드의 처리가 끝나면 이어서 옮겨집니다.: " + partition);
+                }
+                Thread.sleep(MOVE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("파티션 이동이 중단되었습니다.: " + partition, e);
+        } finally {
+            redisTemplate.opsForSet().remove(MOVING_KEY, partition);
+            redisTemplate.opsForValue().increment(VERSION_KEY);
+        }
+        log.info("파티션 이동 완료 - partition: {}, owner: {}", partition, targetNodeId);
+    }
+
+    //    노드별 담당 파티션
+    public Map<String, List<Integer>> assignments() {
+        ShardRoutingTable current = requireTable();
+        Map<String, List<Integer>> assignments = new TreeMap<>();
+        for (int partition = 0; partition < current.getPartitions(); partition++) {
+            assignments.computeIfAbsent(current.ownerOf(partition), node -> new ArrayList<>()).add(partition);
+        }
+        return assignments;
+    }
+
+    private ShardRoutingTable requireTable() {
+        ShardRoutingTable current = table;
+        if (current == null) {
+            throw new IllegalStateException("종목 분산(matching.routing)을 사용하지 않는 노드입니다.");
+        }
+        return current;
+    }
+
+    //    종목 담당 노드, 모르면 null
+    private String ownerOf(long stockId) {
+        ShardRoutingTable current = table;
+        if (current != null) {
+            return current.ownerOf(current.partitionOf(stockId));
+        }
+        return routing.isEnabled() ? null : leaderElection.leaderNodeId();
+    }
+
+    //    담당 노드 Stream 에 추가 - 담당 노드를 모르면 자신의 Stream 에 두고 담당 노드가 정해지면 넘김 (버리지 않음)
+    private void send(RoutedCommandMessage message) {
+        String owner = ownerOf(message.getStockId());
+        add(owner != null ? owner : nodeId, message);
+    }
+
+    private void add(String targetNodeId, RoutedCommandMessage message) {
+        redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                .in(STREAM_PREFIX + targetNodeId)
+                .ofMap(Map.of(MESSAGE_FIELD, message)));
+    }
+
+    private void createConsumerGroup() {
+        try {
+            redisTemplate.opsForStream().createGroup(stream, ReadOffset.from("0"), CONSUMER_GROUP);
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP") && !String.valueOf(e.getCause()).contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /* 명령 Stream 수신 (routing-receiver 스레드)
+     * 1. 받았지만 ack 하지 못한 메시지(이전 실행에서 받은 것, 담당 노드가 정해지기를 기다리는 것)부터 순서대로 다시 처리
+     * 2. 새 메시지를 streamBlockMillis 동안 기다려 읽음
+     * 처리하지 못하고 남긴 종목의 뒤 메시지도 같이 남겨 종목별 순서를 지킵니다. */
+    private void receive() {
+        boolean pending = true;
+        while (receiving) {
+            try {
+                Set<Long> deferredStocks = new HashSet<>();
+                if (pending) {
+                    pending = receivePending(deferredStocks);
+                }
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                        Consumer.from(CONSUMER_GROUP, nodeId),
+                        StreamReadOptions.empty().count(routing.getStreamBatchSize())
+                                .block(Duration.ofMillis(routing.getStreamBlockMillis())),
+                        StreamOffset.create(stream, ReadOffset.lastConsumed()));
+                if (records == null) {
+                    continue;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    if (!handle(record, deferredStocks, false)) {
+                        pending = true;
+                    }
+                }
+            } catch (Exception e) {
+                if (!receiving) {
+                    return;
+                }
+                log.error("주문 명령 Stream 수신 중 오류 발생 - {}", e.getMessage());
+                pending = true;
+                try {
+                    Thread.sleep(routing.getStreamBlockMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    //    ack 하지 못한 메시지 다시 처리, 아직 남은 메시지가 있으면 true
+    private boolean receivePending(Set<Long> deferredStocks) {
+        boolean remaining = false;
+        String lastId = "0";
+        while (receiving) {
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                    Consumer.from(CONSUMER_GROUP, nodeId),
+                    StreamReadOptions.empty().count(routing.getStreamBatchSize()),
+                    StreamOffset.create(stream, ReadOffset.from(lastId)));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                if (!handle(record, deferredStocks, true)) {
+                    remaining = true;
+                }
+                lastId = record.getId().getValue();
+            }
+        }
+        return remaining;
+    }
+
+    /* 메시지 하나 처리 - 엔진에 넣거나 담당 노드로 다시 전달한 뒤 ack, 처리하지 못하고 남기면 false
+     * 다시 처리하는 메시지의 NEW 는 그 사이 끝난 주문(DB 상태가 PENDING 이 아님)이면 건너뜁니다. */
+    private boolean handle(MapRecord<String, Object, Object> record, Set<Long> deferredStocks, boolean redelivered) {
+        RoutedCommandMessage routed = (RoutedCommandMessage) record.getValue().get(MESSAGE_FIELD);
+        if (routed != null) {
+            if (deferredStocks.contains(routed.getStockId())) {
+                return false;
+            }
+            routingLock.readLock().lock();
+            try {
+                if (isLocal(routed.getStockId())) {
+                    submit(redelivered ? routed.filtered(this::isStillPending) : routed);
+                } else {
+                    String owner = ownerOf(routed.getStockId());
+                    if (owner == null || owner.equals(nodeId)) {
+                        deferredStocks.add(routed.getStockId());
+                        return false;
+                    }
+                    forward(owner, routed);
+                }
+            } finally {
+                routingLock.readLock().unlock();
+            }
+        }
+        redisTemplate.opsForStream().acknowledge(stream, CONSUMER_GROUP, record.getId());
+        redisTemplate.opsForStream().delete(stream, record.getId());
+        return true;
+    }
+
+    private boolean isStillPending(RoutedCommandMessage.Command command) {
+        return command.getCommandType() != OrderCommandType.NEW
+                || orderRepository.existsByOrderIdAndOrderStatus(command.getOrderId(), OrderStatus.PENDING);
+    }
+
+    private void submit(RoutedCommandMessage routed) {
+        if (routed == null) {
+            return;
+        }
+        if (routed.isBatch()) {
+            orderMatchingService.submit(routed.toBatch());
+        } else {
+            orderMatchingService.submit(routed.toCommand());
+        }
+    }
+
+    //    라우팅 테이블이 바뀌는 중이면 노드 사이를 여러 번 오갈 수 있음 - 버리지 않고 테이블이 맞춰질 때까지 전달
+    private void forward(String owner, RoutedCommandMessage routed) {
+        RoutedCommandMessage forwarded = routed.forwarded();
+        if (forwarded.getHops() > WARN_HOPS) {
+            log.warn("주문 명령을 {}번 다시 전달 - stockId: {}, 담당 노드: {}", forwarded.getHops(), forwarded.getStockId(), owner);
+        }
+        add(owner, forwarded);
+    }
+
+    //    종료 시 처리하지 못한 메시지를 새 테이블 기준 담당 노드로 넘김, 담당 노드가 없으면 다시 기동할 때 처리
+    private void forwardRemaining(ShardRoutingTable next) {
+        int forwarded = 0;
+        try {
+            for (ReadOffset offset : List.of(ReadOffset.from("0"), ReadOffset.lastConsumed())) {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                        Consumer.from(CONSUMER_GROUP, nodeId), StreamReadOptions.empty(), StreamOffset.create(stream, offset));
+                if (records == null) {
+                    continue;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    RoutedCommandMessage routed = (RoutedCommandMessage) record.getValue().get(MESSAGE_FIELD);
+                    if (routed != null) {
+                        String owner = next.ownerOf(next.partitionOf(routed.getStockId()));
+                        if (owner == null || owner.equals(nodeId)) {
+                            continue;
+                        }
+                        forward(owner, routed);
+                        forwarded++;
+                    }
+                    redisTemplate.opsForStream().acknowledge(stream, CONSUMER_GROUP, record.getId());
+                    redisTemplate.opsForStream().delete(stream, record.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("종료 전 주문 명령 넘기기 실패, 다시 기동할 때 처리합니다. - {}", e.getMessage());
+        }
+        log.info("종료 전 처리하지 못한 주문 명령 {}건을 담당 노드로 넘김", forwarded);
+    }
+
+    private void heartbeat() {
+        redisTemplate.opsForHash().put(NODES_KEY, nodeId, System.currentTimeMillis());
+    }
+
+    private long version() {
+        Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+        return version == null ? 0L : ((Number) version).longValue();
+    }
+
+    //    heartbeat 가 nodeTimeout 안에 있는 노드
+    private Set<String> liveNodes() {
+        long deadline = System.currentTimeMillis() - routing.getNodeTimeoutMillis();
+        Set<String> nodes = new HashSet<>();
+        redisTemplate.opsForHash().entries(NODES_KEY).forEach((node, heartbeatAt) -> {
+            if (((Number) heartbeatAt).longValue() >= deadline) {
+                nodes.add((String) node);
+            }
+        });
+        return nodes;
+    }
+
+    private ShardRoutingTable load(long version, Set<String> nodes) {
+        Map<Integer, String> owners = new HashMap<>();
+        redisTemplate.opsForHash().entries(OWNERS_KEY)
+                .forEach((partition, node) -> owners.put(Integer.valueOf((String) partition), (String) node));
+        Set<Integer> moving = new HashSet<>();
+        Set<Object> members = redisTemplate.opsForSet().members(MOVING_KEY);
+        if (members != null) {
+            members.forEach(partition -> moving.add(((Number) partition).intValue()));
+        }
+        return new ShardRoutingTable(version, nodeId, routing.getPartitions(), nodes,
+                routing.getVirtualNodes(), owners, moving);
+    }
+
+    //    파티션 -> 호가창을 가진 노드
+    private Map<Integer, String> holders() {
+        Map<Integer, String> holders = new HashMap<>();
+        redisTemplate.opsForHash().entries(HOLDERS_KEY)
+                .forEach((partition, node) -> holders.put(Integer.valueOf((String) partition), (String) node));
+        return holders;
+    }
+
+    private String holderOf(int partition) {
+        return (String) redisTemplate.opsForHash().get(HOLDERS_KEY, String.valueOf(partition));
+    }
+
+    //    holders 에서 자신을 지움 - 그 사이 다른 노드가 기록했으면 그대로 둠
+    private void releaseHolder(int partition) {
+        if (nodeId.equals(holderOf(partition))) {
+            redisTemplate.opsForHash().delete(HOLDERS_KEY, String.valueOf(partition));
+        }
+    }
+
+    /* 담당 파티션 맞추기
+     * - 넘길 파티션 : 담당이 아닌데 호가창을 가진 파티션 (첫 로드는 저널로 복구한 호가창이 있을 수 있어 담당이 아닌 모든 파티션)
+     *   명령을 더 받지 않고, 그때까지 넣은 명령의 처리와 체결 저장이 끝나면 호가창에서 내리고 holders 에서 빠짐
+     *   내리는 취소는 호가창에서만 내리는 것이며 DB 주문 상태는 바꾸지 않습니다.
+     * - 이어받을 파티션 : 담당인데 호가창이 없고, holders 가 비었거나 자신이거나 응답 없는 노드인 파티션
+     *   이전 노드가 저장을 마친 뒤이므로 DB 의 PENDING 주문이 호가창과 같습니다. */
+    private void rebalance(ShardRoutingTable current) throws InterruptedException {
+        Map<Integer, String> holders = holders();
+        Set<Integer> released = new HashSet<>();
+        Set<Integer> acquired = new HashSet<>();
+        int lagging = 0;
+        for (int partition = 0; partition < current.getPartitions(); partition++) {
+            String holder = holders.get(partition);
+            if (!current.isLocal(partition)) {
+                if (!initialized || held.contains(partition) || nodeId.equals(holder)) {
+                    released.add(partition);
+                }
+            } else if (!held.contains(partition)) {
+                if (holder == null || holder.equals(nodeId)) {
+                    acquired.add(partition);
+                } else if (!current.getNodes().contains(holder)) {
+                    acquired.add(partition);
+                    lagging++;
+                }
+            }
+        }
+
+        if (!released.isEmpty()) {
+            routingLock.writeLock().lock();
+            try {
+                held.removeAll(released);
+            } finally {
+                routingLock.writeLock().unlock();
+            }
+            if (!orderMatchingService.awaitDrained(routing.getDrainTimeoutMillis())) {
+                log.warn("처리 중인 명령/체결 저장이 {}ms 안에 끝나지 않아 파티션 {}개 넘기기를 다음 확인 때 다시 시도합니다.",
+                        routing.getDrainTimeoutMillis(), released.size());
+                return;
+            }
+            applyPendingOrders(order -> released.contains(current.partitionOf(order.getStockId())) ? OrderCommandType.CANCEL : null);
+            released.stream().filter(partition -> nodeId.equals(holders.get(partition))).forEach(this::releaseHolder);
+        }
+        initialized = true;
+
+        if (!acquired.isEmpty()) {
+            if (lagging > 0) {
+                log.warn("응답 없는 노드가 가지고 있던 파티션 {}개를 DB 기준으로 이어받습니다. 그 노드가 저장하지 못한 체결은 다시 기동할 때 반영됩니다.", lagging);
+            }
+            int applied = applyPendingOrders(order -> acquired.contains(current.partitionOf(order.getStockId())) ? OrderCommandType.NEW : null);
+            Map<String, String> claimed = new HashMap<>();
+            acquired.forEach(partition -> claimed.put(String.valueOf(partition), nodeId));
+            redisTemplate.opsForHash().putAll(HOLDERS_KEY, claimed);
+            routingLock.writeLock().lock();
+            try {
+                held.addAll(acquired);
+            } finally {
+                routingLock.writeLock().unlock();
+            }
+            log.info("파티션 이어받음 - version: {}, 파티션 수: {}, 등록 주문: {}", current.getVersion(), acquired.size(), applied);
+        }
+        if (!released.isEmpty()) {
+            log.info("파티션 넘김 - version: {}, 파티션 수: {}", current.getVersion(), released.size());
+        }
+    }
+
+    //    리더 자격을 잃음 - 명령을 더 받지 않고 넘기기 시작
+    private void stopTakingLeaderCommands() {
+        routingLock.writeLock().lock();
+        try {
+            if (leaderHeld) {
+                leaderHeld = false;
+                leaderReleasing = true;
+            }
+        } finally {
+            routingLock.writeLock().unlock();
+        }
+    }
+
+    /* 리더 선출만 사용할 때 호가창 넘기기 (matching:leader:holder)
+     * - 리더 자격을 잃은 노드 : holder 를 갱신해 새 리더를 기다리게 하고, 처리 중인 명령과 체결 저장이 끝나면 호가창을 내리고 holder 를 지움
+     * - 리더 : holder 가 비었거나 자신이면 DB 의 PENDING 주문으로 호가창을 올림 (이전 노드가 저장을 마친 뒤이므로 DB 가 호가창과 같음)
+     *   이전 리더가 응답 없이 내려갔으면 holder 가 nodeTimeout 뒤 만료된 다음 올리고, 그 노드가 저장하지 못한 체결은 다시 기동할 때 반영됩니다. */
+    private void refreshLeader() {
+        try {
+            if (leaderHeld && !leaderElection.isLeader()) {
+                stopTakingLeaderCommands();
+            }
+            if (leaderReleasing) {
+                hold();
+                if (!orderMatchingService.awaitDrained(routing.getDrainTimeoutMillis())) {
+                    log.warn("처리 중인 명령/체결 저장이 {}ms 안에 끝나지 않아 호가창 넘기기를 다음 확인 때 다시 시도합니다.",
+                            routing.getDrainTimeoutMillis());
+                    return;
+                }
+                int cancelled = applyPendingOrders(order -> OrderCommandType.CANCEL);
+                redisTemplate.execute(UNHOLD, List.of(LEADER_HOLDER_KEY), nodeId);
+                leaderReleasing = false;
+                log.info("리더 변경 - 호가창 넘김, 제거 주문 수: {}", cancelled);
+                return;
+            }
+            if (!leaderElection.isLeader()) {
+                return;
+            }
+            if (!hold()) {
+                if (leaderHeld) {
+                    log.warn("리더인데 다른 노드가 호가창 holder 로 기록되어 있습니다. - {}", redisTemplate.opsForValue().get(LEADER_HOLDER_KEY));
+                }
+                return;
+            }
+            if (!leaderHeld) {
+                int applied = applyPendingOrders(order -> OrderCommandType.NEW);
+                routingLock.writeLock().lock();
+                try {
+                    leaderHeld = true;
+                } finally {
+                    routingLock.writeLock().unlock();
+                }
+                log.info("리더 변경 - 호가창 이어받음, 등록 주문 수: {}", applied);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("리더 호가창 넘기기 중 오류 발생 - {}", e.getMessage());
+        }
+    }
+
+    private boolean hold() {
+        Long holding = redisTemplate.execute(HOLD, List.of(LEADER_HOLDER_KEY), nodeId, routing.getNodeTimeoutMillis());
+        return holding != null && holding == 1L;
+    }
+
+    //    DB 의 PENDING 주문을 시간순으로 이 노드 엔진에만 적용 - 명령 종류가 null 이면 건너뜀
+    private int applyPendingOrders(Function<Order, OrderCommandType> commandType) {
+        List<Order> pendingOrders = readOnlyTransaction.execute(status -> orderRepository.findPendingOrdersByCreatedAt().stream()
+                .map(Order::from)
+                .toList());
+        int applied = 0;
+        for (Order order : pendingOrders) {
+            OrderCommandType type = commandType.apply(order);
+            if (type != null) {
+                orderMatchingService.submit(order.toCommand(type));
+                applied++;
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,63 @@
+package com.stockexchange.domain.trading.routing;
+
+import java.util.Map;
+import java.util.Set;
+
+/* 종목 -> 파티션 -> 매칭 노드 라우팅 테이블 (불변 스냅샷)
+ * - 파티션 : stockId 를 파티션 수로 나눈 나머지 (파티션 수는 운영 중 바꾸지 않음)
+ * - 담당 노드 : 명시적으로 옮긴 파티션(owners)은 그 노드, 나머지는 consistent hash 링
+ *   옮겨 둔 노드가 내려가면 링으로 돌아갑니다.
+ * - 이동 중(moving) 파티션은 새 주문/수정/취소를 받지 않습니다. */
+public class ShardRoutingTable {
+    private final long version;
+    private final String localNodeId;
+    private final int partitions;
+    private final Set<String> nodes;
+    private final ConsistentHashRing ring;
+    private final Map<Integer, String> owners;
+    private final Set<Integer> moving;
+
+    public ShardRoutingTable(long version, String localNodeId, int partitions, Set<String> nodes, int virtualNodes,
+                             Map<Integer, String> owners, Set<Integer> moving) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("파티션 수는 1 이상이어야 합니다.: " + partitions);
+        }
+        this.version = version;
+        this.localNodeId = localNodeId;
+        this.partitions = partitions;
+        this.nodes = Set.copyOf(nodes);
+        this.ring = new ConsistentHashRing(nodes, virtualNodes);
+        this.owners = Map.copyOf(owners);
+        this.moving = Set.copyOf(moving);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    public int partitionOf(long stockId) {
+        return (int) Math.floorMod(stockId, (long) partitions);
+    }
+
+    //    파티션 담당 노드, 등록된 노드가 없으면 null
+    public String ownerOf(int partition) {
+        String owner = owners.get(partition);
+        return owner != null && nodes.contains(owner) ? owner : ring.nodeFor(partition);
+    }
+
+    public boolean isLocal(int partition) {
+        return localNodeId.equals(ownerOf(partition));
+    }
+
+    public boolean isMoving(int partition) {
+        return moving.contains(partition);
+    }
+}
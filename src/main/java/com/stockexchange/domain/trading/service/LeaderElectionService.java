@@ -0,0 +1,193 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.MatchingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/* 스케줄러 리더 선출 (matching.leader.enabled) - 여러 노드 중 한 노드만 매칭/스케줄 작업 실행
+ * Redis 임대(lease) 방식
+ * - 획득 : SET matching:leader {nodeId/인스턴스} NX PX lease, 성공하면 INCR matching:leader:fencing 으로 fencing token 발급
+ * - 갱신 : 값이 자신일 때만 PEXPIRE (Lua 로 한 번에 확인/갱신)
+ * - 반납 : 종료 시 값이 자신일 때만 DEL
+ * 리더 여부는 갱신 요청을 보낸 시각 + lease 에서 한 번의 갱신 주기를 뺀 시각까지만 유효하다고 봅니다.
+ * 네트워크 단절/GC 로 갱신하지 못한 이전 리더는 Redis 키가 만료되기 전에 스스로 리더가 아니라고 판단합니다.
+ * 그래도 늦게 도착하는 작업은 fencing token 으로 막습니다.
+ * - holds : 확인과 반영 사이에 리더가 바뀔 수 있어 (check-then-act) 오래 걸리는 작업을 일찍 멈추는 용도로만 씀
+ * - 리더 전용 DB 쓰기 : 같은 트랜잭션에서 LeaderFenceService.check 로 DB 에 기록한 token 과 비교해 이전 리더의 쓰기를 거부
+ * - 매칭 엔진에 넣는 명령 : 로컬 임대 기준 (isLeader) - 리더 자격을 잃으면 ShardRoutingService 가 호가창을 내리고 명령을 받지 않음 */
+@Slf4j
+@Service
+public class LeaderElectionService {
+    static final String LEADER_KEY = "matching:leader";
+    static final String FENCING_KEY = "matching:leader:fencing";
+
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then "
+                    + "return redis.call('INCR', KEYS[2]) end return 0", Long.class);
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0", Long.class);
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+    private static final RedisScript<Long> HOLDS = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] and redis.call('GET', KEYS[2]) == ARGV[2] then "
+                    + "return 1 end return 0", Long.class);
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final String lockValue; // 같은 nodeId 로 잘못 띄운 노드와도 구분되도록 인스턴스마다 다름
+    private final long leaseMillis;
+    private final long renewMillis;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile boolean leader;
+    private volatile long fencingToken;
+    private volatile long leaseDeadlineNanos;
+    private volatile String leaderNodeId;
+
+    @Autowired
+    public LeaderElectionService(MatchingProperties matchingProperties,
+                                 ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                                 ApplicationEventPublisher eventPublisher) {
+        this(matchingProperties.getNodeId(), matchingProperties.getLeader(),
+                matchingProperties.getLeader().isEnabled() ? redisTemplateProvider.getObject() : null, eventPublisher);
+    }
+
+    public LeaderElectionService(String nodeId, MatchingProperties.Leader leaderProperties,
+                                 StringRedisTemplate redisTemplate, ApplicationEventPublisher eventPublisher) {
+        if (leaderProperties.isEnabled() && leaderProperties.getRenewMillis() * 2 > leaderProperties.getLeaseMillis()) {
+            throw new IllegalArgumentException("리더 임대 갱신 주기는 임대 시간의 절반 이하여야 합니다.: "
+                    + leaderProperties.getRenewMillis() + " / " + leaderProperties.getLeaseMillis());
+        }
+        this.enabled = leaderProperties.isEnabled();
+        this.nodeId = nodeId;
+        this.lockValue = nodeId + "/" + UUID.randomUUID();
+        this.leaseMillis = leaderProperties.getLeaseMillis();
+        this.renewMillis = leaderProperties.getRenewMillis();
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.leader = !enabled;
+        this.leaderNodeId = enabled ? null : nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //    지금 리더인지 (선출을 사용하지 않으면 항상 true) - 임대가 로컬 기준으로 끝났으면 갱신 전이라도 false
+    public boolean isLeader() {
+        return leader && (!enabled || System.nanoTime() < leaseDeadlineNanos);
+    }
+
+    //    마지막으로 확인한 리더 노드 ID, 없으면 null
+    public String leaderNodeId() {
+        return isLeader() ? nodeId : leaderNodeId;
+    }
+
+    //    리더가 될 때 받은 fencing token, 리더가 아니면 0
+    public long fencingToken() {
+        return isLeader() ? fencingToken : 0L;
+    }
+
+    /* fencing token 확인 - Redis 기준으로도 아직 같은 임대를 가진 리더인지
+     * 확인한 뒤 반영 전에 리더가 바뀔 수 있으므로 오래 걸리는 작업을 멈출지 판단하는 데만 씁니다.
+     * DB 쓰기를 막으려면 쓰기 트랜잭션에서 LeaderFenceService.check 를 호출합니다. */
+    public boolean holds(long token) {
+        if (!enabled) {
+            return true;
+        }
+        if (token == 0L || !isLeader()) {
+            return false;
+        }
+        Long held = redisTemplate.execute(HOLDS, List.of(LEADER_KEY, FENCING_KEY), lockValue, String.valueOf(token));
+        return held != null && held == 1L;
+    }
+
+    //    리더면 임대 갱신, 아니면 획득 시도
+    @Scheduled(fixedRateString = "${matching.leader.renew-millis:1000}")
+    public synchronized void tick() {
+        if (!enabled) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (leader) {
+                renew(startNanos);
+            } else {
+                acquire(startNanos);
+            }
+        } catch (Exception e) {
+            log.error("리더 임대 처리 중 오류 발생 - {}", e.getMessage());
+            if (leader && System.nanoTime() >= leaseDeadlineNanos) {
+                revoke("임대 갱신 실패");
+            }
+        }
+    }
+
+    //    종료 시 임대 반납 - 다른 노드가 lease 만료를 기다리지 않고 바로 이어받음
+    @PreDestroy
+    public synchronized void release() {
+        if (!enabled || !leader) {
+            return;
+        }
+        leader = false;
+        redisTemplate.execute(RELEASE, List.of(LEADER_KEY), lockValue);
+        log.info("스케줄러 리더 반납 - nodeId: {}, fencingToken: {}", nodeId, fencingToken);
+    }
+
+    private void acquire(long startNanos) {
+        Long token = redisTemplate.execute(ACQUIRE, List.of(LEADER_KEY, FENCING_KEY), lockValue, String.valueOf(leaseMillis));
+        if (token == null || token == 0L) {
+            leaderNodeId = currentLeaderNodeId();
+            return;
+        }
+        fencingToken = token;
+        leaseDeadlineNanos = deadline(startNanos);
+        leader = true;
+        leaderNodeId = nodeId;
+        log.info("스케줄러 리더 획득 - nodeId: {}, fencingToken: {}", nodeId, token);
+        eventPublisher.publishEvent(new LeadershipChangedEvent(true, token));
+    }
+
+    private void renew(long startNanos) {
+        Long renewed = redisTemplate.execute(RENEW, List.of(LEADER_KEY), lockValue, String.valueOf(leaseMillis));
+//        로컬 기준 임대가 잠시 끝났더라도 Redis 키가 그대로면 다른 노드가 리더가 된 적 없으므로 이어서 리더
+        if (renewed != null && renewed == 1L) {
+            leaseDeadlineNanos = deadline(startNanos);
+        } else {
+            revoke("임대 만료");
+            leaderNodeId = currentLeaderNodeId();
+        }
+    }
+
+    private void revoke(String reason) {
+        leader = false;
+        leaderNodeId = null;
+        long token = fencingToken;
+        log.warn("스케줄러 리더 해제 - nodeId: {}, fencingToken: {}, 사유: {}", nodeId, token, reason);
+        eventPublisher.publishEvent(new LeadershipChangedEvent(false, token));
+    }
+
+    //    갱신 요청을 보낸 시각 기준, 다음 갱신이 늦어질 것까지 감안해 한 주기 일찍 끝난 것으로 봄
+    private long deadline(long startNanos) {
+        return startNanos + (leaseMillis - renewMillis) * 1_000_000L;
+    }
+
+    private String currentLeaderNodeId() {
+        String lock = redisTemplate.opsForValue().get(LEADER_KEY);
+        return lock == null ? null : lock.substring(0, lock.lastIndexOf('/'));
+    }
+}
@@ -0,0 +1,56 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.domain.trading.entity.LeaderFenceEntity;
+import com.stockexchange.domain.trading.repository.LeaderFenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/* 리더 전용 DB 쓰기 fencing (matching.leader.enabled)
+ * LeaderElectionService.holds 는 확인과 쓰기 사이에 리더가 바뀔 수 있어 (check-then-act) 작업을 일찍 멈추는 데만 씁니다.
+ * 리더만 해야 하는 DB 쓰기(장 마감 만료, 이력 이동 DELETE)는 같은 트랜잭션 처음에 check 로 fencing token 을 DB 에 올립니다.
+ * - 새 리더가 더 큰 token 으로 올린 뒤에는 이전 리더의 check 가 실패해 트랜잭션 전체를 되돌림
+ * - 두 리더의 쓰기가 겹치면 행 잠금으로 한쪽 커밋까지 기다린 뒤 판단
+ * Redis 를 초기화해 matching:leader:fencing 이 DB 값보다 작아지면 모든 쓰기가 거부되므로 DB 값 이상으로 맞춰야 합니다. */
+@Slf4j
+@Service
+public class LeaderFenceService {
+    static final long FENCE_ID = 1L;
+
+    private final boolean enabled;
+    private final LeaderFenceRepository leaderFenceRepository;
+
+    public LeaderFenceService(MatchingProperties matchingProperties, LeaderFenceRepository leaderFenceRepository) {
+        this.enabled = matchingProperties.getLeader().isEnabled();
+        this.leaderFenceRepository = leaderFenceRepository;
+    }
+
+    //    fencing 행이 없으면 만듦 - 여러 노드가 동시에 만들면 한 노드만 성공
+    @EventListener(ApplicationStartedEvent.class)
+    public void initialize() {
+        if (!enabled || leaderFenceRepository.existsById(FENCE_ID)) {
+            return;
+        }
+        try {
+            leaderFenceRepository.saveAndFlush(new LeaderFenceEntity(FENCE_ID));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("다른 노드가 fencing 행을 먼저 만들었습니다.");
+        }
+    }
+
+    //    쓰기 트랜잭션 안에서 호출 - 더 최근 리더가 있으면 IllegalStateException (트랜잭션 롤백)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void check(long fencingToken) {
+        if (!enabled) {
+            return;
+        }
+        if (leaderFenceRepository.advance(FENCE_ID, fencingToken) == 0) {
+            throw new IllegalStateException("리더가 바뀌어 이전 리더의 쓰기를 거부합니다. fencingToken: " + fencingToken);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.stockexchange.domain.trading.service;
+
+/* 스케줄러 리더 변경 이벤트 - 이 노드가 리더가 되었거나(leader = true) 리더 자격을 잃음
+ * fencingToken 은 리더가 될 때마다 증가하는 번호입니다. 이전 리더의 번호는 항상 더 작습니다. */
+public class LeadershipChangedEvent {
+    private final boolean leader;
+    private final long fencingToken;
+
+    public LeadershipChangedEvent(boolean leader, long fencingToken) {
+        this.leader = leader;
+        this.fencingToken = fencingToken;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+}
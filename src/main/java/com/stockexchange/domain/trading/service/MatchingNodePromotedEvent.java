@@ -0,0 +1,5 @@
+package com.stockexchange.domain.trading.service;
+
+/* 대기 노드 승격 이벤트 - 이 노드가 주 노드를 이어받아 주문/스케줄 작업을 시작해야 함 */
+public class MatchingNodePromotedEvent {
+}
@@ -0,0 +1,30 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandBatch;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/* 연속 매칭 - 주문 트랜잭션이 커밋되는 즉시 매칭 엔진에 주문 명령 전달
+ * 롤백된 주문은 매칭 엔진에 들어가지 않습니다.
+ * 종목 분산(matching.routing)을 사용하면 종목 담당 노드의 매칭 엔진으로 보냅니다. */
+@Component
+@RequiredArgsConstructor
+public class OrderCommandListener {
+
+    private final ShardRoutingService shardRoutingService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCommand(OrderCommand command) {
+        shardRoutingService.route(command);
+    }
+
+    //    일괄 호가 - 기존 호가 취소와 새 호가를 끊김 없이 전달
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCommandBatch(OrderCommandBatch batch) {
+        shardRoutingService.route(batch);
+    }
+}
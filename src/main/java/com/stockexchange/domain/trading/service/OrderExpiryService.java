@@ -0,0 +1,189 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.expiry.TimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/* 주문 만료 처리
+ * - DAY 주문 : 장 마감 시 매칭 엔진에서 일괄 제거(EXPIRE_DAY)하고 DB 는 UPDATE 한 번으로 EXPIRED 처리
+ * - GTD 주문 : 만료 시각을 타이밍 휠에 등록해 두고 1초마다 시각이 된 주문만 꺼내 취소/만료
+ * 만료는 리더 노드만 하고, 휠도 리더에만 둡니다. 리더가 되면 만료 대상을 한 번 읽어 휠을 채우고,
+ * 이후에는 1초마다 마지막으로 읽은 (createdAt, orderId) 이후 접수된 GTD 주문만 읽어 등록하므로
+ * 어느 노드에서 접수된 주문이든 리더의 휠에 들어갑니다 (대기 주문 전체를 주기적으로 훑지 않음).
+ * 읽는 위치는 LOAD_LAG_MILLIS 만큼 늦춰 두어 늦게 커밋된 주문도 다음 확인에서 읽히고, 이미 등록한 주문은 다시 넣지 않습니다. */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExpiryService {
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 60;
+    private static final long LOAD_LAG_MILLIS = 5000;
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderMatchingService orderMatchingService;
+    private final LeaderElectionService leaderElection;
+    private final LeaderFenceService leaderFence;
+    private final TradingSessionProperties tradingSession;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private TimingWheel<Order> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+//    등록 시점에 이미 만료 시각이 지난 주문 - 다음 확인 때 처리
+    private final List<Order> overdue = new ArrayList<>();
+//    휠/overdue 에 등록된 주문 ID - 같은 주문을 두 번 넣지 않음
+    private final Set<Long> scheduled = new HashSet<>();
+//    다음에 읽을 GTD 주문 위치, 리더가 아니면 null
+    private ZonedDateTime loadedCreatedAt;
+    private long loadedOrderId;
+
+    /* 기동/승격 시 리더면 만료 대상 주문을 휠에 등록 - 지난 장 마감 처리를 놓친 DAY 주문은 바로 만료
+     * 읽기 전에 위치를 잡아 두므로 읽는 동안 접수된 GTD 주문은 다음 확인에서 읽힙니다. */
+    @EventListener({ApplicationStartedEvent.class, MatchingNodePromotedEvent.class})
+    @Transactional(readOnly = true)
+    public void loadExpiringOrders() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(TradingSessionProperties.ZONE);
+        synchronized (this) {
+            loadedCreatedAt = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(LOAD_LAG_MILLIS));
+            loadedOrderId = 0L;
+        }
+        List<Order> orders = orderRepository.findExpiringOrders(tradingSession.lastCloseAt(now)).stream()
+                .map(Order::from)
+                .toList();
+        orders.forEach(this::schedule);
+        log.info("만료 대상 주문 등록 - {} 건", orders.size());
+    }
+
+    //    리더가 되면 만료 대상을 다시 읽고, 리더가 아니게 되면 휠을 비움 (새 리더가 자기 휠에서 만료)
+    @EventListener
+    @Transactional(readOnly = true)
+    public void onLeadershipChanged(LeadershipChangedEvent event) {
+        if (event.isLeader()) {
+            loadExpiringOrders();
+            return;
+        }
+        synchronized (this) {
+            wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+            overdue.clear();
+            scheduled.clear();
+            loadedCreatedAt = null;
+        }
+    }
+
+    //    만료 예약 - GTD 가 아니면(마감 처리를 놓친 DAY 주문) 휠 틱을 기다리지 않고 다음 확인 때 바로 만료, 이미 등록된 주문은 무시
+    public synchronized void schedule(Order order) {
+        if (!scheduled.add(order.getOrderId())) {
+            return;
+        }
+        if (order.getTimeInForce() != TimeInForce.GTD
+                || !wheel.add(order, order.getExpireAt().toInstant().toEpochMilli())) {
+            overdue.add(order);
+        }
+    }
+
+    /* 리더만 - 새로 접수된 GTD 주문을 등록한 뒤 만료 시각이 된 주문 처리
+     * 그 사이 체결 완료/취소된 주문은 UPDATE 조건(PENDING)에서 빠지고, 엔진의 취소도 무시됩니다.
+     * 만료 UPDATE 전에 fencing token 을 확인하므로 리더가 바뀐 뒤 늦게 도착한 이전 리더의 만료는 롤백됩니다.
+     * 취소 명령은 커밋 직후 OrderCommandListener 가 매칭 엔진으로 전달합니다. */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    @Transactional
+    public void expireDue() {
+        if (!orderMatchingService.isActive() || !leaderElection.isLeader()) {
+            return;
+        }
+        long fencingToken = leaderElection.fencingToken();
+        loadNewGtdOrders();
+        List<Order> expired = pollExpired(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        leaderFence.check(fencingToken);
+        List<Long> orderIds = expired.stream().map(Order::getOrderId).toList();
+        int updated = orderRepository.expireOrders(orderIds, ZonedDateTime.now(TradingSessionProperties.ZONE));
+        expired.forEach(order -> eventPublisher.publishEvent(order.toCommand(OrderCommandType.CANCEL)));
+        log.info("GTD 주문 만료 - 대상: {} 건, 만료: {} 건", expired.size(), updated);
+    }
+
+    /* 마지막으로 읽은 위치 이후 접수된 GTD 주문을 LOAD_CHUNK_SIZE 건씩 읽어 등록
+     * 다음 위치는 마지막으로 읽은 주문과 (지금 - LOAD_LAG_MILLIS) 중 앞선 쪽 */
+    private void loadNewGtdOrders() {
+        ZonedDateTime createdAt;
+        long orderId;
+        synchronized (this) {
+            if (loadedCreatedAt == null) {
+                return;
+            }
+            createdAt = loadedCreatedAt;
+            orderId = loadedOrderId;
+        }
+        ZonedDateTime limit = ZonedDateTime.now(TradingSessionProperties.ZONE)
+                .minusNanos(TimeUnit.MILLISECONDS.toNanos(LOAD_LAG_MILLIS));
+        while (true) {
+            List<OrderEntity> orders = orderRepository.findGtdOrdersCreatedSince(createdAt, orderId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            for (OrderEntity order : orders) {
+                schedule(Order.from(order));
+            }
+            if (!orders.isEmpty()) {
+                OrderEntity tail = orders.get(orders.size() - 1);
+                createdAt = tail.getCreatedAt();
+                orderId = tail.getOrderId();
+            }
+            if (orders.size() < LOAD_CHUNK_SIZE) {
+                break;
+            }
+        }
+        synchronized (this) {
+            if (loadedCreatedAt == null) {
+                return;
+            }
+            if (createdAt.isAfter(limit)) {
+                loadedCreatedAt = limit;
+                loadedOrderId = 0L;
+            } else {
+                loadedCreatedAt = createdAt;
+                loadedOrderId = orderId;
+            }
+        }
+    }
+
+    /* 장 마감 - 엔진의 당일 주문을 먼저 제거한 뒤 DB 를 한 번에 만료 처리
+     * 리더 전용 쓰기 - 그 사이 리더가 바뀌었으면 fencing 확인에서 거부하고 엔진/DB 모두 건드리지 않음 */
+    @Transactional
+    public void expireDayOrders(long fencingToken) {
+        leaderFence.check(fencingToken);
+        orderMatchingService.expireDayOrders();
+        int updated = orderRepository.expireDayOrders(ZonedDateTime.now(TradingSessionProperties.ZONE));
+        log.info("당일 주문 만료 - {} 건", updated);
+    }
+
+    private synchronized List<Order> pollExpired(long nowMillis) {
+        List<Order> expired = new ArrayList<>(overdue);
+        overdue.clear();
+        wheel.advance(nowMillis, expired::add);
+        expired.forEach(order -> scheduled.remove(order.getOrderId()));
+        return expired;
+    }
+}
@@ -1,7 +1,199 @@
 package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.domain.execution.service.ExecutionWriter;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.engine.EpochNanos;
+import com.stockexchange.domain.trading.engine.JournalReplicationClient;
+import com.stockexchange.domain.trading.engine.JournalReplicationServer;
+import com.stockexchange.domain.trading.engine.MatchingEngine;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandBatch;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.engine.ReplicationListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
 /* 순수 매칭 알고리즘
 * 가격/시간 우선순위 계산
-* 매칭 가능성 검증 */
+* 매칭 가능성 검증
+* 종목을 샤드로 나누고, 샤드마다 하나의 매칭 스레드가 호가창을 독점합니다.
+* 주문 명령은 링 버퍼를 통해 비동기로 전달되며, 체결 결과는 ExecutionWriter 대기열에 넣고 저장 스레드가 묶어서 저장합니다.
+* 복제(matching.replication)를 켜면 주 노드는 저널 기록을 대기 노드로 전송하고,
+* 대기 노드는 승격될 때까지 주문 명령을 받지 않고(isActive = false) 주 노드의 명령만 적용합니다. */
+@Slf4j
+@Service
 public class OrderMatchingService {
-    // TODO
+
+    private final MatchingEngine matchingEngine;
+    private final ExecutionWriter executionWriter;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MatchingProperties.Replication replication;
+    private final boolean distributed; // 종목 분산 또는 리더 선출 사용
+    private final JournalReplicationServer replicationServer; // PRIMARY 만
+    private final JournalReplicationClient replicationClient; // STANDBY 만
+    private volatile boolean active;
+
+    public OrderMatchingService(MatchingProperties matchingProperties, ExecutionWriter executionWriter,
+                                OrderRepository orderRepository, ApplicationEventPublisher eventPublisher) {
+        this.executionWriter = executionWriter;
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.replication = matchingProperties.getReplication();
+        this.distributed = matchingProperties.getRouting().isEnabled() || matchingProperties.getLeader().isEnabled();
+        if (replication.getRole() != MatchingProperties.Replication.Role.NONE && !matchingProperties.getJournal().isEnabled()) {
+            throw new IllegalStateException("대기 노드 복제는 저널을 사용해야 합니다. (matching.journal.enabled)");
+        }
+        this.replicationServer = replication.getRole() == MatchingProperties.Replication.Role.PRIMARY
+                ? new JournalReplicationServer(replication.getPort(), matchingProperties.getShards(), replication.getMode(),
+                replication.getHeartbeatMillis(), replication.getSyncTimeoutMillis())
+                : null;
+        this.replicationClient = replication.getRole() == MatchingProperties.Replication.Role.STANDBY
+                ? new JournalReplicationClient(replication.getHost(), replication.getPort(),
+                replication.getFailoverTimeoutMillis(), this::onPromoted)
+                : null;
+        ReplicationListener replicationListener = replicationServer != null ? replicationServer : replicationClient;
+        this.matchingEngine = new MatchingEngine(
+                matchingProperties.getShards(),
+                matchingProperties.getRingBufferSize(),
+                matchingProperties.getWaitStrategy(),
+                matchingProperties.getBookStorage(),
+                matchingProperties.getJournal().toConfig(),
+                replicationListener,
+                executionWriter
+        );
+        this.active = replicationClient == null;
+    }
+
+    //    저널을 사용하면 시작 전에 저널을 재생해 호가창 복구, 대기 노드는 재생 후 주 노드에 연결
+    @PostConstruct
+    public void start() {
+        matchingEngine.setStandby(!active);
+        matchingEngine.start();
+        if (replicationServer != null) {
+            replicationServer.start();
+        }
+        if (replicationClient != null) {
+            replicationClient.start(matchingEngine);
+        }
+        log.info("매칭 엔진 시작 - 샤드 수: {}, 저널 재생 명령 수: {}, 복제: {}",
+                matchingEngine.shardCount(), matchingEngine.replayedCommands(), replication.getRole());
+    }
+
+    //    주문/스케줄 명령을 받는 노드인지 (승격 전 대기 노드만 false)
+    public boolean isActive() {
+        return active;
+    }
+
+    public String role() {
+        if (replicationClient != null && active) {
+            return "PROMOTED";
+        }
+        return replication.getRole().name();
+    }
+
+    //    대기 노드 승격 (복제 클라이언트 스레드) - 이후 주문 명령을 받고 승격 이벤트로 스케줄 작업 재개
+    private void onPromoted() {
+        active = true;
+        log.warn("매칭 노드 승격 - 주 노드 역할을 이어받습니다.");
+        eventPublisher.publishEvent(new MatchingNodePromotedEvent());
+    }
+
+    private void requireActive() {
+        if (!active) {
+            throw new IllegalStateException("대기(standby) 매칭 노드는 주문 명령을 받지 않습니다.");
+        }
+    }
+
+    /* 호가창 복구 - 기동 시 DB 의 PENDING 주문을 시간순으로 다시 등록
+     * 트래픽 수신 가능(readiness) 상태로 바뀌기 전(ApplicationStartedEvent)에 실행합니다.
+     * 저널을 사용하면 start() 에서 이미 복구했으므로 건너뜁니다.
+     * 종목 분산/리더 선출을 사용하면 담당 주문만 ShardRoutingService 가 등록합니다. */
+    @EventListener(ApplicationStartedEvent.class)
+    @Transactional(readOnly = true)
+    public void recover() {
+        if (matchingEngine.isJournalEnabled() || distributed) {
+            return;
+        }
+        List<OrderEntity> pendingOrders = orderRepository.findPendingOrdersByCreatedAt();
+        for (OrderEntity order : pendingOrders) {
+            submit(Order.from(order).toCommand(OrderCommandType.NEW));
+        }
+        log.info("호가창 복구 - PENDING 주문 수: {}", pendingOrders.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (replicationClient != null) {
+            replicationClient.close();
+        }
+        matchingEngine.stop();
+        if (replicationServer != null) {
+            replicationServer.close();
+        }
+        log.info("매칭 엔진 종료");
+    }
+
+    //    동시호가 시작 - 이후 주문은 체결 없이 호가창에 쌓임
+    public void startAuction() {
+        requireActive();
+        matchingEngine.startAuction(EpochNanos.now());
+    }
+
+    //    동시호가 종료 - 종목별 단일가 체결
+    public void uncross() {
+        requireActive();
+        matchingEngine.uncross(EpochNanos.now());
+    }
+
+    //    장 마감 - 당일 주문 잔량을 호가창에서 일괄 제거 (마감 단일가 체결 이후 적용)
+    public void expireDayOrders() {
+        requireActive();
+        matchingEngine.expireDayOrders(EpochNanos.now());
+    }
+
+    //    호가창 스냅샷 요청 - 저장이 끝나면 스냅샷 이전 저널 세그먼트 삭제
+    public void snapshot() {
+        matchingEngine.requestSnapshot();
+    }
+
+    //    주문 명령을 담당 샤드로 전달
+    public void submit(OrderCommand command) {
+        requireActive();
+        matchingEngine.publish(command);
+    }
+
+    //    한 종목의 명령 묶음을 담당 샤드로 끊김 없이 전달
+    public void submit(OrderCommandBatch batch) {
+        requireActive();
+        matchingEngine.publish(batch);
+    }
+
+    //    처리 대기 중인 명령 수
+    public int backlog() {
+        return matchingEngine.backlog();
+    }
+
+    /* 호출 시점까지 넣은 명령을 엔진이 모두 처리하고, 그 체결/수량 감소가 DB 에 저장(또는 보관 파일에 기록)될 때까지 대기
+     * 종목을 다른 노드로 넘기기 전에 호출 - 이후 DB 의 PENDING 주문과 남은 수량이 호가창과 같아집니다.
+     * 보관 파일에 남은 체결의 주문만 그 체결이 다시 저장될 때까지 DB 수량이 늦습니다 (ExecutionWriter.awaitPersisted).
+     * 시간 안에 끝나지 않으면 false */
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        if (!matchingEngine.awaitProcessed(timeoutMillis)) {
+            return false;
+        }
+        return executionWriter.awaitPersisted(Math.max(0, deadline - System.currentTimeMillis()));
+    }
 }
@@ -0,0 +1,21 @@
+package com.stockexchange.domain.trading.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/* 매칭 노드 역할 헬스 체크 (readiness 그룹에 포함)
+ * 승격 전 대기 노드는 OUT_OF_SERVICE 라 로드밸런서가 주문 트래픽을 보내지 않습니다. */
+@Component
+@RequiredArgsConstructor
+public class ReplicationHealthIndicator implements HealthIndicator {
+
+    private final OrderMatchingService orderMatchingService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = orderMatchingService.isActive() ? Health.up() : Health.outOfService();
+        return builder.withDetail("role", orderMatchingService.role()).build();
+    }
+}
@@ -1,44 +1,125 @@
 package com.stockexchange.domain.trading.service;
 
-import com.stockexchange.domain.execution.service.ExecutionService;
-import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.domain.Order;
 import com.stockexchange.domain.order.repository.OrderRepository;
-import lombok.RequiredArgsConstructor;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import com.stockexchange.domain.trading.session.MarketPhase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalTime;
-import java.time.ZoneId;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/* 대사(reconciliation) 스케줄러 - 선택 사항 (matching.reconciliation.enabled)
+ * 주문 체결은 OrderCommandListener 가 커밋 즉시 처리하고, 기동 시 복구는 OrderMatchingService 가 담당합니다.
+ * 이 스케줄러는 호가창에 빠진 PENDING 주문만 다시 등록합니다.
+ * 엔진에서 전량 체결되었지만 체결이 아직 저장 대기/재시도 중이거나 dead letter 로 남은 주문도 DB 에는 PENDING 으로 보입니다.
+ * 샤드는 최근에 전량 체결된 주문 ID 를 기억해(ClosedOrderIds) 그런 주문의 NEW 를 무시하므로 같은 주문이 두 번 체결되지 않습니다.
+ * 기억하는 주문 수에는 한도가 있어 그보다 오래 저장되지 못한 체결이 있으면 막지 못하므로, 장애 복구 용도로만 켭니다.
+ *
+ * 한 번의 대사는 종목별로, 종목 안에서는 chunkSize 건씩 나눠 각각 짧은 읽기 트랜잭션으로 처리합니다.
+ * 묶음은 마지막으로 읽은 (createdAt, orderId) 다음부터 읽으므로 그 사이 PENDING 주문이 줄어도 건너뛰는 주문이 없습니다.
+ * 전체 PENDING 주문을 한 트랜잭션에 묶지 않으므로 주문 수정/취소를 오래 막지 않고, 한 종목의 오류가 다른 종목 대사를 되돌리지 않습니다.
+ * 종목끼리는 서로 독립이므로 parallelism 개의 대사 스레드가 종목을 나눠 동시에 처리합니다.
+ * 한 종목은 한 스레드가 시간순으로 처리하므로 종목 안의 재등록 순서는 그대로이고, 링 버퍼는 여러 스레드의 동시 발행을 받습니다.
+ *
+ * 전체 대사는 처음 한 번(리더가 되거나 승격된 뒤 포함)만 하고, 이후에는 워터마크(updatedAt, orderId) 이후 접수/수정된
+ * PENDING 주문만 읽습니다. 대사 비용은 쌓인 호가창 크기가 아니라 그 사이 새로 들어온 주문 수에 비례합니다.
+ * 워터마크는 watermarkLag 만큼 늦춰 두므로 최근 주문은 다음 대사에서 한 번 더 읽힐 수 있고, 엔진이 중복 등록을 무시합니다.
+ * 대사가 주기보다 오래 걸리면 밀린 실행은 건너뜁니다 (겹쳐 실행하거나 끝나자마자 다시 실행하지 않음).
+ * 지표 - matching.reconciliation.duration(대사 시간), matching.reconciliation.backlog(마지막 대사가 읽은 PENDING 주문 수),
+ *        matching.reconciliation.skipped(건너뛴 실행 수), matching.reconciliation.failed(실패한 종목 수) */
 @Service
-@RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "matching.reconciliation.enabled", havingValue = "true")
 public class SchedularService {
+    private static final ZonedDateTime BEGINNING = Instant.EPOCH.atZone(TradingSessionProperties.ZONE);
 
     private final OrderRepository orderRepository;
-    private final ExecutionService executionService;
+    private final OrderMatchingService orderMatchingService;
+    private final ShardRoutingService shardRoutingService;
+    private final LeaderElectionService leaderElection;
+    private final TradingSessionProperties tradingSession;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MatchingProperties.Reconciliation reconciliation;
 
-    /* 현재 시간이 거래 가능 시간인지 체크
-    거래 가능 시간이면 trun return */
-    private boolean isTradingTime(){
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Seoul"));
-        LocalTime currentTime = now.toLocalTime();
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Timer passTimer;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private volatile Watermark watermark; // null 이면 다음 대사는 전체 대사
+    private volatile long lastFinishedNanos;
+    private volatile boolean overran; // 마지막 대사가 주기보다 오래 걸림
+
+    public SchedularService(OrderRepository orderRepository, OrderMatchingService orderMatchingService,
+                            ShardRoutingService shardRoutingService, LeaderElectionService leaderElection,
+                            TradingSessionProperties tradingSession, MatchingProperties matchingProperties,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderMatchingService = orderMatchingService;
+        this.shardRoutingService = shardRoutingService;
+        this.leaderElection = leaderElection;
+        this.tradingSession = tradingSession;
+        this.reconciliation = matchingProperties.getReconciliation();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(reconciliation.getParallelism(), new ThreadFactory() {
+            private final AtomicInteger sequence = new AtomicInteger();
 
-        LocalTime tradingStartTime = LocalTime.of(9, 0);
-        LocalTime tradingEndTime = LocalTime.of(15, 20);
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "reconciliation-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.passTimer = Timer.builder("matching.reconciliation.duration")
+                .description("호가창 대사 한 번에 걸린 시간")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("matching.reconciliation.skipped")
+                .description("이전 대사가 끝나지 않아 건너뛴 실행 수")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("matching.reconciliation.failed")
+                .description("대사 중 오류가 난 종목 수")
+                .register(meterRegistry);
+        meterRegistry.gauge("matching.reconciliation.backlog", backlog);
+    }
 
-        return !currentTime.isBefore(tradingStartTime) && !currentTime.isAfter(tradingEndTime);
+    /* 현재 접속 매매 시간인지 체크
+    동시호가 중에는 주문이 체결 없이 쌓이므로 대사하지 않음, 승격 전 대기 노드와 리더가 아닌 노드도 대사하지 않음 */
+    private boolean isTradingTime(){
+        return orderMatchingService.isActive() && leaderElection.isLeader()
+                && tradingSession.currentPhase() == MarketPhase.CONTINUOUS;
     }
 
-    /* 10초마다 PENDING 주문들을 체결 처리
-    * 장 시간(09:00 ~ 15:20) 내에서만 실행 */
+    /* 주기적으로(기본 10초) 호가창에 없는 PENDING 주문들을 등록 및 체결 처리
+    * 접속 매매 시간(trading.session) 내에서만 실행 */
 
-    @Scheduled(fixedRate = 10000) // 10초마다 실행
-    @Transactional
+    @Scheduled(fixedRateString = "${matching.reconciliation.fixed-rate:10000}")
     public void processOrderMatching(){
 //        1. 장 시간 체크
         if(!isTradingTime()){
@@ -46,29 +127,175 @@ public class SchedularService {
             return;
         }
 
-//        2. 주문 매칭 스케줄러 시작
-        log.info("주문 매칭 스케줄러 시작");
+//        2. 이전 대사가 아직 실행 중이거나, 주기를 넘긴 대사가 끝난 직후 밀려서 몰아 호출된 실행이면 건너뜀
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(reconciliation.getFixedRate());
+        long startedNanos = System.nanoTime();
+        if((overran && startedNanos - lastFinishedNanos < periodNanos / 2) || !running.compareAndSet(false, true)){
+            skippedCounter.increment();
+            log.warn("이전 대사가 주기({}ms)를 넘겨 이번 실행을 건너뜁니다.", reconciliation.getFixedRate());
+            return;
+        }
 
+//        3. 대사 스케줄러 시작
+        log.info("주문 대사 스케줄러 시작");
         try {
-//            PENDING 상태의 주문들 조회(시간순 정렬)
-            List<OrderEntity> pendingOrders = orderRepository.findPendingOrdersByCreatedAt();
+            passTimer.record(this::reconcile);
+        } finally {
+            lastFinishedNanos = System.nanoTime();
+            overran = lastFinishedNanos - startedNanos > periodNanos;
+            running.set(false);
+        }
+        log.info("주문 대사 스케줄러 종료");
+    }
+
+    //    리더가 되거나 승격되면 이전 리더가 놓친 주문이 있을 수 있으므로 다음 대사는 전체 대사
+    @EventListener({LeadershipChangedEvent.class, MatchingNodePromotedEvent.class})
+    public void resetWatermark(){
+        watermark = null;
+    }
 
-            if(pendingOrders.isEmpty()){
-                log.debug("매칭할 주문이 없습니다.");
-                return;
+    private void reconcile(){
+        long fencingToken = leaderElection.fencingToken();
+//        이번 대사 시작 시각 - watermarkLag 이후 수정된 주문은 다음 대사에서 다시 읽음
+        Watermark limit = new Watermark(ZonedDateTime.now(TradingSessionProperties.ZONE)
+                .minusNanos(TimeUnit.MILLISECONDS.toNanos(reconciliation.getWatermarkLagMillis())), 0L);
+        Watermark from = watermark;
+        if(from != null){
+            watermark = reconcileChanged(from, limit, fencingToken);
+            return;
+        }
+//        전체 대사를 끝까지 마친 경우에만 증분 대사로 전환 (오류/리더 변경으로 빠진 종목이 있으면 다음에도 전체 대사)
+        if(reconcileAll(fencingToken)){
+            watermark = limit;
+        }
+    }
+
+    /* 증분 대사 - 워터마크 이후 접수/수정된 PENDING 주문을 chunkSize 건씩 수정 시각순으로 재등록
+     * 반환한 워터마크는 마지막으로 읽은 주문과 limit 중 앞선 쪽 */
+    private Watermark reconcileChanged(Watermark from, Watermark limit, long fencingToken){
+        Watermark last = from;
+        int count = 0;
+        while(true){
+            if(!leaderElection.holds(fencingToken)){
+                log.warn("리더 자격을 잃어 대사를 중단합니다. fencingToken: {}", fencingToken);
+                break;
+            }
+            Watermark cursor = last;
+            List<Order> orders = readOnlyTransaction.execute(status -> orderRepository
+                    .findPendingOrdersChangedSince(cursor.updatedAt, cursor.orderId, PageRequest.of(0, reconciliation.getChunkSize()))
+                    .stream()
+                    .map(Order::from)
+                    .toList());
+            if(orders == null || orders.isEmpty()){
+                break;
             }
+            for(Order order : orders){
+                shardRoutingService.submitIfLocal(order.toCommand(OrderCommandType.NEW));
+            }
+            Order tail = orders.get(orders.size() - 1);
+            last = new Watermark(tail.getUpdatedAt(), tail.getOrderId());
+            count += orders.size();
+            if(orders.size() < reconciliation.getChunkSize()){
+                break;
+            }
+        }
+        backlog.set(count);
+        log.debug("증분 대사 처리 주문 수: {}", count);
+        return last.isBefore(limit) ? last : limit;
+    }
 
-//            3. 각 주문에 대해 체결 시도
-            int matchCount = 0;
-            for(OrderEntity order : pendingOrders){
-                boolean executed = executionService.orderExecution(order);
-                if(executed){
-                    matchCount++;
-                }
+    //    전체 대사 - 종목별 PENDING 주문 전체, 모든 종목을 마쳤으면 true
+    private boolean reconcileAll(long fencingToken){
+        List<Long> stockIds = readOnlyTransaction.execute(status -> orderRepository.findPendingStockIds());
+        if(stockIds == null || stockIds.isEmpty()){
+            backlog.set(0);
+            log.debug("매칭할 주문이 없습니다.");
+            return true;
+        }
+
+//        종목별 대사를 대사 스레드에 나눠 맡기고 모두 끝날 때까지 대기 (다른 노드 담당 종목은 건너뜀)
+        List<CompletableFuture<Integer>> tasks = new ArrayList<>();
+        for(Long stockId : stockIds){
+            if(shardRoutingService.isLocal(stockId)){
+                tasks.add(CompletableFuture.supplyAsync(() -> reconcileStock(stockId, fencingToken), executor));
             }
+        }
+        int pendingCount = 0;
+        boolean complete = true;
+        for(CompletableFuture<Integer> task : tasks){
+            int count = task.join();
+            complete &= count >= 0;
+            pendingCount += Math.max(count, 0);
+        }
+        backlog.set(pendingCount);
+        log.debug("대사 처리 종목 수: {}, 주문 수: {}", tasks.size(), pendingCount);
+        return complete;
+    }
+
+    /* 도중에 리더가 바뀌었으면 새 리더가 대사하도록 남은 종목은 건너뜀, 오류가 난 종목은 기록만 하고 다른 종목은 계속
+     * 처리한 주문 수, 건너뛰거나 오류가 났으면 -1 */
+    private int reconcileStock(Long stockId, long fencingToken){
+        if(!leaderElection.holds(fencingToken)){
+            log.warn("리더 자격을 잃어 대사를 건너뜁니다. stockId: {}, fencingToken: {}", stockId, fencingToken);
+            return -1;
+        }
+        try {
+            return reconcileStock(stockId);
         } catch (Exception e) {
-            log.error("주문 매칭 처리 중 오류 발생: " + e.getMessage());
+            failedCounter.increment();
+            log.error("종목 대사 중 오류 발생 - stockId: {}, {}", stockId, e.getMessage());
+            return -1;
+        }
+    }
+
+    /* 종목의 PENDING 주문을 chunkSize 건씩 주문 시간순으로 읽어 담당 샤드로 재등록
+     * 이미 호가창에 있거나 최근에 전량 체결된 주문은 샤드에서 무시, 도중에 호가창을 넘기면(리더 자격 상실 등) 남은 주문은 넣지 않음 */
+    private int reconcileStock(Long stockId){
+        PageRequest chunk = PageRequest.of(0, reconciliation.getChunkSize());
+        ZonedDateTime createdAt = BEGINNING;
+        long orderId = 0L;
+        int count = 0;
+        while(true){
+            ZonedDateTime cursorCreatedAt = createdAt;
+            long cursorOrderId = orderId;
+            List<Order> orders = readOnlyTransaction.execute(status -> orderRepository
+                    .findPendingOrdersByStock(stockId, cursorCreatedAt, cursorOrderId, chunk).stream()
+                    .map(Order::from)
+                    .toList());
+            if(orders == null || orders.isEmpty()){
+                return count;
+            }
+            for(Order order : orders){
+                shardRoutingService.submitIfLocal(order.toCommand(OrderCommandType.NEW));
+            }
+            Order tail = orders.get(orders.size() - 1);
+            createdAt = tail.getCreatedAt();
+            orderId = tail.getOrderId();
+            count += orders.size();
+            if(orders.size() < reconciliation.getChunkSize()){
+                return count;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop(){
+        executor.shutdownNow();
+    }
+
+    //    (수정 시각, 주문 ID) 순서의 대사 위치
+    private static class Watermark {
+        private final ZonedDateTime updatedAt;
+        private final long orderId;
+
+        private Watermark(ZonedDateTime updatedAt, long orderId) {
+            this.updatedAt = updatedAt;
+            this.orderId = orderId;
+        }
+
+        private boolean isBefore(Watermark other) {
+            int compared = updatedAt.toInstant().compareTo(other.updatedAt.toInstant());
+            return compared < 0 || (compared == 0 && orderId < other.orderId);
         }
-        log.info("주문 매칭 스케줄러 종료");
     }
 }
@@ -0,0 +1,25 @@
+package com.stockexchange.domain.trading.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/* 호가창 스냅샷 스케줄러 - 선택 사항 (matching.snapshot.enabled)
+ * 주기적으로 샤드별 스냅샷을 남기고 그 이전 저널 세그먼트를 정리해
+ * 재기동 시 재생할 저널 길이를 스냅샷 주기 안으로 제한합니다. */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "matching.snapshot.enabled", havingValue = "true")
+public class SnapshotScheduler {
+
+    private final OrderMatchingService orderMatchingService;
+
+    @Scheduled(fixedRateString = "${matching.snapshot.fixed-rate:300000}", initialDelayString = "${matching.snapshot.fixed-rate:300000}")
+    public void snapshot() {
+        log.debug("호가창 스냅샷 요청");
+        orderMatchingService.snapshot();
+    }
+}
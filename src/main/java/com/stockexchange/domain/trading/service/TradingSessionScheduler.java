@@ -0,0 +1,56 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.trading.session.MarketPhase;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/* 장 운영 단계 전환 스케줄러
+ * 1초마다 현재 단계를 확인해 동시호가에 들어가면 매칭 엔진을 주문 접수 모드로,
+ * 동시호가가 끝나면 종목별 단일가 체결(uncross)을 요청합니다. 장이 닫히면 남은 당일 주문을 만료시킵니다.
+ * 기동 직후 첫 확인에서는 저널/스냅샷으로 복구된 상태를 현재 단계에 맞춥니다. */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradingSessionScheduler {
+
+    private final TradingSessionProperties tradingSession;
+    private final OrderMatchingService orderMatchingService;
+    private final OrderExpiryService orderExpiryService;
+    private final LeaderElectionService leaderElection;
+
+    private MarketPhase lastPhase;
+
+    @Scheduled(fixedRate = 1000)
+    public void checkPhase() {
+//        승격 전 대기 노드는 주 노드의 단계 전환 명령을 복제받으므로 건너뜀
+        if (!orderMatchingService.isActive()) {
+            return;
+        }
+//        리더만 단계 전환 - 리더가 되면 첫 확인에서 현재 단계에 맞춤
+        if (!leaderElection.isLeader()) {
+            lastPhase = null;
+            return;
+        }
+        long fencingToken = leaderElection.fencingToken();
+        MarketPhase phase = tradingSession.currentPhase();
+        if (phase == lastPhase) {
+            return;
+        }
+
+        boolean wasAuction = lastPhase != null && lastPhase.isAuction();
+        if (phase.isAuction() && !wasAuction) {
+            orderMatchingService.startAuction();
+        } else if (!phase.isAuction() && (wasAuction || lastPhase == null)) {
+            orderMatchingService.uncross();
+        }
+//        장 마감 - 마감 단일가 체결 뒤 남은 당일 주문 만료
+        if (phase == MarketPhase.CLOSED && lastPhase != null) {
+            orderExpiryService.expireDayOrders(fencingToken);
+        }
+        log.info("장 운영 단계 전환: {} -> {}", lastPhase, phase);
+        lastPhase = phase;
+    }
+}
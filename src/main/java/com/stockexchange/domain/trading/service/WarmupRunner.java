@@ -0,0 +1,115 @@
+package com.stockexchange.domain.trading.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.config.WarmupProperties;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.dto.OrderDetailResV1;
+import com.stockexchange.domain.order.dto.OrderReqV1;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.stock.entity.StockIpo;
+import com.stockexchange.domain.trading.engine.MatchingEngine;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import com.stockexchange.domain.trading.session.MarketPhase;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* 장 시작 전 JIT 예열 - 선택 사항 (warmup.enabled)
+ * 주문 요청 역직렬화 -> 주문 검증/Entity 생성 -> Domain 변환 -> 응답 직렬화 -> 매칭 까지 가상 주문을 반복해
+ * 첫 실주문이 인터프리터/C1 코드에서 처리되지 않도록 합니다.
+ * 매칭은 예열 전용 엔진(샤드 1개, 저널 없음)의 호가창에서 하고, DB 에는 저장하지 않으며, 끝나면 엔진째 버립니다.
+ * 예열 엔진은 실제 엔진과 같은 호가창 저장 방식(matching.book-storage)과 대기 방식을 써서 실주문과 같은 코드 경로를 컴파일합니다.
+ * ApplicationRunner 가 끝나야 readiness 가 ACCEPTING_TRAFFIC 으로 바뀌므로, 예열 중에는 로드밸런서가 트래픽을 보내지 않습니다.
+ * JIT 컴파일 누적 시간이 더 이상 늘지 않으면(주요 경로가 C2 컴파일을 마친 것으로 봄) 또는 최대 시간이 지나면 종료합니다. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+    private static final long WARMUP_STOCK_ID = -1L;
+    private static final long WARMUP_USER_ID = -1L;
+    private static final int PRICE_LEVELS = 10;
+    private static final BigDecimal BASE_PRICE = new BigDecimal("10000.00");
+
+    private final WarmupProperties warmup;
+    private final MatchingProperties matchingProperties;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final StockEntity warmupStock = new StockEntity("WARMUP", "000000", StockIpo.KOSPI, BASE_PRICE);
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean monitored = jit != null && jit.isCompilationTimeMonitoringSupported();
+        long start = System.nanoTime();
+        long deadline = start + warmup.getMaxDuration().toNanos();
+        long compileMillis = monitored ? jit.getTotalCompilationTime() : 0;
+
+        AtomicLong fills = new AtomicLong();
+        MatchingEngine engine = new MatchingEngine(1, 1 << 14, matchingProperties.getWaitStrategy(),
+                matchingProperties.getBookStorage(), null, batch -> fills.addAndGet(batch.size()));
+        engine.start();
+        long sequence = 0;
+        int rounds = 0;
+        int stableRounds = 0;
+        try {
+            while (stableRounds < warmup.getStableRounds() && System.nanoTime() < deadline) {
+                for (int i = 0; i < warmup.getRoundSize(); i++) {
+                    Order order = syntheticOrder(++sequence);
+                    engine.publish(order.toCommand(OrderCommandType.NEW));
+//                    취소 경로도 함께 예열
+                    if (sequence % 8 == 0) {
+                        engine.publish(order.toCommand(OrderCommandType.CANCEL));
+                    }
+                }
+                rounds++;
+                if (monitored) {
+                    long total = jit.getTotalCompilationTime();
+                    stableRounds = total - compileMillis <= warmup.getStableCompileMillis() ? stableRounds + 1 : 0;
+                    compileMillis = total;
+                }
+            }
+        } finally {
+            engine.stop();
+        }
+
+        log.info("JIT 예열 완료 - 라운드: {}, 가상 주문: {}, 체결: {}, 소요: {}ms, 누적 컴파일 시간: {}ms",
+                rounds, sequence, fills.get(), (System.nanoTime() - start) / 1_000_000L, compileMillis);
+    }
+
+    //    실주문과 같은 변환 경로를 거친 가상 주문 - 매수/매도를 번갈아 같은 가격대에 넣어 체결도 발생
+    private Order syntheticOrder(long sequence) throws JsonProcessingException {
+        boolean buy = (sequence & 1) == 0;
+        BigDecimal price = BASE_PRICE.add(BigDecimal.valueOf(sequence % PRICE_LEVELS, 2));
+        String json = "{\"orderCount\":10,\"orderPrice\":" + price + ",\"orderType\":\"" + (buy ? "BUY" : "SELL")
+                + "\",\"stockId\":" + WARMUP_STOCK_ID + ",\"userId\":" + WARMUP_USER_ID + "}";
+        OrderReqV1 request = objectMapper.readValue(json, OrderReqV1.class);
+
+        OrderEntity entity = OrderEntity.createOrder(request.getOrderCount(), request.getOrderPrice(), request.getStopPrice(),
+                request.getOrderType(), request.getTimeInForce(), null, warmupStock, request.getUserId(), MarketPhase.CONTINUOUS);
+//        저장하지 않으므로 ID 는 직접 채움
+        Order order = Order.from(entity).toBuilder()
+                .orderId(sequence)
+                .stockId(WARMUP_STOCK_ID)
+                .build();
+        objectMapper.writeValueAsString(OrderDetailResV1.from(order));
+        return order;
+    }
+}
@@ -0,0 +1,18 @@
+package com.stockexchange.domain.trading.session;
+
+/* 장 운영 단계
+ * - CLOSED : 장 마감 (주문 접수 불가)
+ * - PRE_OPEN : 장 시작 동시호가 - 주문만 접수, 장 시작 시 단일가 체결
+ * - CONTINUOUS : 접속 매매 - 주문 즉시 매칭
+ * - CLOSING_AUCTION : 장 마감 동시호가 - 주문만 접수, 장 마감 시 단일가 체결 */
+public enum MarketPhase {
+    CLOSED, PRE_OPEN, CONTINUOUS, CLOSING_AUCTION;
+
+    public boolean isOrderAccepted() {
+        return this != CLOSED;
+    }
+
+    public boolean isAuction() {
+        return this == PRE_OPEN || this == CLOSING_AUCTION;
+    }
+}
@@ -1,5 +1,6 @@
 package com.stockexchange.domain.user.entity;
 
+import com.stockexchange.config.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,10 +10,12 @@ import java.time.ZonedDateTime;
 @Entity
 @Getter
 @NoArgsConstructor
-@Table(name = "holding")
+@Table(name = "holding", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_holding_user_stock", columnNames = {"user_id", "stock_id"})
+})
 public class HoldingEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 앱에서 발급 - INSERT 를 JDBC batch 로 묶을 수 있음
     @Column(name = "holding_id", nullable = false)
     private Long holdingId;
 
@@ -1,5 +1,6 @@
 package com.stockexchange.domain.user.entity;
 
+import com.stockexchange.config.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,7 +15,7 @@ import java.time.ZonedDateTime;
 public class UserEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // 앱에서 발급 - INSERT 를 JDBC batch 로 묶을 수 있음
     private Long userId;
 
     @Column(name = "user_name", nullable = false)
@@ -0,0 +1,35 @@
+package com.stockexchange.domain.user.repository;
+
+import com.stockexchange.domain.user.entity.HoldingEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Repository
+public interface HoldingRepository extends JpaRepository<HoldingEntity, Long> {
+
+    /* 체결 정산 - (회원, 종목) 보유를 읽지 않고 한 문장으로 반영 (uk_holding_user_stock)
+     * 매수분을 먼저 더하고 매도분을 뺀 것으로 반영합니다 (SettlementNetting 이 매도 뒤 매수는 다음 문장으로 나눠 순서를 지킴).
+     * 매도분은 매수분까지 더한 평균 매입 단가 (기존 매입 금액 + 매수 금액) / (기존 수량 + 매수 수량) 로 매입 금액에서 뺌
+     * - 없으면 새 보유로 INSERT (기존 보유 0), 있으면 UPDATE
+     * ON DUPLICATE KEY UPDATE 는 앞에서부터 대입하므로, 매입 금액을 수량보다 먼저 바꿔야 변경 전 수량으로 평균 단가를 계산합니다. */
+    @Modifying
+    @Query(value = "INSERT INTO holding (holding_id, holding_quantity, holding_total_price, updated_at, user_id, stock_id) " +
+            "VALUES (:holdingId, :buyCount - :sellCount, :buyAmount " +
+            "- CASE WHEN :buyCount > 0 THEN ROUND(:buyAmount * LEAST(:sellCount, :buyCount) / :buyCount, 2) ELSE 0 END, " +
+            ":now, :userId, :stockId) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "holding_total_price = holding_total_price + :buyAmount " +
+            "- CASE WHEN holding_quantity + :buyCount > 0 THEN ROUND((holding_total_price + :buyAmount) " +
+            "* LEAST(:sellCount, holding_quantity + :buyCount) / (holding_quantity + :buyCount), 2) ELSE 0 END, " +
+            "holding_quantity = holding_quantity + :buyCount - :sellCount, " +
+            "updated_at = :now", nativeQuery = true)
+    int upsertHolding(@Param("holdingId") Long holdingId, @Param("userId") Long userId, @Param("stockId") Long stockId,
+                      @Param("buyCount") int buyCount, @Param("buyAmount") BigDecimal buyAmount, @Param("sellCount") int sellCount,
+                      @Param("now") ZonedDateTime now);
+}
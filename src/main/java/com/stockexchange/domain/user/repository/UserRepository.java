@@ -0,0 +1,19 @@
+package com.stockexchange.domain.user.repository;
+
+import com.stockexchange.domain.user.entity.UserEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface UserRepository extends JpaRepository<UserEntity, Long> {
+
+    //    체결 정산 - 현금 변화를 읽지 않고 한 문장으로 반영
+    @Modifying
+    @Query(value = "UPDATE users SET user_krw_price = user_krw_price + :amount WHERE user_id = :userId", nativeQuery = true)
+    int addKrw(@Param("userId") Long userId, @Param("amount") BigDecimal amount);
+}
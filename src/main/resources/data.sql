@@ -1,9 +1,9 @@
-INSERT IGNORE INTO users (user_name, user_krw_price, created_at) VALUES
-('김투자', 10000000.00, NOW()),
-('박거래', 5000000.00, NOW()),
-('이주식', 15000000.00, NOW()),
-('최매수', 8000000.00, NOW()),
-('한매도', 12000000.00, NOW());
+INSERT IGNORE INTO users (user_id, user_name, user_krw_price, created_at) VALUES
+(1, '김투자', 10000000.00, NOW()),
+(2, '박거래', 5000000.00, NOW()),
+(3, '이주식', 15000000.00, NOW()),
+(4, '최매수', 8000000.00, NOW()),
+(5, '한매도', 12000000.00, NOW());
 
 INSERT IGNORE INTO stock (stock_name, stock_number, stock_ipo, stock_price) VALUES
 ('삼성전자', '005930', 'KOSPI', 71000.00),
@@ -12,12 +12,12 @@ INSERT IGNORE INTO stock (stock_name, stock_number, stock_ipo, stock_price) VALU
 ('카카오', '035720', 'KOSPI', 45500.00),
 ('LG에너지솔루션', '373220', 'KOSPI', 435000.00);
 
-INSERT IGNORE INTO order_table (order_count, order_price, order_type, order_status, order_remain_count, order_executed_count, created_at, updated_at, stock_id, user_id) VALUES
-(10, 71000.00, 'BUY', 'COMPLETED', 0, 10, NOW(), NOW(), 1, 1),
-(5, 89500.00, 'BUY', 'COMPLETED', 0, 5, NOW(), NOW(), 2, 1),
-(20, 191000.00, 'BUY', 'PENDING', 20, 0, NOW(), NOW(), 3, 2);
+INSERT IGNORE INTO order_table (order_id, order_count, order_price, order_type, order_status, order_remain_count, order_executed_count, created_at, updated_at, stock_id, user_id) VALUES
+(1, 10, 71000.00, 'BUY', 'COMPLETED', 0, 10, NOW(), NOW(), 1, 1),
+(2, 5, 89500.00, 'BUY', 'COMPLETED', 0, 5, NOW(), NOW(), 2, 1),
+(3, 20, 191000.00, 'BUY', 'PENDING', 20, 0, NOW(), NOW(), 3, 2);
 
-INSERT IGNORE INTO holding (holding_quantity, holding_total_price, updated_at, user_id, stock_id) VALUES
-(10, 710000.00, NOW(), 1, 1),
-(5, 447500.00, NOW(), 1, 2),
-(30, 1365000.00, NOW(), 2, 4);
\ No newline at end of file
+INSERT IGNORE INTO holding (holding_id, holding_quantity, holding_total_price, updated_at, user_id, stock_id) VALUES
+(1, 10, 710000.00, NOW(), 1, 1),
+(2, 5, 447500.00, NOW(), 1, 2),
+(3, 30, 1365000.00, NOW(), 2, 4);
\ No newline at end of file
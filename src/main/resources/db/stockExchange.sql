@@ -3,15 +3,17 @@
 USE stock;
 
 -- 기존 테이블 삭제
+DROP TABLE IF EXISTS quote_lock;
 DROP TABLE IF EXISTS holding;
 DROP TABLE IF EXISTS execution;
+DROP TABLE IF EXISTS order_history;
 DROP TABLE IF EXISTS order_table;
 DROP TABLE IF EXISTS stock;
 DROP TABLE IF EXISTS users;
 
 -- 회원 테이블
 CREATE TABLE IF NOT EXISTS users (
-    user_id bigint NOT NULL AUTO_INCREMENT COMMENT '회원 아이디',
+    user_id bigint NOT NULL COMMENT '회원 아이디', -- 앱에서 발급 (Snowflake ID)
     user_name varchar(20) NOT NULL COMMENT '회원명',
     user_krw_price decimal(20, 2) NOT NULL COMMENT '보유 원화 현금',
     created_at timestamp NOT NULL COMMENT '가입 시간',
@@ -30,11 +32,15 @@ CREATE TABLE IF NOT EXISTS stock (
 
 -- 주문 테이블 
 CREATE TABLE IF NOT EXISTS order_table (
-    order_id bigint NOT NULL AUTO_INCREMENT COMMENT '주문 아이디',
+    order_id bigint NOT NULL COMMENT '주문 아이디', -- 앱에서 발급 (Snowflake ID)
     order_count int NOT NULL COMMENT '주문 수량',
     order_price decimal(12, 2) NOT NULL COMMENT '주문 가격',
+    stop_price decimal(12, 2) NULL COMMENT '스탑 발동 가격', -- 일반 지정가 주문은 Null
     order_type enum('BUY','SELL') NOT NULL COMMENT '주문 타입',
-    order_status enum('PENDING','COMPLETED','CANCELLED') NOT NULL COMMENT '주문 상태',
+    order_status enum('PENDING','COMPLETED','CANCELLED','EXPIRED') NOT NULL COMMENT '주문 상태',
+    time_in_force enum('DAY','GTD') NOT NULL DEFAULT 'DAY' COMMENT '주문 유효 기간',
+    expire_at timestamp NULL COMMENT 'GTD 만료 시각', -- DAY 주문은 Null
+    quote tinyint(1) NOT NULL DEFAULT 0 COMMENT '일괄 호가 주문 여부',
     order_remain_count int NOT NULL COMMENT '미체결 수량',
     order_executed_count int NOT NULL DEFAULT 0 COMMENT '체결된 수량',
     created_at timestamp NOT NULL COMMENT '주문 시간',
@@ -42,35 +48,83 @@ CREATE TABLE IF NOT EXISTS order_table (
     stock_id bigint NOT NULL COMMENT '주식 아이디',
     user_id bigint NOT NULL COMMENT '회원 아이디',
     PRIMARY KEY (order_id),
+    KEY idx_order_status_stock_created (order_status, stock_id, created_at), -- 종목별 PENDING 주문 시간순 조회 (복구/전체 대사)
+    KEY idx_order_status_updated (order_status, updated_at, order_id), -- 워터마크 이후 접수/수정된 PENDING 주문 조회 (증분 대사)
     FOREIGN KEY (stock_id) REFERENCES stock(stock_id),
     FOREIGN KEY (user_id) REFERENCES users(user_id)
 ) ENGINE=INNODB COMMENT='주문';
 
+-- 주문 이력 테이블 - order_table 에서 종료(체결 완료/취소/만료) 후 일정 시간이 지난 주문을 옮겨 둠 (order.archive)
+CREATE TABLE IF NOT EXISTS order_history (
+    order_id bigint NOT NULL COMMENT '주문 아이디', -- order_table 의 주문 아이디 그대로
+    order_count int NOT NULL COMMENT '주문 수량',
+    order_price decimal(12, 2) NOT NULL COMMENT '주문 가격',
+    stop_price decimal(12, 2) NULL COMMENT '스탑 발동 가격',
+    order_type enum('BUY','SELL') NOT NULL COMMENT '주문 타입',
+    order_status enum('PENDING','COMPLETED','CANCELLED','EXPIRED') NOT NULL COMMENT '주문 상태',
+    time_in_force enum('DAY','GTD') NOT NULL DEFAULT 'DAY' COMMENT '주문 유효 기간',
+    expire_at timestamp NULL COMMENT 'GTD 만료 시각',
+    quote tinyint(1) NOT NULL DEFAULT 0 COMMENT '일괄 호가 주문 여부',
+    order_remain_count int NOT NULL COMMENT '미체결 수량',
+    order_executed_count int NOT NULL DEFAULT 0 COMMENT '체결된 수량',
+    created_at timestamp NOT NULL COMMENT '주문 시간',
+    updated_at timestamp NOT NULL COMMENT '수정 일자',
+    archived_at timestamp NOT NULL COMMENT '이력 이동 시간',
+    stock_id bigint NOT NULL COMMENT '주식 아이디',
+    user_id bigint NOT NULL COMMENT '회원 아이디',
+    PRIMARY KEY (order_id),
+    KEY idx_order_history_user (user_id, order_id), -- 회원별 주문 이력 조회
+    FOREIGN KEY (stock_id) REFERENCES stock(stock_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+) ENGINE=INNODB COMMENT='주문 이력';
+
 
 -- 체결 테이블
 CREATE TABLE IF NOT EXISTS execution (
-    execution_id bigint NOT NULL AUTO_INCREMENT COMMENT '체결 아이디',
+    execution_id bigint NOT NULL COMMENT '체결 아이디', -- 앱에서 발급 (Snowflake ID)
     execution_count int NOT NULL COMMENT '체결 수량',
     execution_price decimal(12, 2) NOT NULL COMMENT '체결 가격',
     created_at timestamp NOT NULL COMMENT '체결 시간',
     execution_buy_order_id bigint NULL COMMENT '매수 주문 체결', -- Null 허용
     execution_sell_order_id bigint NULL COMMENT '매도 주문 체결', -- Null 허용
     stock_id bigint NOT NULL COMMENT '주식 아이디',
+    shard_id int NULL COMMENT '매칭 샤드', -- 저널 미사용 시 Null
+    journal_sequence bigint NULL COMMENT '체결을 낸 명령의 저널 시퀀스',
+    fill_index int NULL COMMENT '명령 안 체결 순번',
     PRIMARY KEY (execution_id),
-    FOREIGN KEY (execution_buy_order_id) REFERENCES order_table(order_id) ,
-    FOREIGN KEY (execution_sell_order_id) REFERENCES order_table(order_id),
+    UNIQUE KEY uk_execution_fill_position (shard_id, journal_sequence, fill_index), -- 저널 재생으로 다시 온 체결 중복 저장 방지
+    KEY idx_execution_buy_order (execution_buy_order_id), -- 종료 주문은 order_history 로 옮기므로 order_table 외래 키 없음
+    KEY idx_execution_sell_order (execution_sell_order_id),
     FOREIGN KEY (stock_id) REFERENCES stock(stock_id)
 ) ENGINE=INNODB COMMENT='체결';
 
 -- 보유 주식 테이블
 CREATE TABLE IF NOT EXISTS holding (
-    holding_id bigint NOT NULL AUTO_INCREMENT COMMENT '보유주식 아이디',
+    holding_id bigint NOT NULL COMMENT '보유주식 아이디', -- 앱에서 발급 (Snowflake ID)
     holding_quantity int NOT NULL COMMENT '보유 수량',
     holding_total_price decimal(20, 2) NOT NULL COMMENT '총 손익',
     updated_at timestamp NOT NULL COMMENT '수정 시간',
     user_id bigint NOT NULL COMMENT '회원 아이디',
     stock_id bigint NOT NULL COMMENT '주식 아이디',
     PRIMARY KEY (holding_id),
+    UNIQUE KEY uk_holding_user_stock (user_id, stock_id), -- 체결 정산 upsert (INSERT ... ON DUPLICATE KEY UPDATE) 대상 키
     FOREIGN KEY (user_id) REFERENCES users(user_id),
     FOREIGN KEY (stock_id) REFERENCES stock(stock_id)
-) ENGINE=INNODB COMMENT='보유 주식';
\ No newline at end of file
+) ENGINE=INNODB COMMENT='보유 주식';
+
+-- 리더 fencing token 테이블 (한 행)
+CREATE TABLE IF NOT EXISTS matching_leader_fence (
+    fence_id bigint NOT NULL COMMENT 'fencing 아이디', -- 항상 1
+    fencing_token bigint NOT NULL COMMENT '마지막으로 리더 전용 쓰기를 한 리더의 fencing token',
+    PRIMARY KEY (fence_id)
+) ENGINE=INNODB COMMENT='리더 fencing';
+
+-- 일괄 호가 교체 잠금 테이블 ((회원, 종목)마다 한 행)
+CREATE TABLE IF NOT EXISTS quote_lock (
+    quote_lock_id bigint NOT NULL COMMENT '호가 잠금 아이디', -- 앱에서 발급 (Snowflake ID)
+    user_id bigint NOT NULL COMMENT '회원 아이디',
+    stock_id bigint NOT NULL COMMENT '주식 아이디',
+    updated_at timestamp NOT NULL COMMENT '마지막 교체 시간',
+    PRIMARY KEY (quote_lock_id),
+    UNIQUE KEY uk_quote_lock_user_stock (user_id, stock_id) -- 호가 교체 upsert (INSERT ... ON DUPLICATE KEY UPDATE) 대상 키
+) ENGINE=INNODB COMMENT='일괄 호가 교체 잠금';
@@ -0,0 +1,88 @@
+package com.stockexchange.config.id;
+
+import com.stockexchange.config.EmbeddedRedisConfig;
+import jakarta.persistence.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.function.Supplier;
+
+/* INSERT 처리량 - IDENTITY(변경 전) / Snowflake ID(변경 후) 비교
+ * 같은 컬럼의 테이블에 ROWS 건을 persist 후 flush 하는 시간을 잽니다. batch_size 는 application.yml 과 같은 100.
+ * IDENTITY 는 persist 마다 INSERT 를 바로 실행해 DB 가 만든 ID 를 받아야 하므로 batch 설정과 무관하게 한 건씩 나가고,
+ * Snowflake ID 는 flush 때 batch_size 건씩 묶여 나갑니다. H2(메모리)라 DB 왕복 비용이 거의 없으므로
+ * 실제 DB 에서는 차이가 더 큽니다 (MariaDB 는 spring.datasource.url 을 바꿔서 실행).
+ * 실행: ./gradlew test --tests '*InsertBatchBenchmarkTest' -Dbenchmark=true */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Import(EmbeddedRedisConfig.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertBatchBenchmarkTest {
+    private static final int ROWS = 20_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("INSERT 처리량 - IDENTITY / Snowflake ID")
+    void compareInsertThroughput() {
+        System.out.printf("%-10s %10s %12s %14s%n", "id", "rows", "best(ms)", "rows/s");
+        report("IDENTITY", measure(IdentityRow::new));
+        report("SNOWFLAKE", measure(SnowflakeRow::new));
+    }
+
+    //    예열 1 회 후 가장 빠른 라운드
+    private long measure(Supplier<Object> factory) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(factory.get());
+            }
+            entityManager.flush();
+            long elapsed = System.nanoTime() - start;
+            entityManager.clear();
+            if (round > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    private void report(String name, long nanos) {
+        System.out.printf("%-10s %10d %12.1f %14.0f%n", name, ROWS, nanos / 1e6, ROWS / (nanos / 1e9));
+    }
+
+    @Entity
+    @Table(name = "bench_identity_row")
+    static class IdentityRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private int orderCount = 10;
+        private BigDecimal orderPrice = new BigDecimal("71000.00");
+        private ZonedDateTime createdAt = ZonedDateTime.now();
+    }
+
+    @Entity
+    @Table(name = "bench_snowflake_row")
+    static class SnowflakeRow {
+        @Id
+        @SnowflakeId
+        private Long id;
+        private int orderCount = 10;
+        private BigDecimal orderPrice = new BigDecimal("71000.00");
+        private ZonedDateTime createdAt = ZonedDateTime.now();
+    }
+}
@@ -0,0 +1,96 @@
+package com.stockexchange.config.id;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("ID 에 발급 시각과 workerId 가 들어감")
+    void idLayout() {
+//        Given
+        long now = SnowflakeIdGenerator.EPOCH_MILLIS + 123_456_789L;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(517, () -> now);
+
+//        When
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+//        Then
+        Assertions.assertEquals(now, SnowflakeIdGenerator.timestampMillis(first));
+        Assertions.assertEquals(517, SnowflakeIdGenerator.workerId(first));
+        Assertions.assertEquals(first + 1, second);
+    }
+
+    @Test
+    @DisplayName("1ms 안에 순번이 넘치거나 시계가 뒤로 가도 ID 는 계속 증가")
+    void monotonicUnderOverflowAndClockRegression() {
+//        Given
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 1_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, clock::get);
+
+//        When: 한 ms 에 순번 한도(4096)보다 많이 발급한 뒤 시계를 되돌림
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 6_000) {
+                clock.addAndGet(-500);
+            }
+            long id = generator.nextId();
+
+//            Then
+            Assertions.assertTrue(id > previous, "ID 가 감소했습니다.: " + previous + " -> " + id);
+            Assertions.assertEquals(3, SnowflakeIdGenerator.workerId(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 발급해도 겹치지 않음")
+    void uniqueAcrossThreads() throws InterruptedException {
+//        Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        int threads = 4;
+        int perThread = 50_000;
+        List<long[]> results = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] ids = new long[perThread];
+            results.add(ids);
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+            }));
+        }
+
+//        When
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+//        Then: 스레드 안에서는 증가, 전체로는 유일
+        Set<Long> unique = new HashSet<>();
+        for (long[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                Assertions.assertTrue(i == 0 || ids[i] > ids[i - 1]);
+                unique.add(ids[i]);
+            }
+        }
+        Assertions.assertEquals(threads * perThread, unique.size());
+    }
+
+    @Test
+    @DisplayName("workerId 범위 밖이면 예외")
+    void invalidWorkerId() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+    }
+}
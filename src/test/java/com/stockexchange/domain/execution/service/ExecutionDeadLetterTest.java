@@ -0,0 +1,74 @@
+package com.stockexchange.domain.execution.service;
+
+import com.stockexchange.domain.trading.engine.Fill;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class ExecutionDeadLetterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("보관한 체결과 수량 감소 결과를 저널 위치까지 그대로 순서대로 읽음")
+    void appendAndReadAll() {
+//        Given
+        ExecutionDeadLetter deadLetter = new ExecutionDeadLetter(tempDir.resolve("dead/letter.log"));
+        Assertions.assertTrue(deadLetter.isEmpty());
+
+//        When
+        deadLetter.append(ExecutionEvent.fill(new Fill(1L, 2L, 2L, 7_100_000L, 3, 123L, 1, 42L, 2)));
+        deadLetter.append(ExecutionEvent.reduction(1, 43L, 5L, 10));
+
+//        Then
+        List<ExecutionEvent> events = deadLetter.readAll();
+        Assertions.assertEquals(2, events.size());
+        Fill fill = events.get(0).getFill();
+        Assertions.assertEquals(1L, fill.getBuyOrderId());
+        Assertions.assertEquals(2L, fill.getSellOrderId());
+        Assertions.assertEquals(7_100_000L, fill.getExecutionPrice());
+        Assertions.assertEquals(3, fill.getExecutionCount());
+        Assertions.assertEquals(123L, fill.getExecutedAt());
+        Assertions.assertEquals(1, fill.getShardId());
+        Assertions.assertEquals(42L, fill.getJournalSequence());
+        Assertions.assertEquals(2, fill.getFillIndex());
+        Assertions.assertTrue(events.get(1).isReduction());
+        Assertions.assertEquals(43L, events.get(1).getJournalSequence());
+        Assertions.assertEquals(5L, events.get(1).getOrderId());
+        Assertions.assertEquals(10, events.get(1).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("다시 저장한 앞부분은 지우고, 모두 저장하면 파일 삭제")
+    void replaceRemaining() {
+//        Given
+        Path path = tempDir.resolve("letter.log");
+        ExecutionDeadLetter deadLetter = new ExecutionDeadLetter(path);
+        deadLetter.append(ExecutionEvent.reduction(0, 1L, 5L, 10));
+        deadLetter.append(ExecutionEvent.reduction(0, 2L, 6L, 20));
+        List<ExecutionEvent> events = deadLetter.readAll();
+
+//        When
+        deadLetter.replace(events.subList(1, 2));
+
+//        Then
+        Assertions.assertEquals(1, deadLetter.readAll().size());
+        Assertions.assertEquals(6L, deadLetter.readAll().get(0).getOrderId());
+
+        deadLetter.replace(List.of());
+        Assertions.assertFalse(Files.exists(path));
+        Assertions.assertTrue(deadLetter.isEmpty());
+    }
+
+    @Test
+    @DisplayName("형식이 다른 줄은 예외")
+    void decode_Invalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExecutionDeadLetter.decode("X 1 2"));
+    }
+}
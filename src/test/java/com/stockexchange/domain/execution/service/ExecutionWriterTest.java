@@ -0,0 +1,322 @@
+package com.stockexchange.domain.execution.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.domain.trading.engine.Fill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ExecutionWriterTest {
+
+    private final ExecutionService executionService = mock(ExecutionService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<ExecutionEvent>> saved = Collections.synchronizedList(new ArrayList<>());
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("대기열의 체결을 batchSize 씩 묶어 저장, 종료 시 남은 체결까지 저장")
+    void writesInBatches() throws InterruptedException {
+//        Given
+        recordSaves();
+        ExecutionWriter writer = writer(64, 3, 50);
+        writer.start();
+
+//        When
+        writer.onFills(fills(7));
+        writer.stop();
+
+//        Then
+        Assertions.assertEquals(7, saved.stream().mapToInt(List::size).sum());
+        Assertions.assertTrue(saved.stream().allMatch(batch -> batch.size() <= 3));
+        Assertions.assertEquals(LongStream.rangeClosed(1, 7).boxed().collect(Collectors.toList()),
+                saved.stream().flatMap(List::stream).map(event -> event.getFill().getBuyOrderId()).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("수량 감소 확정 결과는 앞서 난 체결 다음 순서로 저장")
+    void keepsReductionOrder() throws InterruptedException {
+//        Given
+        recordSaves();
+        ExecutionWriter writer = writer(64, 10, 50);
+        writer.start();
+
+//        When
+        writer.onFills(fills(2));
+        writer.onReduced(0, 7L, 1L, 5);
+        writer.onFills(fills(1));
+        writer.stop();
+
+//        Then
+        List<ExecutionEvent> events = saved.stream().flatMap(List::stream).collect(Collectors.toList());
+        Assertions.assertEquals(4, events.size());
+        Assertions.assertFalse(events.get(1).isReduction());
+        Assertions.assertTrue(events.get(2).isReduction());
+        Assertions.assertEquals(1L, events.get(2).getOrderId());
+        Assertions.assertEquals(5, events.get(2).getOrderCount());
+    }
+
+    @Test
+    @DisplayName("저장을 마친 저널 위치까지만 영구 저장으로 보고")
+    void reportsDurableSequence() throws InterruptedException {
+//        Given
+        recordSaves();
+        ExecutionWriter writer = writer(64, 10, 50);
+        Assertions.assertFalse(writer.isDurable(0, 7L));
+        writer.start();
+
+//        When
+        writer.onReduced(0, 7L, 1L, 5);
+        writer.stop();
+
+//        Then
+        Assertions.assertTrue(writer.isDurable(0, 7L));
+        Assertions.assertFalse(writer.isDurable(0, 8L));
+        Assertions.assertFalse(writer.isDurable(1, 1L));
+        Assertions.assertTrue(writer.isDurable(1, 0L));
+    }
+
+    @Test
+    @DisplayName("묶음 저장이 잠깐 실패하면 같은 묶음을 순서대로 다시 저장")
+    void retriesBatchInOrderWhenSaveFailsTemporarily() throws InterruptedException {
+//        Given: 처음 두 번은 실패
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() <= 2) {
+                throw new IllegalStateException("DB 일시 장애");
+            }
+            saved.add(detach(invocation.getArgument(0)));
+            return null;
+        }).when(executionService).saveExecutions(anyList());
+        ExecutionWriter writer = writer(64, 10, 50);
+        writer.onFills(fills(3));
+
+//        When
+        writer.start();
+        writer.stop();
+
+//        Then
+        Assertions.assertEquals(1, saved.size());
+        Assertions.assertEquals(List.of(1L, 2L, 3L),
+                saved.get(0).stream().map(event -> event.getFill().getBuyOrderId()).collect(Collectors.toList()));
+        Assertions.assertEquals(2.0, meterRegistry.counter("matching.execution.retry").count());
+        Assertions.assertEquals(0.0, meterRegistry.counter("matching.execution.dead_letter").count());
+    }
+
+    @Test
+    @DisplayName("재시도 끝에도 저장하지 못한 체결은 보관 파일에 남겼다가 다시 저장")
+    void parksFailedFillsAndReplaysThem() throws InterruptedException {
+//        Given: 매수 주문 2 가 든 저장은 DB 가 복구될 때까지 실패
+        AtomicBoolean recovered = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            List<ExecutionEvent> events = invocation.getArgument(0);
+            if (!recovered.get() && events.stream().anyMatch(event -> event.getFill().getBuyOrderId() == 2L)) {
+                throw new IllegalStateException("DB 장애");
+            }
+            saved.add(detach(events));
+            return null;
+        }).when(executionService).saveExecutions(anyList());
+        ExecutionWriter writer = writer(64, 10, 50);
+        writer.start();
+
+//        When
+        writer.onFills(fills(3));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.counter("matching.execution.dead_letter").count() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        recovered.set(true);
+        writer.stop();
+
+//        Then: 1, 3 은 한 건씩 저장, 2 는 보관 후 복구되면 (종료 시) 다시 저장하고 보관 파일 정리
+        Assertions.assertEquals(1.0, meterRegistry.counter("matching.execution.dead_letter").count());
+        Assertions.assertEquals(List.of(1L, 3L, 2L),
+                saved.stream().flatMap(List::stream).map(event -> event.getFill().getBuyOrderId()).collect(Collectors.toList()));
+        Assertions.assertFalse(Files.exists(tempDir.resolve("dead-letter.log")));
+    }
+
+    @Test
+    @DisplayName("보관한 체결 중 계속 실패하는 건은 격리 파일로 옮기고, 뒤 건은 막지 않고 다시 저장")
+    void quarantinesPoisonedDeadLetter() throws InterruptedException, IOException {
+//        Given: 보관 파일에 매수 주문 2, 4 - 2 는 계속 실패
+        ExecutionDeadLetter deadLetter = new ExecutionDeadLetter(tempDir.resolve("dead-letter.log"));
+        fills(4).stream().filter(fill -> fill.getBuyOrderId() % 2 == 0).forEach(fill -> deadLetter.append(ExecutionEvent.fill(fill)));
+        doAnswer(invocation -> {
+            List<ExecutionEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getFill().getBuyOrderId() == 2L)) {
+                throw new IllegalStateException("저장 실패");
+            }
+            saved.add(detach(events));
+            return null;
+        }).when(executionService).saveExecutions(anyList());
+        MatchingProperties matchingProperties = properties(64, 10, 50);
+        matchingProperties.getExecution().setDeadLetterMaxAttempts(1);
+        ExecutionWriter writer = new ExecutionWriter(executionService, matchingProperties, meterRegistry);
+
+//        When: 기동 직후 보관한 체결 다시 저장
+        writer.start();
+        await(() -> meterRegistry.counter("matching.execution.quarantine").count() >= 1);
+        writer.stop();
+
+//        Then: 앞의 2 가 실패해도 4 는 저장, 2 는 격리 파일로 옮겨지고 보관 파일은 정리
+        Assertions.assertEquals(List.of(4L),
+                saved.stream().flatMap(List::stream).map(event -> event.getFill().getBuyOrderId()).collect(Collectors.toList()));
+        Assertions.assertEquals(1.0, meterRegistry.counter("matching.execution.quarantine").count());
+        List<String> quarantined = Files.readAllLines(tempDir.resolve("quarantine.log"));
+        Assertions.assertEquals(1, quarantined.size());
+        Assertions.assertEquals(2L, ExecutionDeadLetter.decode(quarantined.get(0)).getFill().getBuyOrderId());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("dead-letter.log")));
+    }
+
+    @Test
+    @DisplayName("awaitPersisted 는 보관 파일에 남은 체결이 있어도 보관을 마쳤으면 반환")
+    void awaitPersisted_DeadLetterCountsAsPersisted() throws InterruptedException {
+//        Given: 매수 주문 1 은 계속 실패해 보관 파일에 남음
+        doAnswer(invocation -> {
+            throw new IllegalStateException("저장 실패");
+        }).when(executionService).saveExecutions(anyList());
+        ExecutionWriter writer = writer(64, 10, 1);
+        writer.start();
+
+//        When
+        writer.onFills(fills(1));
+        boolean persisted = writer.awaitPersisted(5_000);
+
+//        Then
+        Assertions.assertTrue(persisted);
+        Assertions.assertTrue(Files.exists(tempDir.resolve("dead-letter.log")));
+        writer.stop();
+    }
+
+    @Test
+    @DisplayName("저장을 마친 슬롯을 돌려받아 대기열 크기보다 많은 체결도 저장")
+    void reusesSlots() throws InterruptedException {
+//        Given: 슬롯 4개
+        recordSaves();
+        ExecutionWriter writer = writer(4, 2, 1);
+        writer.start();
+
+//        When
+        writer.onFills(fills(20));
+        writer.stop();
+
+//        Then: 복사한 값이 섞이지 않고 순서대로 저장
+        Assertions.assertEquals(LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList()),
+                saved.stream().flatMap(List::stream).map(event -> event.getFill().getBuyOrderId()).collect(Collectors.toList()));
+        Assertions.assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    @DisplayName("awaitPersisted 는 그때까지 넣은 체결이 저장된 뒤 반환, 저장이 멈추면 false")
+    void awaitPersisted() throws InterruptedException {
+//        Given
+        recordSaves();
+        ExecutionWriter writer = writer(64, 2, 1);
+        writer.onFills(fills(5));
+
+//        When: 저장 스레드 시작 전에는 끝나지 않음
+        Assertions.assertFalse(writer.awaitPersisted(20));
+        writer.start();
+        boolean persisted = writer.awaitPersisted(5_000);
+
+//        Then: 종료하기 전에 이미 모두 저장됨
+        Assertions.assertTrue(persisted);
+        Assertions.assertEquals(5, saved.stream().mapToInt(List::size).sum());
+        writer.stop();
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 매칭 스레드가 기다림 (backpressure)")
+    void blocksWhenQueueIsFull() throws InterruptedException {
+//        Given: 저장 스레드를 시작하지 않아 대기열이 비워지지 않음
+        recordSaves();
+        ExecutionWriter writer = writer(2, 10, 1);
+        Thread matching = new Thread(() -> writer.onFills(fills(3)));
+
+//        When
+        matching.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (matching.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+
+//        Then: 두 건만 들어가고 세 번째에서 대기, 저장 스레드가 비우면 이어서 넣음
+        Assertions.assertEquals(Thread.State.WAITING, matching.getState());
+        Assertions.assertEquals(2, writer.pendingCount());
+        Assertions.assertEquals(1.0, meterRegistry.counter("matching.execution.backpressure").count());
+
+        writer.start();
+        matching.join(5_000);
+        writer.stop();
+        Assertions.assertFalse(matching.isAlive());
+        Assertions.assertEquals(3, saved.stream().mapToInt(List::size).sum());
+    }
+
+    private void recordSaves() {
+//        저장 스레드는 묶음 목록과 슬롯을 재사용하므로 복사해 둠
+        doAnswer(invocation -> {
+            saved.add(detach(invocation.getArgument(0)));
+            return null;
+        }).when(executionService).saveExecutions(anyList());
+    }
+
+    private List<ExecutionEvent> detach(List<ExecutionEvent> events) {
+        return events.stream()
+                .map(event -> event.isReduction()
+                        ? ExecutionEvent.reduction(event.getShardId(), event.getJournalSequence(), event.getOrderId(), event.getOrderCount())
+                        : ExecutionEvent.fill(event.getFill().copy()))
+                .collect(Collectors.toList());
+    }
+
+    private ExecutionWriter writer(int queueCapacity, int batchSize, long maxDelayMillis) {
+        return new ExecutionWriter(executionService, properties(queueCapacity, batchSize, maxDelayMillis), meterRegistry);
+    }
+
+    private MatchingProperties properties(int queueCapacity, int batchSize, long maxDelayMillis) {
+        MatchingProperties matchingProperties = new MatchingProperties();
+        matchingProperties.getExecution().setQueueCapacity(queueCapacity);
+        matchingProperties.getExecution().setBatchSize(batchSize);
+        matchingProperties.getExecution().setMaxDelayMillis(maxDelayMillis);
+        matchingProperties.getExecution().setRetryAttempts(2);
+        matchingProperties.getExecution().setRetryBackoffMillis(1);
+        matchingProperties.getExecution().setMaxRetryBackoffMillis(2);
+        matchingProperties.getExecution().setDeadLetterFile(tempDir.resolve("dead-letter.log").toString());
+        matchingProperties.getExecution().setQuarantineFile(tempDir.resolve("quarantine.log").toString());
+        return matchingProperties;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    //    매수 주문 ID 1 ~ count 인 체결
+    private List<Fill> fills(int count) {
+        List<Fill> fills = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            fills.add(new Fill(i, 1_000 + i, i, 7_100_000L, 1, System.nanoTime()));
+        }
+        return fills;
+    }
+}
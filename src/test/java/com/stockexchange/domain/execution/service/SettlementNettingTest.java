@@ -0,0 +1,88 @@
+package com.stockexchange.domain.execution.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class SettlementNettingTest {
+
+    @Test
+    @DisplayName("같은 (회원, 종목)의 체결은 한 키로 합쳐짐")
+    void netsFillsPerUserAndStock() {
+//        Given: 회원 1 이 회원 2 에게서 종목 10 을 세 번 나눠 매수
+        SettlementNetting netting = new SettlementNetting();
+
+//        When
+        netting.add(1L, 2L, 10L, 7_100_000L, 3);
+        netting.add(1L, 2L, 10L, 7_100_000L, 5);
+        netting.add(1L, 2L, 10L, 7_110_000L, 2);
+
+//        Then
+        List<SettlementNetting.Position> positions = netting.positions();
+        Assertions.assertEquals(2, positions.size());
+        SettlementNetting.Position buyer = positions.get(0);
+        Assertions.assertEquals(1L, buyer.getUserId());
+        Assertions.assertEquals(10, buyer.getBuyCount());
+        Assertions.assertEquals(7_100_000L * 8 + 7_110_000L * 2, buyer.getBuyAmountTicks());
+        Assertions.assertEquals(0, buyer.getSellCount());
+        SettlementNetting.Position seller = positions.get(1);
+        Assertions.assertEquals(2L, seller.getUserId());
+        Assertions.assertEquals(10, seller.getSellCount());
+        Assertions.assertEquals(-buyer.getBuyAmountTicks(), (long) netting.cashTicks().get(1L));
+        Assertions.assertEquals(buyer.getBuyAmountTicks(), (long) netting.cashTicks().get(2L));
+    }
+
+    @Test
+    @DisplayName("매수/매도가 섞이면 수량은 따로, 현금은 상계, 키는 회원/종목 순")
+    void mixedSidesAreOrderedByKey() {
+//        Given
+        SettlementNetting netting = new SettlementNetting();
+
+//        When: 회원 3 이 종목 20 을 사고 팔고, 종목 5 를 삼
+        netting.add(3L, 1L, 20L, 100L, 4);
+        netting.add(1L, 3L, 20L, 120L, 4);
+        netting.add(3L, 2L, 5L, 50L, 1);
+
+//        Then: 회원 1 은 매도 뒤 매수라 두 변화, 회원 3 의 종목 20 은 매수 후 매도라 한 변화
+        List<SettlementNetting.Position> positions = netting.positions();
+        Assertions.assertEquals(5, positions.size());
+        Assertions.assertEquals(1L, positions.get(0).getUserId());
+        Assertions.assertEquals(4, positions.get(0).getSellCount());
+        Assertions.assertEquals(4, positions.get(1).getBuyCount());
+        Assertions.assertEquals(3L, positions.get(3).getUserId());
+        Assertions.assertEquals(5L, positions.get(3).getStockId());
+        Assertions.assertEquals(20L, positions.get(4).getStockId());
+        Assertions.assertEquals(4, positions.get(4).getBuyCount());
+        Assertions.assertEquals(4, positions.get(4).getSellCount());
+        Assertions.assertEquals(-400L + 480L - 50L, (long) netting.cashTicks().get(3L));
+        Assertions.assertEquals(List.of(1L, 2L, 3L), List.copyOf(netting.cashTicks().keySet()));
+    }
+
+    @Test
+    @DisplayName("같은 키에서 매도 뒤에 매수가 오면 체결 순으로 나눠 반영")
+    void buyAfterSellStartsNewPosition() {
+//        Given
+        SettlementNetting netting = new SettlementNetting();
+
+//        When: 회원 1 이 종목 10 을 사고, 팔고, 다시 삼
+        netting.add(1L, 2L, 10L, 100L, 10);
+        netting.add(2L, 1L, 10L, 100L, 15);
+        netting.add(1L, 2L, 10L, 200L, 10);
+
+//        Then: 회원 1 은 (매수 10, 매도 15) -> (매수 10) 두 변화, 회원 2 는 (매도 10) -> (매수 15, 매도 10) 두 변화
+        List<SettlementNetting.Position> positions = netting.positions();
+        Assertions.assertEquals(4, positions.size());
+        Assertions.assertEquals(10, positions.get(0).getBuyCount());
+        Assertions.assertEquals(15, positions.get(0).getSellCount());
+        Assertions.assertEquals(10, positions.get(1).getBuyCount());
+        Assertions.assertEquals(2_000L, positions.get(1).getBuyAmountTicks());
+        Assertions.assertEquals(0, positions.get(1).getSellCount());
+        Assertions.assertEquals(2L, positions.get(2).getUserId());
+        Assertions.assertEquals(0, positions.get(2).getBuyCount());
+        Assertions.assertEquals(10, positions.get(2).getSellCount());
+        Assertions.assertEquals(15, positions.get(3).getBuyCount());
+        Assertions.assertEquals(10, positions.get(3).getSellCount());
+    }
+}
@@ -2,8 +2,10 @@ package com.stockexchange.domain.order.repository;
 
 import com.stockexchange.config.EmbeddedRedisConfig;
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderHistoryEntity;
 import com.stockexchange.domain.order.entity.OrderStatus;
 import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
 import com.stockexchange.domain.stock.entity.StockEntity;
 import com.stockexchange.domain.stock.entity.StockIpo;
 import org.junit.jupiter.api.*;
@@ -11,10 +13,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /* OrderRepository JPA 테스트 클래스
  * @DataJpaTest 를 사용해서 JPA Repository 계층만 테스트
@@ -26,6 +31,9 @@ class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -177,35 +185,132 @@ class OrderRepositoryTest {
     }
 
 
+    @Test
+    @Order(9)
+    @DisplayName("종료 주문 이력 이동 - 종료 순으로 ID 조회 후 이력 복사, order_table 에서 삭제")
+    void copyToHistoryAndDeleteOrders() {
+//        Given: 종료 주문 2건, 살아 있는 주문 1건
+        OrderEntity cancelled = orderRepository.save(createClosedOrder(OrderStatus.CANCELLED));
+        OrderEntity completed = orderRepository.save(createClosedOrder(OrderStatus.COMPLETED));
+        OrderEntity pending = orderRepository.save(createTestOrder(10, new BigDecimal("1500.00"), OrderType.BUY));
+        entityManager.flush();
+        ZonedDateTime before = ZonedDateTime.now().plusMinutes(1);
+
+//        When
+        List<Long> orderIds = orderRepository.findClosedOrderIds(
+                EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED, OrderStatus.EXPIRED), before, PageRequest.of(0, 10));
+        int copied = orderRepository.copyToHistory(orderIds, ZonedDateTime.now());
+        int deleted = orderRepository.deleteOrders(orderIds);
+        entityManager.clear();
+
+//        Then: 종료 주문만 옮겨지고 상태/수량은 그대로
+        Assertions.assertEquals(Set.of(cancelled.getOrderId(), completed.getOrderId()), Set.copyOf(orderIds));
+        Assertions.assertEquals(2, copied);
+        Assertions.assertEquals(2, deleted);
+        Assertions.assertNull(orderRepository.findByOrderIdAndUserId(cancelled.getOrderId(), userId));
+        Assertions.assertNotNull(orderRepository.findByOrderIdAndUserId(pending.getOrderId(), userId));
+        OrderHistoryEntity history = orderHistoryRepository.findByOrderIdAndUserId(completed.getOrderId(), userId);
+        Assertions.assertNotNull(history);
+        Assertions.assertEquals(OrderStatus.COMPLETED, history.getOrderStatus());
+        Assertions.assertEquals(10, history.getOrderExecutedCount());
+        Assertions.assertNotNull(history.getArchivedAt());
+        Assertions.assertEquals(2, orderHistoryRepository.findAllByUserId(userId).size());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("종료 주문 이력 이동 - retention 이 지나지 않은 주문은 조회하지 않음")
+    void findClosedOrderIds_Retention() {
+//        Given
+        orderRepository.save(createClosedOrder(OrderStatus.CANCELLED));
+        entityManager.flush();
+
+//        When
+        List<Long> orderIds = orderRepository.findClosedOrderIds(
+                EnumSet.of(OrderStatus.CANCELLED), ZonedDateTime.now().minusMinutes(10), PageRequest.of(0, 10));
+
+//        Then
+        Assertions.assertTrue(orderIds.isEmpty());
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("만료 시각이 된 주문 일괄 만료 - 그 사이 종료된 주문은 건드리지 않고 PENDING 주문만 EXPIRED")
+    void expireOrders_OnlyPending() {
+//        Given: 만료 대상 중 하나는 그 사이 취소됨
+        OrderEntity pending = orderRepository.save(createTestOrder(10, new BigDecimal("1500.00"), OrderType.BUY));
+        OrderEntity cancelled = orderRepository.save(createClosedOrder(OrderStatus.CANCELLED));
+        entityManager.flush();
+
+//        When
+        int updated = orderRepository.expireOrders(List.of(pending.getOrderId(), cancelled.getOrderId()), ZonedDateTime.now());
+
+//        Then
+        Assertions.assertEquals(1, updated);
+        Assertions.assertEquals(OrderStatus.EXPIRED, orderRepository.findById(pending.getOrderId()).orElseThrow().getOrderStatus());
+        Assertions.assertEquals(OrderStatus.CANCELLED, orderRepository.findById(cancelled.getOrderId()).orElseThrow().getOrderStatus());
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("이력으로 옮긴 주문 되돌리기 - order_table 로 복사 후 이력에서 삭제, 수정 시각은 되돌린 시각")
+    void restoreFromHistory() {
+//        Given: 취소 후 이력으로 옮겨진 주문
+        OrderEntity cancelled = orderRepository.save(createClosedOrder(OrderStatus.CANCELLED));
+        entityManager.flush();
+        List<Long> orderIds = List.of(cancelled.getOrderId());
+        orderRepository.copyToHistory(orderIds, ZonedDateTime.now());
+        orderRepository.deleteOrders(orderIds);
+        ZonedDateTime now = ZonedDateTime.now().plusMinutes(1);
+
+//        When
+        int restored = orderRepository.restoreFromHistory(orderIds, now);
+        int deleted = orderRepository.deleteFromHistory(orderIds);
+        entityManager.clear();
+
+//        Then: 상태/수량은 그대로, 다음 이력 이동은 되돌린 시각 기준
+        Assertions.assertEquals(1, restored);
+        Assertions.assertEquals(1, deleted);
+        Assertions.assertNull(orderHistoryRepository.findByOrderIdAndUserId(cancelled.getOrderId(), userId));
+        OrderEntity order = orderRepository.findById(cancelled.getOrderId()).orElseThrow();
+        Assertions.assertEquals(OrderStatus.CANCELLED, order.getOrderStatus());
+        Assertions.assertEquals(10, order.getOrderExecutedCount());
+        Assertions.assertTrue(orderRepository.findClosedOrderIds(EnumSet.of(OrderStatus.CANCELLED), now, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private OrderEntity createClosedOrder(OrderStatus orderStatus) {
+        return OrderEntity.builder()
+                .orderCount(10)
+                .orderPrice(new BigDecimal("1500.00"))
+                .orderType(OrderType.BUY)
+                .orderStatus(orderStatus)
+                .timeInForce(TimeInForce.DAY)
+                .orderRemainCount(0)
+                .orderExecutedCount(10)
+                .stock(testStock)
+                .userId(userId)
+                .build();
+    }
+
     /*    테스트용 주문 엔티티 생성 헬퍼 메서드
         repository는 Entity와 직접 상호 작용하는 계층 */
     private OrderEntity createTestOrder(int orderCount, BigDecimal orderPrice, OrderType orderType) {
-        return new OrderEntity(
-                orderCount,
-                orderPrice,
-                orderType,
-                OrderStatus.PENDING,
-                orderCount, //orderCount = orderRemainCount
-                0,
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                testStock,
-                userId
-        );
+        return createTestOrderDetail(orderCount, orderPrice, orderType, orderCount, 0); //orderCount = orderRemainCount
     }
 
     private OrderEntity createTestOrderDetail(int orderCount, BigDecimal orderPrice, OrderType orderType, int orderRemainCount, int orderExecutedCount) {
-        return new OrderEntity(
-                orderCount,
-                orderPrice,
-                orderType,
-                OrderStatus.PENDING,
-                orderRemainCount,
-                orderExecutedCount,
-                ZonedDateTime.now(),
-                ZonedDateTime.now(),
-                testStock,
-                userId
-        );
+        return OrderEntity.builder()
+                .orderCount(orderCount)
+                .orderPrice(orderPrice)
+                .orderType(orderType)
+                .orderStatus(OrderStatus.PENDING)
+                .timeInForce(TimeInForce.DAY)
+                .orderRemainCount(orderRemainCount)
+                .orderExecutedCount(orderExecutedCount)
+                .createdAt(ZonedDateTime.now())
+                .updatedAt(ZonedDateTime.now())
+                .stock(testStock)
+                .userId(userId)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package com.stockexchange.domain.order.service;
+
+import com.stockexchange.config.OrderArchiveProperties;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.trading.service.LeaderElectionService;
+import com.stockexchange.domain.trading.service.LeaderFenceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderArchiveServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final LeaderElectionService leaderElection = mock(LeaderElectionService.class);
+    private final LeaderFenceService leaderFence = mock(LeaderFenceService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderArchiveProperties archive = new OrderArchiveProperties();
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        archive.setEnabled(true);
+        archive.setChunkSize(2);
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(leaderElection.fencingToken()).thenReturn(7L);
+        when(leaderElection.holds(7L)).thenReturn(true);
+        orderArchiveService = new OrderArchiveService(orderRepository, leaderElection, leaderFence, archive, transactionManager, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("chunkSize 씩 복사 후 삭제, 묶음이 덜 차면 종료")
+    void archiveClosedOrders_MovesInChunks() {
+//        Given: 2건, 2건, 1건
+        when(orderRepository.findClosedOrderIds(anyCollection(), any(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        when(orderRepository.copyToHistory(anyCollection(), any())).thenReturn(2, 2, 1);
+        when(orderRepository.deleteOrders(anyCollection())).thenReturn(2, 2, 1);
+
+//        When
+        orderArchiveService.archiveClosedOrders();
+
+//        Then
+        verify(orderRepository).copyToHistory(eq(List.of(1L, 2L)), any());
+        verify(orderRepository).deleteOrders(List.of(5L));
+        verify(orderRepository, times(3)).deleteOrders(anyCollection());
+        verify(transactionManager, times(3)).commit(any());
+        Assertions.assertEquals(5.0, meterRegistry.counter("order.archive.moved").count());
+    }
+
+    @Test
+    @DisplayName("옮길 주문이 없으면 복사/삭제하지 않음")
+    void archiveClosedOrders_Nothing() {
+//        Given
+        when(orderRepository.findClosedOrderIds(anyCollection(), any(), any(Pageable.class))).thenReturn(List.of());
+
+//        When
+        orderArchiveService.archiveClosedOrders();
+
+//        Then
+        verify(orderRepository, never()).copyToHistory(anyCollection(), any());
+        verify(orderRepository, never()).deleteOrders(anyCollection());
+    }
+
+    @Test
+    @DisplayName("복사 건수와 삭제 건수가 다르면 묶음 롤백")
+    void archiveClosedOrders_CountMismatch_RollsBack() {
+//        Given: 그 사이 한 건이 지워져 1건만 삭제
+        when(orderRepository.findClosedOrderIds(anyCollection(), any(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(orderRepository.copyToHistory(anyCollection(), any())).thenReturn(2);
+        when(orderRepository.deleteOrders(anyCollection())).thenReturn(1);
+
+//        When & Then
+        Assertions.assertThrows(IllegalStateException.class, () -> orderArchiveService.archiveClosedOrders());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        Assertions.assertEquals(0.0, meterRegistry.counter("order.archive.moved").count());
+    }
+
+    @Test
+    @DisplayName("리더가 아니거나 꺼져 있으면 실행하지 않음")
+    void archiveClosedOrders_NotLeaderOrDisabled() {
+//        Given
+        when(leaderElection.isLeader()).thenReturn(false);
+
+//        When
+        orderArchiveService.archiveClosedOrders();
+        when(leaderElection.isLeader()).thenReturn(true);
+        archive.setEnabled(false);
+        orderArchiveService.archiveClosedOrders();
+
+//        Then
+        verify(orderRepository, never()).findClosedOrderIds(anyCollection(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("도중에 리더를 잃으면 남은 묶음은 옮기지 않음")
+    void archiveClosedOrders_StopsWhenLeadershipLost() {
+//        Given: 첫 묶음 뒤 리더 상실
+        when(leaderElection.holds(anyLong())).thenReturn(true, false);
+        when(orderRepository.findClosedOrderIds(anyCollection(), any(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(orderRepository.copyToHistory(anyCollection(), any())).thenReturn(2);
+        when(orderRepository.deleteOrders(anyCollection())).thenReturn(2);
+
+//        When
+        orderArchiveService.archiveClosedOrders();
+
+//        Then
+        verify(orderRepository, times(1)).deleteOrders(anyCollection());
+        Assertions.assertEquals(2.0, meterRegistry.counter("order.archive.moved").count());
+    }
+
+    @Test
+    @DisplayName("새 리더가 fencing token 을 올린 뒤면 이전 리더의 묶음은 롤백")
+    void archiveClosedOrders_StaleFencingToken_RollsBack() {
+//        Given: holds 확인은 통과했지만 그 사이 새 리더가 생김
+        doThrow(new IllegalStateException("리더가 바뀌어 이전 리더의 쓰기를 거부합니다.")).when(leaderFence).check(7L);
+
+//        When & Then
+        Assertions.assertThrows(IllegalStateException.class, () -> orderArchiveService.archiveClosedOrders());
+        verify(orderRepository, never()).findClosedOrderIds(anyCollection(), any(), any(Pageable.class));
+        verify(orderRepository, never()).deleteOrders(anyCollection());
+        verify(transactionManager).rollback(any());
+    }
+}
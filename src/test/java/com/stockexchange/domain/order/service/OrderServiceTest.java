@@ -1,22 +1,33 @@
 package com.stockexchange.domain.order.service;
 
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.dto.MassQuoteReqV1;
 import com.stockexchange.domain.order.dto.OrderDetailResV1;
 import com.stockexchange.domain.order.dto.OrderListResV1;
 import com.stockexchange.domain.order.dto.OrderReqV1;
 import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderHistoryEntity;
 import com.stockexchange.domain.order.entity.OrderStatus;
 import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.repository.OrderHistoryRepository;
 import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.order.repository.QuoteLockRepository;
 import com.stockexchange.domain.stock.entity.StockEntity;
 import com.stockexchange.domain.stock.repository.StockRepository;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import com.stockexchange.domain.trading.session.MarketPhase;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -24,9 +35,14 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,9 +51,24 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Mock
+    private QuoteLockRepository quoteLockRepository;
+
     @Mock
     private StockRepository stockRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TradingSessionProperties tradingSession;
+
+    @Mock
+    private ShardRoutingService shardRoutingService;
+
     @InjectMocks // 테스트 대상 Service
     private OrderService orderService;
 
@@ -121,6 +152,7 @@ class OrderServiceTest {
 //        Mock 동작 정의
 //        Service 실행 중 savedOrder.getOrderId() 호출 시점에 1L 반환 - 안할 시 null 반환
         when(mockOrderEntity.getOrderId()).thenReturn(1L);
+        when(tradingSession.currentPhase()).thenReturn(MarketPhase.CONTINUOUS); // 실행 시각과 무관하게 접속 매매 시간으로 고정
 
 //        Repository Mock 동작 정의
 //        Service 실행 중 stockRepository.findById() 호출 시점에 mockStockEntity 반환 - 안할 시 null 반환
@@ -366,6 +398,152 @@ class OrderServiceTest {
     }
 
     @Test
+    @DisplayName("주문 취소 - 행을 지우지 않고 CANCELLED 로 변경 후 엔진에 취소 전달")
     void deleteOrder() {
+//        Given
+        StockEntity mockStockEntity = mock(StockEntity.class);
+        when(mockStockEntity.getStockId()).thenReturn(10L);
+        OrderEntity mockOrderEntity = mock(OrderEntity.class);
+        when(mockOrderEntity.getOrderId()).thenReturn(orderId);
+        when(mockOrderEntity.getUserId()).thenReturn(userId);
+        when(mockOrderEntity.getStock()).thenReturn(mockStockEntity);
+        when(mockOrderEntity.getOrderType()).thenReturn(OrderType.BUY);
+        when(mockOrderEntity.getOrderStatus()).thenReturn(OrderStatus.PENDING);
+        when(mockOrderEntity.getOrderPrice()).thenReturn(new BigDecimal("1500.00"));
+        when(orderRepository.findByOrderIdAndUserId(orderId, userId)).thenReturn(mockOrderEntity);
+        when(orderRepository.cancelOrders(eq(List.of(orderId)), any())).thenReturn(1);
+
+//        When
+        orderService.deleteOrder(userId, orderId);
+
+//        Then
+        verify(orderRepository, never()).delete(any());
+        verify(eventPublisher).publishEvent(any(OrderCommand.class));
+    }
+
+    @Test
+    @DisplayName("주문 취소 - 그 사이 체결 완료된 주문은 취소 실패")
+    void deleteOrder_AlreadyCompleted() {
+//        Given
+        StockEntity mockStockEntity = mock(StockEntity.class);
+        when(mockStockEntity.getStockId()).thenReturn(10L);
+        OrderEntity mockOrderEntity = mock(OrderEntity.class);
+        when(mockOrderEntity.getOrderId()).thenReturn(orderId);
+        when(mockOrderEntity.getStock()).thenReturn(mockStockEntity);
+        when(mockOrderEntity.getOrderStatus()).thenReturn(OrderStatus.PENDING);
+        when(orderRepository.findByOrderIdAndUserId(orderId, userId)).thenReturn(mockOrderEntity);
+        when(orderRepository.cancelOrders(eq(List.of(orderId)), any())).thenReturn(0);
+
+//        When & Then
+        Assertions.assertThrows(IllegalStateException.class, () -> orderService.deleteOrder(userId, orderId));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("주문 목록 조회 - order_table 과 이력을 합쳐 주문 ID 순")
+    void getAllOrders_MergesHistory() {
+//        Given: order_table 에 3, 이력에 1, 5
+        OrderEntity live = orderEntity(3L, OrderStatus.PENDING);
+        OrderHistoryEntity first = historyEntity(1L);
+        OrderHistoryEntity last = historyEntity(5L);
+        when(orderRepository.findAllByUserId(userId)).thenReturn(List.of(live));
+        when(orderHistoryRepository.findAllByUserId(userId)).thenReturn(List.of(last, first));
+
+//        When
+        List<Order> result = orderService.getAllOrders(userId, null);
+
+//        Then
+        Assertions.assertEquals(List.of(1L, 3L, 5L), result.stream().map(Order::getOrderId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("주문 목록 조회 - 종료 상태는 아직 옮기지 않은 주문과 이력을 함께 조회")
+    void getAllOrders_ClosedStatusMergesHistory() {
+//        Given
+        OrderEntity live = orderEntity(2L, OrderStatus.COMPLETED);
+        OrderHistoryEntity archived = historyEntity(1L);
+        when(orderRepository.findAllByUserIdAndOrderStatus(userId, OrderStatus.COMPLETED)).thenReturn(List.of(live));
+        when(orderHistoryRepository.findAllByUserIdAndOrderStatus(userId, OrderStatus.COMPLETED)).thenReturn(List.of(archived));
+
+//        When
+        List<Order> result = orderService.getAllOrders(userId, OrderStatus.COMPLETED);
+
+//        Then
+        Assertions.assertEquals(List.of(1L, 2L), result.stream().map(Order::getOrderId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("주문 목록 조회 - PENDING 은 이력 테이블을 읽지 않음")
+    void getAllOrders_PendingSkipsHistory() {
+//        Given
+        OrderEntity live = orderEntity(2L, OrderStatus.PENDING);
+        when(orderRepository.findAllByUserIdAndOrderStatus(userId, OrderStatus.PENDING)).thenReturn(List.of(live));
+
+//        When
+        List<Order> result = orderService.getAllOrders(userId, OrderStatus.PENDING);
+
+//        Then
+        Assertions.assertEquals(1, result.size());
+        verify(orderHistoryRepository, never()).findAllByUserIdAndOrderStatus(any(), any());
+        verify(orderHistoryRepository, never()).findAllByUserId(any());
+    }
+
+    @Test
+    @DisplayName("주문 조회 - order_table 에 없으면 이력에서 조회")
+    void getOrderDetail_FallsBackToHistory() {
+//        Given
+        OrderHistoryEntity archived = historyEntity(orderId);
+        when(orderRepository.findByOrderIdAndUserId(orderId, userId)).thenReturn(null);
+        when(orderHistoryRepository.findByOrderIdAndUserId(orderId, userId)).thenReturn(archived);
+
+//        When
+        Order result = orderService.getOrderDetail(userId, orderId);
+
+//        Then
+        Assertions.assertEquals(orderId, result.getOrderId());
+        Assertions.assertEquals(OrderStatus.COMPLETED, result.getOrderStatus());
+    }
+
+    @Test
+    @DisplayName("일괄 호가 교체 - 기존 호가를 읽기 전에 (회원, 종목) 잠금 행부터 잠금")
+    void replaceQuotes_LocksBeforeReadingQuotes() {
+//        Given: 기존 호가가 없는 첫 교체 (잠글 호가 주문 행이 없음)
+        MassQuoteReqV1 request = mock(MassQuoteReqV1.class);
+        when(request.getStockId()).thenReturn(10L);
+        when(request.getBids()).thenReturn(List.of());
+        when(request.getAsks()).thenReturn(List.of());
+        when(stockRepository.findById(10L)).thenReturn(Optional.of(mock(StockEntity.class)));
+        when(orderRepository.findPendingQuotes(userId, 10L)).thenReturn(List.of());
+
+//        When
+        List<Order> result = orderService.replaceQuotes(userId, request);
+
+//        Then: 잠금 -> 종목 조회 -> 기존 호가 잠금 읽기 순서
+        Assertions.assertTrue(result.isEmpty());
+        InOrder inOrder = inOrder(quoteLockRepository, stockRepository, orderRepository);
+        inOrder.verify(quoteLockRepository).lock(any(), eq(userId), eq(10L), any());
+        inOrder.verify(stockRepository).findById(10L);
+        inOrder.verify(orderRepository).findPendingQuotes(userId, 10L);
+        verify(orderRepository, never()).cancelOrders(any(), any());
+    }
+
+    private OrderEntity orderEntity(Long id, OrderStatus status) {
+        StockEntity mockStockEntity = mock(StockEntity.class);
+        when(mockStockEntity.getStockId()).thenReturn(10L);
+        OrderEntity mockOrderEntity = mock(OrderEntity.class);
+        when(mockOrderEntity.getOrderId()).thenReturn(id);
+        when(mockOrderEntity.getStock()).thenReturn(mockStockEntity);
+        when(mockOrderEntity.getOrderStatus()).thenReturn(status);
+        return mockOrderEntity;
+    }
+
+    private OrderHistoryEntity historyEntity(Long id) {
+        StockEntity mockStockEntity = mock(StockEntity.class);
+        when(mockStockEntity.getStockId()).thenReturn(10L);
+        OrderHistoryEntity mockHistoryEntity = mock(OrderHistoryEntity.class);
+        when(mockHistoryEntity.getOrderId()).thenReturn(id);
+        when(mockHistoryEntity.getStock()).thenReturn(mockStockEntity);
+        when(mockHistoryEntity.getOrderStatus()).thenReturn(OrderStatus.COMPLETED);
+        return mockHistoryEntity;
     }
-}
\ No newline at end of file
+}
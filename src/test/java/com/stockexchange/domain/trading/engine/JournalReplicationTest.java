@@ -0,0 +1,257 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+class JournalReplicationTest {
+
+    private Path primaryDirectory;
+    private Path standbyDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primaryDirectory = Files.createTempDirectory("replication-primary");
+        standbyDirectory = Files.createTempDirectory("replication-standby");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path directory : List.of(primaryDirectory, standbyDirectory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("동기 복제 - 대기 노드는 체결 없이 따라가다가 주 노드가 멈추면 승격해 이어서 매칭")
+    void syncReplication_PromoteOnPrimaryLoss() throws InterruptedException {
+//        Given
+        ConcurrentLinkedQueue<Fill> primaryFills = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Fill> standbyFills = new ConcurrentLinkedQueue<>();
+        JournalReplicationServer server = new JournalReplicationServer(0, 2, ReplicationMode.SYNC, 20, 1_000);
+        MatchingEngine primary = new MatchingEngine(2, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(primaryDirectory), server, fills -> fills.forEach(fill -> primaryFills.add(fill.copy())));
+        primary.start();
+        server.start();
+
+        boolean[] promoted = new boolean[1];
+        JournalReplicationClient client = new JournalReplicationClient("127.0.0.1", server.port(), 200, () -> promoted[0] = true);
+        MatchingEngine standby = new MatchingEngine(2, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(standbyDirectory), client, fills -> fills.forEach(fill -> standbyFills.add(fill.copy())));
+        standby.setStandby(true);
+        standby.start();
+        client.start(standby);
+        await(server::isStandbyConnected);
+
+//        When: 주 노드에서 매도 2건 + 부분 체결 1건
+        primary.publish(command(1L, 1L, OrderType.SELL, 10));
+        primary.publish(command(2L, 2L, OrderType.SELL, 5));
+        primary.publish(command(3L, 2L, OrderType.BUY, 2));
+        primary.stop();
+        server.close();
+        await(client::isPromoted);
+        standby.publish(command(4L, 1L, OrderType.BUY, 4));
+        standby.publish(command(5L, 2L, OrderType.BUY, 10));
+        standby.stop();
+
+//        Then: 복제 중 체결은 주 노드만 전달, 승격 후 대기 노드가 남은 수량으로 이어서 체결
+        Assertions.assertTrue(promoted[0]);
+        Assertions.assertEquals(1, primaryFills.size());
+        Assertions.assertEquals(2L, server.ackedSequence(standby.shardIndex(2L)));
+        List<Fill> fills = new ArrayList<>(standbyFills);
+        fills.sort(Comparator.comparingLong(Fill::getSellOrderId));
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(1L, fills.get(0).getSellOrderId());
+        Assertions.assertEquals(4, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(2L, fills.get(1).getSellOrderId());
+        Assertions.assertEquals(3, fills.get(1).getExecutionCount());
+    }
+
+    @Test
+    @DisplayName("시퀀스가 비는 대기 노드는 동기화 실패로 보고 승격하지 않음")
+    void replication_Gap_NotPromoted() throws InterruptedException {
+//        Given: 대기 노드 연결 전에 주 노드가 이미 기록한 명령이 있음
+        JournalReplicationServer server = new JournalReplicationServer(0, 1, ReplicationMode.ASYNC, 20, 1_000);
+        MatchingEngine primary = new MatchingEngine(1, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(primaryDirectory), server, fills -> { });
+        primary.start();
+        server.start();
+        primary.publish(command(1L, 1L, OrderType.SELL, 10));
+
+        JournalReplicationClient client = new JournalReplicationClient("127.0.0.1", server.port(), 200, () -> { });
+        MatchingEngine standby = new MatchingEngine(1, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(standbyDirectory), client, fills -> { });
+        standby.setStandby(true);
+        standby.start();
+        client.start(standby);
+        await(server::isStandbyConnected);
+
+//        When
+        primary.publish(command(2L, 1L, OrderType.SELL, 10));
+        await(() -> !client.isInSync());
+        primary.stop();
+        server.close();
+        Thread.sleep(300);
+        standby.stop();
+
+//        Then
+        Assertions.assertFalse(client.isInSync());
+        Assertions.assertFalse(client.isPromoted());
+    }
+
+    @Test
+    @DisplayName("연결은 살아 있어도 heartbeat 가 failoverTimeout 동안 없으면 승격")
+    void heartbeatTimeout_PromoteWithoutDisconnect() throws Exception {
+//        Given: HELLO 만 받고 연결을 연 채 아무것도 보내지 않는 주 노드 (멈춘 프로세스)
+        try (ServerSocket silentPrimary = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            JournalReplicationClient client = new JournalReplicationClient("127.0.0.1", silentPrimary.getLocalPort(), 200, () -> { });
+            MatchingEngine standby = new MatchingEngine(1, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                    config(standbyDirectory), client, fills -> { });
+            standby.setStandby(true);
+            standby.start();
+            long startedAt = System.nanoTime();
+            client.start(standby);
+
+            try (Socket connection = silentPrimary.accept()) {
+//                When
+                await(client::isPromoted);
+
+//                Then: 연결 끊김이 아니라 heartbeat 중단으로 승격했으므로 failoverTimeout 이 지난 뒤
+                Assertions.assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(200));
+                Assertions.assertTrue(client.isInSync());
+            } finally {
+                standby.stop();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("동기 복제 - 확인 응답도 수신도 하지 않는 대기 노드는 syncTimeout 뒤 끊고 매칭은 계속")
+    void syncReplication_StalledStandby_Dropped() throws Exception {
+//        Given: HELLO 만 보내고 멈춘 대기 노드
+        ConcurrentLinkedQueue<Fill> primaryFills = new ConcurrentLinkedQueue<>();
+        JournalReplicationServer server = new JournalReplicationServer(0, 1, ReplicationMode.SYNC, 20, 100);
+        MatchingEngine primary = new MatchingEngine(1, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(primaryDirectory), server, fills -> fills.forEach(fill -> primaryFills.add(fill.copy())));
+        primary.start();
+        server.start();
+        try (Socket stalled = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            DataOutputStream hello = new DataOutputStream(stalled.getOutputStream());
+            hello.writeByte(JournalReplicationServer.HELLO);
+            hello.writeInt(1);
+            hello.writeLong(0L);
+            hello.flush();
+            await(server::isStandbyConnected);
+
+//            When
+            primary.publish(command(1L, 1L, OrderType.SELL, 10));
+            primary.publish(command(2L, 1L, OrderType.BUY, 4));
+            await(() -> primaryFills.size() == 1);
+
+//            Then
+            Assertions.assertFalse(server.isStandbyConnected());
+            Assertions.assertEquals(0L, server.ackedSequence(0));
+        } finally {
+            primary.stop();
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("두 JVM - 별도 프로세스의 대기 노드가 주 노드 중단 후 승격해 복제받은 호가로 체결")
+    void twoJvms_StandbyTakesOver() throws Exception {
+//        Given
+        JournalReplicationServer server = new JournalReplicationServer(0, 2, ReplicationMode.SYNC, 20, 5_000);
+        MatchingEngine primary = new MatchingEngine(2, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP,
+                config(primaryDirectory), server, fills -> { });
+        primary.start();
+        server.start();
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StandbyNodeMain.class.getName(), String.valueOf(server.port()), standbyDirectory.toString())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BlockingQueue<String> output = readLines(process);
+            await(server::isStandbyConnected);
+
+//            When
+            primary.publish(command(1L, 1L, OrderType.SELL, 10));
+            primary.stop();
+            server.close();
+
+//            Then
+            List<String> lines = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (lines.stream().noneMatch(line -> line.startsWith("FILL"))) {
+                String line = output.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                Assertions.assertNotNull(line, "대기 노드 출력 대기 시간 초과 - " + lines);
+                lines.add(line);
+            }
+            Assertions.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(lines.contains("PROMOTED"), lines.toString());
+            Assertions.assertTrue(lines.contains("FILL 1 4"), lines.toString());
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    //    프로세스 출력을 별도 스레드에서 읽어 줄 단위로 전달 (테스트 스레드는 시간 제한을 두고 꺼냄)
+    private BlockingQueue<String> readLines(Process process) {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                for (String line = output.readLine(); line != null; line = output.readLine()) {
+                    lines.add(line);
+                }
+            } catch (IOException ignored) {
+//                프로세스 종료
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return lines;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "대기 시간 초과");
+            Thread.sleep(5);
+        }
+    }
+
+    private JournalConfig config(Path directory) {
+        return new JournalConfig(directory, 1024 * 1024, 1, 0);
+    }
+
+    private OrderCommand command(long orderId, long stockId, OrderType orderType, int count) {
+        return new OrderCommand(OrderCommandType.NEW, orderId, 1L, stockId, orderType, 100000L, count, 0L);
+    }
+}
@@ -0,0 +1,61 @@
+package com.stockexchange.domain.trading.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class LongIntHashMapTest {
+
+    @Test
+    @DisplayName("없는 키는 MISSING, 삭제하면 이전 값 반환")
+    void putGetRemove() {
+//        Given
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 10);
+        map.put(2L, 20);
+
+//        When
+        map.put(1L, 11);
+        int removed = map.remove(2L);
+
+//        Then
+        Assertions.assertEquals(11, map.get(1L));
+        Assertions.assertEquals(20, removed);
+        Assertions.assertEquals(LongIntHashMap.MISSING, map.get(2L));
+        Assertions.assertEquals(LongIntHashMap.MISSING, map.remove(2L));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("추가/삭제를 섞어도 HashMap 과 같은 결과 (충돌 및 확장 포함)")
+    void randomOperations_SameAsHashMap() {
+//        Given
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7L);
+
+//        When
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                int removed = map.remove(key);
+                Integer before = expected.remove(key);
+                Assertions.assertEquals(before == null ? LongIntHashMap.MISSING : before, removed);
+            }
+        }
+
+//        Then
+        Assertions.assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            Integer value = expected.get(key);
+            Assertions.assertEquals(value == null ? LongIntHashMap.MISSING : value, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* 호가 교체 처리량 비교 - 가격대별 단건 명령 vs 일괄 호가 묶음
+ * 마켓 메이커 여러 명이 종목마다 매수/매도 10 단계씩 호가를 반복 교체하고, 초당 교체한 호가(가격대) 수를 출력합니다.
+ * 단건 방식은 가격대마다 CANCEL/NEW 를 따로 넣으므로 다른 생산자의 명령이 사이에 끼어들 수 있습니다.
+ * HTTP/DB 구간은 포함하지 않으며, 엔드포인트 단위 비교는 부하 테스트로 측정합니다.
+ * 실행: ./gradlew test --tests '*MassQuoteBenchmarkTest' -Dbenchmark=true */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MassQuoteBenchmarkTest {
+    private static final int MAKERS = 4;
+    private static final int LEVELS = 10;
+    private static final int ROUNDS = 20_000;
+
+    @Test
+    @DisplayName("단건 명령 / 일괄 호가 묶음 - 초당 교체 호가 수")
+    void compareQuoteRate() throws InterruptedException {
+        System.out.printf("%-7s %14s %16s%n", "mode", "quotes", "quotes/sec");
+        for (boolean batch : new boolean[]{false, true, false, true}) {
+            run(batch);
+        }
+    }
+
+    private void run(boolean batch) throws InterruptedException {
+        MatchingEngine engine = new MatchingEngine(2, 65536, WaitStrategy.YIELDING, fills -> { });
+        engine.start();
+        AtomicLong orderIds = new AtomicLong();
+        Thread[] makers = new Thread[MAKERS];
+
+        long start = System.nanoTime();
+        for (int m = 0; m < MAKERS; m++) {
+            long userId = m + 1;
+            long stockId = m + 1;
+            makers[m] = new Thread(() -> {
+                long[] resting = new long[LEVELS * 2];
+                for (int round = 0; round < ROUNDS; round++) {
+                    List<OrderCommand> commands = new ArrayList<>(LEVELS * 4);
+                    for (int level = 0; level < LEVELS * 2; level++) {
+                        boolean buy = level < LEVELS;
+                        OrderType orderType = buy ? OrderType.BUY : OrderType.SELL;
+                        long price = buy ? 99_990L - level : 100_010L + level - LEVELS;
+                        if (resting[level] != 0) {
+                            commands.add(new OrderCommand(OrderCommandType.CANCEL, resting[level], userId, stockId, orderType, price, 0, 0L));
+                        }
+                        resting[level] = orderIds.incrementAndGet();
+                        commands.add(new OrderCommand(OrderCommandType.NEW, resting[level], userId, stockId, orderType, price, 10, round));
+                    }
+                    if (batch) {
+                        engine.publish(new OrderCommandBatch(stockId, commands));
+                    } else {
+                        commands.forEach(engine::publish);
+                    }
+                }
+            });
+            makers[m].start();
+        }
+        for (Thread maker : makers) {
+            maker.join();
+        }
+        engine.stop();
+        long elapsed = System.nanoTime() - start;
+
+        long quotes = (long) MAKERS * ROUNDS * LEVELS * 2;
+        System.out.printf("%-7s %14d %16.0f%n", batch ? "batch" : "single", quotes, quotes * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,92 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/* 매칭 경로 객체 할당 테스트
+ * 링 버퍼 -> 매칭 샤드 명령 묶음 적용 -> 호가창 매칭/수량 감소 -> 체결 콜백까지 평상시 명령 처리 중 힙 할당이 없는지
+ * ThreadMXBean.getThreadAllocatedBytes 로 확인합니다.
+ * 매칭 샤드는 테스트 스레드에서 돌리고(run), 종료 요청을 먼저 해 두어 넣은 명령을 모두 적용하면 돌아오게 합니다. */
+class MatchingAllocationTest {
+    private static final int WARM_UP = 200_000;
+    private static final int OPERATIONS = 100_000;
+    private static final int RING_BUFFER_SIZE = 1024;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final FillListener fillListener = new FillListener() {
+        @Override
+        public void onFills(List<Fill> fills) {
+            consumed += fills.size();
+        }
+
+        @Override
+        public void onReduced(int shardId, long journalSequence, long orderId, int orderCount) {
+            reduced++;
+        }
+    };
+    private long consumed;
+    private long reduced;
+    private long nextOrderId = 1L;
+
+    @Test
+    @DisplayName("평상시 명령 처리 중 명령/주문/체결 객체를 새로 만들지 않음")
+    void matchLoop_NoAllocation() {
+        for (OrderStore.Type type : OrderStore.Type.values()) {
+//            Given: 예열로 저장소/인덱스/가격대 풀 용량 확보
+            MatchingShard shard = new MatchingShard(0, RING_BUFFER_SIZE, WaitStrategy.BLOCKING, type,
+                    null, null, null, fillListener);
+            shard.stop();
+            OrderCommand[] commands = commands(OPERATIONS);
+            runLoop(shard, commands(WARM_UP));
+
+//            When
+            long threadId = Thread.currentThread().getId();
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            runLoop(shard, commands);
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+//            Then: 측정 호출 자체의 할당 여유분만 허용
+            Assertions.assertTrue(allocated < 1024, type + " 할당 " + allocated + " bytes / " + OPERATIONS + " 명령");
+        }
+        Assertions.assertTrue(consumed > 0);
+        Assertions.assertTrue(reduced > 0);
+    }
+
+    /* 매도 대기 -> 같은 가격 매수로 일부 체결 -> 가격대를 옮겨가며 정정/제자리 수량 감소/취소를 반복
+     * 링 버퍼 크기만큼씩 넣고 샤드가 모두 적용할 때까지 돌림, 호가창 크기는 일정하게 유지됩니다. */
+    private void runLoop(MatchingShard shard, OrderCommand[] commands) {
+        for (int from = 0; from < commands.length; from += RING_BUFFER_SIZE) {
+            int to = Math.min(from + RING_BUFFER_SIZE, commands.length);
+            for (int i = from; i < to; i++) {
+                if (!shard.publish(commands[i])) {
+                    throw new IllegalStateException("링 버퍼가 가득 찼습니다.");
+                }
+            }
+            shard.run();
+        }
+    }
+
+    //    측정 전에 명령을 미리 만들어 두어 측정 구간에서는 생성하지 않음
+    private OrderCommand[] commands(int count) {
+        OrderCommand[] commands = new OrderCommand[count];
+        long orderId = nextOrderId;
+        for (int i = 0; i < count; i += 5) {
+            long price = 100_000L + (i / 5) % 50;
+            commands[i] = new OrderCommand(OrderCommandType.NEW, orderId, 1L, 1L, OrderType.SELL, price, 10, i);
+            commands[i + 1] = new OrderCommand(OrderCommandType.NEW, orderId + 1, 2L, 1L, OrderType.BUY, price, 4, i);
+            commands[i + 2] = new OrderCommand(OrderCommandType.AMEND, orderId, 1L, 1L, OrderType.SELL, price + 1, 9, i);
+            commands[i + 3] = new OrderCommand(OrderCommandType.REDUCE, orderId, 1L, 1L, OrderType.SELL, price + 1, 7, i); // 9 -> 7 (체결 4, 남은 5 -> 3)
+            commands[i + 4] = new OrderCommand(OrderCommandType.CANCEL, orderId, 1L, 1L, OrderType.SELL, price + 1, 0, i);
+            orderId += 2;
+        }
+        nextOrderId = orderId;
+        return commands;
+    }
+}
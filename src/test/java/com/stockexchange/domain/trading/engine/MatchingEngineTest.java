@@ -0,0 +1,204 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class MatchingEngineTest {
+
+    @Test
+    @DisplayName("같은 종목은 항상 같은 샤드로 배정")
+    void shardIndex_SameStock_SameShard() {
+        MatchingEngine engine = new MatchingEngine(4, 16, WaitStrategy.BLOCKING, fills -> { });
+
+        Assertions.assertEquals(engine.shardIndex(7L), engine.shardIndex(7L));
+        Assertions.assertEquals(3, engine.shardIndex(7L));
+        Assertions.assertEquals(0, engine.shardIndex(8L));
+    }
+
+    @Test
+    @DisplayName("여러 샤드에서 종목별로 독립적으로 매칭")
+    void publish_MultiShard_MatchPerStock() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+//            Given
+            ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+            MatchingEngine engine = new MatchingEngine(3, 1024, waitStrategy, fills -> fills.forEach(fill -> received.add(fill.copy())));
+            engine.start();
+
+//            When: 종목 1~6 에 매도 후 매수 (가격 일치)
+            long orderId = 1;
+            for (long stockId = 1; stockId <= 6; stockId++) {
+                engine.publish(command(orderId++, stockId, OrderType.SELL, 10));
+            }
+            for (long stockId = 1; stockId <= 6; stockId++) {
+                engine.publish(command(orderId++, stockId, OrderType.BUY, 4));
+            }
+            engine.stop();
+
+//            Then: 종목마다 1건씩 체결
+            Assertions.assertEquals(6, received.size());
+            for (Fill fill : received) {
+                Assertions.assertEquals(4, fill.getExecutionCount());
+                Assertions.assertEquals(fill.getSellOrderId() + 6, fill.getBuyOrderId());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("awaitProcessed 는 그때까지 넣은 명령의 체결 콜백이 끝난 뒤 반환")
+    void awaitProcessed_AllFillsDelivered() throws InterruptedException {
+//        Given: 체결 콜백이 느린 엔진
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 1024, WaitStrategy.BLOCKING, fills -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            fills.forEach(fill -> received.add(fill.copy()));
+        });
+        engine.start();
+
+//        When: 종목 1, 2 에 매도 50건 후 매수 50건
+        long orderId = 1;
+        for (int i = 0; i < 50; i++) {
+            engine.publish(command(orderId++, 1L + i % 2, OrderType.SELL, 1));
+        }
+        for (int i = 0; i < 50; i++) {
+            engine.publish(command(orderId++, 1L + i % 2, OrderType.BUY, 1));
+        }
+        boolean drained = engine.awaitProcessed(5_000);
+
+//        Then: 멈추기 전에 이미 모든 체결이 전달됨
+        Assertions.assertTrue(drained);
+        Assertions.assertEquals(50, received.size());
+        Assertions.assertEquals(0, engine.backlog());
+        engine.stop();
+    }
+
+    @Test
+    @DisplayName("취소된 주문은 매칭되지 않음")
+    void publish_Cancel_NotMatched() throws InterruptedException {
+//        Given
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 16, WaitStrategy.BLOCKING, fills -> fills.forEach(fill -> received.add(fill.copy())));
+        engine.start();
+
+//        When
+        engine.publish(command(1L, 1L, OrderType.SELL, 10));
+        engine.publish(new OrderCommand(OrderCommandType.CANCEL, 1L, 1L, 1L, OrderType.SELL, 100000L, 10, 0L));
+        engine.publish(command(2L, 1L, OrderType.BUY, 10));
+        engine.stop();
+
+//        Then
+        Assertions.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("동시호가 중 주문은 쌓였다가 uncross 시 모든 샤드에서 단일가로 체결")
+    void auction_UncrossAllShards() throws InterruptedException {
+//        Given
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 16, WaitStrategy.BLOCKING, fills -> fills.forEach(fill -> received.add(fill.copy())));
+        engine.start();
+        engine.startAuction(0L);
+
+//        When: 종목 1, 2 (다른 샤드) 에 겹치는 주문
+        engine.publish(command(1L, 1L, OrderType.SELL, 10));
+        engine.publish(command(2L, 1L, OrderType.BUY, 4));
+        engine.publish(command(3L, 2L, OrderType.SELL, 10));
+        engine.publish(command(4L, 2L, OrderType.BUY, 6));
+        Thread.sleep(50);
+        boolean matchedDuringAuction = !received.isEmpty();
+        engine.uncross(0L);
+        engine.stop();
+
+//        Then
+        Assertions.assertFalse(matchedDuringAuction);
+        Assertions.assertEquals(2, received.size());
+        for (Fill fill : received) {
+            Assertions.assertEquals(100000L, fill.getExecutionPrice());
+            Assertions.assertEquals(0L, fill.getTakerOrderId());
+        }
+    }
+
+    @Test
+    @DisplayName("장 마감 시 당일 주문만 만료되고 GTD 주문은 다음 매칭까지 유지")
+    void expireDayOrders_AllShards() throws InterruptedException {
+//        Given
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 16, WaitStrategy.BLOCKING, fills -> fills.forEach(fill -> received.add(fill.copy())));
+        engine.start();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 1L, 1L, 1L, OrderType.SELL, 100000L, 0L, TimeInForce.DAY, 5, 1L));
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 2L, 1L, 1L, OrderType.SELL, 100000L, 0L, TimeInForce.GTD, 5, 2L));
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 3L, 1L, 2L, OrderType.SELL, 100000L, 0L, TimeInForce.DAY, 5, 3L));
+
+//        When
+        engine.expireDayOrders(0L);
+        engine.publish(command(4L, 1L, OrderType.BUY, 10));
+        engine.publish(command(5L, 2L, OrderType.BUY, 10));
+        engine.stop();
+
+//        Then
+        Assertions.assertEquals(1, received.size());
+        Assertions.assertEquals(2L, received.peek().getSellOrderId());
+    }
+
+    @Test
+    @DisplayName("전량 체결된 주문을 NEW 로 다시 넣으면 무시, 취소된 주문은 다시 등록")
+    void publish_ClosedOrderAgain_Ignored() throws InterruptedException {
+//        Given: 매도 1 전량 체결, 매도 3 은 취소 (종목을 넘길 때처럼)
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 16, WaitStrategy.BLOCKING, fills -> fills.forEach(fill -> received.add(fill.copy())));
+        engine.start();
+        engine.publish(command(1L, 1L, OrderType.SELL, 10));
+        engine.publish(command(2L, 1L, OrderType.BUY, 10));
+        engine.publish(command(3L, 1L, OrderType.SELL, 5));
+        engine.publish(new OrderCommand(OrderCommandType.CANCEL, 3L, 1L, 1L, OrderType.SELL, 100000L, 5, 0L));
+
+//        When: 체결이 저장되기 전 대사가 두 주문을 다시 넣은 뒤 매수
+        engine.publish(command(1L, 1L, OrderType.SELL, 10));
+        engine.publish(command(3L, 1L, OrderType.SELL, 5));
+        engine.publish(command(4L, 1L, OrderType.BUY, 20));
+        engine.stop();
+
+//        Then: 매도 1 은 한 번만, 매도 3 은 다시 등록되어 체결
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertEquals(1L, received.stream().filter(fill -> fill.getSellOrderId() == 1L).count());
+        Assertions.assertEquals(5, received.stream().filter(fill -> fill.getSellOrderId() == 3L)
+                .mapToInt(Fill::getExecutionCount).sum());
+    }
+
+    @Test
+    @DisplayName("일괄 호가 묶음 - 기존 호가 취소와 새 호가 등록이 한 번에 적용")
+    void publishBatch_ReplaceQuotes() throws InterruptedException {
+//        Given
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = new MatchingEngine(2, 16, WaitStrategy.BLOCKING, fills -> fills.forEach(fill -> received.add(fill.copy())));
+        engine.start();
+        engine.publish(command(1L, 1L, OrderType.SELL, 10));
+
+//        When: 기존 매도 호가를 내리고 수량 3 으로 다시 호가
+        engine.publish(new OrderCommandBatch(1L, List.of(
+                new OrderCommand(OrderCommandType.CANCEL, 1L, 1L, 1L, OrderType.SELL, 100000L, 10, 0L),
+                command(2L, 1L, OrderType.SELL, 3))));
+        engine.publish(command(3L, 1L, OrderType.BUY, 10));
+        engine.stop();
+
+//        Then
+        Assertions.assertEquals(1, received.size());
+        Assertions.assertEquals(2L, received.peek().getSellOrderId());
+        Assertions.assertEquals(3, received.peek().getExecutionCount());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new OrderCommandBatch(1L, List.of(command(4L, 2L, OrderType.BUY, 1))));
+    }
+
+    private OrderCommand command(long orderId, long stockId, OrderType orderType, int count) {
+        return new OrderCommand(OrderCommandType.NEW, orderId, 1L, stockId, orderType, 100000L, count, 0L);
+    }
+}
@@ -0,0 +1,495 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/* OrderBook 단위 테스트
+ * 스프링 컨텍스트 없이 가격/시간 우선순위 매칭만 검증합니다. */
+class OrderBookTest {
+
+    private OrderBook orderBook;
+    private long nextOrderId;
+
+    @BeforeEach
+    void setUp() {
+        orderBook = new OrderBook(1L);
+        nextOrderId = 1L;
+    }
+
+    @Test
+    @DisplayName("가격이 맞지 않으면 체결 없이 호가창에 등록")
+    void match_NoCross_Rest() {
+//        Given
+        orderBook.match(order(OrderType.SELL, 150000L, 10));
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 140000L, 10));
+
+//        Then
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertEquals(140000L, orderBook.getBestBid().getPrice());
+        Assertions.assertEquals(150000L, orderBook.getBestAsk().getPrice());
+        Assertions.assertEquals(2, orderBook.orderCount());
+    }
+
+    @Test
+    @DisplayName("가격 우선 - 더 낮은 매도호가부터 체결")
+    void match_PricePriority() {
+//        Given
+        orderBook.match(order(OrderType.SELL, 160000L, 10));
+        BookOrder cheaper = order(OrderType.SELL, 150000L, 10);
+        orderBook.match(cheaper);
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 160000L, 10));
+
+//        Then
+        Assertions.assertEquals(1, fills.size());
+        Assertions.assertEquals(cheaper.getOrderId(), fills.get(0).getSellOrderId());
+        Assertions.assertEquals(150000L, fills.get(0).getExecutionPrice());
+        Assertions.assertEquals(160000L, orderBook.getBestAsk().getPrice());
+    }
+
+    @Test
+    @DisplayName("시간 우선 - 같은 가격이면 먼저 들어온 주문부터 체결")
+    void match_TimePriority() {
+//        Given
+        BookOrder first = order(OrderType.BUY, 150000L, 5);
+        BookOrder second = order(OrderType.BUY, 150000L, 5);
+        orderBook.match(first);
+        orderBook.match(second);
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.SELL, 150000L, 7));
+
+//        Then
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(first.getOrderId(), fills.get(0).getBuyOrderId());
+        Assertions.assertEquals(5, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(second.getOrderId(), fills.get(1).getBuyOrderId());
+        Assertions.assertEquals(2, fills.get(1).getExecutionCount());
+        Assertions.assertEquals(3, orderBook.remainCount(second.getOrderId()));
+        Assertions.assertNull(orderBook.getBestAsk());
+    }
+
+    @Test
+    @DisplayName("여러 가격대를 휩쓸고 남은 수량은 호가창에 등록")
+    void match_SweepAndRest() {
+//        Given
+        orderBook.match(order(OrderType.SELL, 150000L, 3));
+        orderBook.match(order(OrderType.SELL, 151000L, 3));
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 151000L, 10));
+
+//        Then
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertNull(orderBook.getBestAsk());
+        Assertions.assertEquals(151000L, orderBook.getBestBid().getPrice());
+        Assertions.assertEquals(4, orderBook.getBestBid().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("순서 없이 들어온 가격대도 가격 순으로 체결")
+    void match_UnorderedLevels_SweepInPriceOrder() {
+//        Given: 매도 가격대 20개를 섞인 순서로 등록
+        for (int i = 0; i < 20; i++) {
+            long price = 100000L + ((i * 7) % 20) * 100L;
+            orderBook.match(order(OrderType.SELL, price, 1));
+        }
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 200000L, 20));
+
+//        Then: 낮은 가격부터 차례대로 체결
+        Assertions.assertEquals(20, fills.size());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(100000L + i * 100L, fills.get(i).getExecutionPrice());
+        }
+        Assertions.assertNull(orderBook.getBestAsk());
+    }
+
+    @Test
+    @DisplayName("주문 취소 - 최우선 호가가 다음 가격대로 갱신")
+    void cancel_BestLevel() {
+//        Given
+        BookOrder best = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(order(OrderType.BUY, 140000L, 10));
+        orderBook.match(best);
+
+//        When
+        boolean cancelled = orderBook.cancel(best.getOrderId());
+
+//        Then
+        Assertions.assertTrue(cancelled);
+        Assertions.assertFalse(orderBook.contains(best.getOrderId()));
+        Assertions.assertEquals(140000L, orderBook.getBestBid().getPrice());
+        Assertions.assertFalse(orderBook.cancel(best.getOrderId()));
+    }
+
+    //    가격은 틱 단위 (150000L = 1500.00원)
+    @Test
+    @DisplayName("주문 취소 - 큐 중간 주문을 빼도 나머지 시간 우선순위 유지")
+    void cancel_MiddleOfQueue_KeepFifo() {
+//        Given
+        BookOrder first = order(OrderType.SELL, 150000L, 1);
+        BookOrder middle = order(OrderType.SELL, 150000L, 1);
+        BookOrder last = order(OrderType.SELL, 150000L, 1);
+        orderBook.match(first);
+        orderBook.match(middle);
+        orderBook.match(last);
+
+//        When
+        orderBook.cancel(middle.getOrderId());
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 150000L, 2));
+
+//        Then
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(first.getOrderId(), fills.get(0).getSellOrderId());
+        Assertions.assertEquals(last.getOrderId(), fills.get(1).getSellOrderId());
+        Assertions.assertFalse(orderBook.contains(middle.getOrderId()));
+        Assertions.assertEquals(0, orderBook.orderCount());
+    }
+
+    @Test
+    @DisplayName("수량 감소 - 시간 우선순위 유지")
+    void reduce_KeepTimePriority() {
+//        Given
+        BookOrder first = order(OrderType.BUY, 150000L, 10);
+        BookOrder second = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(first);
+        orderBook.match(second);
+
+//        When: 먼저 들어온 주문의 수량을 10 -> 4 로 감소
+        int orderCount = orderBook.reduceTo(first.getOrderId(), 4);
+        List<Fill> fills = orderBook.match(order(OrderType.SELL, 150000L, 5));
+
+//        Then: 여전히 먼저 체결되고, 가격대 총 수량도 반영
+        Assertions.assertEquals(4, orderCount);
+        Assertions.assertEquals(first.getOrderId(), fills.get(0).getBuyOrderId());
+        Assertions.assertEquals(4, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(second.getOrderId(), fills.get(1).getBuyOrderId());
+        Assertions.assertEquals(9, orderBook.getBestBid().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("수량 감소 - 남은 수량 이상 감소하면 취소")
+    void reduce_AllRemain_Cancel() {
+//        Given
+        BookOrder order = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(order);
+        orderBook.match(order(OrderType.SELL, 150000L, 7));
+
+//        When: 체결 진행 중 10 -> 3 감소 요청 (남은 수량 3)
+        orderBook.reduceTo(order.getOrderId(), 3);
+
+//        Then
+        Assertions.assertFalse(orderBook.contains(order.getOrderId()));
+        Assertions.assertNull(orderBook.getBestBid());
+    }
+
+    @Test
+    @DisplayName("주문 수량 감소 - 엔진의 체결 수량으로 남은 수량 계산, 확정 수량 반환")
+    void reduceTo_UseEngineExecutedCount() {
+//        Given: 10 주 매수 중 4 주는 접수 시 바로, 2 주는 호가창에서 체결 (DB 는 아직 모름)
+        orderBook.match(order(OrderType.SELL, 150000L, 4));
+        BookOrder order = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(order);
+        orderBook.match(order(OrderType.SELL, 150000L, 2));
+
+//        When: 주문 수량 10 -> 8
+        int orderCount = orderBook.reduceTo(order.getOrderId(), 8);
+
+//        Then: 체결 6 + 남은 2
+        Assertions.assertEquals(8, orderCount);
+        Assertions.assertEquals(2, orderBook.remainCount(order.getOrderId()));
+    }
+
+    @Test
+    @DisplayName("주문 수량 감소 - 이미 그 이상 체결되었으면 남은 수량 취소, 체결 수량 반환")
+    void reduceTo_AlreadyExecuted_Cancel() {
+//        Given
+        BookOrder order = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(order);
+        orderBook.match(order(OrderType.SELL, 150000L, 7));
+
+//        When: 체결 진행 중 10 -> 5 감소 요청
+        int orderCount = orderBook.reduceTo(order.getOrderId(), 5);
+
+//        Then
+        Assertions.assertEquals(7, orderCount);
+        Assertions.assertFalse(orderBook.contains(order.getOrderId()));
+        Assertions.assertEquals(-1, orderBook.reduceTo(order.getOrderId(), 3));
+    }
+
+    @Test
+    @DisplayName("주문 수량 감소 - DB 에서 다시 읽은 일부 체결 주문도 주문 수량 기준으로 감소")
+    void reduceTo_ReloadedPartiallyFilled() {
+//        Given: 주문 수량 100 중 60 주가 체결된 주문을 DB 에서 다시 읽어 남은 40 주만 등록
+        long orderId = nextOrderId++;
+        OrderCommand reloaded = new OrderCommand(OrderCommandType.NEW, orderId, 1L, 1L, OrderType.BUY,
+                150000L, 0L, null, 40, 60, 1L);
+        orderBook.match(reloaded.toBookOrder());
+
+//        When: 주문 수량 100 -> 70
+        int orderCount = orderBook.reduceTo(orderId, 70);
+
+//        Then: 체결 60 + 남은 10
+        Assertions.assertEquals(70, orderCount);
+        Assertions.assertEquals(10, orderBook.remainCount(orderId));
+    }
+
+    @Test
+    @DisplayName("정정 - 이미 전량 체결된 주문은 아무것도 하지 않음")
+    void replace_FullyExecuted_Ignore() {
+//        Given: 매수 10 주 전량 체결
+        BookOrder order = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(order);
+        orderBook.match(order(OrderType.SELL, 150000L, 10));
+        BookOrder ask = order(OrderType.SELL, 150000L, 20);
+        orderBook.match(ask);
+
+//        When: 끝난 주문을 수량 20 으로 정정
+        List<Fill> fills = orderBook.replace(new BookOrder(order.getOrderId(), 1L, OrderType.BUY, 150000L, 0L, 20));
+
+//        Then: 다시 체결되지도, 호가창에 올라가지도 않음
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertFalse(orderBook.contains(order.getOrderId()));
+        Assertions.assertEquals(20, orderBook.remainCount(ask.getOrderId()));
+    }
+
+    @Test
+    @DisplayName("정정 - 재등록되어 시간 우선순위 상실, 이미 체결된 수량은 차감")
+    void replace_LoseTimePriority() {
+//        Given
+        BookOrder first = order(OrderType.BUY, 150000L, 10);
+        BookOrder second = order(OrderType.BUY, 150000L, 10);
+        orderBook.match(first);
+        orderBook.match(second);
+        orderBook.match(order(OrderType.SELL, 150000L, 2)); // first 2개 체결
+
+//        When: first 를 수량 12 로 정정
+        orderBook.replace(new BookOrder(first.getOrderId(), 1L, OrderType.BUY, 150000L, 0L, 12));
+        List<Fill> fills = orderBook.match(order(OrderType.SELL, 150000L, 30));
+
+//        Then: second 가 먼저 체결되고, first 는 12 - 2 = 10 개만 남음
+        Assertions.assertEquals(second.getOrderId(), fills.get(0).getBuyOrderId());
+        Assertions.assertEquals(first.getOrderId(), fills.get(1).getBuyOrderId());
+        Assertions.assertEquals(10, fills.get(1).getExecutionCount());
+    }
+
+    @Test
+    @DisplayName("동시호가 - 가격이 겹쳐도 체결 없이 호가창에 쌓임")
+    void auction_CollectWithoutMatching() {
+//        Given
+        orderBook.setAuction(true);
+        orderBook.match(order(OrderType.SELL, 150000L, 10));
+
+//        When
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 160000L, 10));
+
+//        Then
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertEquals(160000L, orderBook.getBestBid().getPrice());
+        Assertions.assertEquals(150000L, orderBook.getBestAsk().getPrice());
+    }
+
+    @Test
+    @DisplayName("단일가 매매 - 체결 수량 최대, 동률이면 잔량 최소 가격으로 한 번에 체결")
+    void uncross_EquilibriumPrice() {
+//        Given
+        orderBook.setAuction(true);
+        BookOrder ask100 = order(OrderType.SELL, 100L, 5);
+        BookOrder ask101 = order(OrderType.SELL, 101L, 5);
+        orderBook.match(ask100);
+        orderBook.match(ask101);
+        orderBook.match(order(OrderType.SELL, 102L, 10));
+        BookOrder bid103 = order(OrderType.BUY, 103L, 4);
+        BookOrder bid102 = order(OrderType.BUY, 102L, 6);
+        orderBook.match(bid103);
+        orderBook.match(bid102);
+        orderBook.match(order(OrderType.BUY, 101L, 5));
+        orderBook.match(order(OrderType.BUY, 99L, 10));
+
+//        When: 102 와 101 모두 10 개 체결 가능, 잔량이 적은 101 로 결정
+        List<Fill> fills = orderBook.uncross(0L);
+
+//        Then: 높은 매수, 낮은 매도부터 같은 가격으로 체결
+        Assertions.assertEquals(101L, orderBook.getAuctionPrice());
+        Assertions.assertEquals(10L, orderBook.getAuctionVolume());
+        Assertions.assertEquals(3, fills.size());
+        Assertions.assertEquals(bid103.getOrderId(), fills.get(0).getBuyOrderId());
+        Assertions.assertEquals(ask100.getOrderId(), fills.get(0).getSellOrderId());
+        Assertions.assertEquals(4, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(bid102.getOrderId(), fills.get(2).getBuyOrderId());
+        Assertions.assertEquals(ask101.getOrderId(), fills.get(2).getSellOrderId());
+        for (Fill fill : fills) {
+            Assertions.assertEquals(101L, fill.getExecutionPrice());
+        }
+        Assertions.assertEquals(101L, orderBook.getBestBid().getPrice());
+        Assertions.assertEquals(102L, orderBook.getBestAsk().getPrice());
+        Assertions.assertFalse(orderBook.isAuction());
+    }
+
+    @Test
+    @DisplayName("단일가 매매 - 겹치는 호가가 없으면 체결 없이 접속 매매로 전환")
+    void uncross_NoCross() {
+//        Given
+        orderBook.setAuction(true);
+        orderBook.match(order(OrderType.SELL, 150000L, 10));
+        orderBook.match(order(OrderType.BUY, 140000L, 10));
+
+//        When
+        List<Fill> fills = orderBook.uncross(0L);
+
+//        Then: 이후 주문은 바로 매칭
+        Assertions.assertTrue(fills.isEmpty());
+        Assertions.assertEquals(2, orderBook.orderCount());
+        Assertions.assertEquals(1, orderBook.match(order(OrderType.BUY, 150000L, 5)).size());
+    }
+
+    @Test
+    @DisplayName("스탑 주문 - 발동 전에는 대기하다가 체결가가 발동 가격에 닿으면 지정가로 매칭")
+    void stop_TriggerOnTrade() {
+//        Given
+        orderBook.match(order(OrderType.SELL, 101L, 5));
+        BookOrder ask102 = order(OrderType.SELL, 102L, 5);
+        orderBook.match(ask102);
+        BookOrder buyStop = stop(OrderType.BUY, 102L, 101L, 5);
+        List<Fill> resting = orderBook.match(buyStop);
+
+//        When: 101 에 체결
+        Assertions.assertTrue(resting.isEmpty());
+        Assertions.assertEquals(1, orderBook.stopOrderCount());
+        Assertions.assertEquals(2, orderBook.orderCount());
+        List<Fill> fills = orderBook.match(order(OrderType.BUY, 101L, 5));
+
+//        Then: 스탑 주문이 발동되어 102 매도와 체결
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(buyStop.getOrderId(), fills.get(1).getBuyOrderId());
+        Assertions.assertEquals(ask102.getOrderId(), fills.get(1).getSellOrderId());
+        Assertions.assertEquals(102L, fills.get(1).getExecutionPrice());
+        Assertions.assertEquals(0, orderBook.stopOrderCount());
+        Assertions.assertEquals(102L, orderBook.getLastTradePrice());
+    }
+
+    @Test
+    @DisplayName("스탑 주문 - 지나친 발동 가격만 높은 순으로 발동, 발동된 주문의 체결로 연쇄 발동")
+    void stop_CascadeOnlyCrossed() {
+//        Given
+        orderBook.match(order(OrderType.BUY, 98L, 5));
+        orderBook.match(order(OrderType.BUY, 90L, 20));
+        BookOrder stop99 = stop(OrderType.SELL, 90L, 99L, 5);
+        BookOrder stop95 = stop(OrderType.SELL, 90L, 95L, 5);
+        BookOrder stop80 = stop(OrderType.SELL, 80L, 80L, 5);
+        orderBook.match(stop95);
+        orderBook.match(stop80);
+        orderBook.match(stop99);
+
+//        When: 98 에 체결 -> 99 스탑 발동 -> 90 체결 -> 95 스탑 발동
+        List<Fill> fills = orderBook.match(order(OrderType.SELL, 98L, 5));
+
+//        Then
+        Assertions.assertEquals(3, fills.size());
+        Assertions.assertEquals(stop99.getOrderId(), fills.get(1).getSellOrderId());
+        Assertions.assertEquals(90L, fills.get(1).getExecutionPrice());
+        Assertions.assertEquals(stop95.getOrderId(), fills.get(2).getSellOrderId());
+        Assertions.assertEquals(1, orderBook.stopOrderCount());
+        Assertions.assertTrue(orderBook.contains(stop80.getOrderId()));
+        Assertions.assertEquals(10, orderBook.getBestBid().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("스탑 주문 - 이미 발동 조건을 만족하면 바로 매칭, 대기 중인 스탑은 취소 가능")
+    void stop_ImmediateAndCancel() {
+//        Given: 100 에 체결된 상태
+        orderBook.match(order(OrderType.SELL, 100L, 10));
+        orderBook.match(order(OrderType.BUY, 100L, 5));
+        BookOrder waiting = stop(OrderType.BUY, 110L, 105L, 5);
+        orderBook.match(waiting);
+
+//        When
+        List<Fill> fills = orderBook.match(stop(OrderType.BUY, 100L, 99L, 5));
+        boolean cancelled = orderBook.cancel(waiting.getOrderId());
+
+//        Then
+        Assertions.assertEquals(1, fills.size());
+        Assertions.assertTrue(cancelled);
+        Assertions.assertFalse(orderBook.contains(waiting.getOrderId()));
+        Assertions.assertEquals(0, orderBook.stopOrderCount());
+    }
+
+    @Test
+    @DisplayName("종료 주문 - 전량 체결된 주문은 isClosed, 취소된 주문은 아님")
+    void isClosed_FilledOnly() {
+//        Given
+        BookOrder maker = order(OrderType.SELL, 150000L, 5);
+        BookOrder taker = order(OrderType.BUY, 150000L, 5);
+        BookOrder cancelled = order(OrderType.BUY, 140000L, 5);
+        orderBook.match(maker);
+        orderBook.match(taker);
+        orderBook.match(cancelled);
+
+//        When
+        orderBook.cancel(cancelled.getOrderId());
+
+//        Then
+        Assertions.assertTrue(orderBook.isClosed(maker.getOrderId()));
+        Assertions.assertTrue(orderBook.isClosed(taker.getOrderId()));
+        Assertions.assertFalse(orderBook.isClosed(cancelled.getOrderId()));
+    }
+
+    @Test
+    @DisplayName("종료 주문 ID - 용량을 넘으면 가장 오래된 ID 부터 잊음")
+    void closedOrderIds_EvictOldest() {
+//        Given
+        ClosedOrderIds closed = new ClosedOrderIds(2);
+
+//        When
+        closed.add(1L);
+        closed.add(2L);
+        closed.add(1L);
+        closed.add(3L);
+
+//        Then: 1 은 다시 기록되어 남고, 두 번째로 오래된 2 가 밀려남
+        Assertions.assertTrue(closed.contains(1L));
+        Assertions.assertFalse(closed.contains(2L));
+        Assertions.assertTrue(closed.contains(3L));
+        Assertions.assertEquals(2, closed.size());
+    }
+
+    @Test
+    @DisplayName("장 마감 - 당일 주문만 호가창과 스탑 대기열에서 제거")
+    void expireDayOrders_KeepGoodTillDate() {
+//        Given
+        BookOrder dayBid = order(OrderType.BUY, 100L, 5).dayOrder(true);
+        BookOrder gtdBid = order(OrderType.BUY, 100L, 5);
+        BookOrder dayStop = stop(OrderType.SELL, 90L, 95L, 5).dayOrder(true);
+        orderBook.match(dayBid);
+        orderBook.match(gtdBid);
+        orderBook.match(dayStop);
+
+//        When
+        int expired = orderBook.expireDayOrders();
+
+//        Then
+        Assertions.assertEquals(2, expired);
+        Assertions.assertFalse(orderBook.contains(dayBid.getOrderId()));
+        Assertions.assertFalse(orderBook.contains(dayStop.getOrderId()));
+        Assertions.assertTrue(orderBook.contains(gtdBid.getOrderId()));
+        Assertions.assertEquals(5, orderBook.getBestBid().getTotalCount());
+    }
+
+    private BookOrder order(OrderType orderType, long price, int count) {
+        return new BookOrder(nextOrderId++, 1L, orderType, price, nextOrderId, count);
+    }
+
+    private BookOrder stop(OrderType orderType, long price, long stopPrice, int count) {
+        return new BookOrder(nextOrderId++, 1L, orderType, price, stopPrice, nextOrderId, count);
+    }
+}
@@ -0,0 +1,158 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class OrderCommandRingBufferTest {
+
+    @Test
+    @DisplayName("링 버퍼 크기는 2의 거듭제곱만 허용")
+    void create_InvalidCapacity_ThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OrderCommandRingBuffer(1000));
+    }
+
+    @Test
+    @DisplayName("넣은 순서대로 꺼내고, 가득 차면 offer 실패")
+    void offerAndPoll_FifoAndFull() {
+//        Given
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(4);
+
+//        When
+        for (long i = 1; i <= 4; i++) {
+            Assertions.assertTrue(ringBuffer.offer(command(i)));
+        }
+
+//        Then
+        OrderCommand polled = new OrderCommand();
+        Assertions.assertFalse(ringBuffer.offer(command(5L)));
+        Assertions.assertEquals(4, ringBuffer.size());
+        Assertions.assertTrue(ringBuffer.poll(polled));
+        Assertions.assertEquals(1L, polled.getOrderId());
+        Assertions.assertTrue(ringBuffer.offer(command(5L)));
+        for (long i = 2; i <= 5; i++) {
+            Assertions.assertTrue(ringBuffer.poll(polled));
+            Assertions.assertEquals(i, polled.getOrderId());
+        }
+        Assertions.assertFalse(ringBuffer.poll(polled));
+        Assertions.assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("여러 생산자가 동시에 넣어도 명령이 유실되지 않음")
+    void offer_MultiProducer_NoLoss() throws InterruptedException {
+//        Given
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        Thread[] threads = new Thread[producers];
+
+//        When
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (long i = 1; i <= perProducer; i++) {
+                    while (!ringBuffer.offer(command(base + i))) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        Set<Long> received = new HashSet<>();
+        OrderCommand polled = new OrderCommand();
+        while (received.size() < producers * perProducer) {
+            if (ringBuffer.poll(polled)) {
+                received.add(polled.getOrderId());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+//        Then
+        Assertions.assertEquals(producers * perProducer, received.size());
+        Assertions.assertFalse(ringBuffer.poll(polled));
+    }
+
+    @Test
+    @DisplayName("묶음은 자리가 모자라면 하나도 넣지 않음")
+    void offerAll_NotEnoughSpace_NothingOffered() {
+//        Given
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(4);
+        ringBuffer.offer(command(1L));
+        ringBuffer.offer(command(2L));
+
+//        When
+        boolean offered = ringBuffer.offerAll(List.of(command(3L), command(4L), command(5L)));
+
+//        Then
+        Assertions.assertFalse(offered);
+        Assertions.assertEquals(2, ringBuffer.size());
+        Assertions.assertTrue(ringBuffer.offerAll(List.of(command(3L), command(4L))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ringBuffer.offerAll(List.of(command(1L), command(2L), command(3L), command(4L), command(5L))));
+    }
+
+    @Test
+    @DisplayName("다른 생산자와 경쟁해도 묶음 안의 명령은 연속으로 꺼내짐")
+    void offerAll_MultiProducer_Contiguous() throws InterruptedException {
+//        Given: 묶음 생산자는 8개씩 (orderId = 묶음 번호 * 100 + 순번), 단건 생산자는 음수 orderId
+        OrderCommandRingBuffer ringBuffer = new OrderCommandRingBuffer(64);
+        int batches = 2_000;
+        int batchSize = 8;
+        int singles = 10_000;
+        Thread batchProducer = new Thread(() -> {
+            for (long b = 1; b <= batches; b++) {
+                List<OrderCommand> batch = new ArrayList<>();
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(command(b * 100 + i));
+                }
+                while (!ringBuffer.offerAll(batch)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        Thread singleProducer = new Thread(() -> {
+            for (long i = 1; i <= singles; i++) {
+                while (!ringBuffer.offer(command(-i))) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+
+//        When
+        batchProducer.start();
+        singleProducer.start();
+        List<Long> received = new ArrayList<>();
+        OrderCommand polled = new OrderCommand();
+        while (received.size() < batches * batchSize + singles) {
+            if (ringBuffer.poll(polled)) {
+                received.add(polled.getOrderId());
+            }
+        }
+        batchProducer.join();
+        singleProducer.join();
+
+//        Then
+        for (int i = 0; i < received.size(); i++) {
+            long orderId = received.get(i);
+            if (orderId > 0 && orderId % 100 == 0) {
+                for (int j = 1; j < batchSize; j++) {
+                    Assertions.assertEquals(orderId + j, received.get(i + j).longValue());
+                }
+            }
+        }
+    }
+
+    private OrderCommand command(long orderId) {
+        return new OrderCommand(OrderCommandType.NEW, orderId, 1L, 1L, OrderType.BUY, 100000L, 1, 0L);
+    }
+}
@@ -0,0 +1,297 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+class OrderJournalTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("기록한 명령을 재기동 시 같은 순서로 재생")
+    void appendAndReplay() {
+//        Given
+        try (OrderJournal journal = new OrderJournal(0, config(1024 * 1024))) {
+            journal.open(0L, command -> { });
+            journal.append(command(OrderCommandType.NEW, 1L, OrderType.SELL, 10));
+            journal.append(command(OrderCommandType.REDUCE, 1L, OrderType.SELL, 3));
+            journal.append(command(OrderCommandType.CANCEL, 1L, OrderType.SELL, 7));
+        }
+
+//        When
+        List<OrderCommand> replayed = new ArrayList<>();
+        OrderJournal reopened = new OrderJournal(0, config(1024 * 1024));
+        long count = reopened.open(0L, command -> replayed.add(copy(command)));
+        reopened.close();
+
+//        Then
+        Assertions.assertEquals(3L, count);
+        Assertions.assertEquals(4L, reopened.nextSequence());
+        Assertions.assertEquals(OrderCommandType.NEW, replayed.get(0).getCommandType());
+        Assertions.assertEquals(10, replayed.get(0).getOrderRemainCount());
+        Assertions.assertEquals(OrderCommandType.REDUCE, replayed.get(1).getCommandType());
+        Assertions.assertEquals(OrderCommandType.CANCEL, replayed.get(2).getCommandType());
+        Assertions.assertEquals(100000L, replayed.get(2).getOrderPrice());
+    }
+
+    @Test
+    @DisplayName("세그먼트가 가득 차면 새 파일로 넘어가고 재생 시 이어서 읽음")
+    void rollSegments() throws IOException {
+//        Given: 세그먼트당 4건
+        int segmentSize = OrderJournal.RECORD_SIZE * 4;
+        try (OrderJournal journal = new OrderJournal(0, config(segmentSize))) {
+            journal.open(0L, command -> { });
+            for (long orderId = 1; orderId <= 10; orderId++) {
+                journal.append(command(OrderCommandType.NEW, orderId, OrderType.BUY, 1));
+            }
+        }
+
+//        When
+        List<Long> orderIds = new ArrayList<>();
+        try (OrderJournal reopened = new OrderJournal(0, config(segmentSize))) {
+            reopened.open(0L, command -> orderIds.add(command.getOrderId()));
+            reopened.append(command(OrderCommandType.NEW, 11L, OrderType.BUY, 1));
+        }
+
+//        Then
+        Assertions.assertEquals(3L, segmentCount());
+        Assertions.assertEquals(10, orderIds.size());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(i + 1L, orderIds.get(i).longValue());
+        }
+    }
+
+    @Test
+    @DisplayName("깨진 레코드부터는 재생하지 않고 그 자리부터 이어서 기록")
+    void tornRecord_StopReplay() throws IOException {
+//        Given: 3건 기록 후 두 번째 레코드 손상
+        try (OrderJournal journal = new OrderJournal(0, config(1024 * 1024))) {
+            journal.open(0L, command -> { });
+            for (long orderId = 1; orderId <= 3; orderId++) {
+                journal.append(command(OrderCommandType.NEW, orderId, OrderType.BUY, 1));
+            }
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), OrderJournal.RECORD_SIZE + 20);
+        }
+
+//        When
+        List<Long> orderIds = new ArrayList<>();
+        try (OrderJournal reopened = new OrderJournal(0, config(1024 * 1024))) {
+            reopened.open(0L, command -> orderIds.add(command.getOrderId()));
+            reopened.append(command(OrderCommandType.NEW, 4L, OrderType.BUY, 1));
+        }
+        List<Long> afterRewrite = new ArrayList<>();
+        try (OrderJournal reopened = new OrderJournal(0, config(1024 * 1024))) {
+            reopened.open(0L, command -> afterRewrite.add(command.getOrderId()));
+        }
+
+//        Then
+        Assertions.assertEquals(List.of(1L), orderIds);
+        Assertions.assertEquals(List.of(1L, 4L), afterRewrite);
+    }
+
+    @Test
+    @DisplayName("매칭 엔진 재기동 시 저널 재생으로 호가창 복구, 재생 중 체결은 같은 저널 위치로 다시 전달")
+    void engineRestart_RecoverBooks() throws InterruptedException {
+//        Given: 매도 10 등록, 4 체결 후 종료
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = engine(received);
+        engine.start();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 1L, 1L, 1L, OrderType.SELL, 100000L, 10, 1L));
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 2L, 2L, 1L, OrderType.BUY, 100000L, 4, 2L));
+        engine.stop();
+        Fill original = received.poll();
+
+//        When: 재기동 후 남은 6 을 매수
+        MatchingEngine restarted = engine(received);
+        restarted.start();
+        restarted.publish(new OrderCommand(OrderCommandType.NEW, 3L, 2L, 1L, OrderType.BUY, 100000L, 10, 3L));
+        restarted.stop();
+
+//        Then: 저장 여부를 모르는 4 체결을 같은 위치로 다시 전달한 뒤 새 체결 6
+        Assertions.assertEquals(2L, restarted.replayedCommands());
+        List<Fill> fills = new ArrayList<>(received);
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(original.getShardId(), fills.get(0).getShardId());
+        Assertions.assertEquals(original.getJournalSequence(), fills.get(0).getJournalSequence());
+        Assertions.assertEquals(original.getFillIndex(), fills.get(0).getFillIndex());
+        Assertions.assertEquals(4, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(6, fills.get(1).getExecutionCount());
+        Assertions.assertEquals(1L, fills.get(1).getSellOrderId());
+    }
+
+    @Test
+    @DisplayName("전달한 체결이 저장되기 전에는 스냅샷을 남기지 않음")
+    void snapshot_WaitForDurableFills() throws InterruptedException, IOException {
+//        Given: 체결 저장이 아직 따라오지 않은 리스너
+        AtomicBoolean durable = new AtomicBoolean(false);
+        MatchingEngine engine = new MatchingEngine(1, 16, WaitStrategy.BLOCKING, OrderStore.Type.HEAP, config(1024 * 1024),
+                new FillListener() {
+                    @Override
+                    public void onFills(List<Fill> fills) {
+                    }
+
+                    @Override
+                    public boolean isDurable(int shardId, long journalSequence) {
+                        return durable.get();
+                    }
+                });
+        engine.start();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 1L, 1L, 1L, OrderType.SELL, 100000L, 10, 1L));
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 2L, 2L, 1L, OrderType.BUY, 100000L, 4, 2L));
+
+//        When
+        engine.requestSnapshot();
+        Thread.sleep(200);
+        long beforeDurable = snapshotCount();
+        durable.set(true);
+        engine.stop();
+
+//        Then: 저장이 따라온 뒤에야 스냅샷 기록
+        Assertions.assertEquals(0L, beforeDurable);
+        Assertions.assertEquals(1L, snapshotCount());
+    }
+
+    @Test
+    @DisplayName("스냅샷 이후 재기동 시 스냅샷 + 남은 저널만 재생, 스냅샷 이전 세그먼트는 삭제")
+    void snapshot_TruncateAndRestore() throws InterruptedException, IOException {
+//        Given: 세그먼트당 4건, 매도 3건(같은 가격) 등록 후 첫 주문 일부 체결
+        int segmentSize = OrderJournal.RECORD_SIZE * 4;
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = engine(received, segmentSize);
+        engine.start();
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            engine.publish(new OrderCommand(OrderCommandType.NEW, orderId, 1L, 1L, OrderType.SELL, 100000L, 5, orderId));
+        }
+        for (long orderId = 4; orderId <= 9; orderId++) {
+            engine.publish(new OrderCommand(OrderCommandType.NEW, orderId, 2L, 1L, OrderType.BUY, 90000L, 1, orderId));
+            engine.publish(new OrderCommand(OrderCommandType.CANCEL, orderId, 2L, 1L, OrderType.BUY, 90000L, 1, orderId));
+        }
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 10L, 2L, 1L, OrderType.BUY, 100000L, 2, 10L));
+
+//        When: 스냅샷 후 1건 더 기록하고 재기동
+        engine.requestSnapshot();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 11L, 1L, 1L, OrderType.SELL, 100000L, 5, 11L));
+        engine.stop();
+        received.clear();
+
+        MatchingEngine restarted = engine(received, segmentSize);
+        restarted.start();
+        restarted.publish(new OrderCommand(OrderCommandType.NEW, 12L, 2L, 1L, OrderType.BUY, 100000L, 20, 12L));
+        restarted.stop();
+
+//        Then: 스냅샷 뒤 1건만 재생, 시간 우선순위(1 -> 2 -> 3 -> 11)와 남은 수량 유지
+        Assertions.assertEquals(1L, restarted.replayedCommands());
+        Assertions.assertTrue(journalSegmentCount() <= 2);
+        List<Fill> fills = new ArrayList<>(received);
+        Assertions.assertEquals(4, fills.size());
+        Assertions.assertEquals(1L, fills.get(0).getSellOrderId());
+        Assertions.assertEquals(3, fills.get(0).getExecutionCount());
+        Assertions.assertEquals(2L, fills.get(1).getSellOrderId());
+        Assertions.assertEquals(3L, fills.get(2).getSellOrderId());
+        Assertions.assertEquals(11L, fills.get(3).getSellOrderId());
+    }
+
+    @Test
+    @DisplayName("발동 전 스탑 주문은 스냅샷과 저널 재생으로 복구되어 재기동 후에도 발동")
+    void engineRestart_RecoverStopOrders() throws InterruptedException {
+//        Given: 매도 10 등록, 스냅샷 전/후에 매수 스탑 주문 하나씩
+        ConcurrentLinkedQueue<Fill> received = new ConcurrentLinkedQueue<>();
+        MatchingEngine engine = engine(received);
+        engine.start();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 1L, 1L, 1L, OrderType.SELL, 100000L, 10, 1L));
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 2L, 2L, 1L, OrderType.BUY, 100000L, 100000L, 3, 2L));
+        engine.requestSnapshot();
+        engine.publish(new OrderCommand(OrderCommandType.NEW, 3L, 2L, 1L, OrderType.BUY, 100000L, 100000L, 3, 3L));
+        engine.stop();
+
+//        When: 재기동 후 1 체결
+        MatchingEngine restarted = engine(received);
+        restarted.start();
+        restarted.publish(new OrderCommand(OrderCommandType.NEW, 4L, 2L, 1L, OrderType.BUY, 100000L, 1, 4L));
+        restarted.stop();
+
+//        Then: 스냅샷의 스탑(2) 과 저널의 스탑(3) 이 순서대로 발동
+        Assertions.assertEquals(1L, restarted.replayedCommands());
+        List<Fill> fills = new ArrayList<>(received);
+        Assertions.assertEquals(3, fills.size());
+        Assertions.assertEquals(4L, fills.get(0).getBuyOrderId());
+        Assertions.assertEquals(2L, fills.get(1).getBuyOrderId());
+        Assertions.assertEquals(3L, fills.get(2).getBuyOrderId());
+    }
+
+    private MatchingEngine engine(ConcurrentLinkedQueue<Fill> received) {
+        return engine(received, 1024 * 1024);
+    }
+
+    private MatchingEngine engine(ConcurrentLinkedQueue<Fill> received, int segmentSize) {
+        return new MatchingEngine(2, 16, WaitStrategy.BLOCKING, OrderStore.Type.HEAP, config(segmentSize),
+                fills -> fills.forEach(fill -> received.add(fill.copy())));
+    }
+
+    private long snapshotCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".snapshot")).count();
+        }
+    }
+
+    private long journalSegmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).count();
+        }
+    }
+
+    private JournalConfig config(int segmentSize) {
+        return new JournalConfig(directory, segmentSize, 2, 1000);
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private OrderCommand command(OrderCommandType commandType, long orderId, OrderType orderType, int count) {
+        return new OrderCommand(commandType, orderId, 1L, 1L, orderType, 100000L, count, orderId);
+    }
+
+    private OrderCommand copy(OrderCommand command) {
+        OrderCommand copy = new OrderCommand();
+        copy.copyFrom(command);
+        return copy;
+    }
+}
@@ -0,0 +1,59 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/* 호가창 저장 방식별 힙 사용량/GC 시간 비교
+ * 대기 주문 1M / 5M / 10M 건을 등록한 뒤 full GC 한 번의 소요 시간과 남은 힙 사용량을 출력합니다.
+ * 실행: ./gradlew test --tests '*OrderStoreBenchmarkTest' -Dbenchmark=true */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderStoreBenchmarkTest {
+    private static final int[] ORDER_COUNTS = {1_000_000, 5_000_000, 10_000_000};
+    private static final int PRICE_LEVELS = 1_000;
+
+    @Test
+    @DisplayName("HEAP / OFF_HEAP 저장소 - 대기 주문 수별 힙 사용량과 GC 시간")
+    void compareStorage() {
+        System.out.printf("%-9s %12s %14s %12s %14s%n", "storage", "orders", "heapUsed(MB)", "fullGc(ms)", "loadGc(ms)");
+        for (int orderCount : ORDER_COUNTS) {
+            for (OrderStore.Type type : OrderStore.Type.values()) {
+                run(type, orderCount);
+            }
+        }
+    }
+
+    private void run(OrderStore.Type type, int orderCount) {
+        System.gc();
+        long gcBefore = gcMillis();
+
+//        매수는 가격대 아래쪽, 매도는 위쪽에 쌓아 체결 없이 모두 대기
+        OrderBook orderBook = new OrderBook(1L, type.create());
+        for (int i = 0; i < orderCount; i++) {
+            boolean buy = (i & 1) == 0;
+            long level = i % PRICE_LEVELS;
+            long price = buy ? 100_000L - level : 100_001L + level;
+            orderBook.match(new BookOrder(i + 1L, 1L, buy ? OrderType.BUY : OrderType.SELL, price, i, 10));
+        }
+        long loadGc = gcMillis() - gcBefore;
+
+        long start = System.nanoTime();
+        System.gc();
+        long fullGc = (System.nanoTime() - start) / 1_000_000L;
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+
+        System.out.printf("%-9s %12d %14d %12d %14d%n", type, orderBook.orderCount(), heapUsed, fullGc, loadGc);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,103 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/* OrderStore 단위 테스트
+ * 힙/오프힙 저장소가 같은 슬롯 동작을 하는지 검증합니다. */
+class OrderStoreTest {
+
+    @Test
+    @DisplayName("슬롯에 기록한 주문 정보를 그대로 조회")
+    void allocate_ReadFields() {
+        for (OrderStore.Type type : OrderStore.Type.values()) {
+//            Given
+            OrderStore store = type.create();
+
+//            When
+            int slot = store.allocate(10L, 20L, true, 150000L, 123456789L, 7);
+            store.executedCount(slot, 3);
+            store.stopPrice(slot, 140000L);
+
+//            Then
+            Assertions.assertEquals(10L, store.orderId(slot));
+            Assertions.assertEquals(20L, store.userId(slot));
+            Assertions.assertTrue(store.isBuy(slot));
+            Assertions.assertEquals(150000L, store.price(slot));
+            Assertions.assertEquals(123456789L, store.timestamp(slot));
+            Assertions.assertEquals(7, store.remainCount(slot));
+            Assertions.assertEquals(3, store.executedCount(slot));
+            Assertions.assertEquals(140000L, store.stopPrice(slot));
+            Assertions.assertEquals(OrderStore.NONE, store.next(slot));
+            Assertions.assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("반환된 슬롯은 재사용되고 이전 주문 정보는 덮어씀")
+    void free_ReuseSlot() {
+        for (OrderStore.Type type : OrderStore.Type.values()) {
+//            Given
+            OrderStore store = type.create();
+            int first = store.allocate(1L, 1L, true, 100L, 1L, 5);
+            store.executedCount(first, 2);
+            store.allocate(2L, 1L, false, 100L, 2L, 5);
+
+//            When
+            store.free(first);
+            int reused = store.allocate(3L, 1L, false, 200L, 3L, 9);
+
+//            Then
+            Assertions.assertEquals(first, reused);
+            Assertions.assertEquals(3L, store.orderId(reused));
+            Assertions.assertFalse(store.isBuy(reused));
+            Assertions.assertEquals(0, store.executedCount(reused));
+            Assertions.assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("오프힙 저장소 - 청크 크기를 넘어도 슬롯 정보 유지")
+    void offHeap_GrowChunks() {
+//        Given
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        int count = 200_000;
+
+//        When
+        for (int i = 0; i < count; i++) {
+            store.allocate(i, i, i % 2 == 0, 100_000L + i, i, i % 100 + 1);
+        }
+
+//        Then
+        Assertions.assertEquals(count, store.size());
+        Assertions.assertEquals(150_000L, store.orderId(150_000));
+        Assertions.assertEquals(250_000L, store.price(150_000));
+        Assertions.assertEquals(100_001L, store.price(1));
+        Assertions.assertTrue(store.reservedBytes() >= (long) count * OffHeapOrderStore.SLOT_SIZE);
+    }
+
+    @Test
+    @DisplayName("오프힙 저장소를 쓰는 호가창도 가격/시간 우선순위 동일")
+    void offHeap_OrderBookMatch() {
+//        Given
+        OrderBook orderBook = new OrderBook(1L, new OffHeapOrderStore());
+        orderBook.match(new BookOrder(1L, 1L, OrderType.SELL, 151000L, 1L, 5));
+        orderBook.match(new BookOrder(2L, 1L, OrderType.SELL, 150000L, 2L, 5));
+        orderBook.match(new BookOrder(3L, 1L, OrderType.SELL, 150000L, 3L, 5));
+        orderBook.cancel(2L);
+
+//        When
+        List<Fill> fills = orderBook.match(new BookOrder(4L, 2L, OrderType.BUY, 151000L, 4L, 7));
+
+//        Then
+        Assertions.assertEquals(2, fills.size());
+        Assertions.assertEquals(3L, fills.get(0).getSellOrderId());
+        Assertions.assertEquals(1L, fills.get(1).getSellOrderId());
+        Assertions.assertEquals(3, orderBook.remainCount(1L));
+        Assertions.assertEquals(1, orderBook.orderCount());
+    }
+}
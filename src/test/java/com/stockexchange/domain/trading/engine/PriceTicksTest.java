@@ -0,0 +1,38 @@
+package com.stockexchange.domain.trading.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+class PriceTicksTest {
+
+    @Test
+    @DisplayName("가격 <-> 틱 변환")
+    void toTicks_RoundTrip() {
+        Assertions.assertEquals(150000L, PriceTicks.toTicks(new BigDecimal("1500.00")));
+        Assertions.assertEquals(150050L, PriceTicks.toTicks(new BigDecimal("1500.5")));
+        Assertions.assertEquals(7100000L, PriceTicks.toTicks(new BigDecimal("71000")));
+        Assertions.assertEquals(new BigDecimal("1500.50"), PriceTicks.toPrice(150050L));
+    }
+
+    @Test
+    @DisplayName("소수점 2자리를 넘는 가격은 예외")
+    void toTicks_TooManyDigits_ThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PriceTicks.toTicks(new BigDecimal("1500.001")));
+    }
+
+    @Test
+    @DisplayName("시각 <-> epoch 나노초 변환")
+    void epochNanos_RoundTrip() {
+        ZonedDateTime dateTime = ZonedDateTime.of(2025, 7, 1, 9, 0, 0, 123_456_789, ZoneId.of("Asia/Seoul"));
+
+        long nanos = EpochNanos.from(dateTime);
+
+        Assertions.assertEquals(dateTime.toInstant(), EpochNanos.toZonedDateTime(nanos).toInstant());
+        Assertions.assertTrue(EpochNanos.now() > nanos);
+    }
+}
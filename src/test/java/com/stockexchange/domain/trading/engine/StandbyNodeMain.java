@@ -0,0 +1,39 @@
+package com.stockexchange.domain.trading.engine;
+
+import com.stockexchange.domain.order.entity.OrderType;
+
+import java.nio.file.Path;
+
+/* 두 JVM 복제 테스트용 대기 노드 프로세스 (JournalReplicationTest 에서 실행)
+ * 인자 : 주 노드 포트, 저널 디렉토리
+ * 승격되면 "PROMOTED" 를 출력하고 매수 주문을 넣어, 복제받은 매도 주문과의 체결을 "FILL 매도주문ID 수량" 으로 출력한 뒤 종료합니다. */
+public class StandbyNodeMain {
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        JournalConfig journalConfig = new JournalConfig(Path.of(args[1]), 1024 * 1024, 1, 0);
+        Object done = new Object();
+
+        JournalReplicationClient[] client = new JournalReplicationClient[1];
+        MatchingEngine[] engine = new MatchingEngine[1];
+        client[0] = new JournalReplicationClient("127.0.0.1", port, 200, () -> {
+            System.out.println("PROMOTED");
+            engine[0].publish(new OrderCommand(OrderCommandType.NEW, 100L, 2L, 1L, OrderType.BUY, 100000L, 4, 0L));
+        });
+        engine[0] = new MatchingEngine(2, 1024, WaitStrategy.BLOCKING, OrderStore.Type.HEAP, journalConfig, client[0], fills -> {
+            fills.forEach(fill -> System.out.println("FILL " + fill.getSellOrderId() + " " + fill.getExecutionCount()));
+            synchronized (done) {
+                done.notifyAll();
+            }
+        });
+        engine[0].setStandby(true);
+        engine[0].start();
+        client[0].start(engine[0]);
+        System.out.println("STANDBY");
+
+        synchronized (done) {
+            done.wait(30_000);
+        }
+        engine[0].stop();
+    }
+}
@@ -0,0 +1,100 @@
+package com.stockexchange.domain.trading.expiry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("만료 시각(틱 단위 올림)이 되기 전에는 꺼내지 않음")
+    void advance_ExpireOnTick() {
+//        Given
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 4, 0L);
+        wheel.add("a", 2500L);
+        wheel.add("b", 1000L);
+        List<String> expired = new ArrayList<>();
+
+//        When & Then
+        wheel.advance(999L, expired::add);
+        Assertions.assertTrue(expired.isEmpty());
+        wheel.advance(1000L, expired::add);
+        Assertions.assertEquals(List.of("b"), expired);
+        wheel.advance(2999L, expired::add);
+        Assertions.assertEquals(1, expired.size());
+        wheel.advance(3000L, expired::add);
+        Assertions.assertEquals(List.of("b", "a"), expired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("이미 지난 만료 시각은 등록하지 않음")
+    void add_PastExpiry_False() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 4, 5000L);
+
+        Assertions.assertFalse(wheel.add("late", 4000L));
+        Assertions.assertTrue(wheel.add("next", 5001L));
+        Assertions.assertEquals(1, wheel.size());
+    }
+
+    @Test
+    @DisplayName("1 단계 범위를 넘는 항목은 상위 휠을 거쳐 정확한 틱에 만료")
+    void advance_Overflow() {
+//        Given: 1 단계 4 초, 2 단계 16 초, 3 단계 64 초
+        TimingWheel<String> wheel = new TimingWheel<>(1000L, 4, 0L);
+        wheel.add("x", 10_000L);
+        wheel.add("z", 17_001L);
+        wheel.add("y", 50_000L);
+        Map<String, Long> expiredAt = new HashMap<>();
+
+//        When: 0.5 초씩 진행
+        for (long now = 0; now <= 60_000L; now += 500L) {
+            long time = now;
+            wheel.advance(now, value -> expiredAt.put(value, time));
+        }
+
+//        Then
+        Assertions.assertEquals(10_000L, expiredAt.get("x").longValue());
+        Assertions.assertEquals(18_000L, expiredAt.get("z").longValue());
+        Assertions.assertEquals(50_000L, expiredAt.get("y").longValue());
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("임의 간격으로 진행해도 모든 항목이 만료 시각 이후 첫 진행에서 한 번씩 만료")
+    void advance_RandomMatchesExpected() {
+//        Given
+        Random random = new Random(42);
+        long start = 1_700_000_000_123L;
+        TimingWheel<Integer> wheel = new TimingWheel<>(1000L, 8, start);
+        long[] expireAt = new long[2000];
+        for (int i = 0; i < expireAt.length; i++) {
+            expireAt[i] = start + 1 + random.nextInt(3_000_000);
+            wheel.add(i, expireAt[i]);
+        }
+        Map<Integer, Long> expiredAt = new HashMap<>();
+
+//        When
+        long now = start;
+        while (now < start + 3_100_000L) {
+            now += 1 + random.nextInt(20_000);
+            long time = now;
+            wheel.advance(now, value -> Assertions.assertNull(expiredAt.put(value, time)));
+        }
+
+//        Then: 만료 시각보다 이르지 않고, 늦어도 다음 진행 시점 (한 번의 진행 간격 + 1 틱) 이내
+        Assertions.assertEquals(expireAt.length, expiredAt.size());
+        for (int i = 0; i < expireAt.length; i++) {
+            long at = expiredAt.get(i);
+            Assertions.assertTrue(at >= expireAt[i]);
+            Assertions.assertTrue(at < expireAt[i] + 20_000L + 1000L);
+        }
+        Assertions.assertEquals(0, wheel.size());
+    }
+}
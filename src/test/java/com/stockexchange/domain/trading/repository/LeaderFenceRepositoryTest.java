@@ -0,0 +1,60 @@
+package com.stockexchange.domain.trading.repository;
+
+import com.stockexchange.config.EmbeddedRedisConfig;
+import com.stockexchange.domain.trading.entity.LeaderFenceEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fence;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedRedisConfig.class)
+class LeaderFenceRepositoryTest {
+
+    private static final long FENCE_ID = 1L;
+
+    @Autowired
+    private LeaderFenceRepository leaderFenceRepository;
+
+    @BeforeEach
+    void setUp() {
+        leaderFenceRepository.saveAndFlush(new LeaderFenceEntity(FENCE_ID));
+    }
+
+    @Test
+    @DisplayName("같거나 더 큰 fencing token 은 기록")
+    void advance_SameOrNewerToken() {
+//        When
+        int first = leaderFenceRepository.advance(FENCE_ID, 5L);
+        int again = leaderFenceRepository.advance(FENCE_ID, 5L);
+
+//        Then
+        Assertions.assertEquals(1, first);
+        Assertions.assertEquals(1, again);
+        Assertions.assertEquals(5L, leaderFenceRepository.findById(FENCE_ID).orElseThrow().getFencingToken());
+    }
+
+    @Test
+    @DisplayName("새 리더가 더 큰 token 을 기록한 뒤 이전 리더의 token 은 거부")
+    void advance_StaleToken() {
+//        Given: 새 리더 token 8
+        leaderFenceRepository.advance(FENCE_ID, 8L);
+
+//        When: 이전 리더 token 7
+        int stale = leaderFenceRepository.advance(FENCE_ID, 7L);
+
+//        Then
+        Assertions.assertEquals(0, stale);
+        Assertions.assertEquals(8L, leaderFenceRepository.findById(FENCE_ID).orElseThrow().getFencingToken());
+    }
+}
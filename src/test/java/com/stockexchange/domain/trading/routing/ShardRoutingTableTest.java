@@ -0,0 +1,80 @@
+package com.stockexchange.domain.trading.routing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+class ShardRoutingTableTest {
+    private static final int PARTITIONS = 1024;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    @DisplayName("파티션이 노드마다 고르게 나뉘고, 모든 노드가 같은 결과를 계산")
+    void ownerOf_BalancedAndDeterministic() {
+//        Given
+        Set<String> nodes = Set.of("node-a", "node-b", "node-c", "node-d");
+        ShardRoutingTable tableA = table("node-a", nodes, Map.of());
+        ShardRoutingTable tableB = table("node-b", nodes, Map.of());
+
+//        When
+        Map<String, Integer> counts = new HashMap<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            Assertions.assertEquals(tableA.ownerOf(partition), tableB.ownerOf(partition));
+            counts.merge(tableA.ownerOf(partition), 1, Integer::sum);
+        }
+
+//        Then: 노드당 평균 256 에서 크게 벗어나지 않음
+        Assertions.assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            Assertions.assertTrue(count > 256 * 0.7 && count < 256 * 1.3, counts.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("노드가 추가되면 새 노드로 가는 파티션만 옮겨짐")
+    void addNode_OnlyMovesToNewNode() {
+//        Given
+        ShardRoutingTable before = table("node-a", Set.of("node-a", "node-b", "node-c"), Map.of());
+        ShardRoutingTable after = table("node-a", Set.of("node-a", "node-b", "node-c", "node-d"), Map.of());
+
+//        When
+        int moved = 0;
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            if (!before.ownerOf(partition).equals(after.ownerOf(partition))) {
+                Assertions.assertEquals("node-d", after.ownerOf(partition));
+                moved++;
+            }
+        }
+
+//        Then
+        Assertions.assertTrue(moved > 0 && moved < PARTITIONS / 2, String.valueOf(moved));
+    }
+
+    @Test
+    @DisplayName("옮긴 파티션은 지정 노드가 담당하고, 그 노드가 없으면 링으로 돌아감")
+    void ownerOf_Override() {
+//        Given
+        Set<String> nodes = Set.of("node-a", "node-b");
+        ShardRoutingTable base = table("node-a", nodes, Map.of());
+        int partition = base.partitionOf(1005L);
+        String other = base.ownerOf(partition).equals("node-a") ? "node-b" : "node-a";
+
+//        When
+        ShardRoutingTable moved = table("node-a", nodes, Map.of(partition, other));
+        ShardRoutingTable ownerGone = table("node-a", Set.of("node-a"), Map.of(partition, "node-b"));
+
+//        Then
+        Assertions.assertEquals(1005 % PARTITIONS, partition);
+        Assertions.assertEquals(other, moved.ownerOf(partition));
+        Assertions.assertEquals("node-a", ownerGone.ownerOf(partition));
+        Assertions.assertTrue(ownerGone.isLocal(partition));
+    }
+
+    private ShardRoutingTable table(String localNodeId, Set<String> nodes, Map<Integer, String> owners) {
+        return new ShardRoutingTable(1L, localNodeId, PARTITIONS, nodes, VIRTUAL_NODES, owners, Set.of());
+    }
+}
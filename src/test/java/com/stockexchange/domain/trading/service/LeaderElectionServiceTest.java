@@ -0,0 +1,139 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.EmbeddedRedisConfig;
+import com.stockexchange.config.MatchingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringJUnitConfig(EmbeddedRedisConfig.class)
+@TestPropertySource(properties = "spring.redis.port=6371")
+class LeaderElectionServiceTest {
+    private static final long LEASE_MILLIS = 400;
+    private static final long RENEW_MILLIS = 100;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("한 노드만 리더가 되고, 다른 노드는 리더 ID 만 확인")
+    void tick_OnlyOneLeader() {
+//        Given
+        LeaderElectionService nodeA = election("node-a");
+        LeaderElectionService nodeB = election("node-b");
+
+//        When
+        nodeA.tick();
+        nodeB.tick();
+        nodeA.tick();
+
+//        Then
+        Assertions.assertTrue(nodeA.isLeader());
+        Assertions.assertFalse(nodeB.isLeader());
+        Assertions.assertEquals("node-a", nodeB.leaderNodeId());
+        Assertions.assertTrue(nodeA.holds(nodeA.fencingToken()));
+        Assertions.assertEquals(0L, nodeB.fencingToken());
+    }
+
+    @Test
+    @DisplayName("리더가 임대를 갱신하지 못하면 다른 노드가 더 큰 fencing token 으로 리더가 됨")
+    void tick_FailoverAfterLeaseExpires() throws InterruptedException {
+//        Given: node-a 가 리더가 된 뒤 멈춤 (GC/네트워크 단절)
+        LeaderElectionService nodeA = election("node-a");
+        LeaderElectionService nodeB = election("node-b");
+        nodeA.tick();
+        long oldToken = nodeA.fencingToken();
+
+//        When
+        Thread.sleep(LEASE_MILLIS + 100);
+        nodeB.tick();
+
+//        Then: 이전 리더는 로컬 임대 만료로 이미 리더가 아니고, 늦은 작업은 fencing token 으로 막힘
+        Assertions.assertTrue(nodeB.isLeader());
+        Assertions.assertTrue(nodeB.fencingToken() > oldToken);
+        Assertions.assertFalse(nodeA.isLeader());
+        Assertions.assertFalse(nodeA.holds(oldToken));
+
+//        이전 리더가 깨어나도 갱신에 실패하고 리더 해제 이벤트 발행
+        nodeA.tick();
+        Assertions.assertFalse(nodeA.isLeader());
+        Assertions.assertEquals("node-b", nodeA.leaderNodeId());
+        LeadershipChangedEvent last = (LeadershipChangedEvent) events.get(events.size() - 1);
+        Assertions.assertFalse(last.isLeader());
+        Assertions.assertEquals(oldToken, last.getFencingToken());
+    }
+
+    @Test
+    @DisplayName("리더가 계속 갱신하면 임대 시간이 지나도 리더 유지")
+    void tick_RenewKeepsLeadership() throws InterruptedException {
+//        Given
+        LeaderElectionService nodeA = election("node-a");
+        LeaderElectionService nodeB = election("node-b");
+        nodeA.tick();
+        long token = nodeA.fencingToken();
+
+//        When
+        for (int i = 0; i < 8; i++) {
+            Thread.sleep(RENEW_MILLIS);
+            nodeA.tick();
+            nodeB.tick();
+        }
+
+//        Then
+        Assertions.assertTrue(nodeA.isLeader());
+        Assertions.assertEquals(token, nodeA.fencingToken());
+        Assertions.assertFalse(nodeB.isLeader());
+    }
+
+    @Test
+    @DisplayName("종료 시 임대를 반납하면 다른 노드가 바로 리더가 됨")
+    void release_HandsOverImmediately() {
+//        Given
+        LeaderElectionService nodeA = election("node-a");
+        LeaderElectionService nodeB = election("node-b");
+        nodeA.tick();
+
+//        When
+        nodeA.release();
+        nodeB.tick();
+
+//        Then
+        Assertions.assertFalse(nodeA.isLeader());
+        Assertions.assertTrue(nodeB.isLeader());
+    }
+
+    private LeaderElectionService election(String nodeId) {
+        MatchingProperties.Leader leader = new MatchingProperties.Leader();
+        leader.setEnabled(true);
+        leader.setLeaseMillis(LEASE_MILLIS);
+        leader.setRenewMillis(RENEW_MILLIS);
+        return new LeaderElectionService(nodeId, leader, redisTemplate, events::add);
+    }
+}
@@ -0,0 +1,203 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.domain.Order;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.engine.OrderCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderExpiryServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderMatchingService orderMatchingService = mock(OrderMatchingService.class);
+    private final LeaderElectionService leaderElection = mock(LeaderElectionService.class);
+    private final LeaderFenceService leaderFence = mock(LeaderFenceService.class);
+    private final TradingSessionProperties tradingSession = mock(TradingSessionProperties.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<OrderCommand> published = Collections.synchronizedList(new ArrayList<>());
+    private OrderExpiryService orderExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        when(orderMatchingService.isActive()).thenReturn(true);
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(leaderElection.fencingToken()).thenReturn(7L);
+        when(tradingSession.lastCloseAt(any())).thenReturn(ZonedDateTime.now(TradingSessionProperties.ZONE).minusHours(1));
+        doAnswer(invocation -> published.add(invocation.getArgument(0))).when(eventPublisher).publishEvent(any(Object.class));
+        orderExpiryService = new OrderExpiryService(orderRepository, orderMatchingService, leaderElection, leaderFence,
+                tradingSession, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("만료 시각이 된 주문은 한 번의 UPDATE 로 만료하고 주문마다 CANCEL 을 한 번씩만 발행")
+    void expireDue_OneCancelPerExpiredOrder() {
+//        Given: 바로 만료되는 주문 2건
+        orderExpiryService.schedule(Order.from(order(1L, TimeInForce.DAY, null)));
+        orderExpiryService.schedule(Order.from(order(2L, TimeInForce.DAY, null)));
+        when(orderRepository.expireOrders(anyCollection(), any())).thenReturn(1);
+
+//        When: 두 번 확인
+        orderExpiryService.expireDue();
+        orderExpiryService.expireDue();
+
+//        Then: UPDATE 조건(PENDING)이 1건만 만료해도 엔진 취소는 주문마다 한 번 (엔진이 이미 없는 주문은 무시)
+        verify(orderRepository, times(1)).expireOrders(anyCollection(), any());
+        verify(orderRepository).expireOrders(eq(List.of(1L, 2L)), any());
+        verify(leaderFence, times(1)).check(7L);
+        Assertions.assertEquals(List.of(1L, 2L), publishedOrderIds());
+        published.forEach(command -> Assertions.assertEquals(OrderCommandType.CANCEL, command.getCommandType()));
+    }
+
+    @Test
+    @DisplayName("기동 시 마감 처리를 놓친 DAY 주문은 바로 만료하고 GTD 주문은 만료 시각이 되어서야 만료")
+    void loadExpiringOrders_MissedDayNow_GtdOnTime() throws InterruptedException {
+//        Given: 지난 장 마감 전에 접수된 DAY 주문, 1.5초 뒤 만료되는 GTD 주문
+        ZonedDateTime gtdExpireAt = ZonedDateTime.now(TradingSessionProperties.ZONE).plusNanos(TimeUnit.MILLISECONDS.toNanos(1_500));
+        List<OrderEntity> expiring = List.of(order(1L, TimeInForce.DAY, null), order(2L, TimeInForce.GTD, gtdExpireAt));
+        when(orderRepository.findExpiringOrders(any())).thenReturn(expiring);
+
+//        When
+        orderExpiryService.loadExpiringOrders();
+        orderExpiryService.expireDue();
+
+//        Then: DAY 주문만 바로 만료
+        Assertions.assertEquals(List.of(1L), publishedOrderIds());
+
+//        When: GTD 만료 시각까지 1초마다 확인
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publishedOrderIds().size() < 2) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "대기 시간 초과");
+            Thread.sleep(50);
+            ZonedDateTime checkedAt = ZonedDateTime.now(TradingSessionProperties.ZONE);
+            orderExpiryService.expireDue();
+//            Then: 만료 시각 전에는 꺼내지 않음
+            if (checkedAt.isBefore(gtdExpireAt)) {
+                Assertions.assertEquals(List.of(1L), publishedOrderIds());
+            }
+        }
+
+//        Then
+        Assertions.assertEquals(List.of(1L, 2L), publishedOrderIds());
+        verify(orderRepository).expireOrders(eq(List.of(1L)), any());
+        verify(orderRepository).expireOrders(eq(List.of(2L)), any());
+    }
+
+    @Test
+    @DisplayName("리더가 아니면 만료하지 않고, fencing 확인에서 거부되면 만료 UPDATE 와 CANCEL 발행도 없음")
+    void expireDue_LeaderOnly() {
+//        Given
+        orderExpiryService.schedule(Order.from(order(1L, TimeInForce.DAY, null)));
+        when(leaderElection.isLeader()).thenReturn(false);
+
+//        When: 리더가 아님
+        orderExpiryService.expireDue();
+
+//        Then
+        verify(orderRepository, never()).expireOrders(anyCollection(), any());
+        Assertions.assertTrue(published.isEmpty());
+
+//        When: 리더지만 더 최근 리더가 있음
+        when(leaderElection.isLeader()).thenReturn(true);
+        doThrow(new IllegalStateException("리더가 바뀜")).when(leaderFence).check(7L);
+
+//        Then
+        Assertions.assertThrows(IllegalStateException.class, () -> orderExpiryService.expireDue());
+        verify(orderRepository, never()).expireOrders(anyCollection(), any());
+        Assertions.assertTrue(published.isEmpty());
+    }
+
+    @Test
+    @DisplayName("다른 노드에서 접수된 GTD 주문도 리더가 읽어 휠에 등록하고, 같은 주문은 한 번만 등록")
+    void expireDue_LoadsGtdOrdersAcceptedElsewhere() throws InterruptedException {
+//        Given: 리더가 된 뒤 다른 노드에서 곧 만료되는 GTD 주문이 접수됨 (늦춘 읽기 위치 때문에 매번 다시 읽힘)
+        when(orderRepository.findExpiringOrders(any())).thenReturn(List.of());
+        orderExpiryService.onLeadershipChanged(new LeadershipChangedEvent(true, 7L));
+        ZonedDateTime expireAt = ZonedDateTime.now(TradingSessionProperties.ZONE).plusNanos(TimeUnit.MILLISECONDS.toNanos(500));
+        List<OrderEntity> accepted = List.of(order(3L, TimeInForce.GTD, expireAt));
+        when(orderRepository.findGtdOrdersCreatedSince(any(), anyLong(), any(Pageable.class))).thenReturn(accepted);
+
+//        When
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (published.isEmpty()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "대기 시간 초과");
+            orderExpiryService.expireDue();
+            Thread.sleep(50);
+        }
+        when(orderRepository.findGtdOrdersCreatedSince(any(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+        orderExpiryService.expireDue();
+
+//        Then
+        Assertions.assertEquals(List.of(3L), publishedOrderIds());
+        verify(orderRepository, times(1)).expireOrders(eq(List.of(3L)), any());
+    }
+
+    @Test
+    @DisplayName("리더 자격을 잃으면 휠을 비워 더는 만료하지 않음")
+    void onLeadershipChanged_Lost_ClearsWheel() {
+//        Given
+        orderExpiryService.schedule(Order.from(order(1L, TimeInForce.DAY, null)));
+
+//        When
+        orderExpiryService.onLeadershipChanged(new LeadershipChangedEvent(false, 0L));
+        orderExpiryService.expireDue();
+
+//        Then
+        verify(orderRepository, never()).expireOrders(anyCollection(), any());
+        Assertions.assertTrue(published.isEmpty());
+    }
+
+    private List<Long> publishedOrderIds() {
+        synchronized (published) {
+            return published.stream().map(OrderCommand::getOrderId).sorted().toList();
+        }
+    }
+
+    private OrderEntity order(long orderId, TimeInForce timeInForce, ZonedDateTime expireAt) {
+        StockEntity stock = mock(StockEntity.class);
+        when(stock.getStockId()).thenReturn(1L);
+        return OrderEntity.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .stock(stock)
+                .orderType(OrderType.BUY)
+                .orderStatus(OrderStatus.PENDING)
+                .timeInForce(timeInForce)
+                .expireAt(expireAt)
+                .orderPrice(BigDecimal.valueOf(10_000))
+                .orderCount(10)
+                .orderRemainCount(10)
+                .createdAt(ZonedDateTime.now(TradingSessionProperties.ZONE).minusDays(1))
+                .updatedAt(ZonedDateTime.now(TradingSessionProperties.ZONE))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import com.stockexchange.domain.trading.session.MarketPhase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/* 전체 대사 한 번에 걸리는 시간 - 종목 수(5 / 50 / 500)별로 순차(parallelism 1)와 코어 수만큼 동시 처리 비교
+ * 전체 PENDING 주문 수는 같고 종목 수만 다릅니다. DB 조회 한 번에 DB_ROUND_TRIP_MICROS 만큼 걸린다고 가정하며,
+ * 매칭 엔진으로의 전달은 제외합니다 (링 버퍼 발행 비용은 엔진 벤치마크에서 측정).
+ * 종목 수가 코어 수보다 많으면 대사 시간이 주문 수가 아니라 (조회 수 / 코어 수)에 비례해야 합니다.
+ * 실행: ./gradlew test --tests '*SchedularServiceBenchmarkTest' -Dbenchmark=true */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SchedularServiceBenchmarkTest {
+    private static final int TOTAL_ORDERS = 50_000;
+    private static final int CHUNK_SIZE = 500;
+    private static final long DB_ROUND_TRIP_MICROS = 2_000;
+    private static final int PASSES = 3;
+
+    @Test
+    @DisplayName("종목 수별 대사 시간 - 순차 / 동시")
+    void compareFanOut() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-8s %12s %14s %12s%n", "symbols", "parallelism", "orders", "pass(ms)");
+        for (int symbols : new int[]{5, 50, 500}) {
+            OrderRepository orderRepository = repository(symbols);
+            for (int parallelism : new int[]{1, cores}) {
+                SchedularService service = service(orderRepository, parallelism);
+                service.processOrderMatching(); // 예열 (첫 대사는 전체 대사)
+
+                long best = Long.MAX_VALUE;
+                for (int pass = 0; pass < PASSES; pass++) {
+                    service.resetWatermark(); // 매번 전체 대사
+                    long start = System.nanoTime();
+                    service.processOrderMatching();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                service.stop();
+                System.out.printf("%-8d %12d %14d %12.1f%n", symbols, parallelism, TOTAL_ORDERS, best / 1e6);
+            }
+        }
+    }
+
+    private SchedularService service(OrderRepository orderRepository, int parallelism) {
+        MatchingProperties matchingProperties = new MatchingProperties();
+        matchingProperties.getReconciliation().setFixedRate(60_000); // 연속 호출이 밀린 실행으로 건너뛰어지지 않도록
+        matchingProperties.getReconciliation().setChunkSize(CHUNK_SIZE);
+        matchingProperties.getReconciliation().setParallelism(parallelism);
+
+        OrderMatchingService orderMatchingService = mock(OrderMatchingService.class, withSettings().stubOnly());
+        when(orderMatchingService.isActive()).thenReturn(true);
+        ShardRoutingService shardRoutingService = mock(ShardRoutingService.class, withSettings().stubOnly());
+        when(shardRoutingService.isLocal(anyLong())).thenReturn(true);
+        when(shardRoutingService.submitIfLocal(any(OrderCommand.class))).thenReturn(true);
+        LeaderElectionService leaderElection = mock(LeaderElectionService.class, withSettings().stubOnly());
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(leaderElection.holds(anyLong())).thenReturn(true);
+        TradingSessionProperties tradingSession = mock(TradingSessionProperties.class, withSettings().stubOnly());
+        when(tradingSession.currentPhase()).thenReturn(MarketPhase.CONTINUOUS);
+
+        return new SchedularService(orderRepository, orderMatchingService, shardRoutingService, leaderElection,
+                tradingSession, matchingProperties, mock(PlatformTransactionManager.class, withSettings().stubOnly()),
+                new SimpleMeterRegistry());
+    }
+
+    //    종목마다 같은 수의 PENDING 주문, 조회할 때마다 DB 왕복 시간만큼 대기
+    private OrderRepository repository(int symbols) {
+        Map<Long, List<OrderEntity>> ordersByStock = new HashMap<>();
+        long orderId = 0;
+        for (long stockId = 1; stockId <= symbols; stockId++) {
+            StockEntity stock = mock(StockEntity.class, withSettings().stubOnly());
+            when(stock.getStockId()).thenReturn(stockId);
+            List<OrderEntity> orders = new ArrayList<>();
+            for (int i = 0; i < TOTAL_ORDERS / symbols; i++) {
+                orders.add(OrderEntity.builder()
+                        .orderId(++orderId)
+                        .userId(1L)
+                        .stock(stock)
+                        .orderType(i % 2 == 0 ? OrderType.BUY : OrderType.SELL)
+                        .orderStatus(OrderStatus.PENDING)
+                        .timeInForce(TimeInForce.DAY)
+                        .orderPrice(BigDecimal.valueOf(10_000 + i % 100))
+                        .orderCount(10)
+                        .orderRemainCount(10)
+                        .updatedAt(ZonedDateTime.now())
+                        .build());
+            }
+            ordersByStock.put(stockId, orders);
+        }
+
+        OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+        when(orderRepository.findPendingStockIds()).thenAnswer(invocation -> {
+            roundTrip();
+            return LongStream.rangeClosed(1, symbols).boxed().toList();
+        });
+        when(orderRepository.findPendingOrdersByStock(anyLong(), any(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            roundTrip();
+            List<OrderEntity> orders = ordersByStock.get(invocation.<Long>getArgument(0));
+            long afterOrderId = invocation.getArgument(2);
+            Pageable page = invocation.getArgument(3);
+//            종목 안의 주문 ID 는 연속이므로 마지막으로 읽은 주문 다음 위치를 바로 계산
+            int from = afterOrderId == 0 ? 0 : (int) Math.min(afterOrderId - orders.get(0).getOrderId() + 1, orders.size());
+            return orders.subList(from, Math.min(from + page.getPageSize(), orders.size()));
+        });
+        return orderRepository;
+    }
+
+    private static void roundTrip() {
+        LockSupport.parkNanos(DB_ROUND_TRIP_MICROS * 1_000);
+    }
+}
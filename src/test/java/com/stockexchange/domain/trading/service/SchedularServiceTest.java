@@ -0,0 +1,234 @@
+package com.stockexchange.domain.trading.service;
+
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.config.TradingSessionProperties;
+import com.stockexchange.domain.order.entity.OrderEntity;
+import com.stockexchange.domain.order.entity.OrderStatus;
+import com.stockexchange.domain.order.entity.OrderType;
+import com.stockexchange.domain.order.entity.TimeInForce;
+import com.stockexchange.domain.order.repository.OrderRepository;
+import com.stockexchange.domain.stock.entity.StockEntity;
+import com.stockexchange.domain.trading.engine.OrderCommand;
+import com.stockexchange.domain.trading.routing.ShardRoutingService;
+import com.stockexchange.domain.trading.session.MarketPhase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedularServiceTest {
+    private static final ZonedDateTime CREATED_AT = ZonedDateTime.now();
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderMatchingService orderMatchingService = mock(OrderMatchingService.class);
+    private final ShardRoutingService shardRoutingService = mock(ShardRoutingService.class);
+    private final LeaderElectionService leaderElection = mock(LeaderElectionService.class);
+    private final TradingSessionProperties tradingSession = mock(TradingSessionProperties.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MatchingProperties matchingProperties = new MatchingProperties();
+    private final List<OrderCommand> submitted = Collections.synchronizedList(new ArrayList<>());
+    private SchedularService schedularService;
+
+    @BeforeEach
+    void setUp() {
+        matchingProperties.getReconciliation().setFixedRate(60_000);
+        matchingProperties.getReconciliation().setChunkSize(2);
+        matchingProperties.getReconciliation().setParallelism(2);
+        when(orderMatchingService.isActive()).thenReturn(true);
+        when(leaderElection.isLeader()).thenReturn(true);
+        when(leaderElection.fencingToken()).thenReturn(7L);
+        when(leaderElection.holds(7L)).thenReturn(true);
+        when(tradingSession.currentPhase()).thenReturn(MarketPhase.CONTINUOUS);
+        when(shardRoutingService.isLocal(anyLong())).thenReturn(true);
+        when(shardRoutingService.submitIfLocal(any(OrderCommand.class))).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(0));
+            return true;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (schedularService != null) {
+            schedularService.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("한 종목 대사가 실패하면 failed 로 세고 다른 종목은 계속, 다음 실행도 전체 대사")
+    void processOrderMatching_FailingStock_OthersContinue() {
+//        Given: 종목 1, 3 은 1건씩, 종목 2 는 조회 오류
+        List<OrderEntity> firstStock = List.of(order(11L, 1L));
+        List<OrderEntity> thirdStock = List.of(order(31L, 3L));
+        when(orderRepository.findPendingStockIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(orderRepository.findPendingOrdersByStock(eq(1L), any(), anyLong(), any(Pageable.class))).thenReturn(firstStock);
+        when(orderRepository.findPendingOrdersByStock(eq(2L), any(), anyLong(), any(Pageable.class))).thenThrow(new IllegalStateException("DB 오류"));
+        when(orderRepository.findPendingOrdersByStock(eq(3L), any(), anyLong(), any(Pageable.class))).thenReturn(thirdStock);
+        schedularService = service();
+
+//        When
+        schedularService.processOrderMatching();
+        schedularService.processOrderMatching();
+
+//        Then
+        Assertions.assertEquals(2.0, meterRegistry.counter("matching.reconciliation.failed").count());
+        Assertions.assertEquals(List.of(11L, 11L, 31L, 31L), submittedOrderIds());
+        verify(orderRepository, times(2)).findPendingStockIds();
+    }
+
+    @Test
+    @DisplayName("이전 대사가 실행 중이면 겹쳐 실행하지 않고 skipped 로 셈")
+    void processOrderMatching_Overlapping_Skipped() throws InterruptedException {
+//        Given: 첫 대사가 종목 조회에서 멈춰 있음
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.findPendingStockIds()).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        schedularService = service();
+        Thread first = new Thread(schedularService::processOrderMatching);
+        first.start();
+        Assertions.assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+//        When
+        schedularService.processOrderMatching();
+        release.countDown();
+        first.join(TimeUnit.SECONDS.toMillis(5));
+
+//        Then
+        Assertions.assertEquals(1.0, meterRegistry.counter("matching.reconciliation.skipped").count());
+        verify(orderRepository, times(1)).findPendingStockIds();
+    }
+
+    @Test
+    @DisplayName("주기를 넘긴 대사 직후 밀려서 몰아 호출된 실행은 건너뛰고, 반 주기가 지나면 다시 실행")
+    void processOrderMatching_Backlogged_Skipped() throws InterruptedException {
+//        Given: 주기 100ms, 첫 대사는 150ms
+        matchingProperties.getReconciliation().setFixedRate(100);
+        when(orderRepository.findPendingStockIds()).thenAnswer(invocation -> {
+            Thread.sleep(150);
+            return List.of();
+        }).thenReturn(List.of());
+        schedularService = service();
+        schedularService.processOrderMatching();
+
+//        When
+        schedularService.processOrderMatching();
+        Thread.sleep(60);
+        schedularService.resetWatermark();
+        schedularService.processOrderMatching();
+
+//        Then
+        Assertions.assertEquals(1.0, meterRegistry.counter("matching.reconciliation.skipped").count());
+        verify(orderRepository, times(2)).findPendingStockIds();
+    }
+
+    @Test
+    @DisplayName("종목의 PENDING 주문을 chunkSize 건씩 나눠 읽고, 덜 찬 묶음에서 종료")
+    void processOrderMatching_ReadsInChunks() {
+//        Given: chunkSize 2, 5건
+        List<OrderEntity> orders = new ArrayList<>();
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            orders.add(order(orderId, 1L));
+        }
+        when(orderRepository.findPendingStockIds()).thenReturn(List.of(1L));
+        List<Long> cursors = Collections.synchronizedList(new ArrayList<>());
+        when(orderRepository.findPendingOrdersByStock(eq(1L), any(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            cursors.add(invocation.getArgument(2));
+            return after(orders, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+        });
+        schedularService = service();
+
+//        When
+        schedularService.processOrderMatching();
+
+//        Then: 마지막으로 읽은 주문 다음부터 읽음
+        Assertions.assertEquals(List.of(0L, 2L, 4L), cursors);
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), submittedOrderIds());
+        Assertions.assertEquals(5.0, meterRegistry.get("matching.reconciliation.backlog").gauge().value());
+    }
+
+    @Test
+    @DisplayName("묶음 사이에 앞쪽 주문이 체결되어 PENDING 에서 빠져도 뒤쪽 주문을 건너뛰지 않음")
+    void processOrderMatching_ShrinkingPending_NoSkip() {
+//        Given: chunkSize 2, 5건 - 첫 묶음을 읽은 뒤 주문 1, 2 가 체결 완료
+        List<OrderEntity> orders = Collections.synchronizedList(new ArrayList<>());
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            orders.add(order(orderId, 1L));
+        }
+        when(orderRepository.findPendingStockIds()).thenReturn(List.of(1L));
+        when(orderRepository.findPendingOrdersByStock(eq(1L), any(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            List<OrderEntity> chunk = after(orders, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+            orders.removeIf(order -> order.getOrderId() <= 2L);
+            return chunk;
+        });
+        schedularService = service();
+
+//        When
+        schedularService.processOrderMatching();
+
+//        Then
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), submittedOrderIds());
+    }
+
+    private SchedularService service() {
+        return new SchedularService(orderRepository, orderMatchingService, shardRoutingService, leaderElection,
+                tradingSession, matchingProperties, mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    //    (createdAt, orderId) 이후 한 묶음 - 저장소의 keyset 조회 흉내
+    private List<OrderEntity> after(List<OrderEntity> orders, ZonedDateTime createdAt, long orderId, Pageable chunk) {
+        synchronized (orders) {
+            return orders.stream()
+                    .filter(order -> order.getCreatedAt().isAfter(createdAt)
+                            || (order.getCreatedAt().isEqual(createdAt) && order.getOrderId() > orderId))
+                    .limit(chunk.getPageSize())
+                    .toList();
+        }
+    }
+
+    private List<Long> submittedOrderIds() {
+        synchronized (submitted) {
+            return submitted.stream().map(OrderCommand::getOrderId).sorted().toList();
+        }
+    }
+
+    private OrderEntity order(long orderId, long stockId) {
+        StockEntity stock = mock(StockEntity.class);
+        when(stock.getStockId()).thenReturn(stockId);
+        return OrderEntity.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .stock(stock)
+                .orderType(OrderType.BUY)
+                .orderStatus(OrderStatus.PENDING)
+                .timeInForce(TimeInForce.DAY)
+                .orderPrice(BigDecimal.valueOf(10_000))
+                .orderCount(10)
+                .orderRemainCount(10)
+                .createdAt(CREATED_AT)
+                .updatedAt(ZonedDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.stockexchange.domain.trading.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockexchange.config.MatchingProperties;
+import com.stockexchange.config.WarmupProperties;
+import com.stockexchange.domain.trading.engine.OrderStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class WarmupRunnerTest {
+
+    @Test
+    @DisplayName("예열이 끝날 때까지 readiness 는 REFUSING_TRAFFIC 이고, 예열이 직접 ACCEPTING_TRAFFIC 으로 바꾸지 않음")
+    void run_RefusesTrafficUntilFinished() throws Exception {
+//        Given: 컴파일 안정 조건을 채울 수 없게 해서 최대 시간까지 돌도록, 설정한 OFF_HEAP 호가창으로 예열
+        WarmupProperties warmup = new WarmupProperties();
+        warmup.setEnabled(true);
+        warmup.setRoundSize(1_000);
+        warmup.setStableRounds(Integer.MAX_VALUE);
+        warmup.setMaxDuration(Duration.ofMillis(500));
+        MatchingProperties matchingProperties = new MatchingProperties();
+        matchingProperties.setBookStorage(OrderStore.Type.OFF_HEAP);
+
+        ApplicationAvailabilityBean availability = new ApplicationAvailabilityBean();
+        WarmupRunner warmupRunner = new WarmupRunner(warmup, matchingProperties, new ObjectMapper().findAndRegisterModules(),
+                event -> availability.onApplicationEvent((AvailabilityChangeEvent<?>) event));
+
+//        When
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                warmupRunner.run(new DefaultApplicationArguments());
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        runner.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (availability.getState(ReadinessState.class) == null) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "대기 시간 초과");
+            Thread.sleep(5);
+        }
+
+//        Then: 예열 중
+        Assertions.assertTrue(runner.isAlive());
+        Assertions.assertEquals(ReadinessState.REFUSING_TRAFFIC, availability.getState(ReadinessState.class));
+
+//        Then: 예열 후에도 바꾸지 않음 (ACCEPTING_TRAFFIC 은 모든 ApplicationRunner 가 끝난 뒤 Spring 이 발행)
+        runner.join(TimeUnit.SECONDS.toMillis(10));
+        Assertions.assertFalse(runner.isAlive());
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(ReadinessState.REFUSING_TRAFFIC, availability.getState(ReadinessState.class));
+    }
+}
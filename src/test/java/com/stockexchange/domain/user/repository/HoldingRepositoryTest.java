@@ -0,0 +1,121 @@
+package com.stockexchange.domain.user.repository;
+
+import com.stockexchange.config.EmbeddedRedisConfig;
+import com.stockexchange.domain.user.entity.HoldingEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/* HoldingRepository 체결 정산 upsert SQL 테스트
+ * ON DUPLICATE KEY UPDATE 를 쓰므로 H2 를 MariaDB 호환 모드로 띄워 실제 문장을 실행합니다. */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:holding;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedRedisConfig.class)
+class HoldingRepositoryTest {
+
+    private static final long USER_ID = 900L;
+    private static final long STOCK_ID = 10L;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("보유가 없으면 새 보유로 저장, 같은 묶음의 매도분은 매수 단가로 뺌")
+    void upsertHolding_Insert() {
+//        When: 10주 @100 매수, 4주 매도
+        upsert(1L, 10, 1_000, 4);
+
+//        Then
+        HoldingEntity holding = holding();
+        Assertions.assertEquals(6, holding.getHoldingQuantity());
+        Assertions.assertEquals(600L, holding.getHoldingTotalPrice());
+    }
+
+    @Test
+    @DisplayName("매도만 있으면 기존 평균 매입 단가로 매입 금액에서 뺌")
+    void upsertHolding_SellOnly() {
+//        Given: 10주, 매입 금액 1000
+        upsert(1L, 10, 1_000, 0);
+
+//        When: 4주 매도
+        upsert(2L, 0, 0, 4);
+
+//        Then
+        HoldingEntity holding = holding();
+        Assertions.assertEquals(6, holding.getHoldingQuantity());
+        Assertions.assertEquals(600L, holding.getHoldingTotalPrice());
+    }
+
+    @Test
+    @DisplayName("수량 0 인 보유에서 같은 묶음에 사고 모두 팔면 매입 금액도 0")
+    void upsertHolding_BuyAndSellAllFromEmpty() {
+//        Given: 수량 0, 매입 금액 0 인 보유
+        upsert(1L, 0, 0, 0);
+
+//        When: 10주 @100 매수, 10주 매도
+        upsert(2L, 10, 1_000, 10);
+
+//        Then
+        HoldingEntity holding = holding();
+        Assertions.assertEquals(0, holding.getHoldingQuantity());
+        Assertions.assertEquals(0L, holding.getHoldingTotalPrice());
+    }
+
+    @Test
+    @DisplayName("기존 보유보다 많이 팔아도 매수분까지 더한 평균 단가로 빼 매입 금액이 남지 않음")
+    void upsertHolding_SellMoreThanHeldBeforeBatch() {
+//        Given: 5주, 매입 금액 500
+        upsert(1L, 5, 500, 0);
+
+//        When: 10주 @200 매수, 15주 매도
+        upsert(2L, 10, 2_000, 15);
+
+//        Then
+        HoldingEntity holding = holding();
+        Assertions.assertEquals(0, holding.getHoldingQuantity());
+        Assertions.assertEquals(0L, holding.getHoldingTotalPrice());
+    }
+
+    @Test
+    @DisplayName("일부만 팔면 매수분까지 더한 평균 단가로 남은 매입 금액 계산")
+    void upsertHolding_PartialSellAfterBuy() {
+//        Given: 5주, 매입 금액 500
+        upsert(1L, 5, 500, 0);
+
+//        When: 10주 @200 매수, 3주 매도 - 평균 단가 (500 + 2000) / 15
+        upsert(2L, 10, 2_000, 3);
+
+//        Then
+        HoldingEntity holding = holding();
+        Assertions.assertEquals(12, holding.getHoldingQuantity());
+        Assertions.assertEquals(2_000L, holding.getHoldingTotalPrice());
+    }
+
+    private void upsert(long holdingId, int buyCount, long buyAmount, int sellCount) {
+        holdingRepository.upsertHolding(holdingId, USER_ID, STOCK_ID, buyCount, BigDecimal.valueOf(buyAmount), sellCount, ZonedDateTime.now());
+        entityManager.clear();
+    }
+
+    private HoldingEntity holding() {
+        return holdingRepository.findAll().stream()
+                .filter(holding -> holding.getUserId() == USER_ID && holding.getStockId() == STOCK_ID)
+                .findFirst()
+                .orElseThrow();
+    }
+}